@@ -0,0 +1,47 @@
+package com.manelon.kafkastreams_common.processors;
+
+import java.time.Duration;
+
+/**
+ * Configuration of a {@link WindowedDedupProcessorSupplier}: two records with the same id are duplicates when their
+ * timestamps are at most size apart. The window is split in segments with a Bloom filter each, sized so a new id
+ * is read from the store with a probability of falsePositiveRate when there are expectedIds distinct ids in the
+ * window. More ids don't use more memory, they increase the false positives (and the reads of the store).
+ * @param size maximum time between a record and its duplicates
+ * @param segments number of segments of the window, a segment is dropped when it's older than the window
+ * @param expectedIds distinct ids in a window
+ * @param falsePositiveRate probability that the Bloom filters say that a new id may be in the window
+ */
+public record DedupWindow(Duration size, int segments, long expectedIds, double falsePositiveRate) {
+
+    public static final int DEFAULT_SEGMENTS = 4;
+    public static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+
+    public DedupWindow {
+        if (size.isNegative() || size.isZero())
+            throw new IllegalArgumentException("The size of the dedup window must be positive, it is " + size);
+        if (segments < 1 || segments > size.toMillis())
+            throw new IllegalArgumentException("The segments of the dedup window must be between 1 and its size in ms, they are "
+                    + segments);
+        if (expectedIds < 1)
+            throw new IllegalArgumentException("The expected ids of the dedup window must be positive, they are "
+                    + expectedIds);
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1))
+            throw new IllegalArgumentException("The false positive rate must be between 0 and 1, it is "
+                    + falsePositiveRate);
+    }
+
+    /**
+     * Window with 4 segments and a false positive rate of 1%
+     */
+    public static DedupWindow of(Duration size, long expectedIds) {
+        return new DedupWindow(size, DEFAULT_SEGMENTS, expectedIds, DEFAULT_FALSE_POSITIVE_RATE);
+    }
+
+    /**
+     * Time covered by every segment, the live segments cover the window and the part of the current one
+     */
+    public long segmentMs() {
+        return (size.toMillis() + segments - 1) / segments;
+    }
+}
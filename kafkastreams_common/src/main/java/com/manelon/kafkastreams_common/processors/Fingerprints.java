@@ -0,0 +1,139 @@
+package com.manelon.kafkastreams_common.processors;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericContainer;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DatumWriter;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificData;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * 64 bits hashes of the values, equal values have the same hash. Two different values have the same one with a
+ * probability of 2^-64 by pair: enough to compare a value with the previous one of the same key, not to identify it.
+ */
+public final class Fingerprints {
+
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long M = 0xc6a4a7935bd1e995L;
+    private static final int R = 47;
+    private static final long SEED = 0x9747b28cL;
+
+    // the encoders are reused by the threads, with the buffer of the last value
+    private static final ThreadLocal<AvroEncoder> AVRO = ThreadLocal.withInitial(AvroEncoder::new);
+
+    private Fingerprints() {
+    }
+
+    /**
+     * MurmurHash64A of the bytes
+     */
+    public static long hash64(byte[] bytes, int offset, int length) {
+        long h = SEED ^ (length * M);
+        int end = offset + (length & ~7);
+        for (int i = offset; i < end; i += 8) {
+            long k = (long) LONGS.get(bytes, i);
+            k *= M;
+            k ^= k >>> R;
+            k *= M;
+            h ^= k;
+            h *= M;
+        }
+        int tail = length & 7;
+        if (tail > 0) {
+            for (int i = tail - 1; i >= 0; i--)
+                h ^= (bytes[end + i] & 0xFFL) << (8 * i);
+            h *= M;
+        }
+        h ^= h >>> R;
+        h *= M;
+        h ^= h >>> R;
+        return h;
+    }
+
+    public static long hash64(byte[] bytes) {
+        return hash64(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Hash of the serialized values, the serializer is called with the topic
+     */
+    public static <V> ToLongFunction<V> of(Serializer<V> serializer, String topic) {
+        return value -> hash64(serializer.serialize(topic, value));
+    }
+
+    /**
+     * Hash of the avro binary encoding of the records (generic or specific), without the schema registry
+     */
+    public static <V extends GenericContainer> ToLongFunction<V> avro() {
+        return value -> AVRO.get().hash(value);
+    }
+
+    private static final class AvroEncoder {
+        // by identity, the hash code of a schema is not cached
+        private final Map<Schema, DatumWriter<Object>> writers = new IdentityHashMap<>();
+        private final Buffer buffer = new Buffer();
+        private BinaryEncoder encoder;
+
+        long hash(GenericContainer value) {
+            Schema schema = value.getSchema();
+            DatumWriter<Object> writer = writers.computeIfAbsent(schema,
+                    s -> SpecificData.getForSchema(s).createDatumWriter(s));
+            buffer.reset();
+            encoder = EncoderFactory.get().directBinaryEncoder(buffer, encoder);
+            try {
+                writer.write(value, encoder);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return hash64(buffer.bytes(), 0, buffer.size());
+        }
+    }
+
+    // a ByteArrayOutputStream without synchronization and without copying the bytes
+    private static final class Buffer extends OutputStream {
+        private byte[] bytes = new byte[256];
+        private int size;
+
+        @Override
+        public void write(int b) {
+            ensure(1);
+            bytes[size++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            ensure(len);
+            System.arraycopy(b, off, bytes, size, len);
+            size += len;
+        }
+
+        private void ensure(int length) {
+            if (size + length > bytes.length)
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + length));
+        }
+
+        void reset() {
+            size = 0;
+        }
+
+        byte[] bytes() {
+            return bytes;
+        }
+
+        int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.manelon.kafkastreams_common.processors;
+
+import java.util.Map;
+
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.metrics.Sensor;
+import org.apache.kafka.common.metrics.stats.Avg;
+import org.apache.kafka.common.metrics.stats.Max;
+import org.apache.kafka.streams.processor.api.ProcessingContext;
+
+/**
+ * Sensors of the custom processors, in the thread metrics of Kafka Streams and tagged with the thread, the
+ * task and the store of the processor. They must be removed when the processor is closed.
+ */
+public final class ProcessorSensors {
+
+    private ProcessorSensors() {
+    }
+
+    /**
+     * Sensor with the metrics &lt;name&gt;-avg and &lt;name&gt;-max
+     */
+    public static Sensor avgMax(ProcessingContext context, String group, String storeName, String name, String description) {
+        Map<String, String> tags = tags(context, storeName);
+        Sensor sensor = sensor(context, storeName, name);
+        sensor.add(new MetricName(name + "-avg", group, "The average " + description, tags), new Avg());
+        sensor.add(new MetricName(name + "-max", group, "The maximum " + description, tags), new Max());
+        return sensor;
+    }
+
+    /**
+     * Sensor with the metric &lt;name&gt;-ratio, the average of the recorded values: 1 when the event happens and 0
+     * when it doesn't
+     */
+    public static Sensor ratio(ProcessingContext context, String group, String storeName, String name, String description) {
+        Sensor sensor = sensor(context, storeName, name);
+        sensor.add(new MetricName(name + "-ratio", group, "The fraction of " + description, tags(context, storeName)),
+                new Avg());
+        return sensor;
+    }
+
+    private static Sensor sensor(ProcessingContext context, String storeName, String name) {
+        return context.metrics().addSensor("task." + context.taskId() + "." + storeName + "." + name,
+                Sensor.RecordingLevel.INFO);
+    }
+
+    private static Map<String, String> tags(ProcessingContext context, String storeName) {
+        return Map.of("thread-id", Thread.currentThread().getName(), "task-id", context.taskId().toString(),
+                "store-name", storeName);
+    }
+}
@@ -0,0 +1,147 @@
+package com.manelon.kafkastreams_common.processors;
+
+import java.util.Arrays;
+
+/**
+ * Bloom filters of the 64 bits hashes of the ids seen in a {@link DedupWindow}, one by segment of time. A hash is
+ * added to the segment of its timestamp, and the segments older than the window (by the stream time given to
+ * {@link #advance(long)}) are cleared and reused for the new ones, so the memory doesn't grow with the ids.
+ *
+ * {@link #mightContain(long, long)} never returns false for a hash added at most the size of the window before or
+ * after the timestamp, unless its segment expired. A check reads every live segment, so each one is sized for the
+ * false positive rate of the window divided by the segments. The k probes of a segment are derived from the hash by
+ * double hashing, and mapped to its bits by a multiplication instead of a division.
+ *
+ * It isn't thread safe, there is one by task.
+ */
+public final class SegmentedBloomFilter {
+
+    private static final long NO_SEGMENT = Long.MIN_VALUE;
+
+    private final long windowMs;
+    private final long segmentMs;
+    private final int probes;
+    // bits by segment, a multiple of 64
+    private final long size;
+    // ring of segments, the segment index i is in the slot i % slots
+    private final long[] indexes;
+    private final long[][] bits;
+    private long streamTime = Long.MIN_VALUE;
+
+    public SegmentedBloomFilter(DedupWindow window) {
+        this.windowMs = window.size().toMillis();
+        this.segmentMs = window.segmentMs();
+        int slots = window.segments() + 1;
+        long ids = Math.max(1, (window.expectedIds() + window.segments() - 1) / window.segments());
+        double optimalBits = -ids * Math.log(window.falsePositiveRate() / slots) / (Math.log(2) * Math.log(2));
+        this.size = Math.max(1, (long) Math.ceil(optimalBits / 64)) * 64;
+        if (size / 64 > Integer.MAX_VALUE - 8)
+            throw new IllegalArgumentException("The Bloom filter of " + ids + " ids by segment is too big");
+        this.probes = Math.max(1, (int) Math.round((double) size / ids * Math.log(2)));
+        this.indexes = new long[slots];
+        this.bits = new long[slots][];
+        Arrays.fill(indexes, NO_SEGMENT);
+    }
+
+    /**
+     * Moves the stream time, the segments that end before the window are dropped
+     */
+    public void advance(long streamTime) {
+        this.streamTime = Math.max(this.streamTime, streamTime);
+    }
+
+    public long streamTime() {
+        return streamTime;
+    }
+
+    /**
+     * @return whether the timestamp is older than the window, it can't be added or checked
+     */
+    public boolean expired(long timestamp) {
+        return streamTime != Long.MIN_VALUE && timestamp < streamTime - windowMs;
+    }
+
+    /**
+     * Adds the hash to the segment of the timestamp, a timestamp after the stream time moves it
+     */
+    public void put(long hash, long timestamp) {
+        advance(timestamp);
+        if (expired(timestamp))
+            return;
+        long index = Math.floorDiv(timestamp, segmentMs);
+        int slot = (int) Math.floorMod(index, (long) indexes.length);
+        if (indexes[slot] != index) {
+            // the segment of the slot is older than the window, or it is newer and this timestamp too old
+            if (indexes[slot] != NO_SEGMENT && indexes[slot] > index)
+                return;
+            if (bits[slot] == null)
+                bits[slot] = new long[(int) (size / 64)];
+            else
+                Arrays.fill(bits[slot], 0);
+            indexes[slot] = index;
+        }
+        long[] segment = bits[slot];
+        long h1 = hash;
+        long h2 = mix(hash);
+        for (int i = 0; i < probes; i++) {
+            long bit = bit(h1 + i * h2);
+            segment[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * @return false when the hash wasn't added to the segments from timestamp - window to timestamp + window, true
+     * when it was or with the false positive rate
+     */
+    public boolean mightContain(long hash, long timestamp) {
+        // the segments before the window of the stream time are expired
+        long from = streamTime == Long.MIN_VALUE ? timestamp : Math.max(timestamp, streamTime);
+        long first = Math.floorDiv(from - windowMs, segmentMs);
+        long last = Math.floorDiv(timestamp + windowMs, segmentMs);
+        long h2 = mix(hash);
+        for (int slot = 0; slot < indexes.length; slot++) {
+            long index = indexes[slot];
+            if (index != NO_SEGMENT && index >= first && index <= last && contains(bits[slot], hash, h2))
+                return true;
+        }
+        return false;
+    }
+
+    private boolean contains(long[] segment, long h1, long h2) {
+        for (int i = 0; i < probes; i++) {
+            long bit = bit(h1 + i * h2);
+            if ((segment[(int) (bit >>> 6)] & (1L << bit)) == 0)
+                return false;
+        }
+        return true;
+    }
+
+    // from 0 to size - 1: the high 64 bits of the 63 bits of the hash by 2 * size
+    private long bit(long hash) {
+        return Math.multiplyHigh(hash >>> 1, size << 1);
+    }
+
+    /**
+     * Probes of every segment
+     */
+    public int probes() {
+        return probes;
+    }
+
+    /**
+     * Bytes of the bits of the segments, when all of them are used
+     */
+    public long sizeInBytes() {
+        return indexes.length * (size / 8);
+    }
+
+    // second hash from the first one, odd so all the bits are probed (the finalizer of MurmurHash3)
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash | 1;
+    }
+}
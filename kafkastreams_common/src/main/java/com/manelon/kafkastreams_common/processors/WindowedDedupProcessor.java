@@ -0,0 +1,107 @@
+package com.manelon.kafkastreams_common.processors;
+
+import java.util.function.Function;
+
+import org.apache.kafka.common.metrics.Sensor;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.kstream.Windowed;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.WindowStore;
+import org.apache.kafka.streams.state.WindowStoreIterator;
+
+/**
+ * Processor of {@link WindowedDedupProcessorSupplier}, there is an instance by task.
+ *
+ * The ids are kept in the store with their timestamp as start of the window, and the value is the timestamp too.
+ * The stream time of the Bloom filters is the maximum timestamp of the records of the task, it's restored with them.
+ */
+final class WindowedDedupProcessor<K, V, I> implements Processor<K, V, K, V> {
+
+    static final String METRICS_GROUP = "stream-dedup-metrics";
+
+    private final String storeName;
+    private final DedupWindow window;
+    private final long windowMs;
+    private final Function<? super Record<K, V>, ? extends I> idExtractor;
+    private final Serializer<I> idSerializer;
+
+    private ProcessorContext<K, V> context;
+    private WindowStore<Bytes, Long> store;
+    private SegmentedBloomFilter filter;
+    private Sensor duplicates;
+    private Sensor bloomHits;
+    private Sensor falsePositives;
+
+    WindowedDedupProcessor(String storeName, DedupWindow window,
+            Function<? super Record<K, V>, ? extends I> idExtractor, Serializer<I> idSerializer) {
+        this.storeName = storeName;
+        this.window = window;
+        this.windowMs = window.size().toMillis();
+        this.idExtractor = idExtractor;
+        this.idSerializer = idSerializer;
+    }
+
+    @Override
+    public void init(ProcessorContext<K, V> context) {
+        this.context = context;
+        this.store = context.getStateStore(storeName);
+        this.filter = new SegmentedBloomFilter(window);
+        duplicates = ProcessorSensors.ratio(context, METRICS_GROUP, storeName, "duplicate",
+                "records dropped because their id was in the window");
+        bloomHits = ProcessorSensors.ratio(context, METRICS_GROUP, storeName, "bloom-hit",
+                "records with an id that may be in the Bloom filters, read from the store");
+        falsePositives = ProcessorSensors.ratio(context, METRICS_GROUP, storeName, "false-positive",
+                "ids read from the store that were not there");
+
+        try (KeyValueIterator<Windowed<Bytes>, Long> ids = store.all()) {
+            while (ids.hasNext()) {
+                KeyValue<Windowed<Bytes>, Long> id = ids.next();
+                filter.put(Fingerprints.hash64(id.key.key().get()), id.key.window().start());
+            }
+        }
+    }
+
+    @Override
+    public void process(Record<K, V> record) {
+        I id = idExtractor.apply(record);
+        long timestamp = record.timestamp();
+        if (id == null || filter.expired(timestamp)) {
+            duplicates.record(0);
+            context.forward(record);
+            return;
+        }
+        byte[] bytes = idSerializer.serialize(storeName, id);
+        long hash = Fingerprints.hash64(bytes);
+        Bytes key = Bytes.wrap(bytes);
+        boolean hit = filter.mightContain(hash, timestamp);
+        bloomHits.record(hit ? 1 : 0);
+        if (hit) {
+            boolean duplicate;
+            try (WindowStoreIterator<Long> seen = store.fetch(key, Math.max(0, timestamp - windowMs),
+                    timestamp + windowMs)) {
+                duplicate = seen.hasNext();
+            }
+            falsePositives.record(duplicate ? 0 : 1);
+            if (duplicate) {
+                duplicates.record(1);
+                return;
+            }
+        }
+        duplicates.record(0);
+        store.put(key, timestamp, timestamp);
+        filter.put(hash, timestamp);
+        context.forward(record);
+    }
+
+    @Override
+    public void close() {
+        context.metrics().removeSensor(duplicates);
+        context.metrics().removeSensor(bloomHits);
+        context.metrics().removeSensor(falsePositives);
+    }
+}
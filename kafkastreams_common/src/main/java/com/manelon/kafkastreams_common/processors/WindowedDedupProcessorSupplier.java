@@ -0,0 +1,95 @@
+package com.manelon.kafkastreams_common.processors;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorSupplier;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.StoreBuilder;
+import org.apache.kafka.streams.state.Stores;
+import org.apache.kafka.streams.state.WindowBytesStoreSupplier;
+
+/**
+ * Drops the records with the same id than a previous one at most the size of the {@link DedupWindow} before or
+ * after it (by the record timestamps). Every id is checked first in the {@link SegmentedBloomFilter} of the window,
+ * and only when it may be there it's confirmed in a window store: most new ids cost the hash and a few probes
+ * of every segment.
+ * <pre>
+ * events.process(new WindowedDedupProcessorSupplier&lt;&gt;("events-ids", DedupWindow.of(Duration.ofMinutes(10), 1_000_000),
+ *     event -&gt; event.value().getEventId(), Serdes.String().serializer()), Named.as("Dropping_replayed_events"));
+ * </pre>
+ *
+ * The ids are serialized with the serializer (with the name of the store as topic) and kept in a persistent
+ * (RocksDB) logged window store with the retention of the window and a segment. The Bloom filters are in memory,
+ * they are rebuilt from the store when the task is initialized. Records with a null id, and the ones older than
+ * the window of the stream time, are always forwarded.
+ *
+ * The keys are not changed, but it's a process and not a processValues: the stores of a processValues are not
+ * registered in the tasks in this version of Kafka Streams. As any process, the stream is marked for repartition.
+ *
+ * Sensors of the thread metrics (group stream-dedup-metrics, tagged with the task and the store name):
+ * duplicate-ratio (records dropped by records received), bloom-hit-ratio (ids read from the store by records
+ * received) and false-positive-ratio (ids read from the store that were not there by ids read).
+ * @param <K> type of the keys
+ * @param <V> type of the values
+ * @param <I> type of the ids
+ */
+public class WindowedDedupProcessorSupplier<K, V, I> implements ProcessorSupplier<K, V, K, V> {
+
+    private final WindowBytesStoreSupplier storeSupplier;
+    private final DedupWindow window;
+    private final Function<? super Record<K, V>, ? extends I> idExtractor;
+    private final Serializer<I> idSerializer;
+
+    /**
+     * @param idExtractor id of the records, from the key, the value, the timestamp or the headers. It's called by the
+     * stream threads at the same time
+     * @param idSerializer serializer of the ids, equal ids must have the same bytes
+     */
+    public WindowedDedupProcessorSupplier(String storeName, DedupWindow window,
+            Function<? super Record<K, V>, ? extends I> idExtractor, Serializer<I> idSerializer) {
+        this(Stores.persistentWindowStore(Objects.requireNonNull(storeName, "storeName can't be null"),
+                retention(window), window.size(), false), window, idExtractor, idSerializer);
+    }
+
+    /**
+     * @param storeSupplier store of the ids, instead of a persistent one. Its retention must be at least the size of
+     * the window and a segment
+     */
+    public WindowedDedupProcessorSupplier(WindowBytesStoreSupplier storeSupplier, DedupWindow window,
+            Function<? super Record<K, V>, ? extends I> idExtractor, Serializer<I> idSerializer) {
+        this.storeSupplier = Objects.requireNonNull(storeSupplier, "storeSupplier can't be null");
+        this.window = Objects.requireNonNull(window, "window can't be null");
+        this.idExtractor = Objects.requireNonNull(idExtractor, "idExtractor can't be null");
+        this.idSerializer = Objects.requireNonNull(idSerializer, "idSerializer can't be null");
+        if (storeSupplier.retentionPeriod() < retention(window).toMillis())
+            throw new IllegalArgumentException("The retention of the store " + storeSupplier.name() + " must be at least "
+                    + retention(window) + ", it is " + storeSupplier.retentionPeriod() + " ms");
+    }
+
+    /**
+     * Retention of the store of the ids: the window and the segment being filled
+     */
+    public static Duration retention(DedupWindow window) {
+        return window.size().plusMillis(window.segmentMs());
+    }
+
+    @Override
+    public Processor<K, V, K, V> get() {
+        return new WindowedDedupProcessor<>(storeSupplier.name(), window, idExtractor, idSerializer);
+    }
+
+    @Override
+    public Set<StoreBuilder<?>> stores() {
+        return Set.of(Stores.windowStoreBuilder(storeSupplier, Serdes.Bytes(), Serdes.Long()));
+    }
+
+    public String storeName() {
+        return storeSupplier.name();
+    }
+}
@@ -0,0 +1,333 @@
+package com.manelon.kafkastreams_common.serdes;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+import org.apache.kafka.streams.StreamsConfig;
+
+import io.confluent.kafka.schemaregistry.ParsedSchema;
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+
+/**
+ * Schemas resolved from the schema registry, saved in a memory mapped file so the next start doesn't need
+ * to call the registry before processing the first record. The serdes use it through a
+ * {@link PersistentSchemaRegistryClient}.
+ * The schemas are cached by id (deserializers) and by subject and schema (serializers). The schema registry ids
+ * are immutable, so the cached entries never expire.
+ *
+ * The ids are only valid in one registry, there is one file per schema registry url. A registry can be reset or
+ * re-created behind the same url, the file is checked against it before it's used, see {@link #validate(SchemaRegistryClient)}.
+ * The file is an append only log: a header (magic and end of the log) and one entry per schema
+ * (length, id, subject and schema json). It's loaded in memory when it's opened, the lookups don't read the file.
+ * One file must be used by only one process, the instances of the same application need different directories
+ * (the state directory of every instance). In the process the file is opened once and shared, it's closed with
+ * its last user.
+ *
+ * It's opened from the configuration of the serdes, with {@link #SCHEMA_CACHE_DIR_CONFIG} or the state.dir of Kafka Streams.
+ */
+public final class PersistentSchemaCache implements Closeable {
+
+    /**
+     * Directory of the cache file, when it's not configured the cache is in the state.dir
+     */
+    public static final String SCHEMA_CACHE_DIR_CONFIG = "schema.cache.dir";
+
+    private static final int MAGIC = 0x53434831;
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int INITIAL_SIZE = 1 << 16;
+    // guarded by itself, with the references of the caches
+    private static final Map<Path, PersistentSchemaCache> OPEN_CACHES = new HashMap<>();
+
+    private final Path file;
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private final Map<Integer, Schema> schemasById = new ConcurrentHashMap<>();
+    private final Map<SubjectSchema, Integer> idsBySubject = new ConcurrentHashMap<>();
+    // the entries checked against the registry, the oldest ones
+    private Entry firstById;
+    private Entry firstBySubject;
+    private volatile boolean validated;
+    private int references;
+
+    private PersistentSchemaCache() {
+        this.file = null;
+        this.channel = null;
+        this.validated = true;
+    }
+
+    private PersistentSchemaCache(Path file) throws IOException {
+        this.file = file;
+        Files.createDirectories(file.getParent());
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = Math.max(channel.size(), INITIAL_SIZE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        if (buffer.getInt(0) != MAGIC) {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(Integer.BYTES, HEADER_SIZE);
+        }
+        load();
+        // the schemas added from now on come from the registry of the client
+        this.validated = schemasById.isEmpty();
+    }
+
+    /**
+     * Cache only in memory, for serdes without directory
+     */
+    public static PersistentSchemaCache inMemory() {
+        return new PersistentSchemaCache();
+    }
+
+    /**
+     * @param directory directory of the cache file
+     * @param registryUrl url of the schema registry, the ids of other registries are in other files
+     * @return the cache of the directory and registry, opened only once per process. Every call must be followed
+     *         by a {@link #close()}
+     */
+    public static PersistentSchemaCache open(Path directory, String registryUrl) {
+        String fileName = "schema-cache-"
+                + Long.toHexString(SchemaNormalization.fingerprint64(registryUrl.getBytes(StandardCharsets.UTF_8))) + ".bin";
+        Path file = directory.toAbsolutePath().resolve(fileName);
+        synchronized (OPEN_CACHES) {
+            PersistentSchemaCache cache = OPEN_CACHES.get(file);
+            if (cache == null) {
+                try {
+                    cache = new PersistentSchemaCache(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Unable to open the schema cache " + file, e);
+                }
+                OPEN_CACHES.put(file, cache);
+            }
+            cache.references++;
+            return cache;
+        }
+    }
+
+    /**
+     * @param configs configuration of the serde
+     * @return the cache in {@link #SCHEMA_CACHE_DIR_CONFIG}, in the state.dir if it's not configured,
+     *         or a cache only in memory if none of them are configured
+     */
+    public static PersistentSchemaCache fromConfig(Map<String, ?> configs) {
+        Object directory = configs.get(SCHEMA_CACHE_DIR_CONFIG);
+        if (directory == null && configs.get(StreamsConfig.STATE_DIR_CONFIG) != null)
+            directory = Paths.get(configs.get(StreamsConfig.STATE_DIR_CONFIG).toString(), "schema-cache");
+        Object registryUrl = configs.get(AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG);
+        if (directory == null || registryUrl == null)
+            return inMemory();
+        return open(Paths.get(directory.toString()), registryUrl.toString());
+    }
+
+    /**
+     * Checks the file against the registry before the first lookup, once per file: the oldest schema cached by id
+     * and the oldest one cached by subject must have the same ids in the registry. A registry that was reset or
+     * re-created gives them other ids (or none), then all the cached entries are discarded, and the subjects are
+     * registered again. It costs one or two calls to the registry per start instead of one per schema.
+     * @param registry client of the registry of the cache, without cache
+     * @throws IOException when the registry is not available
+     */
+    public void validate(SchemaRegistryClient registry) throws IOException {
+        if (validated)
+            return;
+        synchronized (this) {
+            if (validated)
+                return;
+            if (!matches(registry))
+                clear();
+            validated = true;
+        }
+    }
+
+    private boolean matches(SchemaRegistryClient registry) throws IOException {
+        try {
+            if (firstById != null) {
+                ParsedSchema schema = registry.getSchemaById(firstById.id);
+                if (!(schema instanceof AvroSchema) || !((AvroSchema) schema).rawSchema().equals(firstById.schema))
+                    return false;
+            }
+            return firstBySubject == null
+                    || registry.getId(firstBySubject.subject, new AvroSchema(firstBySubject.schema)) == firstBySubject.id;
+        } catch (RestClientException e) {
+            // the id or the subject are not in the registry
+            return false;
+        }
+    }
+
+    private void clear() {
+        schemasById.clear();
+        idsBySubject.clear();
+        firstById = null;
+        firstBySubject = null;
+        if (channel != null)
+            buffer.putInt(Integer.BYTES, HEADER_SIZE);
+    }
+
+    /**
+     * @return the schema of the id, null if it's not cached
+     */
+    public Schema schema(int id) {
+        return schemasById.get(id);
+    }
+
+    /**
+     * @return the id of the schema in the subject, null if it's not cached
+     */
+    public Integer id(String subject, Schema schema) {
+        return idsBySubject.get(new SubjectSchema(subject, schema));
+    }
+
+    /**
+     * @return number of schemas cached by id
+     */
+    public int size() {
+        return schemasById.size();
+    }
+
+    /**
+     * Caches the schema of the id, and the id of the schema in the subject
+     * @param subject subject of the schema, null when the schema was read by id
+     */
+    public synchronized void put(int id, String subject, Schema schema) {
+        SubjectSchema key = subject == null || subject.isEmpty() ? null : new SubjectSchema(subject, schema);
+        if (schemasById.containsKey(id) && (key == null || idsBySubject.containsKey(key)))
+            return;
+        if (channel != null)
+            append(id, key == null ? "" : subject, schema);
+        added(id, key, schema);
+    }
+
+    private void added(int id, SubjectSchema key, Schema schema) {
+        schemasById.putIfAbsent(id, schema);
+        if (firstById == null)
+            firstById = new Entry(id, null, schema);
+        if (key != null) {
+            idsBySubject.put(key, id);
+            if (firstBySubject == null)
+                firstBySubject = new Entry(id, key.subject, schema);
+        }
+    }
+
+    private void append(int id, String subject, Schema schema) {
+        byte[] subjectBytes = subject.getBytes(StandardCharsets.UTF_8);
+        byte[] schemaBytes = schema.toString().getBytes(StandardCharsets.UTF_8);
+        int length = 3 * Integer.BYTES + subjectBytes.length + schemaBytes.length;
+        int end = buffer.getInt(Integer.BYTES);
+        try {
+            if (end + Integer.BYTES + length > buffer.capacity())
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(buffer.capacity() * 2L, end + Integer.BYTES + length));
+        } catch (IOException e) {
+            // the cache is an optimization, the schema is still cached in memory
+            return;
+        }
+        buffer.position(end);
+        buffer.putInt(length).putInt(id)
+                .putInt(subjectBytes.length).put(subjectBytes)
+                .putInt(schemaBytes.length).put(schemaBytes);
+        // the entry is visible only when it's complete
+        buffer.putInt(Integer.BYTES, buffer.position());
+    }
+
+    // a broken entry (the process died while it was written, before the end was updated) ends the log
+    private void load() {
+        int end = buffer.getInt(Integer.BYTES);
+        if (end < HEADER_SIZE || end > buffer.capacity())
+            end = HEADER_SIZE;
+        int position = HEADER_SIZE;
+        try {
+            while (position + Integer.BYTES <= end) {
+                int length = buffer.getInt(position);
+                if (length <= 0 || position + Integer.BYTES + length > end)
+                    break;
+                int entryEnd = position + Integer.BYTES + length;
+                int id = buffer.getInt(position + Integer.BYTES);
+                String subject = readString(position + 2 * Integer.BYTES, entryEnd);
+                int schemaPosition = position + 3 * Integer.BYTES + subject.getBytes(StandardCharsets.UTF_8).length;
+                Schema schema = new Schema.Parser().parse(readString(schemaPosition, entryEnd));
+                added(id, subject.isEmpty() ? null : new SubjectSchema(subject, schema), schema);
+                position += Integer.BYTES + length;
+            }
+        } catch (RuntimeException e) {
+            // the rest of the log is discarded, the schemas will be read from the registry again
+        }
+        buffer.putInt(Integer.BYTES, position);
+    }
+
+    // the length is checked before the array is allocated, a corrupted file could ask for any size
+    private String readString(int position, int entryEnd) {
+        if (position + Integer.BYTES > entryEnd)
+            throw new IllegalStateException("Invalid schema cache entry at " + position);
+        int length = buffer.getInt(position);
+        if (length < 0 || length > entryEnd - position - Integer.BYTES)
+            throw new IllegalStateException("Invalid length " + length + " of the schema cache entry at " + position);
+        byte[] bytes = new byte[length];
+        buffer.get(position + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Releases the cache, the last user writes the file and closes it, the next {@link #open(Path, String)} reads it again
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel == null)
+            return;
+        synchronized (OPEN_CACHES) {
+            if (references == 0 || --references > 0)
+                return;
+            OPEN_CACHES.remove(file, this);
+        }
+        synchronized (this) {
+            buffer.force();
+            channel.close();
+        }
+    }
+
+    private static final class Entry {
+        private final int id;
+        private final String subject;
+        private final Schema schema;
+
+        Entry(int id, String subject, Schema schema) {
+            this.id = id;
+            this.subject = subject;
+            this.schema = schema;
+        }
+    }
+
+    private static final class SubjectSchema {
+        private final String subject;
+        // the full schema, with the logical types, the registry gives different ids to schemas that only differ in them
+        private final long fingerprint;
+
+        SubjectSchema(String subject, Schema schema) {
+            this.subject = subject;
+            this.fingerprint = SchemaNormalization.fingerprint64(schema.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof SubjectSchema && ((SubjectSchema) other).fingerprint == fingerprint
+                    && ((SubjectSchema) other).subject.equals(subject);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(fingerprint) * 31 + subject.hashCode();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.manelon.kafkastreams_common.serdes;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.avro.Schema;
+
+import io.confluent.kafka.schemaregistry.ParsedSchema;
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.avro.AvroSchemaProvider;
+import io.confluent.kafka.schemaregistry.client.CachedSchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.testutil.MockSchemaRegistry;
+import io.confluent.kafka.serializers.KafkaAvroSerializerConfig;
+
+/**
+ * Schema registry client that reads the avro schemas and their ids from a {@link PersistentSchemaCache} before calling
+ * the registry, and saves the ones it resolves. Every serde built with it is covered, the SpecificAvroSerde too:
+ * <pre>
+ * SchemaRegistryClient client = PersistentSchemaRegistryClient.fromConfig(streamsProperties);
+ * Serde&lt;User&gt; userSerde = new SpecificAvroSerde&lt;&gt;(client);
+ * </pre>
+ * The ids are cached by subject and schema and the schemas by id, like the CachedSchemaRegistryClient does.
+ * It's a proxy of the client interface, the rest of the methods (and the schemas that are not avro) go to the
+ * client without changes, whatever the version of the interface is.
+ * The cache is checked against the registry before its first lookup, and released when the client is closed.
+ */
+public final class PersistentSchemaRegistryClient implements InvocationHandler {
+
+    private final SchemaRegistryClient client;
+    private final PersistentSchemaCache cache;
+    private final Map<String, Map<ParsedSchema, Integer>> idsBySubject = new ConcurrentHashMap<>();
+    private final Map<Integer, ParsedSchema> schemasById = new ConcurrentHashMap<>();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private PersistentSchemaRegistryClient(SchemaRegistryClient client, PersistentSchemaCache cache) {
+        this.client = client;
+        this.cache = cache;
+    }
+
+    /**
+     * @param client client of the schema registry, called when the schemas are not in the cache
+     * @param cache cache of the registry of the client, it's closed with the client
+     */
+    public static SchemaRegistryClient wrap(SchemaRegistryClient client, PersistentSchemaCache cache) {
+        return (SchemaRegistryClient) Proxy.newProxyInstance(SchemaRegistryClient.class.getClassLoader(),
+                new Class<?>[] { SchemaRegistryClient.class }, new PersistentSchemaRegistryClient(client, cache));
+    }
+
+    /**
+     * @param configs configuration of the serdes
+     * @return a CachedSchemaRegistryClient (the mock registry with mock:// urls) with the cache of
+     *         {@link PersistentSchemaCache#fromConfig(Map)}
+     */
+    public static SchemaRegistryClient fromConfig(Map<String, ?> configs) {
+        KafkaAvroSerializerConfig config = new KafkaAvroSerializerConfig(configs);
+        List<String> urls = config.getSchemaRegistryUrls();
+        String mockScope = MockSchemaRegistry.validateAndMaybeGetMockScope(urls);
+        SchemaRegistryClient client = mockScope != null
+                ? MockSchemaRegistry.getClientForScope(mockScope)
+                : new CachedSchemaRegistryClient(urls, config.getMaxSchemasPerSubject(),
+                        List.of(new AvroSchemaProvider()), configs);
+        return wrap(client, PersistentSchemaCache.fromConfig(configs));
+    }
+
+    /**
+     * Closes the cache of a client of this class, for the serdes that create their client. The other clients are not
+     * changed, they can be shared with other serdes
+     */
+    public static void close(SchemaRegistryClient client) {
+        if (client != null && Proxy.isProxyClass(client.getClass())
+                && Proxy.getInvocationHandler(client) instanceof PersistentSchemaRegistryClient) {
+            try {
+                ((PersistentSchemaRegistryClient) Proxy.getInvocationHandler(client)).closeCache();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to close the schema cache", e);
+            }
+        }
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        int arguments = args == null ? 0 : args.length;
+        switch (method.getName()) {
+            case "register":
+            case "getId":
+                // with or without the normalize flag
+                if ((arguments == 2 || arguments == 3 && args[2] instanceof Boolean)
+                        && args[0] instanceof String && args[1] instanceof AvroSchema)
+                    return id(method, args);
+                break;
+            case "getSchemaById":
+                if (arguments == 1 && args[0] instanceof Integer)
+                    return schema((Integer) args[0], method, args);
+                break;
+            case "getSchemaBySubjectAndId":
+                if (arguments == 2 && args[1] instanceof Integer)
+                    return schema((Integer) args[1], method, args);
+                break;
+            case "equals":
+                if (arguments == 1)
+                    return proxy == args[0];
+                break;
+            case "hashCode":
+                if (arguments == 0)
+                    return System.identityHashCode(proxy);
+                break;
+            case "close":
+                // the versions of the interface that are closeable
+                if (arguments == 0)
+                    closeCache();
+                break;
+            default:
+                break;
+        }
+        return call(method, args);
+    }
+
+    private int id(Method method, Object[] args) throws Throwable {
+        String subject = (String) args[0];
+        AvroSchema schema = (AvroSchema) args[1];
+        Map<ParsedSchema, Integer> ids = idsBySubject.computeIfAbsent(subject, s -> new ConcurrentHashMap<>());
+        Integer id = ids.get(schema);
+        if (id == null) {
+            cache.validate(client);
+            id = cache.id(subject, schema.rawSchema());
+            if (id == null) {
+                id = (Integer) call(method, args);
+                cache.put(id, subject, schema.rawSchema());
+            }
+            ids.put(schema, id);
+        }
+        return id;
+    }
+
+    private ParsedSchema schema(int id, Method method, Object[] args) throws Throwable {
+        ParsedSchema schema = schemasById.get(id);
+        if (schema == null) {
+            cache.validate(client);
+            Schema cached = cache.schema(id);
+            if (cached != null) {
+                schema = new AvroSchema(cached);
+            } else {
+                schema = (ParsedSchema) call(method, args);
+                if (schema instanceof AvroSchema)
+                    cache.put(id, null, ((AvroSchema) schema).rawSchema());
+            }
+            // the same instance for every record, the serdes cache their readers by schema
+            ParsedSchema previous = schemasById.putIfAbsent(id, schema);
+            if (previous != null)
+                schema = previous;
+        }
+        return schema;
+    }
+
+    private void closeCache() throws IOException {
+        if (closed.compareAndSet(false, true))
+            cache.close();
+    }
+
+    private Object call(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(client, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.manelon.kafkastreams_common.utils.avro;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Type;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericEnumSymbol;
+
+/**
+ * Creates GenericRecords of one schema, a replacement of the GenericRecordBuilder for the processors that
+ * emit a record per input record.
+ * The GenericRecordBuilder looks up every field by name, validates every value and parses and deep copies the
+ * default of every field that is not set, on every record. The factory does that work once when it's built:
+ * the defaults are parsed and validated, and every record starts as a copy of them (only the mutable defaults,
+ * like bytes or arrays, are copied again). The fields are set by position.
+ *
+ * <pre>
+ * private static final RecordFactory USER_ENRICHED = RecordFactory.of(UserEnriched.SCHEMA$);
+ * private static final int FULL_NAME = USER_ENRICHED.position("FullName");
+ * ...
+ * GenericData.Record enriched = USER_ENRICHED.builder()
+ *     .set(FULL_NAME, fullName)
+ *     ...
+ *     .build();
+ * </pre>
+ *
+ * The values are not validated, a wrong value fails when the record is serialized. The debug mode validates
+ * every value against the schema of the field and checks that the fields without default have been set,
+ * it's enabled with the assertions of the JVM (-ea) or the system property {@value #VALIDATE_PROPERTY}.
+ *
+ * A processor that emits and forgets its records (the record is serialized before the next one is created,
+ * there is no state store, cache or repartition in between) can recycle one record instead of creating a new one,
+ * see {@link #recycle(GenericData.Record)}.
+ *
+ * The factories are cached by schema, they are immutable and can be shared between stream threads. The schemas cache
+ * their hash code and are compared by identity first, equal schemas (with the same logical types) parsed many times
+ * share the factory.
+ */
+public final class RecordFactory {
+
+    public static final String VALIDATE_PROPERTY = "record.factory.validate";
+    private static final boolean VALIDATE = Boolean.getBoolean(VALIDATE_PROPERTY)
+            || RecordFactory.class.desiredAssertionStatus();
+    private static final Map<Schema, RecordFactory> CACHE = new ConcurrentHashMap<>();
+    private static final Object NO_DEFAULT = new Object();
+
+    private final Schema schema;
+    private final Schema[] fieldSchemas;
+    private final Object[] defaults;
+    private final boolean[] copyDefault;
+    private final boolean validate;
+
+    private RecordFactory(Schema schema, boolean validate) {
+        if (!Type.RECORD.equals(schema.getType()))
+            throw new IllegalArgumentException("Schema " + schema.getFullName() + " is not a record");
+        this.schema = schema;
+        this.validate = validate;
+        int size = schema.getFields().size();
+        this.fieldSchemas = new Schema[size];
+        this.defaults = new Object[size];
+        this.copyDefault = new boolean[size];
+        GenericData data = GenericData.get();
+        for (Schema.Field field : schema.getFields()) {
+            int pos = field.pos();
+            fieldSchemas[pos] = field.schema();
+            if (!field.hasDefaultValue()) {
+                defaults[pos] = NO_DEFAULT;
+                continue;
+            }
+            Object defaultValue;
+            try {
+                defaultValue = data.getDefaultValue(field);
+            } catch (AvroRuntimeException e) {
+                throw new IllegalArgumentException("Field name " + field.name() + " in " + schema.getFullName()
+                        + " has an invalid default value", e);
+            }
+            if (!data.validate(field.schema(), defaultValue))
+                throw new IllegalArgumentException("Field name " + field.name() + " in " + schema.getFullName()
+                        + " has a default value that doesn't match its type");
+            defaults[pos] = defaultValue;
+            copyDefault[pos] = !immutable(defaultValue);
+        }
+    }
+
+    /**
+     * Returns the factory of a schema
+     * @param schema record schema
+     * @return factory, built only the first time
+     */
+    public static RecordFactory of(Schema schema) {
+        return CACHE.computeIfAbsent(schema, key -> new RecordFactory(key, VALIDATE));
+    }
+
+    // values that can be shared by all the records, the rest are copied for every record
+    private static boolean immutable(Object value) {
+        return value == null || value instanceof String || value instanceof Number || value instanceof Boolean
+                || value instanceof GenericEnumSymbol;
+    }
+
+    /**
+     * @param fieldName name of the field
+     * @return position of the field, to be resolved once and kept in a constant
+     */
+    public int position(String fieldName) {
+        Schema.Field field = schema.getField(fieldName);
+        if (field == null)
+            throw new IllegalArgumentException("Field name " + fieldName + " in " + schema.getFullName() + " doesn't exists");
+        return field.pos();
+    }
+
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * @return true if the values are validated (debug mode)
+     */
+    public boolean isValidating() {
+        return validate;
+    }
+
+    /**
+     * @return builder of a new record with the default values
+     */
+    public Builder builder() {
+        return new Builder(new GenericData.Record(schema));
+    }
+
+    /**
+     * Reuses a record created by this factory, its fields are reset to the default values.
+     * The previous content of the record is lost: it must not be referenced anymore, the processor must have
+     * forwarded it to a sink that has serialized it
+     * @param record record to reuse
+     * @return builder of the record
+     */
+    public Builder recycle(GenericData.Record record) {
+        if (record.getSchema() != schema && !record.getSchema().equals(schema))
+            throw new IllegalArgumentException("Record " + record.getSchema().getFullName()
+                    + " has not the schema of the factory " + schema.getFullName());
+        return new Builder(record);
+    }
+
+    /**
+     * Sets the fields of one record, the fields that are not set keep their default value
+     */
+    public final class Builder {
+        private final GenericData.Record record;
+        private final boolean[] set;
+
+        private Builder(GenericData.Record record) {
+            this.record = record;
+            this.set = validate ? new boolean[defaults.length] : null;
+            for (int pos = 0; pos < defaults.length; pos++) {
+                Object defaultValue = defaults[pos];
+                if (defaultValue == NO_DEFAULT)
+                    record.put(pos, null);
+                else
+                    record.put(pos, copyDefault[pos] ? GenericData.get().deepCopy(fieldSchemas[pos], defaultValue) : defaultValue);
+            }
+        }
+
+        /**
+         * @param position position of the field, see {@link RecordFactory#position(String)}
+         * @param value avro value of the field (logical types as their raw value)
+         * @return this builder
+         */
+        public Builder set(int position, Object value) {
+            if (validate) {
+                if (!GenericData.get().validate(fieldSchemas[position], value))
+                    throw new IllegalArgumentException("Field name " + schema.getFields().get(position).name() + " in "
+                            + schema.getFullName() + " doesn't accept the value " + value);
+                set[position] = true;
+            }
+            record.put(position, value);
+            return this;
+        }
+
+        /**
+         * @return the record. In debug mode it fails if a field without default value has not been set
+         */
+        public GenericData.Record build() {
+            if (validate) {
+                for (int pos = 0; pos < defaults.length; pos++) {
+                    if (defaults[pos] == NO_DEFAULT && !set[pos])
+                        throw new IllegalArgumentException("Field name " + schema.getFields().get(pos).name() + " in "
+                                + schema.getFullName() + " has not been set and has no default value");
+                }
+            }
+            return record;
+        }
+    }
+}
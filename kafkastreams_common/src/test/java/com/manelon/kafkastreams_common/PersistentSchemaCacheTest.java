@@ -0,0 +1,94 @@
+package com.manelon.kafkastreams_common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.manelon.kafkastreams_common.serdes.PersistentSchemaCache;
+import com.manelon.kafkastreams_common.serdes.PersistentSchemaRegistryClient;
+
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+
+public class PersistentSchemaCacheTest {
+    private static final String SCHEMA_REGISTRY_URL = "http://registry:8081";
+    private static final Schema USER = SchemaBuilder.record("User").fields()
+            .requiredInt("Id").requiredString("FirstName").endRecord();
+    private static final Schema SHIP = SchemaBuilder.record("Ship").fields()
+            .requiredString("Name").endRecord();
+
+    @Test
+    void should_close_the_file_with_its_last_user(@TempDir Path directory) throws IOException {
+        PersistentSchemaCache first = PersistentSchemaCache.open(directory, SCHEMA_REGISTRY_URL);
+        PersistentSchemaCache second = PersistentSchemaCache.open(directory, SCHEMA_REGISTRY_URL);
+        assertSame(first, second);
+
+        first.close();
+        second.put(1, "users-value", USER);
+        second.close();
+
+        PersistentSchemaCache reopened = PersistentSchemaCache.open(directory, SCHEMA_REGISTRY_URL);
+        assertNotSame(first, reopened);
+        assertEquals(USER, reopened.schema(1));
+        reopened.close();
+    }
+
+    @Test
+    void should_close_the_cache_once_with_the_client(@TempDir Path directory) throws IOException {
+        PersistentSchemaCache cache = PersistentSchemaCache.open(directory, SCHEMA_REGISTRY_URL);
+        SchemaRegistryClient client = PersistentSchemaRegistryClient.wrap(new MockSchemaRegistryClient(),
+                PersistentSchemaCache.open(directory, SCHEMA_REGISTRY_URL));
+
+        PersistentSchemaRegistryClient.close(client);
+        PersistentSchemaRegistryClient.close(client);
+        // the first user still has its reference
+        assertSame(cache, PersistentSchemaCache.open(directory, SCHEMA_REGISTRY_URL));
+        cache.close();
+        cache.close();
+    }
+
+    @Test
+    void should_discard_the_cache_of_a_reset_registry(@TempDir Path directory) throws IOException, RestClientException {
+        SchemaRegistryClient client = PersistentSchemaRegistryClient.wrap(new MockSchemaRegistryClient(),
+                PersistentSchemaCache.open(directory, SCHEMA_REGISTRY_URL));
+        assertEquals(1, client.register("users-value", new AvroSchema(USER)));
+        PersistentSchemaRegistryClient.close(client);
+
+        // same url, the registry was re-created and the id 1 is another schema
+        MockSchemaRegistryClient recreated = new MockSchemaRegistryClient();
+        recreated.register("ships-value", new AvroSchema(SHIP));
+        SchemaRegistryClient restarted = PersistentSchemaRegistryClient.wrap(recreated,
+                PersistentSchemaCache.open(directory, SCHEMA_REGISTRY_URL));
+        assertEquals(2, restarted.register("users-value", new AvroSchema(USER)));
+        assertTrue(recreated.getAllSubjects().contains("users-value"));
+        assertEquals(new AvroSchema(SHIP), restarted.getSchemaById(1));
+        PersistentSchemaRegistryClient.close(restarted);
+    }
+
+    @Test
+    void should_register_the_cached_subjects_in_an_empty_registry(@TempDir Path directory)
+            throws IOException, RestClientException {
+        SchemaRegistryClient client = PersistentSchemaRegistryClient.wrap(new MockSchemaRegistryClient(),
+                PersistentSchemaCache.open(directory, SCHEMA_REGISTRY_URL));
+        client.register("users-value", new AvroSchema(USER));
+        PersistentSchemaRegistryClient.close(client);
+
+        MockSchemaRegistryClient reset = new MockSchemaRegistryClient();
+        SchemaRegistryClient restarted = PersistentSchemaRegistryClient.wrap(reset,
+                PersistentSchemaCache.open(directory, SCHEMA_REGISTRY_URL));
+        assertEquals(1, restarted.register("users-value", new AvroSchema(USER)));
+        assertTrue(reset.getAllSubjects().contains("users-value"));
+        PersistentSchemaRegistryClient.close(restarted);
+    }
+}
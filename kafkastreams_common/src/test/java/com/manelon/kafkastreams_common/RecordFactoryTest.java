@@ -0,0 +1,87 @@
+package com.manelon.kafkastreams_common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.List;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.generic.GenericRecordBuilder;
+import org.junit.jupiter.api.Test;
+
+import com.manelon.kafkastreams_common.utils.avro.RecordFactory;
+
+public class RecordFactoryTest {
+
+    private static final Schema CREW_MEMBER = new Schema.Parser().parse("{\"type\":\"record\",\"name\":\"CrewMember\","
+            + "\"namespace\":\"com.manelon.model.starfleet\",\"fields\":["
+            + "{\"name\":\"Name\",\"type\":\"string\"},"
+            + "{\"name\":\"Rank\",\"type\":\"string\",\"default\":\"Ensign\"},"
+            + "{\"name\":\"Station\",\"type\":[\"null\",\"string\"],\"default\":null},"
+            + "{\"name\":\"Missions\",\"type\":{\"type\":\"array\",\"items\":\"string\"},\"default\":[\"Academy\"]}]}");
+    private static final Schema STARSHIP = new Schema.Parser().parse("{\"type\":\"record\",\"name\":\"Starship\","
+            + "\"namespace\":\"com.manelon.model.starfleet\",\"fields\":[{\"name\":\"Name\",\"type\":\"string\"}]}");
+
+    @Test
+    void should_create_the_same_record_than_the_generic_record_builder() {
+        RecordFactory factory = RecordFactory.of(CREW_MEMBER);
+        GenericRecord expected = new GenericRecordBuilder(CREW_MEMBER).set("Name", "Hikaru Sulu").build();
+
+        GenericRecord record = factory.builder().set(factory.position("Name"), "Hikaru Sulu").build();
+
+        assertEquals(expected, record);
+        assertSame(factory, RecordFactory.of(new Schema.Parser().parse(CREW_MEMBER.toString())));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void should_copy_the_mutable_defaults() {
+        RecordFactory factory = RecordFactory.of(CREW_MEMBER);
+        int name = factory.position("Name");
+        int missions = factory.position("Missions");
+
+        GenericRecord first = factory.builder().set(name, "Pavel Chekov").build();
+        GenericRecord second = factory.builder().set(name, "Montgomery Scott").build();
+        ((List<Object>) first.get(missions)).add("Khan");
+
+        assertNotSame(first.get(missions), second.get(missions));
+        assertEquals(1, ((List<Object>) second.get(missions)).size());
+    }
+
+    @Test
+    void should_reset_a_recycled_record() {
+        RecordFactory factory = RecordFactory.of(CREW_MEMBER);
+        int name = factory.position("Name");
+        int rank = factory.position("Rank");
+
+        GenericData.Record record = factory.builder().set(name, "Nyota Uhura").set(rank, "Lieutenant").build();
+        GenericData.Record recycled = factory.recycle(record).set(name, "Janice Rand").build();
+
+        assertSame(record, recycled);
+        assertEquals("Janice Rand", recycled.get(name));
+        assertEquals("Ensign", recycled.get(rank).toString());
+        assertThrows(IllegalArgumentException.class, () -> factory.recycle(new GenericData.Record(STARSHIP)));
+    }
+
+    @Test
+    void should_check_the_fields_and_the_defaults_when_it_is_built() {
+        assertThrows(IllegalArgumentException.class, () -> RecordFactory.of(CREW_MEMBER).position("Ship"));
+        Schema invalidDefault = new Schema.Parser().setValidateDefaults(false).parse("{\"type\":\"record\","
+                + "\"name\":\"Starship\",\"fields\":[{\"name\":\"Id\",\"type\":\"int\",\"default\":\"NCC-1701\"}]}");
+        assertThrows(IllegalArgumentException.class, () -> RecordFactory.of(invalidDefault));
+    }
+
+    @Test
+    void should_validate_the_values_in_debug_mode() {
+        RecordFactory factory = RecordFactory.of(CREW_MEMBER);
+        assumeTrue(factory.isValidating(), "debug mode needs -ea or -D" + RecordFactory.VALIDATE_PROPERTY);
+
+        assertThrows(IllegalArgumentException.class, () -> factory.builder().set(factory.position("Name"), 1701));
+        assertThrows(IllegalArgumentException.class, () -> factory.builder().set(factory.position("Rank"), "Ensign").build());
+    }
+}
@@ -0,0 +1,187 @@
+package com.manelon.kafkastreams_common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.Function;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.Produced;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.Stores;
+import org.apache.kafka.streams.test.TestRecord;
+import org.junit.jupiter.api.Test;
+
+import com.manelon.kafkastreams_common.processors.DedupWindow;
+import com.manelon.kafkastreams_common.processors.Fingerprints;
+import com.manelon.kafkastreams_common.processors.SegmentedBloomFilter;
+import com.manelon.kafkastreams_common.processors.WindowedDedupProcessorSupplier;
+
+/**
+ * Unit test of {@link WindowedDedupProcessorSupplier} and of its {@link SegmentedBloomFilter}
+ */
+public class WindowedDedupTest {
+    private static final String INPUT_TOPIC = "events";
+    private static final String OUTPUT_TOPIC = "processed_events";
+    private static final String IDS = "events-ids";
+    private static final DedupWindow WINDOW = DedupWindow.of(Duration.ofMinutes(10), 1000);
+    private static final Instant START = Instant.parse("2023-01-01T00:00:00Z");
+
+    /**
+     * Topology that drops the events (the values are their ids) received again in 10 minutes
+     */
+    private static StreamsBuilder events() {
+        return events(event -> event.value());
+    }
+
+    private static StreamsBuilder events(Function<Record<String, String>, String> idExtractor) {
+        StreamsBuilder builder = new StreamsBuilder();
+        builder.stream(INPUT_TOPIC, Consumed.with(Serdes.String(), Serdes.String()))
+                .process(new WindowedDedupProcessorSupplier<>(IDS, WINDOW, idExtractor, Serdes.String().serializer()))
+                .to(OUTPUT_TOPIC, Produced.with(Serdes.String(), Serdes.String()));
+        return builder;
+    }
+
+    @Test
+    void should_drop_the_events_received_again_in_the_window() {
+        try (TopologyTestDriver testDriver = new TopologyTestDriver(events().build(), new Properties())) {
+            TestInputTopic<String, String> inputTopic = testDriver.createInputTopic(INPUT_TOPIC,
+                    Serdes.String().serializer(), Serdes.String().serializer());
+            TestOutputTopic<String, String> outputTopic = testDriver.createOutputTopic(OUTPUT_TOPIC,
+                    Serdes.String().deserializer(), Serdes.String().deserializer());
+            inputTopic.pipeInput("enterprise", "warp", START);
+            inputTopic.pipeInput("enterprise", "impulse", START.plusSeconds(60));
+            inputTopic.pipeInput("voyager", "warp", START.plusSeconds(120));
+            // out of order, but in the window of the first one
+            inputTopic.pipeInput("defiant", "impulse", START.plusSeconds(30));
+            inputTopic.pipeInput("enterprise", "warp", START.plusSeconds(601));
+
+            assertEquals(List.of("warp", "impulse", "warp"), outputTopic.readValuesToList());
+            assertEquals(0.4, metric(testDriver, "duplicate-ratio"));
+            assertEquals(0.6, metric(testDriver, "bloom-hit-ratio"));
+            assertEquals(1.0 / 3, metric(testDriver, "false-positive-ratio"), 1e-9);
+        }
+    }
+
+    @Test
+    void should_forward_the_events_older_than_the_window_and_without_id() {
+        try (TopologyTestDriver testDriver = new TopologyTestDriver(events().build(), new Properties())) {
+            TestInputTopic<String, String> inputTopic = testDriver.createInputTopic(INPUT_TOPIC,
+                    Serdes.String().serializer(), Serdes.String().serializer());
+            TestOutputTopic<String, String> outputTopic = testDriver.createOutputTopic(OUTPUT_TOPIC,
+                    Serdes.String().deserializer(), Serdes.String().deserializer());
+            inputTopic.pipeInput("enterprise", "warp", START.plusSeconds(3600));
+            inputTopic.pipeInput("enterprise", "warp", START);
+            inputTopic.pipeInput("enterprise", "warp", START);
+            inputTopic.pipeInput("enterprise", (String) null, START.plusSeconds(3600));
+            inputTopic.pipeInput("enterprise", (String) null, START.plusSeconds(3600));
+
+            assertEquals(5, outputTopic.readValuesToList().size());
+        }
+    }
+
+    @Test
+    void should_take_the_ids_from_the_headers_of_the_records() {
+        StreamsBuilder builder = events(event -> {
+            Header id = event.headers().lastHeader("event-id");
+            return id == null ? null : new String(id.value(), StandardCharsets.UTF_8);
+        });
+        try (TopologyTestDriver testDriver = new TopologyTestDriver(builder.build(), new Properties())) {
+            TestInputTopic<String, String> inputTopic = testDriver.createInputTopic(INPUT_TOPIC,
+                    Serdes.String().serializer(), Serdes.String().serializer());
+            TestOutputTopic<String, String> outputTopic = testDriver.createOutputTopic(OUTPUT_TOPIC,
+                    Serdes.String().deserializer(), Serdes.String().deserializer());
+            inputTopic.pipeInput(event("1", "warp", START));
+            // same content, another event
+            inputTopic.pipeInput(event("2", "warp", START.plusSeconds(60)));
+            // replayed with another content
+            inputTopic.pipeInput(event("1", "impulse", START.plusSeconds(120)));
+
+            assertEquals(List.of("warp", "warp"), outputTopic.readValuesToList());
+        }
+    }
+
+    @Test
+    void should_find_the_ids_of_the_window_and_forget_the_expired_ones() {
+        SegmentedBloomFilter filter = new SegmentedBloomFilter(DedupWindow.of(Duration.ofMillis(1000), 1000));
+        for (long id = 0; id < 1000; id++)
+            filter.put(hash(id), id);
+
+        for (long id = 0; id < 1000; id++)
+            assertTrue(filter.mightContain(hash(id), 999));
+        int falsePositives = 0;
+        for (long id = 1000; id < 11_000; id++) {
+            if (filter.mightContain(hash(id), 999))
+                falsePositives++;
+        }
+        // 1% by segment, there are 5 of them
+        assertTrue(falsePositives < 10_000 * 0.05, falsePositives + " false positives");
+
+        filter.advance(2500);
+        assertTrue(filter.expired(1499));
+        for (long id = 0; id < 1000; id++)
+            assertFalse(filter.mightContain(hash(id), 2500));
+    }
+
+    @Test
+    void should_clear_the_segments_older_than_the_window() {
+        SegmentedBloomFilter filter = new SegmentedBloomFilter(new DedupWindow(Duration.ofMillis(100), 2, 100, 0.01));
+        filter.put(hash(1), 0);
+        filter.put(hash(2), 60);
+
+        assertTrue(filter.mightContain(hash(1), 100));
+        assertTrue(filter.mightContain(hash(2), 100));
+
+        filter.put(hash(3), 150);
+        assertFalse(filter.mightContain(hash(1), 150));
+        assertTrue(filter.mightContain(hash(2), 150));
+
+        filter.put(hash(4), 200);
+        assertFalse(filter.mightContain(hash(2), 200));
+        assertTrue(filter.mightContain(hash(3), 200));
+    }
+
+    @Test
+    void should_not_accept_a_window_without_ids() {
+        assertThrows(IllegalArgumentException.class, () -> DedupWindow.of(Duration.ofMinutes(1), 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new DedupWindow(Duration.ofMinutes(1), 4, 100, 1));
+    }
+
+    @Test
+    void should_not_accept_a_store_with_a_shorter_retention() {
+        assertThrows(IllegalArgumentException.class, () -> new WindowedDedupProcessorSupplier<String, String, String>(
+                Stores.inMemoryWindowStore(IDS, WINDOW.size(), WINDOW.size(), false), WINDOW,
+                event -> event.value(), Serdes.String().serializer()));
+    }
+
+    private static TestRecord<String, String> event(String id, String value, Instant timestamp) {
+        return new TestRecord<>("enterprise", value,
+                new RecordHeaders().add("event-id", id.getBytes(StandardCharsets.UTF_8)), timestamp);
+    }
+
+    private static double metric(TopologyTestDriver testDriver, String name) {
+        return testDriver.metrics().entrySet().stream()
+                .filter(metric -> metric.getKey().name().equals(name))
+                .map(metric -> (double) metric.getValue().metricValue())
+                .findFirst().orElseThrow();
+    }
+
+    private static long hash(long id) {
+        return Fingerprints.hash64(Serdes.Long().serializer().serialize(IDS, id));
+    }
+}
@@ -0,0 +1,125 @@
+package com.manelon.kafkastreams_simple.benchmarks;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.manelon.kafkastreams_simple.utils.avro.simple.BatchConverter;
+import com.manelon.kafkastreams_simple.utils.avro.simple.DecimalConverter;
+import com.manelon.kafkastreams_simple.utils.avro.simple.InstantConverter;
+import com.manelon.kafkastreams_simple.utils.avro.simple.LocalDateConverter;
+
+/**
+ * Scalar (one value per call) vs batch conversions for different array sizes
+ */
+@State(Scope.Thread)
+public class BatchConverters {
+    public static void main(String[] args) throws RunnerException, IOException {
+
+        Options opt = new OptionsBuilder()
+                .include(BatchConverters.class.getSimpleName())
+                .warmupIterations(3)
+                .forks(1)
+                .mode(Mode.AverageTime)
+                .timeUnit(TimeUnit.MICROSECONDS)
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    @Param({ "16", "1024", "65536", "1048576" })
+    private int size;
+
+    private Instant[] instants;
+    private long[] micros;
+    private int[] epochDays;
+    private LocalDate[] dates;
+    private long[] unscaled;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(17);
+        instants = new Instant[size];
+        micros = new long[size];
+        epochDays = new int[size];
+        dates = new LocalDate[size];
+        unscaled = new long[size];
+        for (int i = 0; i < size; i++) {
+            // between 1900 and 2100
+            instants[i] = Instant.ofEpochSecond(random.nextLong(200L * 365 * 86_400) - 70L * 365 * 86_400, random.nextInt(1_000_000_000));
+            epochDays[i] = random.nextInt(200 * 365) - 70 * 365;
+            unscaled[i] = random.nextInt(100_000_000) - 50_000_000;
+        }
+    }
+
+    @Benchmark
+    public long[] InstantToMicrosScalar() {
+        for (int i = 0; i < size; i++) {
+            micros[i] = InstantConverter.toAvroMicros(instants[i]);
+        }
+        return micros;
+    }
+
+    @Benchmark
+    public long[] InstantToMicrosBatch() {
+        BatchConverter.toAvroMicros(instants, micros);
+        return micros;
+    }
+
+    @Benchmark
+    public long[] InstantToMicrosParallel() {
+        BatchConverter.inParallel(size, (from, to) -> BatchConverter.toAvroMicros(instants, micros, from, to));
+        return micros;
+    }
+
+    @Benchmark
+    public LocalDate[] EpochDayToLocalDateScalar() {
+        for (int i = 0; i < size; i++) {
+            dates[i] = LocalDateConverter.fromAvro(epochDays[i]);
+        }
+        return dates;
+    }
+
+    @Benchmark
+    public LocalDate[] EpochDayToLocalDateBatch() {
+        BatchConverter.fromAvro(epochDays, dates);
+        return dates;
+    }
+
+    @Benchmark
+    public LocalDate[] EpochDayToLocalDateParallel() {
+        BatchConverter.inParallel(size, (from, to) -> BatchConverter.fromAvro(epochDays, dates, from, to));
+        return dates;
+    }
+
+    @Benchmark
+    public ByteBuffer[] DecimalScalar() {
+        ByteBuffer[] decimals = new ByteBuffer[size];
+        for (int i = 0; i < size; i++) {
+            decimals[i] = DecimalConverter.toAvro(BigDecimal.valueOf(unscaled[i], 2));
+        }
+        return decimals;
+    }
+
+    @Benchmark
+    public ByteBuffer[] DecimalBatch() {
+        return BatchConverter.toAvroDecimals(unscaled);
+    }
+}
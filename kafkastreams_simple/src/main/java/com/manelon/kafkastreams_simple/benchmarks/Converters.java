@@ -1,16 +1,32 @@
 package com.manelon.kafkastreams_simple.benchmarks;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.avro.Conversions;
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.avro.data.TimeConversions;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
 import org.apache.avro.generic.GenericRecord;
 import org.apache.avro.generic.GenericRecordBuilder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.util.Utf8;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.profile.GCProfiler;
 import org.openjdk.jmh.profile.StackProfiler;
 import org.openjdk.jmh.runner.Runner;
@@ -19,15 +35,62 @@ import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 import com.manelon.kafkastreams_simple.utils.avro.AvroDateConverter;
 import com.manelon.kafkastreams_simple.utils.avro.AvroDecimalConverter;
+import com.manelon.kafkastreams_simple.utils.avro.AvroFieldHandle;
 import com.manelon.kafkastreams_simple.utils.avro.AvroInstantConverter;
+import com.manelon.kafkastreams_simple.utils.avro.AvroLocalDateTimeConverter;
+import com.manelon.kafkastreams_simple.utils.avro.DirectDatumWriter;
+import com.manelon.kafkastreams_common.utils.avro.RecordFactory;
 import com.manelon.kafkastreams_simple.utils.avro.AvroTimeConverter;
 import com.manelon.kafkastreams_simple.utils.avro.simple.DecimalConverter;
 import com.manelon.kafkastreams_simple.utils.avro.simple.InstantConverter;
 import com.manelon.kafkastreams_simple.utils.avro.simple.LocalDateConverter;
+import com.manelon.kafkastreams_simple.utils.avro.simple.LocalDateTimeConverter;
 import com.manelon.kafkastreams_simple.utils.avro.simple.LocalTimeConverter;
+import com.manelon.kafkastreams_simple.utils.avro.simple.UuidConverter;
 import com.manelon.model.Vulcan;
 
+@State(Scope.Thread)
 public class Converters {
+    private static final int NAME = Vulcan.SCHEMA$.getField("Name").pos();
+    private static final int INTELIGENCE = Vulcan.SCHEMA$.getField("Inteligence").pos();
+    private static final AvroFieldHandle<BigDecimal> BANK_BALANCE = AvroFieldHandle.decimal(Vulcan.SCHEMA$, "BankBalance");
+    private static final AvroFieldHandle<LocalDate> DATE_OF_BIRTH = AvroFieldHandle.localDate(Vulcan.SCHEMA$, "DateOfBirth");
+    private static final AvroFieldHandle<LocalTime> TIME_OF_BIRTH_MILLIS = AvroFieldHandle.localTime(Vulcan.SCHEMA$, "TimeOfBirthMiliseconds");
+    private static final AvroFieldHandle<LocalTime> TIME_OF_BIRTH_MICROS = AvroFieldHandle.localTime(Vulcan.SCHEMA$, "TimeOfBirthMicroseconds");
+    private static final AvroFieldHandle<Instant> BIRTH_TIMESTAMP_MILLIS = AvroFieldHandle.instant(Vulcan.SCHEMA$, "BirthTimestamMiliseconds");
+    private static final AvroFieldHandle<Instant> BIRTH_TIMESTAMP_MICROS = AvroFieldHandle.instant(Vulcan.SCHEMA$, "BirthTimestampMicroseconds");
+    private static final Schema UUID_SCHEMA = LogicalTypes.uuid().addToSchema(Schema.create(Schema.Type.STRING));
+    private static final Schema LOG_ENTRY = new Schema.Parser().parse("{\"type\":\"record\",\"name\":\"LogEntry\","
+            + "\"fields\":[{\"name\":\"Stardate\",\"type\":{\"type\":\"long\",\"logicalType\":\"local-timestamp-micros\"}}]}");
+    private static final Conversions.UUIDConversion UUID_CONVERSION = new Conversions.UUIDConversion();
+    private static final TimeConversions.LocalTimestampMicrosConversion LOCAL_TIMESTAMP_MICROS_CONVERSION = new TimeConversions.LocalTimestampMicrosConversion();
+    private static final RecordFactory VULCAN = RecordFactory.of(Vulcan.SCHEMA$);
+    private static final int BANK_BALANCE_POS = VULCAN.position("BankBalance");
+    private static final int DATE_OF_BIRTH_POS = VULCAN.position("DateOfBirth");
+    private static final int TIME_OF_BIRTH_MILLIS_POS = VULCAN.position("TimeOfBirthMiliseconds");
+    private static final int TIME_OF_BIRTH_MICROS_POS = VULCAN.position("TimeOfBirthMicroseconds");
+    private static final int BIRTH_TIMESTAMP_MILLIS_POS = VULCAN.position("BirthTimestamMiliseconds");
+    private static final int BIRTH_TIMESTAMP_MICROS_POS = VULCAN.position("BirthTimestampMicroseconds");
+
+    // the serialized variants write to the same reused stream and encoder
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream(128);
+    private final BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(output, null);
+    private final GenericDatumWriter<GenericRecord> genericWriter = new GenericDatumWriter<>(Vulcan.SCHEMA$);
+    private final DirectDatumWriter directWriter = DirectDatumWriter.of(Vulcan.SCHEMA$);
+    // the inputs are built once, the benchmarks only measure the conversions and the record
+    private final LocalDateTime birthday = LocalDateTime.of(1967, 11, 17, 0, 59);
+    private final Instant birthdayTS = birthday.toInstant(ZoneId.systemDefault().getRules().getOffset(birthday));
+    private final BigDecimal bankBalance = BigDecimal.valueOf(17.01);
+    private final long bankBalanceUnscaled = 1701;
+    // the recycled record is serialized before the next invocation, like a processor that emits and forgets
+    private final GenericData.Record recycledVulcan = new GenericData.Record(Vulcan.SCHEMA$);
+    private final LocalDateTime stardate = LocalDateTime.of(2266, 9, 8, 20, 30, 1, 123_456_000);
+    private final UUID registry = UUID.fromString("1701a000-e89b-12d3-a456-426614174000");
+    private final String registryString = registry.toString();
+    // the strings of a GenericRecord read by avro
+    private final Utf8 registryUtf8 = new Utf8(registryString);
+    private final byte[] registryFixed = new byte[UuidConverter.FIXED_SIZE];
+
     public static void main (String[] args ) throws RunnerException, IOException{
 
         
@@ -49,12 +112,8 @@ public class Converters {
 
 
     @Benchmark
-    public void AvroWithVerboseConverter() {
+    public GenericRecord AvroWithVerboseConverter() {
 
-        LocalDateTime birthday = LocalDateTime.of(1967, 11, 17, 0, 59);
-		Instant birthdayTS = birthday.toInstant(ZoneId.systemDefault().getRules().getOffset(birthday));
-        BigDecimal bankBalance = BigDecimal.valueOf(17.01);
-        
         GenericRecord vulcan = new GenericRecordBuilder(Vulcan.SCHEMA$)
                 .set("Name", "Spock")
                 .set("Inteligence", 10)
@@ -65,15 +124,12 @@ public class Converters {
                 .set("BirthTimestamMiliseconds", AvroInstantConverter.InstantToAvro(Vulcan.SCHEMA$, "BirthTimestamMiliseconds", birthdayTS))
                 .set("BirthTimestampMicroseconds", AvroInstantConverter.InstantToAvro(Vulcan.SCHEMA$, "BirthTimestampMicroseconds", birthdayTS))
                 .build();
+        return vulcan;
     }
 
-        @Benchmark
-    public void AvroWithSimpleConverter() {
+    @Benchmark
+    public GenericRecord AvroWithSimpleConverter() {
 
-        LocalDateTime birthday = LocalDateTime.of(1967, 11, 17, 0, 59);
-		Instant birthdayTS = birthday.toInstant(ZoneId.systemDefault().getRules().getOffset(birthday));
-        BigDecimal bankBalance = BigDecimal.valueOf(17.01);
-        
         GenericRecord vulcan = new GenericRecordBuilder(Vulcan.SCHEMA$)
                 .set("Name", "Spock")
                 .set("Inteligence", 10)
@@ -82,10 +138,159 @@ public class Converters {
                 .set("TimeOfBirthMiliseconds", LocalTimeConverter.toAvroMillis(birthday.toLocalTime()))
                 .set("TimeOfBirthMicroseconds", LocalTimeConverter.toAvroMicros(birthday.toLocalTime()))
                 .set("BirthTimestamMiliseconds", InstantConverter.toAvroMillis(birthdayTS))
-                .set("BirthTimestampMicroseconds", InstantConverter.toAvroMillis(birthdayTS))
+                .set("BirthTimestampMicroseconds", InstantConverter.toAvroMicros(birthdayTS))
                 .build();
+        return vulcan;
+    }
+
+    @Benchmark
+    public GenericRecord AvroWithFieldHandles() {
+
+        GenericRecord vulcan = new GenericData.Record(Vulcan.SCHEMA$);
+        vulcan.put(NAME, "Spock");
+        vulcan.put(INTELIGENCE, 10);
+        BANK_BALANCE.set(vulcan, bankBalance);
+        DATE_OF_BIRTH.set(vulcan, birthday.toLocalDate());
+        TIME_OF_BIRTH_MILLIS.set(vulcan, birthday.toLocalTime());
+        TIME_OF_BIRTH_MICROS.set(vulcan, birthday.toLocalTime());
+        BIRTH_TIMESTAMP_MILLIS.set(vulcan, birthdayTS);
+        BIRTH_TIMESTAMP_MICROS.set(vulcan, birthdayTS);
+        return vulcan;
+    }
+
+    /**
+     * The simple converters plus the serialization of the record, the baseline of the direct writer
+     */
+    @Benchmark
+    public int AvroWithSimpleConverterSerialized() throws IOException {
+
+        GenericRecord vulcan = new GenericRecordBuilder(Vulcan.SCHEMA$)
+                .set("Name", "Spock")
+                .set("Inteligence", 10)
+                .set("BankBalance", DecimalConverter.toAvro(bankBalance))
+                .set("DateOfBirth", LocalDateConverter.toAvro(birthday.toLocalDate()))
+                .set("TimeOfBirthMiliseconds", LocalTimeConverter.toAvroMillis(birthday.toLocalTime()))
+                .set("TimeOfBirthMicroseconds", LocalTimeConverter.toAvroMicros(birthday.toLocalTime()))
+                .set("BirthTimestamMiliseconds", InstantConverter.toAvroMillis(birthdayTS))
+                .set("BirthTimestampMicroseconds", InstantConverter.toAvroMicros(birthdayTS))
+                .build();
+        output.reset();
+        genericWriter.write(vulcan, encoder);
+        return output.size();
+    }
+
+    /**
+     * The simple converters with the record factory instead of the GenericRecordBuilder
+     */
+    @Benchmark
+    public GenericRecord AvroWithRecordFactory() {
+
+        return VULCAN.builder()
+                .set(NAME, "Spock")
+                .set(INTELIGENCE, 10)
+                .set(BANK_BALANCE_POS, DecimalConverter.toAvro(bankBalance))
+                .set(DATE_OF_BIRTH_POS, LocalDateConverter.toAvro(birthday.toLocalDate()))
+                .set(TIME_OF_BIRTH_MILLIS_POS, LocalTimeConverter.toAvroMillis(birthday.toLocalTime()))
+                .set(TIME_OF_BIRTH_MICROS_POS, LocalTimeConverter.toAvroMicros(birthday.toLocalTime()))
+                .set(BIRTH_TIMESTAMP_MILLIS_POS, InstantConverter.toAvroMillis(birthdayTS))
+                .set(BIRTH_TIMESTAMP_MICROS_POS, InstantConverter.toAvroMicros(birthdayTS))
+                .build();
+    }
+
+    /**
+     * Same than AvroWithSimpleConverterSerialized with a recycled record of the factory
+     */
+    @Benchmark
+    public int AvroWithRecycledRecordSerialized() throws IOException {
+
+        GenericRecord vulcan = VULCAN.recycle(recycledVulcan)
+                .set(NAME, "Spock")
+                .set(INTELIGENCE, 10)
+                .set(BANK_BALANCE_POS, DecimalConverter.toAvro(bankBalance))
+                .set(DATE_OF_BIRTH_POS, LocalDateConverter.toAvro(birthday.toLocalDate()))
+                .set(TIME_OF_BIRTH_MILLIS_POS, LocalTimeConverter.toAvroMillis(birthday.toLocalTime()))
+                .set(TIME_OF_BIRTH_MICROS_POS, LocalTimeConverter.toAvroMicros(birthday.toLocalTime()))
+                .set(BIRTH_TIMESTAMP_MILLIS_POS, InstantConverter.toAvroMillis(birthdayTS))
+                .set(BIRTH_TIMESTAMP_MICROS_POS, InstantConverter.toAvroMicros(birthdayTS))
+                .build();
+        output.reset();
+        genericWriter.write(vulcan, encoder);
+        return output.size();
+    }
+
+    /**
+     * Same record written to the encoder from the primitive values, no record nor boxes
+     */
+    @Benchmark
+    public int AvroWithDirectWriter() throws IOException {
+
+        output.reset();
+        directWriter.start(encoder)
+                .writeString("Name", "Spock")
+                .writeInt("Inteligence", 10)
+                .writeDecimal("BankBalance", bankBalanceUnscaled)
+                .writeDate("DateOfBirth", (int) birthday.toLocalDate().toEpochDay())
+                .writeTimeMillis("TimeOfBirthMiliseconds", (int) (birthday.toLocalTime().toNanoOfDay() / 1_000_000))
+                .writeTimeMicros("TimeOfBirthMicroseconds", birthday.toLocalTime().toNanoOfDay() / 1_000)
+                .writeTimestampMillis("BirthTimestamMiliseconds", birthdayTS.toEpochMilli())
+                .writeTimestampMicros("BirthTimestampMicroseconds", ChronoUnit.MICROS.between(Instant.EPOCH, birthdayTS))
+                .end();
+        return output.size();
+    }
+
+    @Benchmark
+    public LocalDateTime LocalDateTimeWithVerboseConverter() {
+        long micros = AvroLocalDateTimeConverter.LocalDateTimeToAvro(LOG_ENTRY, "Stardate", stardate);
+        return LOCAL_TIMESTAMP_MICROS_CONVERSION.fromLong(micros, LOG_ENTRY.getField("Stardate").schema(),
+                LogicalTypes.localTimestampMicros());
+    }
+
+    @Benchmark
+    public LocalDateTime LocalDateTimeWithSimpleConverter() {
+        return LocalDateTimeConverter.fromAvroMicros(LocalDateTimeConverter.toAvroMicros(stardate));
+    }
+
+    @Benchmark
+    public CharSequence UuidToStringWithAvroConversion() {
+        return UUID_CONVERSION.toCharSequence(registry, UUID_SCHEMA, UUID_SCHEMA.getLogicalType());
+    }
+
+    @Benchmark
+    public String UuidToStringWithSimpleConverter() {
+        return UuidConverter.toAvro(registry);
+    }
+
+    @Benchmark
+    public CharSequence UuidToUtf8WithSimpleConverter() {
+        return UuidConverter.toAvroUtf8(registry.getMostSignificantBits(), registry.getLeastSignificantBits());
+    }
+
+    @Benchmark
+    public UUID UuidFromStringWithAvroConversion() {
+        return UUID_CONVERSION.fromCharSequence(registryString, UUID_SCHEMA, UUID_SCHEMA.getLogicalType());
+    }
+
+    @Benchmark
+    public UUID UuidFromStringWithSimpleConverter() {
+        return UuidConverter.fromAvro(registryString);
+    }
+
+    @Benchmark
+    public UUID UuidFromUtf8WithAvroConversion() {
+        return UUID_CONVERSION.fromCharSequence(registryUtf8, UUID_SCHEMA, UUID_SCHEMA.getLogicalType());
+    }
+
+    @Benchmark
+    public UUID UuidFromUtf8WithSimpleConverter() {
+        return UuidConverter.fromAvro(registryUtf8);
+    }
+
+    /**
+     * The uuid as a fixed written and read as two longs, no UUID nor string
+     */
+    @Benchmark
+    public long UuidFixedRoundTrip() {
+        UuidConverter.toAvroFixed(registry.getMostSignificantBits(), registry.getLeastSignificantBits(), registryFixed);
+        return UuidConverter.mostSignificantBits(registryFixed) ^ UuidConverter.leastSignificantBits(registryFixed);
     }
-    
-    
-    
 }
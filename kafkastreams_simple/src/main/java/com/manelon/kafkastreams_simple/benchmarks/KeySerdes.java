@@ -0,0 +1,88 @@
+package com.manelon.kafkastreams_simple.benchmarks;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.common.serialization.Serde;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.manelon.kafkastreams_simple.serdes.FixedWidthKeySerde;
+import com.manelon.model.UserId;
+
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
+
+/**
+ * Serialization and deserialization of UserId keys with the SpecificAvroSerde and the FixedWidthKeySerde
+ */
+@State(Scope.Thread)
+public class KeySerdes {
+    public static void main(String[] args) throws RunnerException, IOException {
+
+        Options opt = new OptionsBuilder()
+                .include(KeySerdes.class.getSimpleName())
+                .warmupIterations(3)
+                .forks(1)
+                .mode(Mode.AverageTime)
+                .timeUnit(TimeUnit.NANOSECONDS)
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    private static final String TOPIC = "users";
+
+    private final UserId key = new UserId(1_234_567);
+    private Serde<UserId> specificSerde;
+    private Serde<UserId> fixedWidthSerde;
+    private Serde<UserId> compatibleSerde;
+    private byte[] specificKey;
+    private byte[] fixedWidthKey;
+
+    @Setup
+    public void setup() {
+        specificSerde = new SpecificAvroSerde<>();
+        specificSerde.configure(Map.of(AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG,
+                "mock://" + KeySerdes.class.getName()), true);
+        fixedWidthSerde = FixedWidthKeySerde.forRecord(UserId.class);
+        compatibleSerde = FixedWidthKeySerde.forRecord(UserId.class).withRegistryCompatibility();
+        specificKey = specificSerde.serializer().serialize(TOPIC, key);
+        fixedWidthKey = fixedWidthSerde.serializer().serialize(TOPIC, key);
+    }
+
+    @Benchmark
+    public byte[] SerializeSpecific() {
+        return specificSerde.serializer().serialize(TOPIC, key);
+    }
+
+    @Benchmark
+    public byte[] SerializeFixedWidth() {
+        return fixedWidthSerde.serializer().serialize(TOPIC, key);
+    }
+
+    @Benchmark
+    public UserId DeserializeSpecific() {
+        return specificSerde.deserializer().deserialize(TOPIC, specificKey);
+    }
+
+    @Benchmark
+    public UserId DeserializeFixedWidth() {
+        return fixedWidthSerde.deserializer().deserialize(TOPIC, fixedWidthKey);
+    }
+
+    @Benchmark
+    public UserId DeserializeRegistryFormatInCompatibilityMode() {
+        return compatibleSerde.deserializer().deserialize(TOPIC, specificKey);
+    }
+}
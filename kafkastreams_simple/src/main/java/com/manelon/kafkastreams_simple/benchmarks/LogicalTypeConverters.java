@@ -0,0 +1,555 @@
+package com.manelon.kafkastreams_simple.benchmarks;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericFixed;
+import org.apache.avro.util.Utf8;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.manelon.kafkastreams_simple.utils.avro.AvroDateConverter;
+import com.manelon.kafkastreams_simple.utils.avro.AvroDecimalConverter;
+import com.manelon.kafkastreams_simple.utils.avro.AvroInstantConverter;
+import com.manelon.kafkastreams_simple.utils.avro.AvroLocalDateTimeConverter;
+import com.manelon.kafkastreams_simple.utils.avro.AvroTimeConverter;
+import com.manelon.kafkastreams_simple.utils.avro.simple.DecimalConverter;
+import com.manelon.kafkastreams_simple.utils.avro.simple.InstantConverter;
+import com.manelon.kafkastreams_simple.utils.avro.simple.LocalDateConverter;
+import com.manelon.kafkastreams_simple.utils.avro.simple.LocalDateTimeConverter;
+import com.manelon.kafkastreams_simple.utils.avro.simple.LocalTimeConverter;
+import com.manelon.kafkastreams_simple.utils.avro.simple.LongDecimalConverter;
+import com.manelon.kafkastreams_simple.utils.avro.simple.UuidConverter;
+
+/**
+ * Every scalar converter of utils.avro and utils.avro.simple, to and from avro
+ * (the array conversions are measured in {@link BatchConverters}).
+ *
+ * The inputs are built in the states before the measurement, every benchmark only converts and hands the
+ * result to the Blackhole. The states are parameterized by what changes the cost of a conversion:
+ * <ul>
+ * <li>field: plain field or nullable union, the record converters walk the union to find the logical type</li>
+ * <li>epoch: values before or after 1970, the negative values take other branches in the micros conversions</li>
+ * <li>precision: decimals of 4, 9, 18 and 38 digits (scale 2), more than 18 digits don't fit in a long</li>
+ * </ul>
+ *
+ * The results are written as JSON to target/jmh/LogicalTypeConverters.json, or to the file of the
+ * system property jmh.result, to compare the runs of different releases.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LogicalTypeConverters {
+
+    public static void main(String[] args) throws RunnerException, IOException {
+
+        Path result = Path.of(System.getProperty("jmh.result", "target/jmh/LogicalTypeConverters.json"));
+        if (result.getParent() != null)
+            Files.createDirectories(result.getParent());
+
+        Options opt = new OptionsBuilder()
+                .include(LogicalTypeConverters.class.getSimpleName())
+                .warmupIterations(3)
+                .measurementIterations(5)
+                .forks(1)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result.toString())
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    private static Schema field(Schema schema, boolean nullable) {
+        return nullable ? Schema.createUnion(Schema.create(Schema.Type.NULL), schema) : schema;
+    }
+
+    /**
+     * A record with every date and time logical type, and the values to convert
+     */
+    @State(Scope.Thread)
+    public static class Temporal {
+        @Param({ "plain", "nullable" })
+        public String field;
+
+        @Param({ "before", "after" })
+        public String epoch;
+
+        public Schema schema;
+        public GenericData.Record record;
+        public LocalDateTime dateTime;
+        public LocalDate date;
+        public LocalTime time;
+        public Instant instant;
+        public int epochDay;
+        public int millisOfDay;
+        public long microsOfDay;
+        public long epochMillis;
+        public long epochMicros;
+        public long localMillis;
+        public long localMicros;
+
+        @Setup
+        public void setup() {
+            boolean nullable = "nullable".equals(field);
+            List<Schema.Field> fields = new ArrayList<>();
+            fields.add(new Schema.Field("Date", field(LogicalTypes.date().addToSchema(Schema.create(Schema.Type.INT)), nullable)));
+            fields.add(new Schema.Field("TimeMillis", field(LogicalTypes.timeMillis().addToSchema(Schema.create(Schema.Type.INT)), nullable)));
+            fields.add(new Schema.Field("TimeMicros", field(LogicalTypes.timeMicros().addToSchema(Schema.create(Schema.Type.LONG)), nullable)));
+            fields.add(new Schema.Field("TimestampMillis", field(LogicalTypes.timestampMillis().addToSchema(Schema.create(Schema.Type.LONG)), nullable)));
+            fields.add(new Schema.Field("TimestampMicros", field(LogicalTypes.timestampMicros().addToSchema(Schema.create(Schema.Type.LONG)), nullable)));
+            fields.add(new Schema.Field("LocalTimestampMillis", field(LogicalTypes.localTimestampMillis().addToSchema(Schema.create(Schema.Type.LONG)), nullable)));
+            fields.add(new Schema.Field("LocalTimestampMicros", field(LogicalTypes.localTimestampMicros().addToSchema(Schema.create(Schema.Type.LONG)), nullable)));
+            schema = Schema.createRecord("Temporal", null, "com.manelon.benchmarks", false, fields);
+
+            dateTime = "before".equals(epoch)
+                    ? LocalDateTime.of(1967, 11, 17, 0, 59, 30, 123_456_000)
+                    : LocalDateTime.of(2266, 9, 8, 20, 30, 1, 123_456_000);
+            date = dateTime.toLocalDate();
+            time = dateTime.toLocalTime();
+            instant = dateTime.toInstant(ZoneOffset.UTC);
+            epochDay = LocalDateConverter.toAvro(date);
+            millisOfDay = LocalTimeConverter.toAvroMillis(time);
+            microsOfDay = LocalTimeConverter.toAvroMicros(time);
+            epochMillis = InstantConverter.toAvroMillis(instant);
+            epochMicros = InstantConverter.toAvroMicros(instant);
+            localMillis = LocalDateTimeConverter.toAvroMillis(dateTime);
+            localMicros = LocalDateTimeConverter.toAvroMicros(dateTime);
+
+            record = new GenericData.Record(schema);
+            record.put("Date", epochDay);
+            record.put("TimeMillis", millisOfDay);
+            record.put("TimeMicros", microsOfDay);
+            record.put("TimestampMillis", epochMillis);
+            record.put("TimestampMicros", epochMicros);
+            record.put("LocalTimestampMillis", localMillis);
+            record.put("LocalTimestampMicros", localMicros);
+        }
+    }
+
+    /**
+     * A record with a decimal of the given precision and scale 2
+     */
+    @State(Scope.Thread)
+    public static class Decimal {
+        @Param({ "plain", "nullable" })
+        public String field;
+
+        @Param({ "4", "9", "18", "38" })
+        public int precision;
+
+        public static final int SCALE = 2;
+
+        public Schema schema;
+        public Schema decimalSchema;
+        public GenericData.Record record;
+        public BigDecimal value;
+        public BigDecimal unscaledValue;
+        public ByteBuffer avroValue;
+
+        @Setup
+        public void setup() {
+            decimalSchema = LogicalTypes.decimal(precision, SCALE).addToSchema(Schema.create(Schema.Type.BYTES));
+            schema = Schema.createRecord("Decimal", null, "com.manelon.benchmarks", false,
+                    List.of(new Schema.Field("Decimal", field(decimalSchema, "nullable".equals(field)))));
+            // the biggest negative value of the precision, all its bytes are used
+            value = new BigDecimal(BigInteger.TEN.pow(precision).subtract(BigInteger.ONE).negate(), SCALE);
+            // the same value with a scale that needs to be changed
+            unscaledValue = value.setScale(SCALE + 2);
+            avroValue = DecimalConverter.toAvro(value);
+            record = new GenericData.Record(schema);
+            record.put("Decimal", avroValue);
+        }
+    }
+
+    /**
+     * Decimals that fit in a long, for the conversions of LongDecimalConverter that work with the unscaled value
+     */
+    @State(Scope.Thread)
+    public static class LongDecimal {
+        @Param({ "4", "9", "18" })
+        public int precision;
+
+        public long unscaled;
+        public BigDecimal value;
+        public ByteBuffer avroValue;
+        public ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+
+        @Setup
+        public void setup() {
+            unscaled = -(BigInteger.TEN.pow(precision).longValueExact() - 1);
+            value = BigDecimal.valueOf(unscaled, Decimal.SCALE);
+            avroValue = DecimalConverter.toAvro(value);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Uuid {
+        public static final Schema FIXED_SCHEMA = Schema.createFixed("Uuid", null, "com.manelon.benchmarks", UuidConverter.FIXED_SIZE);
+
+        public UUID value = UUID.fromString("1701a000-e89b-12d3-a456-426614174000");
+        public String string = value.toString();
+        public Utf8 utf8 = new Utf8(string);
+        public GenericFixed fixed = UuidConverter.toAvroFixed(value, FIXED_SCHEMA);
+        public byte[] bytes = new byte[UuidConverter.FIXED_SIZE];
+    }
+
+    // AvroDateConverter
+
+    @Benchmark
+    public void AvroDateToAvro(Temporal state, Blackhole bh) {
+        bh.consume(AvroDateConverter.toAvro(state.date));
+    }
+
+    @Benchmark
+    public void AvroDateFromAvro(Temporal state, Blackhole bh) {
+        bh.consume(AvroDateConverter.fromAvro(state.epochDay));
+    }
+
+    // AvroTimeConverter
+
+    @Benchmark
+    public void AvroTimeGetMillis(Temporal state, Blackhole bh) {
+        bh.consume(AvroTimeConverter.getLocalTime(state.record, "TimeMillis"));
+    }
+
+    @Benchmark
+    public void AvroTimeGetMicros(Temporal state, Blackhole bh) {
+        bh.consume(AvroTimeConverter.getLocalTime(state.record, "TimeMicros"));
+    }
+
+    @Benchmark
+    public void AvroTimeSetMillis(Temporal state, Blackhole bh) {
+        AvroTimeConverter.setLocalTime(state.record, "TimeMillis", state.time);
+        bh.consume(state.record);
+    }
+
+    @Benchmark
+    public void AvroTimeSetMicros(Temporal state, Blackhole bh) {
+        AvroTimeConverter.setLocalTime(state.record, "TimeMicros", state.time);
+        bh.consume(state.record);
+    }
+
+    @Benchmark
+    public void AvroTimeToAvroMillis(Temporal state, Blackhole bh) {
+        bh.consume(AvroTimeConverter.LocalTimeToAvro(state.schema, "TimeMillis", state.time));
+    }
+
+    @Benchmark
+    public void AvroTimeToAvroMicros(Temporal state, Blackhole bh) {
+        bh.consume(AvroTimeConverter.LocalTimeToAvro(state.schema, "TimeMicros", state.time));
+    }
+
+    @Benchmark
+    public void AvroTimeToTimeMillis(Temporal state, Blackhole bh) {
+        bh.consume(AvroTimeConverter.LocalTimeToTimeMillis(state.schema, "TimeMillis", state.time));
+    }
+
+    @Benchmark
+    public void AvroTimeToTimeMicros(Temporal state, Blackhole bh) {
+        bh.consume(AvroTimeConverter.LocalTimeToTimeMicros(state.schema, "TimeMicros", state.time));
+    }
+
+    // AvroInstantConverter
+
+    @Benchmark
+    public void AvroInstantGetMillis(Temporal state, Blackhole bh) {
+        bh.consume(AvroInstantConverter.getInstant(state.record, "TimestampMillis"));
+    }
+
+    @Benchmark
+    public void AvroInstantGetMicros(Temporal state, Blackhole bh) {
+        bh.consume(AvroInstantConverter.getInstant(state.record, "TimestampMicros"));
+    }
+
+    @Benchmark
+    public void AvroInstantSetMillis(Temporal state, Blackhole bh) {
+        AvroInstantConverter.setInstant(state.record, "TimestampMillis", state.instant);
+        bh.consume(state.record);
+    }
+
+    @Benchmark
+    public void AvroInstantSetMicros(Temporal state, Blackhole bh) {
+        AvroInstantConverter.setInstant(state.record, "TimestampMicros", state.instant);
+        bh.consume(state.record);
+    }
+
+    @Benchmark
+    public void AvroInstantToAvroMillis(Temporal state, Blackhole bh) {
+        bh.consume(AvroInstantConverter.InstantToAvro(state.schema, "TimestampMillis", state.instant));
+    }
+
+    @Benchmark
+    public void AvroInstantToAvroMicros(Temporal state, Blackhole bh) {
+        bh.consume(AvroInstantConverter.InstantToAvro(state.schema, "TimestampMicros", state.instant));
+    }
+
+    // AvroLocalDateTimeConverter
+
+    @Benchmark
+    public void AvroLocalDateTimeGetMillis(Temporal state, Blackhole bh) {
+        bh.consume(AvroLocalDateTimeConverter.getLocalDateTime(state.record, "LocalTimestampMillis"));
+    }
+
+    @Benchmark
+    public void AvroLocalDateTimeGetMicros(Temporal state, Blackhole bh) {
+        bh.consume(AvroLocalDateTimeConverter.getLocalDateTime(state.record, "LocalTimestampMicros"));
+    }
+
+    @Benchmark
+    public void AvroLocalDateTimeSetMillis(Temporal state, Blackhole bh) {
+        AvroLocalDateTimeConverter.setLocalDateTime(state.record, "LocalTimestampMillis", state.dateTime);
+        bh.consume(state.record);
+    }
+
+    @Benchmark
+    public void AvroLocalDateTimeSetMicros(Temporal state, Blackhole bh) {
+        AvroLocalDateTimeConverter.setLocalDateTime(state.record, "LocalTimestampMicros", state.dateTime);
+        bh.consume(state.record);
+    }
+
+    @Benchmark
+    public void AvroLocalDateTimeToAvroMillis(Temporal state, Blackhole bh) {
+        bh.consume(AvroLocalDateTimeConverter.LocalDateTimeToAvro(state.schema, "LocalTimestampMillis", state.dateTime));
+    }
+
+    @Benchmark
+    public void AvroLocalDateTimeToAvroMicros(Temporal state, Blackhole bh) {
+        bh.consume(AvroLocalDateTimeConverter.LocalDateTimeToAvro(state.schema, "LocalTimestampMicros", state.dateTime));
+    }
+
+    // AvroDecimalConverter
+
+    @Benchmark
+    public void AvroDecimalGet(Decimal state, Blackhole bh) {
+        bh.consume(AvroDecimalConverter.getDecimal(state.record, "Decimal"));
+    }
+
+    @Benchmark
+    public void AvroDecimalToBytes(Decimal state, Blackhole bh) {
+        bh.consume(AvroDecimalConverter.decimalToBytes(state.value, state.decimalSchema));
+    }
+
+    @Benchmark
+    public void AvroDecimalSet(Decimal state, Blackhole bh) {
+        AvroDecimalConverter.setDecimal(state.record, "Decimal", state.value);
+        bh.consume(state.record);
+    }
+
+    @Benchmark
+    public void AvroDecimalSetWithRounding(Decimal state, Blackhole bh) {
+        AvroDecimalConverter.setDecimal(state.record, "Decimal", state.unscaledValue, RoundingMode.HALF_EVEN);
+        bh.consume(state.record);
+    }
+
+    // simple.LocalDateConverter
+
+    @Benchmark
+    public void SimpleDateToAvro(Temporal state, Blackhole bh) {
+        bh.consume(LocalDateConverter.toAvro(state.date));
+    }
+
+    @Benchmark
+    public void SimpleDateFromAvro(Temporal state, Blackhole bh) {
+        bh.consume(LocalDateConverter.fromAvro(state.epochDay));
+    }
+
+    // simple.LocalTimeConverter
+
+    @Benchmark
+    public void SimpleTimeToAvroMillis(Temporal state, Blackhole bh) {
+        bh.consume(LocalTimeConverter.toAvroMillis(state.time));
+    }
+
+    @Benchmark
+    public void SimpleTimeFromAvroMillis(Temporal state, Blackhole bh) {
+        bh.consume(LocalTimeConverter.fromAvroMillis(state.millisOfDay));
+    }
+
+    @Benchmark
+    public void SimpleTimeToAvroMicros(Temporal state, Blackhole bh) {
+        bh.consume(LocalTimeConverter.toAvroMicros(state.time));
+    }
+
+    @Benchmark
+    public void SimpleTimeFromAvroMicros(Temporal state, Blackhole bh) {
+        bh.consume(LocalTimeConverter.fromAvroMicros(state.microsOfDay));
+    }
+
+    // simple.InstantConverter
+
+    @Benchmark
+    public void SimpleInstantToAvroMillis(Temporal state, Blackhole bh) {
+        bh.consume(InstantConverter.toAvroMillis(state.instant));
+    }
+
+    @Benchmark
+    public void SimpleInstantFromAvroMillis(Temporal state, Blackhole bh) {
+        bh.consume(InstantConverter.fromAvroMillis(state.epochMillis));
+    }
+
+    @Benchmark
+    public void SimpleInstantToAvroMicros(Temporal state, Blackhole bh) {
+        bh.consume(InstantConverter.toAvroMicros(state.instant));
+    }
+
+    @Benchmark
+    public void SimpleInstantFromAvroMicros(Temporal state, Blackhole bh) {
+        bh.consume(InstantConverter.fromAvroMicros(state.epochMicros));
+    }
+
+    // simple.LocalDateTimeConverter
+
+    @Benchmark
+    public void SimpleLocalDateTimeToAvroMillis(Temporal state, Blackhole bh) {
+        bh.consume(LocalDateTimeConverter.toAvroMillis(state.dateTime));
+    }
+
+    @Benchmark
+    public void SimpleLocalDateTimeFromAvroMillis(Temporal state, Blackhole bh) {
+        bh.consume(LocalDateTimeConverter.fromAvroMillis(state.localMillis));
+    }
+
+    @Benchmark
+    public void SimpleLocalDateTimeToAvroMicros(Temporal state, Blackhole bh) {
+        bh.consume(LocalDateTimeConverter.toAvroMicros(state.dateTime));
+    }
+
+    @Benchmark
+    public void SimpleLocalDateTimeFromAvroMicros(Temporal state, Blackhole bh) {
+        bh.consume(LocalDateTimeConverter.fromAvroMicros(state.localMicros));
+    }
+
+    // simple.DecimalConverter
+
+    @Benchmark
+    public void SimpleDecimalToAvro(Decimal state, Blackhole bh) {
+        bh.consume(DecimalConverter.toAvro(state.value));
+    }
+
+    @Benchmark
+    public void SimpleDecimalFromAvro(Decimal state, Blackhole bh) {
+        bh.consume(DecimalConverter.fromAvro(state.avroValue, Decimal.SCALE));
+    }
+
+    // simple.LongDecimalConverter
+
+    @Benchmark
+    public void LongDecimalToAvroBigDecimal(Decimal state, Blackhole bh) {
+        bh.consume(LongDecimalConverter.toAvro(state.value, state.precision, ByteBuffer.allocate(Long.BYTES)));
+    }
+
+    @Benchmark
+    public void LongDecimalFromAvroBigDecimal(Decimal state, Blackhole bh) {
+        bh.consume(LongDecimalConverter.fromAvro(state.avroValue, state.precision, Decimal.SCALE));
+    }
+
+    @Benchmark
+    public void LongDecimalToAvro(LongDecimal state, Blackhole bh) {
+        bh.consume(LongDecimalConverter.toAvro(state.unscaled));
+    }
+
+    @Benchmark
+    public void LongDecimalToAvroReusedBuffer(LongDecimal state, Blackhole bh) {
+        bh.consume(LongDecimalConverter.toAvro(state.unscaled, state.buffer));
+    }
+
+    @Benchmark
+    public void LongDecimalFromAvro(LongDecimal state, Blackhole bh) {
+        bh.consume(LongDecimalConverter.fromAvro(state.avroValue));
+    }
+
+    @Benchmark
+    public void LongDecimalByteLength(LongDecimal state, Blackhole bh) {
+        bh.consume(LongDecimalConverter.byteLength(state.unscaled));
+    }
+
+    @Benchmark
+    public void LongDecimalToUnscaled(LongDecimal state, Blackhole bh) {
+        bh.consume(LongDecimalConverter.toUnscaled(state.value, Decimal.SCALE));
+    }
+
+    @Benchmark
+    public void LongDecimalFromUnscaled(LongDecimal state, Blackhole bh) {
+        bh.consume(LongDecimalConverter.fromUnscaled(state.unscaled, Decimal.SCALE));
+    }
+
+    // simple.UuidConverter
+
+    @Benchmark
+    public void UuidToAvro(Uuid state, Blackhole bh) {
+        bh.consume(UuidConverter.toAvro(state.value));
+    }
+
+    @Benchmark
+    public void UuidToAvroUtf8(Uuid state, Blackhole bh) {
+        bh.consume(UuidConverter.toAvroUtf8(state.value.getMostSignificantBits(), state.value.getLeastSignificantBits()));
+    }
+
+    @Benchmark
+    public void UuidFromAvroString(Uuid state, Blackhole bh) {
+        bh.consume(UuidConverter.fromAvro(state.string));
+    }
+
+    @Benchmark
+    public void UuidFromAvroUtf8(Uuid state, Blackhole bh) {
+        bh.consume(UuidConverter.fromAvro(state.utf8));
+    }
+
+    @Benchmark
+    public void UuidBitsFromAvroString(Uuid state, Blackhole bh) {
+        bh.consume(UuidConverter.mostSignificantBits(state.string));
+        bh.consume(UuidConverter.leastSignificantBits(state.string));
+    }
+
+    @Benchmark
+    public void UuidToAvroFixed(Uuid state, Blackhole bh) {
+        bh.consume(UuidConverter.toAvroFixed(state.value, Uuid.FIXED_SCHEMA));
+    }
+
+    @Benchmark
+    public void UuidToAvroFixedBytes(Uuid state, Blackhole bh) {
+        UuidConverter.toAvroFixed(state.value.getMostSignificantBits(), state.value.getLeastSignificantBits(), state.bytes);
+        bh.consume(state.bytes);
+    }
+
+    @Benchmark
+    public void UuidFromAvroFixed(Uuid state, Blackhole bh) {
+        bh.consume(UuidConverter.fromAvroFixed(state.fixed));
+    }
+
+    @Benchmark
+    public void UuidBitsFromAvroFixed(Uuid state, Blackhole bh) {
+        bh.consume(UuidConverter.mostSignificantBits(state.fixed.bytes()));
+        bh.consume(UuidConverter.leastSignificantBits(state.fixed.bytes()));
+    }
+}
@@ -0,0 +1,96 @@
+package com.manelon.kafkastreams_simple.benchmarks;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.avro.generic.GenericRecord;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.manelon.kafkastreams_simple.serdes.ProjectionAvroSerde;
+import com.manelon.model.User;
+
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import io.confluent.kafka.streams.serdes.avro.GenericAvroSerde;
+import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
+
+/**
+ * Decode cost of a User when only some fields are deserialized, from the Id alone to the whole record.
+ * The full SpecificAvroSerde and GenericAvroSerde are the baselines
+ */
+@State(Scope.Thread)
+public class ProjectionDeserializers {
+    public static void main(String[] args) throws RunnerException, IOException {
+
+        Options opt = new OptionsBuilder()
+                .include(ProjectionDeserializers.class.getSimpleName())
+                .warmupIterations(3)
+                .forks(1)
+                .mode(Mode.AverageTime)
+                .timeUnit(TimeUnit.NANOSECONDS)
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    private static final String TOPIC = "users";
+    private static final String[] FIELDS = { "Id", "EMail", "FirstName", "LastName", "PhoneNumber", "Address" };
+    private static final Map<String, String> SERDE_CONFIG = Map.of(
+            AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, "mock://" + ProjectionDeserializers.class.getName());
+
+    /**
+     * Number of projected fields, the first ones of FIELDS
+     */
+    @Param({ "1", "2", "4", "6" })
+    private int width;
+
+    private byte[] serializedUser;
+    private Deserializer<GenericRecord> projection;
+    private Deserializer<GenericRecord> generic;
+    private Deserializer<User> specific;
+
+    @Setup
+    public void setup() {
+        SpecificAvroSerde<User> specificSerde = new SpecificAvroSerde<>();
+        specificSerde.configure(SERDE_CONFIG, false);
+        specific = specificSerde.deserializer();
+        serializedUser = specificSerde.serializer().serialize(TOPIC, new User(1701, "Jean-Luc", "Picard",
+                "picard@enterprise.com", "555-1701-D", "La Barre, France"));
+
+        GenericAvroSerde genericSerde = new GenericAvroSerde();
+        genericSerde.configure(SERDE_CONFIG, false);
+        generic = genericSerde.deserializer();
+
+        ProjectionAvroSerde projectionSerde = new ProjectionAvroSerde(Arrays.copyOf(FIELDS, width));
+        projectionSerde.configure(SERDE_CONFIG, false);
+        projection = projectionSerde.deserializer();
+    }
+
+    @Benchmark
+    public GenericRecord Projection() {
+        return projection.deserialize(TOPIC, serializedUser);
+    }
+
+    @Benchmark
+    public GenericRecord FullGeneric() {
+        return generic.deserialize(TOPIC, serializedUser);
+    }
+
+    @Benchmark
+    public User FullSpecific() {
+        return specific.deserialize(TOPIC, serializedUser);
+    }
+}
@@ -0,0 +1,125 @@
+package com.manelon.kafkastreams_simple.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.apache.kafka.common.serialization.Deserializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.manelon.kafkastreams_common.serdes.PersistentSchemaCache;
+import com.manelon.kafkastreams_common.serdes.PersistentSchemaRegistryClient;
+import com.manelon.kafkastreams_simple.serdes.PooledAvroSerde;
+import com.manelon.model.User;
+
+import io.confluent.kafka.schemaregistry.ParsedSchema;
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+
+/**
+ * Startup to first record: time to create and configure a deserializer and read the first record,
+ * with an empty schema cache (cold start, the schema comes from the registry) and with the cache file of a
+ * previous run (warm restart). The registry waits latencyMillis per call like a remote registry.
+ * The warm restart calls the registry once to check the cache, whatever the number of schemas in it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SchemaCacheStartup {
+    public static void main(String[] args) throws RunnerException, IOException {
+
+        Options opt = new OptionsBuilder()
+                .include(SchemaCacheStartup.class.getSimpleName())
+                .warmupIterations(5)
+                .measurementIterations(20)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    private static final String TOPIC = "users";
+    private static final String MOCK_SCHEMA_REGISTRY_URL = "mock://" + SchemaCacheStartup.class.getName();
+
+    @Param({ "cold", "warm" })
+    private String start;
+
+    @Param({ "0", "50" })
+    private long latencyMillis;
+
+    private SlowSchemaRegistryClient registry;
+    // the client of the last start, its cache is closed before the next one
+    private SchemaRegistryClient client;
+    private Path directory;
+    private Map<String, Object> config;
+    private byte[] serializedUser;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        registry = new SlowSchemaRegistryClient();
+        directory = Files.createTempDirectory("schema-cache");
+        config = Map.of(
+                AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, MOCK_SCHEMA_REGISTRY_URL,
+                PersistentSchemaCache.SCHEMA_CACHE_DIR_CONFIG, directory.toString());
+        client = PersistentSchemaRegistryClient.wrap(registry, PersistentSchemaCache.fromConfig(config));
+        PooledAvroSerde<User> serde = new PooledAvroSerde<>(client);
+        serde.configure(config, false);
+        serializedUser = serde.serializer().serialize(TOPIC, new User(1, "Kira", "Nerys", "kira@ds9.com", null, "Bajor"));
+        registry.latencyMillis = latencyMillis;
+    }
+
+    /**
+     * Every invocation is a new start: the cache is closed, and removed in the cold starts
+     */
+    @Setup(Level.Invocation)
+    public void restart() throws IOException {
+        PersistentSchemaRegistryClient.close(client);
+        if ("cold".equals(start)) {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public User FirstRecord() {
+        client = PersistentSchemaRegistryClient.wrap(registry, PersistentSchemaCache.fromConfig(config));
+        PooledAvroSerde<User> serde = new PooledAvroSerde<>(client);
+        serde.configure(config, false);
+        Deserializer<User> deserializer = serde.deserializer();
+        return deserializer.deserialize(TOPIC, serializedUser);
+    }
+
+    private static final class SlowSchemaRegistryClient extends MockSchemaRegistryClient {
+        private volatile long latencyMillis;
+
+        @Override
+        public synchronized ParsedSchema getSchemaById(int id) throws IOException, RestClientException {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.getSchemaById(id);
+        }
+    }
+}
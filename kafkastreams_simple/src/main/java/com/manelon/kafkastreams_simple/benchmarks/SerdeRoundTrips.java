@@ -0,0 +1,220 @@
+package com.manelon.kafkastreams_simple.benchmarks;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.avro.Conversions;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.manelon.kafkastreams_simple.serdes.PooledAvroSerde;
+import com.manelon.model.User;
+import com.manelon.model.UserEnriched;
+import com.manelon.model.Vulcan;
+import com.manelon.model.starfleet.Personnel;
+import com.manelon.model.starfleet.Starship;
+
+import io.confluent.kafka.schemaregistry.testutil.MockSchemaRegistry;
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import io.confluent.kafka.streams.serdes.avro.GenericAvroSerde;
+import io.confluent.kafka.streams.serdes.avro.ReflectionAvroSerde;
+import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
+
+/**
+ * Serialize and deserialize round trip of every model with the serdes we can choose from:
+ * <ul>
+ * <li>Specific: SpecificAvroSerde, the generated class</li>
+ * <li>Generic: GenericAvroSerde, a GenericRecord with the same schema</li>
+ * <li>Reflection: ReflectionAvroSerde over the generated class, its fields are read and written by reflection</li>
+ * <li>Pooled: {@link PooledAvroSerde}, the generated class with reused encoders, decoders and readers</li>
+ * </ul>
+ * All of them write the same bytes and register the schemas in the in-process MockSchemaRegistry.
+ *
+ * The string fields of the records have stringLength chars, from a short name to a payload of some KB.
+ * The serdes are shared by all the threads of a benchmark: RoundTrip runs in one thread and
+ * RoundTripContended in four, the difference is the contention in the caches of the serdes and of the
+ * registry client.
+ *
+ * Throughput (ops/us) and SampleTime (p0.99 is the p99 latency) are measured, the GC profiler adds
+ * gc.alloc.rate.norm, the bytes allocated by round trip. The results are written as JSON to
+ * target/jmh/SerdeRoundTrips.json, or to the file of the system property jmh.result.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class SerdeRoundTrips {
+
+    public static void main(String[] args) throws RunnerException, IOException {
+
+        Path result = Path.of(System.getProperty("jmh.result", "target/jmh/SerdeRoundTrips.json"));
+        if (result.getParent() != null)
+            Files.createDirectories(result.getParent());
+
+        Options opt = new OptionsBuilder()
+                .include(SerdeRoundTrips.class.getSimpleName())
+                .warmupIterations(3)
+                .measurementIterations(5)
+                .forks(1)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result.toString())
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    private static final String TOPIC = "serde-round-trips";
+    private static final String MOCK_SCHEMA_REGISTRY_URL = "mock://" + SerdeRoundTrips.class.getName();
+    // the reflection serde needs the conversions of the logical types of Vulcan, the generated class has them
+    private static final Map<String, Object> SERDE_CONFIG = Map.of(
+            AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, MOCK_SCHEMA_REGISTRY_URL,
+            "avro.use.logical.type.converters", true);
+
+    @Param({ "User", "UserEnriched", "Vulcan", "Personnel", "Starship" })
+    private String model;
+
+    @Param({ "Specific", "Generic", "Reflection", "Pooled" })
+    private String serde;
+
+    /**
+     * Length of every string field of the record
+     */
+    @Param({ "8", "64", "1024" })
+    private int stringLength;
+
+    private Object record;
+    private Serializer<Object> serializer;
+    private Deserializer<?> deserializer;
+
+    @Setup
+    public void setup() {
+        SpecificRecord specificRecord = specificRecord();
+        switch (serde) {
+            case "Specific":
+                use(new SpecificAvroSerde<>());
+                record = specificRecord;
+                break;
+            case "Generic":
+                use(new GenericAvroSerde());
+                record = toGeneric(specificRecord);
+                break;
+            case "Reflection":
+                use(new ReflectionAvroSerde<>(specificRecord.getClass()));
+                record = specificRecord;
+                break;
+            case "Pooled":
+                use(new PooledAvroSerde<>());
+                record = specificRecord;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown serde " + serde);
+        }
+        // registers the schema before the measurement
+        deserializer.deserialize(TOPIC, serializer.serialize(TOPIC, record));
+    }
+
+    @TearDown
+    public void tearDown() {
+        MockSchemaRegistry.dropScope(MOCK_SCHEMA_REGISTRY_URL);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void use(Serde<?> configured) {
+        configured.configure(SERDE_CONFIG, false);
+        serializer = (Serializer<Object>) configured.serializer();
+        deserializer = configured.deserializer();
+    }
+
+    private SpecificRecord specificRecord() {
+        switch (model) {
+            case "User":
+                return new User(1701, text("Jean-Luc"), text("Picard"), text("picard@enterprise.com"),
+                        text("555-1701-D"), text("La Barre, France"));
+            case "UserEnriched":
+                return new UserEnriched(1701, text("Jean-Luc"), text("Picard"), text("Jean-Luc Picard"),
+                        text("picard@enterprise.com"), text("555-1701-D"), text("La Barre, France"));
+            case "Vulcan":
+                Conversions.DecimalConversion decimal = new Conversions.DecimalConversion();
+                Vulcan vulcan = new Vulcan();
+                vulcan.setName(text("Spock"));
+                vulcan.setInteligence(200);
+                vulcan.setBankBalance(decimal.toBytes(new BigDecimal("123456.78"),
+                        Vulcan.SCHEMA$.getField("BankBalance").schema(),
+                        Vulcan.SCHEMA$.getField("BankBalance").schema().getLogicalType()));
+                vulcan.setDateOfBirth(LocalDate.of(2230, 1, 6));
+                vulcan.setTimeOfBirthMiliseconds(LocalTime.of(5, 30, 15, 123_000_000));
+                vulcan.setTimeOfBirthMicroseconds(LocalTime.of(5, 30, 15, 123_456_000));
+                vulcan.setBirthTimestamMiliseconds(Instant.parse("2230-01-06T05:30:15.123Z"));
+                vulcan.setBirthTimestampMicroseconds(Instant.parse("2230-01-06T05:30:15.123456Z").truncatedTo(ChronoUnit.MICROS));
+                return vulcan;
+            case "Personnel":
+                return new Personnel(text("Worf"), 1701, text("Lieutenant"));
+            case "Starship":
+                return new Starship(text("Enterprise"), text("NCC-1701-D"));
+            default:
+                throw new IllegalArgumentException("Unknown model " + model);
+        }
+    }
+
+    /**
+     * The specific record read as a GenericRecord, the logical types keep the avro representation
+     */
+    private GenericRecord toGeneric(SpecificRecord specificRecord) {
+        SpecificAvroSerde<SpecificRecord> specificSerde = new SpecificAvroSerde<>();
+        specificSerde.configure(SERDE_CONFIG, false);
+        GenericAvroSerde genericSerde = new GenericAvroSerde();
+        genericSerde.configure(SERDE_CONFIG, false);
+        return genericSerde.deserializer().deserialize(TOPIC, specificSerde.serializer().serialize(TOPIC, specificRecord));
+    }
+
+    /**
+     * @return the value repeated to stringLength chars
+     */
+    private String text(String value) {
+        StringBuilder text = new StringBuilder(stringLength);
+        while (text.length() < stringLength) {
+            text.append(value);
+        }
+        text.setLength(stringLength);
+        return text.toString();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object RoundTrip() {
+        return deserializer.deserialize(TOPIC, serializer.serialize(TOPIC, record));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object RoundTripContended() {
+        return deserializer.deserialize(TOPIC, serializer.serialize(TOPIC, record));
+    }
+}
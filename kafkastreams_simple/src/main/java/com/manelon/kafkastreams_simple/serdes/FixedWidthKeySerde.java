@@ -0,0 +1,166 @@
+package com.manelon.kafkastreams_simple.serdes;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Type;
+import org.apache.avro.specific.SpecificData;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Serde of keys with one int or long: Integer, Long or records with only one int or long field, like UserId.
+ * The keys are written as 4 or 8 bytes big-endian with the sign bit flipped, so the order of the bytes
+ * (unsigned, the order of RocksDB) is the order of the numbers and range scans work.
+ * No schema registry is needed and the keys are 4 or 8 bytes instead of the 5 bytes header plus the varint.
+ *
+ * The bytes of a key are not the ones written by the SpecificAvroSerde or the KafkaAvroSerializer, so the
+ * existing topics and stores can't be migrated: the default partitioner hashes the new bytes to another partition
+ * than the history of the key, and the store lookups with the new bytes miss the entries written before.
+ * Adopting this serde requires new topics and new stores (a new application.id), filled with a full reprocess.
+ *
+ * The compatibility mode reads the keys written with the schema registry format too, e.g. to reprocess the old
+ * topics into the new ones; the keys are always written with the fixed width format. The registry keys always start
+ * with the magic byte 0, so in this mode the keys whose first byte would be 0 (int keys lower than -2130706432,
+ * long keys lower than -9151314442816847872) can't be written.
+ *
+ * <pre>
+ * Serde&lt;UserId&gt; keySerde = FixedWidthKeySerde.forRecord(UserId.class).withRegistryCompatibility();
+ * </pre>
+ * @param <T> type of the keys
+ */
+public final class FixedWidthKeySerde<T> implements Serde<T> {
+
+    private static final byte MAGIC_BYTE = 0x0;
+    private static final int REGISTRY_HEADER_SIZE = 5;
+
+    private final int width;
+    private final ToLongFunction<T> toLong;
+    private final Function<Long, T> fromLong;
+    private final boolean registryCompatibility;
+    private final Serializer<T> serializer;
+    private final Deserializer<T> deserializer;
+
+    private FixedWidthKeySerde(int width, ToLongFunction<T> toLong, Function<Long, T> fromLong, boolean registryCompatibility) {
+        this.width = width;
+        this.toLong = toLong;
+        this.fromLong = fromLong;
+        this.registryCompatibility = registryCompatibility;
+        this.serializer = (topic, key) -> key == null ? null : encode(toLong.applyAsLong(key));
+        this.deserializer = (topic, bytes) -> bytes == null ? null : fromLong.apply(decode(bytes));
+    }
+
+    public static FixedWidthKeySerde<Integer> forInt() {
+        return new FixedWidthKeySerde<>(Integer.BYTES, Integer::longValue, Long::intValue, false);
+    }
+
+    public static FixedWidthKeySerde<Long> forLong() {
+        return new FixedWidthKeySerde<>(Long.BYTES, Long::longValue, Function.identity(), false);
+    }
+
+    /**
+     * @param recordClass generated class with only one field, of type int or long
+     */
+    public static <T extends SpecificRecord> FixedWidthKeySerde<T> forRecord(Class<T> recordClass) {
+        Schema schema = SpecificData.get().getSchema(recordClass);
+        List<Schema.Field> fields = schema.getFields();
+        if (fields.size() != 1)
+            throw new IllegalArgumentException(schema.getFullName() + " has " + fields.size() + " fields, only records with one field are supported");
+        Schema.Field field = fields.get(0);
+        Type type = field.schema().getType();
+        if (!Type.INT.equals(type) && !Type.LONG.equals(type))
+            throw new IllegalArgumentException("Field name " + field.name() + " in " + schema.getFullName() + " is not an int or a long");
+        if (field.schema().getLogicalType() != null)
+            throw new IllegalArgumentException("Field name " + field.name() + " in " + schema.getFullName() + " has a logical type");
+
+        Function<Long, T> fromLong = Type.INT.equals(type)
+                ? value -> newRecord(recordClass, schema, value.intValue())
+                : value -> newRecord(recordClass, schema, value);
+        return new FixedWidthKeySerde<>(Type.INT.equals(type) ? Integer.BYTES : Long.BYTES,
+                record -> ((Number) record.get(0)).longValue(), fromLong, false);
+    }
+
+    private static <T extends SpecificRecord> T newRecord(Class<T> recordClass, Schema schema, Object value) {
+        @SuppressWarnings("unchecked")
+        T record = (T) SpecificData.newInstance(recordClass, schema);
+        record.put(0, value);
+        return record;
+    }
+
+    /**
+     * @return a serde that reads the schema registry format too, the keys are always written with the fixed width format
+     */
+    public FixedWidthKeySerde<T> withRegistryCompatibility() {
+        return new FixedWidthKeySerde<>(width, toLong, fromLong, true);
+    }
+
+    /**
+     * @return bytes of the key, 4 or 8
+     */
+    public int width() {
+        return width;
+    }
+
+    @Override
+    public Serializer<T> serializer() {
+        return serializer;
+    }
+
+    @Override
+    public Deserializer<T> deserializer() {
+        return deserializer;
+    }
+
+    private byte[] encode(long value) {
+        byte[] bytes = new byte[width];
+        // flipping the sign bit the negative numbers are before the positive ones
+        long flipped = value ^ (1L << (width * 8 - 1));
+        for (int i = 0; i < width; i++) {
+            bytes[i] = (byte) (flipped >>> ((width - 1 - i) * 8));
+        }
+        if (registryCompatibility && bytes[0] == MAGIC_BYTE)
+            throw new SerializationException("The key " + value + " can't be written in compatibility mode, it starts with the magic byte");
+        return bytes;
+    }
+
+    private long decode(byte[] bytes) {
+        if (registryCompatibility && bytes.length > 0 && bytes[0] == MAGIC_BYTE)
+            return decodeRegistryFormat(bytes);
+        if (bytes.length != width)
+            throw new SerializationException("Size of data received by FixedWidthKeySerde is " + bytes.length + " and not " + width);
+        long flipped = 0;
+        for (int i = 0; i < width; i++) {
+            flipped = (flipped << 8) | (bytes[i] & 0xFF);
+        }
+        long value = flipped ^ (1L << (width * 8 - 1));
+        // sign extension of the ints
+        return width == Integer.BYTES ? (int) value : value;
+    }
+
+    // magic byte, 4 bytes of schema id and the avro payload: a record with one int or long field,
+    // or the int or long itself, is only a zig-zag varint
+    private long decodeRegistryFormat(byte[] bytes) {
+        long value = 0;
+        int shift = 0;
+        int position = REGISTRY_HEADER_SIZE;
+        byte b;
+        do {
+            if (position >= bytes.length || shift > 63)
+                throw new SerializationException("Invalid key with the schema registry format");
+            b = bytes[position++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        if (position != bytes.length)
+            throw new SerializationException("The key with the schema registry format is not only an int or a long");
+        long decoded = (value >>> 1) ^ -(value & 1);
+        if (width == Integer.BYTES && (decoded < Integer.MIN_VALUE || decoded > Integer.MAX_VALUE))
+            throw new SerializationException("The key " + decoded + " with the schema registry format is not an int");
+        return decoded;
+    }
+}
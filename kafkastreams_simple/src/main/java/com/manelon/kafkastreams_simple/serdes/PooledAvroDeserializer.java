@@ -0,0 +1,109 @@
+package com.manelon.kafkastreams_simple.serdes;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.avro.Schema;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.specific.SpecificData;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import com.manelon.kafkastreams_common.serdes.PersistentSchemaRegistryClient;
+
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.avro.AvroSchemaProvider;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDe;
+import io.confluent.kafka.serializers.KafkaAvroDeserializerConfig;
+
+/**
+ * Deserializer of the schema registry wire format to specific records, like the SpecificAvroSerde deserializer.
+ * Every thread reuses its decoder and the DatumReader from the writer schema to the generated class
+ * comes from a {@link SchemaResolverCache}, shared by the schema ids with the same writer schema.
+ * @param <T> generated class
+ */
+public class PooledAvroDeserializer<T extends SpecificRecord> extends AbstractKafkaSchemaSerDe implements Deserializer<T> {
+
+    private static final int HEADER_SIZE = 1 + idSize;
+
+    private final Map<Integer, SchemaResolverCache.Key> keys = new ConcurrentHashMap<>();
+    private final ThreadLocal<BinaryDecoder> decoders = new ThreadLocal<>();
+    private SchemaResolverCache resolvers = SchemaResolverCache.shared();
+    private boolean ownsRegistry;
+
+    public PooledAvroDeserializer() {
+    }
+
+    public PooledAvroDeserializer(SchemaRegistryClient client) {
+        this.schemaRegistry = client;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        this.isKey = isKey;
+        if (schemaRegistry == null) {
+            schemaRegistry = PersistentSchemaRegistryClient.fromConfig(configs);
+            ownsRegistry = true;
+        }
+        configureClientProperties(new KafkaAvroDeserializerConfig(configs), new AvroSchemaProvider());
+        this.resolvers = SchemaResolverCache.fromConfig(configs);
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        if (data == null)
+            return null;
+        ByteBuffer buffer = getByteBuffer(data);
+        int id = buffer.getInt();
+        BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(data, HEADER_SIZE, data.length - HEADER_SIZE,
+                decoders.get());
+        decoders.set(decoder);
+        try {
+            return resolvers.<T>reader(key(id)).read(null, decoder);
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Error deserializing Avro message for id " + id, e);
+        }
+    }
+
+    private SchemaResolverCache.Key key(int id) {
+        SchemaResolverCache.Key key = keys.get(id);
+        if (key == null) {
+            Schema writerSchema;
+            try {
+                writerSchema = ((AvroSchema) schemaRegistry.getSchemaById(id)).rawSchema();
+            } catch (IOException | RestClientException e) {
+                throw new SerializationException("Error retrieving Avro schema for id " + id, e);
+            }
+            // same reader schema than the KafkaAvroDeserializer: the generated class with the name of the writer
+            Class<?> specificClass = SpecificData.get().getClass(writerSchema);
+            if (specificClass == null)
+                throw new SerializationException("Could not find class " + writerSchema.getFullName()
+                        + " specified in writer's schema whilst finding reader's schema for a SpecificRecord.");
+            // the model of the generated class has the conversions of its logical types
+            Schema readerSchema = SpecificData.get().getSchema(specificClass);
+            key = SchemaResolverCache.key(writerSchema, readerSchema, SpecificData.getForSchema(readerSchema));
+            keys.put(id, key);
+        }
+        return key;
+    }
+
+    /**
+     * @return the cache of the readers, with the hit and miss counters
+     */
+    public SchemaResolverCache getResolvers() {
+        return resolvers;
+    }
+
+    @Override
+    public void close() {
+        // the client of the constructor can be shared with other serdes, only the one of the configuration is closed
+        if (ownsRegistry)
+            PersistentSchemaRegistryClient.close(schemaRegistry);
+    }
+}
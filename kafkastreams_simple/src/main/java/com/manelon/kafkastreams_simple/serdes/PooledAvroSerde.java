@@ -0,0 +1,59 @@
+package com.manelon.kafkastreams_simple.serdes;
+
+import java.util.Map;
+
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+
+/**
+ * Replacement of the SpecificAvroSerde that reuses encoders, decoders and buffers, see
+ * {@link PooledAvroSerializer} and {@link PooledAvroDeserializer}. The bytes are the same, both serdes can
+ * read the records of the other one.
+ *
+ * It can be used as default serde:
+ * <pre>
+ * props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, PooledAvroSerde.class);
+ * </pre>
+ * @param <T> generated class
+ */
+public class PooledAvroSerde<T extends SpecificRecord> implements Serde<T> {
+
+    private final PooledAvroSerializer<T> serializer;
+    private final PooledAvroDeserializer<T> deserializer;
+
+    public PooledAvroSerde() {
+        this.serializer = new PooledAvroSerializer<>();
+        this.deserializer = new PooledAvroDeserializer<>();
+    }
+
+    public PooledAvroSerde(SchemaRegistryClient client) {
+        this.serializer = new PooledAvroSerializer<>(client);
+        this.deserializer = new PooledAvroDeserializer<>(client);
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        serializer.configure(configs, isKey);
+        deserializer.configure(configs, isKey);
+    }
+
+    @Override
+    public Serializer<T> serializer() {
+        return serializer;
+    }
+
+    @Override
+    public Deserializer<T> deserializer() {
+        return deserializer;
+    }
+
+    @Override
+    public void close() {
+        serializer.close();
+        deserializer.close();
+    }
+}
@@ -0,0 +1,119 @@
+package com.manelon.kafkastreams_simple.serdes;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.avro.Schema;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import com.manelon.kafkastreams_common.serdes.PersistentSchemaRegistryClient;
+
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.avro.AvroSchemaProvider;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDe;
+import io.confluent.kafka.serializers.KafkaAvroSerializerConfig;
+
+/**
+ * Serializer of specific records with the same bytes than the SpecificAvroSerde serializer
+ * (magic byte, schema id and avro payload).
+ * Nothing is created per record but the returned array: every thread reuses its encoder and output array,
+ * and the schema id and the DatumWriter are resolved once per topic and schema: as default serde a serializer writes
+ * to every sink, changelog and repartition topic of a task, every one with its subject.
+ * @param <T> generated class
+ */
+public class PooledAvroSerializer<T extends SpecificRecord> extends AbstractKafkaSchemaSerDe implements Serializer<T> {
+
+    // by topic and schema, the subject is given by both
+    private final Map<String, Map<Schema, Writer>> writers = new ConcurrentHashMap<>();
+    private final ThreadLocal<Encoding> encodings = ThreadLocal.withInitial(Encoding::new);
+    private boolean autoRegisterSchema = true;
+    private boolean ownsRegistry;
+
+    public PooledAvroSerializer() {
+    }
+
+    public PooledAvroSerializer(SchemaRegistryClient client) {
+        this.schemaRegistry = client;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        this.isKey = isKey;
+        if (schemaRegistry == null) {
+            schemaRegistry = PersistentSchemaRegistryClient.fromConfig(configs);
+            ownsRegistry = true;
+        }
+        KafkaAvroSerializerConfig config = new KafkaAvroSerializerConfig(configs);
+        configureClientProperties(config, new AvroSchemaProvider());
+        this.autoRegisterSchema = config.autoRegisterSchema();
+    }
+
+    @Override
+    public byte[] serialize(String topic, T data) {
+        if (data == null)
+            return null;
+        Writer writer = writer(topic, data);
+        Encoding encoding = encodings.get();
+        try {
+            encoding.output.write(MAGIC_BYTE);
+            encoding.output.writeInt(writer.id);
+            encoding.encoder = EncoderFactory.get().binaryEncoder(encoding.output, encoding.encoder);
+            writer.datumWriter.write(data, encoding.encoder);
+            encoding.encoder.flush();
+            return encoding.output.toByteArrayAndReset();
+        } catch (IOException | RuntimeException e) {
+            encoding.output.reset();
+            throw new SerializationException("Error serializing Avro message", e);
+        }
+    }
+
+    private Writer writer(String topic, T data) {
+        Schema schema = data.getSchema();
+        Map<Schema, Writer> topicWriters = writers.computeIfAbsent(topic, t -> new ConcurrentHashMap<>());
+        Writer writer = topicWriters.get(schema);
+        if (writer == null) {
+            AvroSchema avroSchema = new AvroSchema(schema);
+            String subject = getSubjectName(topic, isKey, data, avroSchema);
+            try {
+                int id = autoRegisterSchema
+                        ? schemaRegistry.register(subject, avroSchema)
+                        : schemaRegistry.getId(subject, avroSchema);
+                writer = new Writer(id, new SpecificDatumWriter<>(schema));
+            } catch (IOException | RestClientException e) {
+                throw new SerializationException("Error registering Avro schema " + schema, e);
+            }
+            topicWriters.put(schema, writer);
+        }
+        return writer;
+    }
+
+    @Override
+    public void close() {
+        // the client of the constructor can be shared with other serdes, only the one of the configuration is closed
+        if (ownsRegistry)
+            PersistentSchemaRegistryClient.close(schemaRegistry);
+    }
+
+    private static final class Writer {
+        private final int id;
+        private final SpecificDatumWriter<Object> datumWriter;
+
+        Writer(int id, SpecificDatumWriter<Object> datumWriter) {
+            this.id = id;
+            this.datumWriter = datumWriter;
+        }
+    }
+
+    private static final class Encoding {
+        private final ReusableOutput output = new ReusableOutput();
+        private BinaryEncoder encoder;
+    }
+}
@@ -0,0 +1,126 @@
+package com.manelon.kafkastreams_simple.serdes;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import com.manelon.kafkastreams_common.serdes.PersistentSchemaRegistryClient;
+
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.avro.AvroSchemaProvider;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDe;
+import io.confluent.kafka.serializers.KafkaAvroDeserializerConfig;
+
+/**
+ * Deserializes only some fields of the records.
+ * For every writer schema a reader schema with only the projected fields is built, and the avro
+ * resolving reader skips the rest of the fields without creating objects (the strings are never decoded).
+ * The result is a GenericRecord with the projected fields, in the order of the projection.
+ *
+ * <pre>
+ * builder.stream("users", Consumed.with(userIdSerde, new ProjectionAvroSerde("Id", "EMail")));
+ * </pre>
+ */
+public class ProjectionAvroDeserializer extends AbstractKafkaSchemaSerDe implements Deserializer<GenericRecord> {
+
+    private static final int HEADER_SIZE = 1 + idSize;
+
+    private final List<String> fieldNames;
+    private final Map<Integer, SchemaResolverCache.Key> keys = new ConcurrentHashMap<>();
+    private SchemaResolverCache resolvers = SchemaResolverCache.shared();
+    private boolean ownsRegistry;
+
+    public ProjectionAvroDeserializer(String... fieldNames) {
+        if (fieldNames.length == 0)
+            throw new IllegalArgumentException("The projection needs at least one field");
+        this.fieldNames = List.of(fieldNames);
+    }
+
+    public ProjectionAvroDeserializer(SchemaRegistryClient client, String... fieldNames) {
+        this(fieldNames);
+        this.schemaRegistry = client;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        this.isKey = isKey;
+        if (schemaRegistry == null) {
+            schemaRegistry = PersistentSchemaRegistryClient.fromConfig(configs);
+            ownsRegistry = true;
+        }
+        configureClientProperties(new KafkaAvroDeserializerConfig(configs), new AvroSchemaProvider());
+        this.resolvers = SchemaResolverCache.fromConfig(configs);
+    }
+
+    @Override
+    public GenericRecord deserialize(String topic, byte[] data) {
+        if (data == null)
+            return null;
+        ByteBuffer buffer = getByteBuffer(data);
+        int id = buffer.getInt();
+        try {
+            return resolvers.<GenericRecord>reader(key(id)).read(null,
+                    DecoderFactory.get().binaryDecoder(data, HEADER_SIZE, data.length - HEADER_SIZE, null));
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Error deserializing Avro message for id " + id, e);
+        }
+    }
+
+    public List<String> getFieldNames() {
+        return fieldNames;
+    }
+
+    private SchemaResolverCache.Key key(int id) {
+        SchemaResolverCache.Key key = keys.get(id);
+        if (key == null) {
+            Schema writerSchema;
+            try {
+                writerSchema = ((AvroSchema) schemaRegistry.getSchemaById(id)).rawSchema();
+            } catch (IOException | RestClientException e) {
+                throw new SerializationException("Error retrieving Avro schema for id " + id, e);
+            }
+            key = SchemaResolverCache.key(writerSchema, projection(writerSchema, fieldNames), GenericData.get());
+            keys.put(id, key);
+        }
+        return key;
+    }
+
+    /**
+     * Reader schema with only some fields of the writer schema.
+     * The record keeps the name of the writer, so the avro schema resolution matches them
+     * @param writerSchema schema of the serialized records
+     * @param fieldNames projected fields
+     * @return the projected schema
+     */
+    public static Schema projection(Schema writerSchema, List<String> fieldNames) {
+        List<Schema.Field> fields = new ArrayList<>(fieldNames.size());
+        for (String fieldName : fieldNames) {
+            Schema.Field field = writerSchema.getField(fieldName);
+            if (field == null)
+                throw new IllegalArgumentException(
+                        "Field name " + fieldName + " in " + writerSchema.getFullName() + " doesn't exists");
+            fields.add(new Schema.Field(field, field.schema()));
+        }
+        return Schema.createRecord(writerSchema.getName(), writerSchema.getDoc(), writerSchema.getNamespace(),
+                false, fields);
+    }
+
+    @Override
+    public void close() {
+        // the client of the constructor can be shared with other serdes, only the one of the configuration is closed
+        if (ownsRegistry)
+            PersistentSchemaRegistryClient.close(schemaRegistry);
+    }
+}
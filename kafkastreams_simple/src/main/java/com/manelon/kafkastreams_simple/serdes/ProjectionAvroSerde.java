@@ -0,0 +1,65 @@
+package com.manelon.kafkastreams_simple.serdes;
+
+import java.util.Map;
+
+import org.apache.avro.generic.GenericRecord;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+import com.manelon.kafkastreams_common.serdes.PersistentSchemaRegistryClient;
+
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.streams.serdes.avro.GenericAvroSerde;
+
+/**
+ * Serde that deserializes only some fields, see {@link ProjectionAvroDeserializer}.
+ * The projected records are serialized like any other GenericRecord, with the projected schema
+ *
+ * Kafka Streams doesn't configure the serdes passed to Consumed or Produced, call
+ * {@link #configure(Map, boolean)} with the streams properties before using it.
+ */
+public class ProjectionAvroSerde implements Serde<GenericRecord> {
+
+    // without client it's created with the configuration, with a PersistentSchemaRegistryClient
+    private GenericAvroSerde inner;
+    private SchemaRegistryClient registry;
+    private final ProjectionAvroDeserializer deserializer;
+
+    public ProjectionAvroSerde(String... fieldNames) {
+        this.deserializer = new ProjectionAvroDeserializer(fieldNames);
+    }
+
+    public ProjectionAvroSerde(SchemaRegistryClient client, String... fieldNames) {
+        this.inner = new GenericAvroSerde(client);
+        this.deserializer = new ProjectionAvroDeserializer(client, fieldNames);
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        if (inner == null) {
+            registry = PersistentSchemaRegistryClient.fromConfig(configs);
+            inner = new GenericAvroSerde(registry);
+        }
+        inner.configure(configs, isKey);
+        deserializer.configure(configs, isKey);
+    }
+
+    @Override
+    public Serializer<GenericRecord> serializer() {
+        return inner.serializer();
+    }
+
+    @Override
+    public Deserializer<GenericRecord> deserializer() {
+        return deserializer;
+    }
+
+    @Override
+    public void close() {
+        if (inner != null)
+            inner.close();
+        deserializer.close();
+        PersistentSchemaRegistryClient.close(registry);
+    }
+}
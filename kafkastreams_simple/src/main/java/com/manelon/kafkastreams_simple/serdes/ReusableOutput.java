@@ -0,0 +1,59 @@
+package com.manelon.kafkastreams_simple.serdes;
+
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Growable byte array reused between records, unlike ByteArrayOutputStream the methods are not synchronized.
+ * It must be used by one thread.
+ */
+final class ReusableOutput extends OutputStream {
+
+    private static final int INITIAL_SIZE = 256;
+    // a big record shouldn't keep a big array forever
+    private static final int MAX_RETAINED_SIZE = 1 << 20;
+
+    private byte[] buffer = new byte[INITIAL_SIZE];
+    private int count;
+
+    @Override
+    public void write(int b) {
+        ensureCapacity(1);
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(bytes, offset, buffer, count, length);
+        count += length;
+    }
+
+    void writeInt(int value) {
+        ensureCapacity(4);
+        buffer[count++] = (byte) (value >>> 24);
+        buffer[count++] = (byte) (value >>> 16);
+        buffer[count++] = (byte) (value >>> 8);
+        buffer[count++] = (byte) value;
+    }
+
+    /**
+     * @return copy of the written bytes, the array is reset for the next record
+     */
+    byte[] toByteArrayAndReset() {
+        byte[] bytes = Arrays.copyOf(buffer, count);
+        count = 0;
+        if (buffer.length > MAX_RETAINED_SIZE)
+            buffer = new byte[INITIAL_SIZE];
+        return bytes;
+    }
+
+    void reset() {
+        count = 0;
+    }
+
+    private void ensureCapacity(int length) {
+        if (count + length > buffer.length)
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, count + length));
+    }
+}
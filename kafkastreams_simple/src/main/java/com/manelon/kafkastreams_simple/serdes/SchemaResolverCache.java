@@ -0,0 +1,211 @@
+package com.manelon.kafkastreams_simple.serdes;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.io.DatumReader;
+
+/**
+ * Resolving DatumReaders from a writer schema to a reader schema, cached by the 64 bits fingerprints of both schemas.
+ * The readers are shared by all the schema ids with the same writer schema (the same schema in different subjects,
+ * or registered again after a rollback), so a topic with several versions of a schema only builds one reader per
+ * version. Avro builds the resolving grammar once per thread and reader, it's reused while the reader is in the cache.
+ *
+ * The cache is bounded, the least recently used reader is evicted when it's full.
+ * The recency is the number of misses when the reader was last used, a hit doesn't write
+ * anything shared between threads but a volatile field that changes only after a miss.
+ *
+ * <pre>
+ * SchemaResolverCache.Key key = SchemaResolverCache.key(writerSchema, User.SCHEMA$, SpecificData.getForSchema(User.SCHEMA$));
+ * DatumReader&lt;User&gt; reader = SchemaResolverCache.shared().reader(key);
+ * </pre>
+ */
+public final class SchemaResolverCache {
+
+    /**
+     * Maximum number of readers of the serdes, when it's not configured they use the shared cache
+     */
+    public static final String SCHEMA_RESOLVER_CACHE_SIZE_CONFIG = "schema.resolver.cache.size";
+    public static final int DEFAULT_MAX_SIZE = 1000;
+
+    private static final SchemaResolverCache SHARED = new SchemaResolverCache(DEFAULT_MAX_SIZE);
+
+    private final int maxSize;
+    private final Map<Key, Entry> readers = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private volatile long clock;
+
+    public SchemaResolverCache(int maxSize) {
+        if (maxSize < 1)
+            throw new IllegalArgumentException("The maximum size of the cache must be positive, it is " + maxSize);
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return the cache of the serdes without {@link #SCHEMA_RESOLVER_CACHE_SIZE_CONFIG}
+     */
+    public static SchemaResolverCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * @param configs configuration of the serde
+     * @return a new cache with {@link #SCHEMA_RESOLVER_CACHE_SIZE_CONFIG} readers, or the shared one if it's not configured
+     */
+    public static SchemaResolverCache fromConfig(Map<String, ?> configs) {
+        Object maxSize = configs.get(SCHEMA_RESOLVER_CACHE_SIZE_CONFIG);
+        if (maxSize == null)
+            return SHARED;
+        return new SchemaResolverCache(Integer.parseInt(maxSize.toString()));
+    }
+
+    /**
+     * Fingerprints the schemas, the key should be kept by schema id so the schemas are fingerprinted only once
+     * @param writer schema of the serialized records
+     * @param reader schema of the records returned by the reader
+     * @param model data model of the reader (GenericData, SpecificData...), it creates the reader
+     */
+    public static Key key(Schema writer, Schema reader, GenericData model) {
+        return new Key(writer, reader, model);
+    }
+
+    /**
+     * Full schema fingerprint, the parsing canonical form removes the defaults and the logical types
+     * and both change how the records are resolved
+     */
+    static long fingerprint(Schema schema) {
+        return SchemaNormalization.fingerprint64(schema.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the resolving reader of the key, built and cached the first time
+     */
+    @SuppressWarnings("unchecked")
+    public <D> DatumReader<D> reader(Key key) {
+        Entry entry = readers.get(key);
+        if (entry == null)
+            return (DatumReader<D>) build(key);
+        hits.increment();
+        long now = clock;
+        if (entry.lastUse != now)
+            entry.lastUse = now;
+        return (DatumReader<D>) entry.reader;
+    }
+
+    private synchronized DatumReader<?> build(Key key) {
+        Entry entry = readers.get(key);
+        if (entry != null)
+            return entry.reader;
+        misses.increment();
+        if (readers.size() >= maxSize)
+            evict();
+        // the readers used after this miss are more recent than the new one
+        entry = new Entry(key.model.createDatumReader(key.writer, key.reader), clock + 1);
+        clock += 2;
+        readers.put(key, entry);
+        return entry.reader;
+    }
+
+    // called only when the cache is full, the scan is cheaper than keeping an ordered list on every hit
+    private void evict() {
+        Key oldest = null;
+        long oldestUse = Long.MAX_VALUE;
+        for (Map.Entry<Key, Entry> entry : readers.entrySet()) {
+            if (entry.getValue().lastUse < oldestUse) {
+                oldest = entry.getKey();
+                oldestUse = entry.getValue().lastUse;
+            }
+        }
+        if (oldest != null) {
+            readers.remove(oldest);
+            evictions.increment();
+        }
+    }
+
+    /**
+     * @return number of readers found in the cache
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of readers built
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return number of readers removed to keep the cache under the maximum size
+     */
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        return readers.size();
+    }
+
+    public int maxSize() {
+        return maxSize;
+    }
+
+    private static final class Entry {
+        private final DatumReader<?> reader;
+        private volatile long lastUse;
+
+        Entry(DatumReader<?> reader, long lastUse) {
+            this.reader = reader;
+            this.lastUse = lastUse;
+        }
+    }
+
+    /**
+     * Writer and reader fingerprints, and the data model of the reader
+     */
+    public static final class Key {
+        private final Schema writer;
+        private final Schema reader;
+        private final GenericData model;
+        private final long writerFingerprint;
+        private final long readerFingerprint;
+        private final int hash;
+
+        private Key(Schema writer, Schema reader, GenericData model) {
+            this.writer = writer;
+            this.reader = reader;
+            this.model = model;
+            this.writerFingerprint = fingerprint(writer);
+            this.readerFingerprint = fingerprint(reader);
+            this.hash = (Long.hashCode(writerFingerprint) * 31 + Long.hashCode(readerFingerprint)) * 31
+                    + System.identityHashCode(model);
+        }
+
+        public Schema getWriterSchema() {
+            return writer;
+        }
+
+        public Schema getReaderSchema() {
+            return reader;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key && ((Key) other).writerFingerprint == writerFingerprint
+                    && ((Key) other).readerFingerprint == readerFingerprint && ((Key) other).model == model;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.manelon.kafkastreams_simple.utils.avro;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.avro.Conversion;
+import org.apache.avro.Conversions;
+import org.apache.avro.LogicalType;
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Type;
+import org.apache.avro.data.TimeConversions;
+import org.apache.avro.generic.GenericRecord;
+
+/**
+ * A logical type field resolved once against a schema.
+ * The converters in this package look up the field by name, walk the union
+ * branches and switch on the logical type name on every call. A handle does
+ * that work only once, so reading or writing a record is a positional
+ * {@link GenericRecord#get(int)} / {@link GenericRecord#put(int, Object)} plus
+ * the conversion.
+ *
+ * Handles are immutable and cached by schema. The schemas cache their hash code and are compared by identity first,
+ * so the lookup with the same instance is cheap, and equal schemas (with the same logical types) parsed many times
+ * share the handles, the cache only grows with the distinct schemas.
+ * They can be stored in static fields and shared between stream threads.
+ *
+ * The handle works with the raw avro representation (int, long, ByteBuffer, CharSequence), the
+ * one used by GenericRecord. Generated SpecificRecords already convert dates and
+ * times, only their decimal fields can be used with a handle.
+ *
+ * <pre>
+ * AvroFieldHandle&lt;BigDecimal&gt; bankBalance = AvroFieldHandle.decimal(Vulcan.SCHEMA$, "BankBalance");
+ * BigDecimal value = bankBalance.get(vulcan);
+ * </pre>
+ *
+ * @param <T> the java type of the logical type
+ */
+public final class AvroFieldHandle<T> {
+
+    private static final Map<Schema, Map<String, AvroFieldHandle<?>>> CACHE = new ConcurrentHashMap<>();
+
+    private static final Conversion<BigDecimal> DECIMAL_CONVERSION = new Conversions.DecimalConversion();
+    private static final Conversion<LocalDate> DATE_CONVERSION = new TimeConversions.DateConversion();
+    private static final Conversion<LocalTime> TIME_MILLIS_CONVERSION = new TimeConversions.TimeMillisConversion();
+    private static final Conversion<LocalTime> TIME_MICROS_CONVERSION = new TimeConversions.TimeMicrosConversion();
+    private static final Conversion<Instant> TIMESTAMP_MILLIS_CONVERSION = new TimeConversions.TimestampMillisConversion();
+    private static final Conversion<Instant> TIMESTAMP_MICROS_CONVERSION = new TimeConversions.TimestampMicrosConversion();
+    private static final Conversion<LocalDateTime> LOCAL_TIMESTAMP_MILLIS_CONVERSION = new TimeConversions.LocalTimestampMillisConversion();
+    private static final Conversion<LocalDateTime> LOCAL_TIMESTAMP_MICROS_CONVERSION = new TimeConversions.LocalTimestampMicrosConversion();
+    private static final Conversion<UUID> UUID_CONVERSION = new Conversions.UUIDConversion();
+
+    private final String fieldName;
+    private final int position;
+    private final int unionBranch;
+    private final Schema schema;
+    private final LogicalType logicalType;
+    private final Type rawType;
+    private final Conversion<T> conversion;
+    private final int precision;
+    private final int scale;
+
+    private AvroFieldHandle(Schema.Field field, int unionBranch, Schema schema, Conversion<T> conversion) {
+        this.fieldName = field.name();
+        this.position = field.pos();
+        this.unionBranch = unionBranch;
+        this.schema = schema;
+        this.logicalType = schema.getLogicalType();
+        this.rawType = schema.getType();
+        this.conversion = conversion;
+        if (logicalType instanceof LogicalTypes.Decimal) {
+            this.precision = ((LogicalTypes.Decimal) logicalType).getPrecision();
+            this.scale = ((LogicalTypes.Decimal) logicalType).getScale();
+        } else {
+            this.precision = 0;
+            this.scale = 0;
+        }
+    }
+
+    /**
+     * Returns the handle of a decimal field
+     * @param schema record schema
+     * @param fieldName fieldName of logical type DECIMAL
+     * @return handle to read and write BigDecimals
+     */
+    @SuppressWarnings("unchecked")
+    public static AvroFieldHandle<BigDecimal> decimal(Schema schema, String fieldName) {
+        return (AvroFieldHandle<BigDecimal>) resolve(schema, fieldName, BigDecimal.class);
+    }
+
+    /**
+     * Returns the handle of a date field
+     * @param schema record schema
+     * @param fieldName fieldName of logical type DATE
+     * @return handle to read and write LocalDates
+     */
+    @SuppressWarnings("unchecked")
+    public static AvroFieldHandle<LocalDate> localDate(Schema schema, String fieldName) {
+        return (AvroFieldHandle<LocalDate>) resolve(schema, fieldName, LocalDate.class);
+    }
+
+    /**
+     * Returns the handle of a time field
+     * @param schema record schema
+     * @param fieldName fieldName of logical type TIME_MILLIS or TIME_MICROS
+     * @return handle to read and write LocalTimes
+     */
+    @SuppressWarnings("unchecked")
+    public static AvroFieldHandle<LocalTime> localTime(Schema schema, String fieldName) {
+        return (AvroFieldHandle<LocalTime>) resolve(schema, fieldName, LocalTime.class);
+    }
+
+    /**
+     * Returns the handle of a timestamp field
+     * @param schema record schema
+     * @param fieldName fieldName of logical type TIMESTAMP_MILLIS or TIMESTAMP_MICROS
+     * @return handle to read and write Instants
+     */
+    @SuppressWarnings("unchecked")
+    public static AvroFieldHandle<Instant> instant(Schema schema, String fieldName) {
+        return (AvroFieldHandle<Instant>) resolve(schema, fieldName, Instant.class);
+    }
+
+    /**
+     * Returns the handle of a local timestamp field
+     * @param schema record schema
+     * @param fieldName fieldName of logical type LOCAL_TIMESTAMP_MILLIS or LOCAL_TIMESTAMP_MICROS
+     * @return handle to read and write LocalDateTimes
+     */
+    @SuppressWarnings("unchecked")
+    public static AvroFieldHandle<LocalDateTime> localDateTime(Schema schema, String fieldName) {
+        return (AvroFieldHandle<LocalDateTime>) resolve(schema, fieldName, LocalDateTime.class);
+    }
+
+    /**
+     * Returns the handle of an uuid field
+     * @param schema record schema
+     * @param fieldName fieldName of logical type UUID
+     * @return handle to read and write UUIDs
+     */
+    @SuppressWarnings("unchecked")
+    public static AvroFieldHandle<UUID> uuid(Schema schema, String fieldName) {
+        return (AvroFieldHandle<UUID>) resolve(schema, fieldName, UUID.class);
+    }
+
+    private static AvroFieldHandle<?> resolve(Schema schema, String fieldName, Class<?> javaType) {
+        AvroFieldHandle<?> handle = CACHE
+                .computeIfAbsent(schema, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(fieldName, name -> create(schema, name));
+
+        if (!javaType.equals(handle.conversion.getConvertedType()))
+            throw new IllegalArgumentException("Field name " + fieldName + " in " + schema.getFullName()
+                    + " is " + handle.logicalType.getName() + ", it can't be converted to " + javaType.getSimpleName());
+        return handle;
+    }
+
+    private static AvroFieldHandle<?> create(Schema schema, String fieldName) {
+        Schema.Field field = schema.getField(fieldName);
+        if (field == null)
+            throw new IllegalArgumentException(
+                    "Field name " + fieldName + " in " + schema.getFullName() + " doesn't exists");
+
+        // Same rule than AvroUtils.getFieldLogicalType, in an union the first logical type wins
+        Schema fieldSchema = field.schema();
+        int unionBranch = -1;
+        if (Type.UNION.equals(fieldSchema.getType())) {
+            var types = fieldSchema.getTypes();
+            for (int i = 0; i < types.size() && unionBranch < 0; i++) {
+                if (types.get(i).getLogicalType() != null)
+                    unionBranch = i;
+            }
+            if (unionBranch < 0)
+                throw new IllegalArgumentException("Field name " + fieldName + " in " + schema.getFullName()
+                        + " has not a valid logical type field type");
+            fieldSchema = types.get(unionBranch);
+        }
+
+        LogicalType logicalType = fieldSchema.getLogicalType();
+        if (logicalType == null)
+            throw new IllegalArgumentException("Field name " + fieldName + " in " + schema.getFullName()
+                    + " has not a valid logical type field type");
+
+        switch (logicalType.getName()) {
+            case (AvroUtils.DECIMAL):
+                if (!Type.BYTES.equals(fieldSchema.getType()))
+                    throw new IllegalArgumentException("Field name " + fieldName + " in " + schema.getFullName()
+                            + " is a fixed decimal, only bytes decimals are supported");
+                return new AvroFieldHandle<>(field, unionBranch, fieldSchema, DECIMAL_CONVERSION);
+            case (AvroUtils.DATE):
+                return new AvroFieldHandle<>(field, unionBranch, fieldSchema, DATE_CONVERSION);
+            case (AvroUtils.TIME_MILLIS):
+                return new AvroFieldHandle<>(field, unionBranch, fieldSchema, TIME_MILLIS_CONVERSION);
+            case (AvroUtils.TIME_MICROS):
+                return new AvroFieldHandle<>(field, unionBranch, fieldSchema, TIME_MICROS_CONVERSION);
+            case (AvroUtils.TIMESTAMP_MILLIS):
+                return new AvroFieldHandle<>(field, unionBranch, fieldSchema, TIMESTAMP_MILLIS_CONVERSION);
+            case (AvroUtils.TIMESTAMP_MICROS):
+                return new AvroFieldHandle<>(field, unionBranch, fieldSchema, TIMESTAMP_MICROS_CONVERSION);
+            case (AvroUtils.LOCAL_TIMESTAMP_MILLIS):
+                return new AvroFieldHandle<>(field, unionBranch, fieldSchema, LOCAL_TIMESTAMP_MILLIS_CONVERSION);
+            case (AvroUtils.LOCAL_TIMESTAMP_MICROS):
+                return new AvroFieldHandle<>(field, unionBranch, fieldSchema, LOCAL_TIMESTAMP_MICROS_CONVERSION);
+            case (AvroUtils.UUID):
+                return new AvroFieldHandle<>(field, unionBranch, fieldSchema, UUID_CONVERSION);
+            default:
+                throw new IllegalArgumentException("Field name " + fieldName + " in " + schema.getFullName()
+                        + " has an unsupported logical type " + logicalType.getName());
+        }
+    }
+
+    /**
+     * Reads the field from an avro record
+     * @param avro avro record with the schema used to resolve this handle
+     * @return the converted value, null if the field is null
+     */
+    public T get(GenericRecord avro) {
+        return fromAvro(avro.get(position));
+    }
+
+    /**
+     * Sets the field in an avro record
+     * @param avro avro record with the schema used to resolve this handle
+     * @param value value to convert, null is only valid in nullable fields
+     */
+    public void set(GenericRecord avro, T value) {
+        avro.put(position, toAvro(value));
+    }
+
+    /**
+     * Converts a raw avro value (Integer, Long, ByteBuffer or CharSequence) to the logical type
+     * @param avroValue raw avro value
+     * @return the converted value, null if avroValue is null
+     */
+    public T fromAvro(Object avroValue) {
+        if (avroValue == null)
+            return null;
+        switch (rawType) {
+            case INT:
+                return conversion.fromInt((Integer) avroValue, schema, logicalType);
+            case LONG:
+                return conversion.fromLong((Long) avroValue, schema, logicalType);
+            case STRING:
+                return conversion.fromCharSequence((CharSequence) avroValue, schema, logicalType);
+            default:
+                return conversion.fromBytes(((ByteBuffer) avroValue).duplicate(), schema, logicalType);
+        }
+    }
+
+    /**
+     * Converts a value to its raw avro representation (Integer, Long, ByteBuffer or CharSequence)
+     * @param value value to convert
+     * @return the raw avro value, null if value is null
+     */
+    public Object toAvro(T value) {
+        if (value == null)
+            return null;
+        switch (rawType) {
+            case INT:
+                return conversion.toInt(value, schema, logicalType);
+            case LONG:
+                return conversion.toLong(value, schema, logicalType);
+            case STRING:
+                return conversion.toCharSequence(value, schema, logicalType);
+            default:
+                return conversion.toBytes(value, schema, logicalType);
+        }
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    /**
+     * @return position of the field in the record
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * @return index of the logical type in the field union, -1 if the field is not an union
+     */
+    public int getUnionBranch() {
+        return unionBranch;
+    }
+
+    /**
+     * @return the schema of the logical type (the union branch for nullable fields)
+     */
+    public Schema getSchema() {
+        return schema;
+    }
+
+    public LogicalType getLogicalType() {
+        return logicalType;
+    }
+
+    public Conversion<T> getConversion() {
+        return conversion;
+    }
+
+    /**
+     * @return decimal precision, 0 if the field is not a decimal
+     */
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * @return decimal scale, 0 if the field is not a decimal
+     */
+    public int getScale() {
+        return scale;
+    }
+}
@@ -46,8 +46,10 @@ public class AvroInstantConverter {
         switch(timeSchema.getLogicalType().getName()){
             case (AvroUtils.TIMESTAMP_MILLIS):
                 avro.put(fieldName, TIMESTAMP_MILIS_CONVERSION.toLong(value, timeSchema, timeSchema.getLogicalType())); 
-            case (AvroUtils.TIME_MICROS):
+                break;
+            case (AvroUtils.TIMESTAMP_MICROS):
                 avro.put(fieldName, TIMESTAMP_MICROS_CONVERSION.toLong(value, timeSchema, timeSchema.getLogicalType())); 
+                break;
             default:
                 throw new IllegalArgumentException(
                     "The Field " + fieldName + " is not an Avro Timestamp field");
@@ -0,0 +1,65 @@
+package com.manelon.kafkastreams_simple.utils.avro;
+
+import java.time.LocalDateTime;
+
+import org.apache.avro.Schema;
+import org.apache.avro.data.TimeConversions;
+import org.apache.avro.generic.GenericRecord;
+
+//see https://github.com/apache/avro/blob/master/lang/java/avro/src/main/java/org/apache/avro/data/TimeConversions.java
+public class AvroLocalDateTimeConverter {
+    protected static final TimeConversions.LocalTimestampMillisConversion LOCAL_TIMESTAMP_MILLIS_CONVERSION = new TimeConversions.LocalTimestampMillisConversion();
+    protected static final TimeConversions.LocalTimestampMicrosConversion LOCAL_TIMESTAMP_MICROS_CONVERSION = new TimeConversions.LocalTimestampMicrosConversion();
+
+    /**
+     * Returns the LocalDateTime from a avro record
+     * @param avro avro record
+     * @param fieldName fieldName of logical type LOCAL_TIMESTAMP_MILLIS or LOCAL_TIMESTAMP_MICROS
+     * @return LocalDateTime from avro record
+     */
+    public static LocalDateTime getLocalDateTime(GenericRecord avro, String fieldName) {
+        Schema timeSchema = AvroUtils.getFieldLogicalType(avro.getSchema(), fieldName);
+
+        switch (timeSchema.getLogicalType().getName()) {
+            case (AvroUtils.LOCAL_TIMESTAMP_MILLIS):
+                return LOCAL_TIMESTAMP_MILLIS_CONVERSION.fromLong((long) avro.get(fieldName), timeSchema, timeSchema.getLogicalType());
+            case (AvroUtils.LOCAL_TIMESTAMP_MICROS):
+                return LOCAL_TIMESTAMP_MICROS_CONVERSION.fromLong((long) avro.get(fieldName), timeSchema, timeSchema.getLogicalType());
+            default:
+                throw new IllegalArgumentException(
+                    "The Field " + fieldName + " is not an Avro Local Timestamp field");
+        }
+    }
+
+    /**
+     * Sets LocalDateTime to a field in an avro record
+     * @param avro avro record
+     * @param fieldName fieldName of logical type LOCAL_TIMESTAMP_MILLIS or LOCAL_TIMESTAMP_MICROS
+     * @param value LocalDateTime value
+     */
+    public static void setLocalDateTime(GenericRecord avro, String fieldName, LocalDateTime value) {
+        avro.put(fieldName, LocalDateTimeToAvro(avro.getSchema(), fieldName, value));
+    }
+
+    /**
+     * Returns an avro representantion of a LocalDateTime
+     * @param schema avro schema
+     * @param fieldName fieldName of logical type LOCAL_TIMESTAMP_MILLIS or LOCAL_TIMESTAMP_MICROS
+     * @param value a LocalDateTime
+     * @return a long that stores the number of milliseconds or microseconds from 1 January 1970 00:00:00, without time zone
+     * @see <a href="https://avro.apache.org/docs/1.11.1/specification/#local-timestamp-millisecond-precision">the avro specification</a>
+     */
+    public static long LocalDateTimeToAvro(Schema schema, String fieldName, LocalDateTime value) {
+        Schema timeSchema = AvroUtils.getFieldLogicalType(schema, fieldName);
+
+        switch (timeSchema.getLogicalType().getName()) {
+            case (AvroUtils.LOCAL_TIMESTAMP_MILLIS):
+                return LOCAL_TIMESTAMP_MILLIS_CONVERSION.toLong(value, timeSchema, timeSchema.getLogicalType());
+            case (AvroUtils.LOCAL_TIMESTAMP_MICROS):
+                return LOCAL_TIMESTAMP_MICROS_CONVERSION.toLong(value, timeSchema, timeSchema.getLogicalType());
+            default:
+                throw new IllegalArgumentException(
+                    "The Field " + fieldName + " is not an Avro Local Timestamp field");
+        }
+    }
+}
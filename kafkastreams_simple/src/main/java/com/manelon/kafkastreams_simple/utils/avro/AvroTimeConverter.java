@@ -48,8 +48,10 @@ public class AvroTimeConverter {
         switch (timeSchema.getLogicalType().getName()) {
             case (AvroUtils.TIME_MILLIS):
                 avro.put(fieldName, TIME_MILIS_CONVERSION.toInt(value, timeSchema, timeSchema.getLogicalType()));
+                break;
             case (AvroUtils.TIME_MICROS):
-                avro.put(fieldName, TIME_MILIS_CONVERSION.toLong(value, timeSchema, timeSchema.getLogicalType()));
+                avro.put(fieldName, TIME_MICROS_CONVERSION.toLong(value, timeSchema, timeSchema.getLogicalType()));
+                break;
             default:
                 throw new IllegalArgumentException(
                         "The Field " + fieldName + " is not a Avro Time field");
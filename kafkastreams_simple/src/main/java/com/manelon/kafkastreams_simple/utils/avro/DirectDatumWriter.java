@@ -0,0 +1,276 @@
+package com.manelon.kafkastreams_simple.utils.avro;
+
+import java.io.IOException;
+
+import org.apache.avro.LogicalType;
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Type;
+import org.apache.avro.io.Encoder;
+import org.apache.avro.util.Utf8;
+
+import com.manelon.kafkastreams_simple.utils.avro.simple.LongDecimalConverter;
+
+/**
+ * Writes records straight to an avro {@link Encoder} from primitive values, without building a GenericRecord.
+ * The fields are written in the order of the schema with typed methods: the logical types take their
+ * raw value (epoch day, micros, unscaled decimal), so no boxes, ByteBuffers or record objects are created.
+ *
+ * The field plan (type, logical type and union branches of every field) is validated once when the writer
+ * is built, every write only checks that it's the expected field and kind.
+ *
+ * <pre>
+ * DirectDatumWriter writer = DirectDatumWriter.of(Vulcan.SCHEMA$);
+ * writer.start(encoder)
+ *     .writeString("Name", "Spock")
+ *     .writeInt("Inteligence", 10)
+ *     .writeDecimal("BankBalance", 1701)
+ *     ...
+ *     .end();
+ * </pre>
+ *
+ * The writer keeps the position of the record being written, it's not thread safe (one per stream thread).
+ * Only flat records are supported, fields of type record, enum, fixed, array or map fail when the writer is built.
+ */
+public final class DirectDatumWriter {
+
+    /**
+     * What a field accepts, the raw type plus the logical type
+     */
+    enum Kind {
+        INT, LONG, STRING, DATE, TIME_MILLIS, TIME_MICROS, TIMESTAMP_MILLIS, TIMESTAMP_MICROS, DECIMAL
+    }
+
+    private final Schema schema;
+    private final String[] names;
+    private final Kind[] kinds;
+    // union index of the value and of the null, -1 if the field is not an union or it has not null
+    private final int[] valueBranches;
+    private final int[] nullBranches;
+    private final long[] maxUnscaled;
+    private final byte[] decimalBytes = new byte[Long.BYTES];
+    private Encoder encoder;
+    private int nextField = -1;
+
+    private DirectDatumWriter(Schema schema) {
+        if (!Type.RECORD.equals(schema.getType()))
+            throw new IllegalArgumentException("Schema " + schema.getFullName() + " is not a record");
+        this.schema = schema;
+        int size = schema.getFields().size();
+        this.names = new String[size];
+        this.kinds = new Kind[size];
+        this.valueBranches = new int[size];
+        this.nullBranches = new int[size];
+        this.maxUnscaled = new long[size];
+        for (Schema.Field field : schema.getFields()) {
+            plan(field);
+        }
+    }
+
+    /**
+     * Builds and validates the field plan of the schema
+     * @param schema record schema
+     * @return a new writer, not thread safe
+     */
+    public static DirectDatumWriter of(Schema schema) {
+        return new DirectDatumWriter(schema);
+    }
+
+    private void plan(Schema.Field field) {
+        int pos = field.pos();
+        names[pos] = field.name();
+        valueBranches[pos] = -1;
+        nullBranches[pos] = -1;
+        Schema valueSchema = field.schema();
+        if (Type.UNION.equals(valueSchema.getType())) {
+            var types = valueSchema.getTypes();
+            for (int i = 0; i < types.size(); i++) {
+                if (Type.NULL.equals(types.get(i).getType())) {
+                    nullBranches[pos] = i;
+                } else if (valueBranches[pos] < 0) {
+                    valueBranches[pos] = i;
+                } else {
+                    throw new IllegalArgumentException("Field name " + field.name() + " in " + schema.getFullName()
+                            + " is an union of several types, only unions with null are supported");
+                }
+            }
+            if (valueBranches[pos] < 0)
+                throw new IllegalArgumentException("Field name " + field.name() + " in " + schema.getFullName()
+                        + " is always null");
+            valueSchema = types.get(valueBranches[pos]);
+        }
+        kinds[pos] = kind(field, valueSchema);
+        if (Kind.DECIMAL.equals(kinds[pos])) {
+            int precision = ((LogicalTypes.Decimal) valueSchema.getLogicalType()).getPrecision();
+            maxUnscaled[pos] = precision > LongDecimalConverter.MAX_PRECISION ? Long.MAX_VALUE : pow10(precision) - 1;
+        }
+    }
+
+    private Kind kind(Schema.Field field, Schema valueSchema) {
+        LogicalType logicalType = valueSchema.getLogicalType();
+        Type type = valueSchema.getType();
+        if (logicalType == null) {
+            switch (type) {
+                case INT:
+                    return Kind.INT;
+                case LONG:
+                    return Kind.LONG;
+                case STRING:
+                    return Kind.STRING;
+                default:
+                    throw new IllegalArgumentException("Field name " + field.name() + " in " + schema.getFullName()
+                            + " has type " + type + ", it's not supported by the DirectDatumWriter");
+            }
+        }
+        if (logicalType instanceof LogicalTypes.Decimal && Type.BYTES.equals(type))
+            return Kind.DECIMAL;
+        if (logicalType instanceof LogicalTypes.Date)
+            return Kind.DATE;
+        if (logicalType instanceof LogicalTypes.TimeMillis)
+            return Kind.TIME_MILLIS;
+        if (logicalType instanceof LogicalTypes.TimeMicros)
+            return Kind.TIME_MICROS;
+        if (logicalType instanceof LogicalTypes.TimestampMillis)
+            return Kind.TIMESTAMP_MILLIS;
+        if (logicalType instanceof LogicalTypes.TimestampMicros)
+            return Kind.TIMESTAMP_MICROS;
+        throw new IllegalArgumentException("Field name " + field.name() + " in " + schema.getFullName()
+                + " has logical type " + logicalType.getName() + ", it's not supported by the DirectDatumWriter");
+    }
+
+    private static long pow10(int exponent) {
+        long value = 1;
+        for (int i = 0; i < exponent; i++) {
+            value *= 10;
+        }
+        return value;
+    }
+
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Starts a new record. A record that failed is abandoned, the bytes already written to its encoder must be discarded
+     * @param encoder encoder of the record
+     * @return this writer
+     */
+    public DirectDatumWriter start(Encoder encoder) {
+        this.encoder = encoder;
+        this.nextField = 0;
+        return this;
+    }
+
+    /**
+     * Ends the record, all the fields must have been written. The encoder is not flushed
+     */
+    public void end() {
+        if (nextField < 0)
+            throw new IllegalStateException("The record has not been started");
+        if (nextField < names.length)
+            throw new IllegalStateException("Field name " + names[nextField] + " in " + schema.getFullName()
+                    + " has not been written");
+        nextField = -1;
+        encoder = null;
+    }
+
+    public DirectDatumWriter writeInt(String fieldName, int value) throws IOException {
+        value(fieldName, Kind.INT).writeInt(value);
+        return this;
+    }
+
+    public DirectDatumWriter writeLong(String fieldName, long value) throws IOException {
+        value(fieldName, Kind.LONG).writeLong(value);
+        return this;
+    }
+
+    /**
+     * @param value the string, a Utf8 is written without encoding it again. null writes the null branch
+     */
+    public DirectDatumWriter writeString(String fieldName, CharSequence value) throws IOException {
+        if (value == null)
+            return writeNull(fieldName);
+        Encoder out = value(fieldName, Kind.STRING);
+        if (value instanceof Utf8)
+            out.writeString((Utf8) value);
+        else
+            out.writeString(value.toString());
+        return this;
+    }
+
+    /**
+     * @param epochDay days since 1970-01-01, {@link java.time.LocalDate#toEpochDay()}
+     */
+    public DirectDatumWriter writeDate(String fieldName, int epochDay) throws IOException {
+        value(fieldName, Kind.DATE).writeInt(epochDay);
+        return this;
+    }
+
+    public DirectDatumWriter writeTimeMillis(String fieldName, int millisOfDay) throws IOException {
+        value(fieldName, Kind.TIME_MILLIS).writeInt(millisOfDay);
+        return this;
+    }
+
+    public DirectDatumWriter writeTimeMicros(String fieldName, long microsOfDay) throws IOException {
+        value(fieldName, Kind.TIME_MICROS).writeLong(microsOfDay);
+        return this;
+    }
+
+    public DirectDatumWriter writeTimestampMillis(String fieldName, long epochMillis) throws IOException {
+        value(fieldName, Kind.TIMESTAMP_MILLIS).writeLong(epochMillis);
+        return this;
+    }
+
+    public DirectDatumWriter writeTimestampMicros(String fieldName, long epochMicros) throws IOException {
+        value(fieldName, Kind.TIMESTAMP_MICROS).writeLong(epochMicros);
+        return this;
+    }
+
+    /**
+     * Writes a decimal from its unscaled value with the scale of the schema, 17.01 with scale 2 is 1701.
+     * The bytes are written from the long, see {@link LongDecimalConverter}
+     * @param unscaled unscaled value, it must fit in the precision of the field
+     */
+    public DirectDatumWriter writeDecimal(String fieldName, long unscaled) throws IOException {
+        int pos = nextField;
+        Encoder out = value(fieldName, Kind.DECIMAL);
+        if (unscaled > maxUnscaled[pos] || unscaled < -maxUnscaled[pos])
+            throw new IllegalArgumentException("Field name " + fieldName + " in " + schema.getFullName()
+                    + " has not enough precision for the unscaled value " + unscaled);
+        int length = LongDecimalConverter.byteLength(unscaled);
+        for (int i = 0, shift = (length - 1) << 3; i < length; i++, shift -= 8) {
+            decimalBytes[i] = (byte) (unscaled >> shift);
+        }
+        out.writeBytes(decimalBytes, 0, length);
+        return this;
+    }
+
+    public DirectDatumWriter writeNull(String fieldName) throws IOException {
+        int pos = next(fieldName);
+        if (nullBranches[pos] < 0)
+            throw new IllegalArgumentException("Field name " + fieldName + " in " + schema.getFullName()
+                    + " doesn't accept null");
+        encoder.writeIndex(nullBranches[pos]);
+        return this;
+    }
+
+    // checks the field and writes the union index of the value
+    private Encoder value(String fieldName, Kind kind) throws IOException {
+        int pos = next(fieldName);
+        if (kinds[pos] != kind)
+            throw new IllegalArgumentException("Field name " + fieldName + " in " + schema.getFullName()
+                    + " is " + kinds[pos] + ", it can't be written as " + kind);
+        if (valueBranches[pos] >= 0)
+            encoder.writeIndex(valueBranches[pos]);
+        return encoder;
+    }
+
+    private int next(String fieldName) {
+        if (nextField < 0)
+            throw new IllegalStateException("The record has not been started");
+        if (nextField >= names.length || !names[nextField].equals(fieldName))
+            throw new IllegalArgumentException("Field name " + fieldName + " in " + schema.getFullName()
+                    + " is not the next field, expected " + (nextField < names.length ? names[nextField] : "none"));
+        return nextField++;
+    }
+}
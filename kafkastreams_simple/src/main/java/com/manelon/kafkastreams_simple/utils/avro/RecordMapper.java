@@ -0,0 +1,261 @@
+package com.manelon.kafkastreams_simple.utils.avro;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.avro.Conversion;
+import org.apache.avro.Conversions;
+import org.apache.avro.LogicalType;
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Type;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.generic.IndexedRecord;
+import org.apache.avro.specific.SpecificData;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.avro.specific.SpecificRecordBase;
+
+/**
+ * Copies GenericRecords to generated SpecificRecords and back.
+ * The field matching (by name) and the logical conversions of the generated class are resolved
+ * once when the mapper is built, so every record is copied by position with
+ * {@link GenericRecord#get(int)} and {@link SpecificRecord#put(int, Object)}, no name lookups or reflection.
+ *
+ * The mappers are cached by writer schema and target class, they are immutable and can be shared between stream
+ * threads. Build the mapper once per writer schema (a static field, or the init of the processor) and reuse it for
+ * every record:
+ *
+ * <pre>
+ * private static final RecordMapper&lt;Vulcan&gt; VULCANS = RecordMapper.of(VULCAN_V1_SCHEMA, Vulcan.class);
+ * ...
+ * Vulcan spock = VULCANS.toSpecific(genericVulcan);
+ * </pre>
+ *
+ * Only flat records are supported: fields of type record, enum, fixed, array or map fail when the mapper is built.
+ * @param <T> the generated class
+ */
+public final class RecordMapper<T extends SpecificRecord> {
+
+    private static final Map<Class<?>, Map<Schema, RecordMapper<?>>> CACHE = new ConcurrentHashMap<>();
+
+    private final Schema writerSchema;
+    private final Schema readerSchema;
+    private final MethodHandle constructor;
+    private final FieldCopy[] toSpecific;
+    private final FieldCopy[] toGeneric;
+    private final IllegalArgumentException toSpecificError;
+    private final IllegalArgumentException toGenericError;
+
+    private RecordMapper(Schema writerSchema, Class<T> specificClass) {
+        this.writerSchema = writerSchema;
+        SpecificData model = SpecificData.getForClass(specificClass);
+        this.readerSchema = model.getSchema(specificClass);
+        try {
+            this.constructor = MethodHandles.publicLookup()
+                    .findConstructor(specificClass, MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(SpecificRecord.class));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException(specificClass.getName() + " has not a public constructor without arguments", e);
+        }
+
+        // Same conversions than the SpecificDatumReader: the generated class knows the conversion of every field
+        // (decimals are ByteBuffer unless enabled in the plugin), union branches use the class model
+        Conversion<?>[] conversions = new Conversion<?>[readerSchema.getFields().size()];
+        SpecificRecord prototype = newRecord();
+        for (Schema.Field field : readerSchema.getFields()) {
+            Schema logicalSchema = logicalBranch(field.schema());
+            if (logicalSchema == null)
+                continue;
+            if (Type.UNION.equals(field.schema().getType()))
+                conversions[field.pos()] = model.getConversionFor(logicalSchema.getLogicalType());
+            else if (prototype instanceof SpecificRecordBase)
+                conversions[field.pos()] = ((SpecificRecordBase) prototype).getConversion(field.pos());
+        }
+
+        // A direction can be impossible (a field without default value), the error is thrown when it is used
+        FieldCopy[] toSpecificPlan = null;
+        FieldCopy[] toGenericPlan = null;
+        IllegalArgumentException toSpecificError = null;
+        IllegalArgumentException toGenericError = null;
+        try {
+            toSpecificPlan = plan(readerSchema, writerSchema, conversions, model, true);
+        } catch (IllegalArgumentException e) {
+            toSpecificError = e;
+        }
+        try {
+            toGenericPlan = plan(writerSchema, readerSchema, conversions, model, false);
+        } catch (IllegalArgumentException e) {
+            toGenericError = e;
+        }
+        if (toSpecificError != null && toGenericError != null)
+            throw toSpecificError;
+        this.toSpecific = toSpecificPlan;
+        this.toGeneric = toGenericPlan;
+        this.toSpecificError = toSpecificError;
+        this.toGenericError = toGenericError;
+    }
+
+    /**
+     * Returns the mapper between a writer schema and a generated class
+     * @param writerSchema schema of the GenericRecords
+     * @param specificClass generated class
+     * @return mapper, built only the first time. The schemas cache their hash code and are compared by identity
+     *         first, equal schemas (with the same logical types) parsed many times share the mapper
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends SpecificRecord> RecordMapper<T> of(Schema writerSchema, Class<T> specificClass) {
+        return (RecordMapper<T>) CACHE
+                .computeIfAbsent(specificClass, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(writerSchema, schema -> new RecordMapper<>(schema, specificClass));
+    }
+
+    /**
+     * Copies a GenericRecord with the writer schema to a new instance of the generated class
+     * Fields that are not in the writer schema get their default value
+     * @param avro generic record
+     * @return the specific record
+     */
+    public T toSpecific(GenericRecord avro) {
+        if (toSpecific == null)
+            throw new IllegalArgumentException(toSpecificError.getMessage(), toSpecificError);
+        T specific = newRecord();
+        for (FieldCopy field : toSpecific) {
+            specific.put(field.target, field.copy(avro));
+        }
+        return specific;
+    }
+
+    /**
+     * Copies a generated record to a new GenericRecord with the writer schema
+     * Fields that are not in the generated class get their default value
+     * @param specific the specific record
+     * @return generic record
+     */
+    public GenericRecord toGeneric(T specific) {
+        if (toGeneric == null)
+            throw new IllegalArgumentException(toGenericError.getMessage(), toGenericError);
+        GenericData.Record avro = new GenericData.Record(writerSchema);
+        for (FieldCopy field : toGeneric) {
+            avro.put(field.target, field.copy(specific));
+        }
+        return avro;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T newRecord() {
+        try {
+            return (T) (SpecificRecord) constructor.invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Unable to create " + readerSchema.getFullName(), e);
+        }
+    }
+
+    public Schema getWriterSchema() {
+        return writerSchema;
+    }
+
+    public Schema getReaderSchema() {
+        return readerSchema;
+    }
+
+    private static FieldCopy[] plan(Schema target, Schema source, Conversion<?>[] conversions, SpecificData model, boolean convert) {
+        FieldCopy[] plan = new FieldCopy[target.getFields().size()];
+        for (Schema.Field targetField : target.getFields()) {
+            Schema.Field sourceField = source.getField(targetField.name());
+            if (sourceField == null) {
+                if (!targetField.hasDefaultValue())
+                    throw new IllegalArgumentException("Field name " + targetField.name() + " in " + target.getFullName()
+                            + " doesn't exists in " + source.getFullName() + " and has no default value");
+                // the default of a specific record has the logical conversions applied, the generic one not
+                GenericData data = convert ? model : GenericData.get();
+                plan[targetField.pos()] = new FieldCopy(targetField.pos(), -1, targetField.schema(), data, data.getDefaultValue(targetField), null, convert);
+                continue;
+            }
+            if (!sameType(targetField.schema(), sourceField.schema()))
+                throw new IllegalArgumentException("Field name " + targetField.name() + " has different types in "
+                        + target.getFullName() + " and " + source.getFullName());
+
+            Schema logicalSchema = logicalBranch(targetField.schema());
+            Conversion<?> conversion = logicalSchema == null ? null : conversions[convert ? targetField.pos() : sourceField.pos()];
+            plan[targetField.pos()] = new FieldCopy(targetField.pos(), sourceField.pos(), logicalSchema, null, null, conversion, convert);
+        }
+        return plan;
+    }
+
+    private static boolean sameType(Schema target, Schema source) {
+        if (target.getType() != source.getType())
+            return false;
+        switch (target.getType()) {
+            case UNION:
+                if (target.getTypes().size() != source.getTypes().size())
+                    return false;
+                for (int i = 0; i < target.getTypes().size(); i++) {
+                    if (!sameType(target.getTypes().get(i), source.getTypes().get(i)))
+                        return false;
+                }
+                return true;
+            case RECORD:
+            case ENUM:
+            case FIXED:
+            case ARRAY:
+            case MAP:
+                throw new IllegalArgumentException("Type " + target.getType() + " is not supported by the RecordMapper");
+            default:
+                return Objects.equals(target.getLogicalType(), source.getLogicalType());
+        }
+    }
+
+    // Same rule than AvroUtils.getFieldLogicalType, in an union the first logical type wins
+    private static Schema logicalBranch(Schema fieldSchema) {
+        if (Type.UNION.equals(fieldSchema.getType())) {
+            for (Schema typeSchema : fieldSchema.getTypes()) {
+                if (typeSchema.getLogicalType() != null)
+                    return typeSchema;
+            }
+            return null;
+        }
+        return fieldSchema.getLogicalType() != null ? fieldSchema : null;
+    }
+
+    /**
+     * Copy of one field, resolved when the mapper is built
+     */
+    private static final class FieldCopy {
+        private final int target;
+        private final int source;
+        private final Schema schema;
+        private final LogicalType logicalType;
+        private final GenericData data;
+        private final Object defaultValue;
+        @SuppressWarnings("rawtypes")
+        private final Conversion conversion;
+        private final boolean toLogical;
+
+        FieldCopy(int target, int source, Schema schema, GenericData data, Object defaultValue, Conversion<?> conversion, boolean toLogical) {
+            this.target = target;
+            this.source = source;
+            this.schema = schema;
+            this.logicalType = schema == null ? null : schema.getLogicalType();
+            this.data = data;
+            this.defaultValue = defaultValue;
+            this.conversion = conversion;
+            this.toLogical = toLogical;
+        }
+
+        @SuppressWarnings("unchecked")
+        Object copy(IndexedRecord from) {
+            if (source < 0)
+                return data.deepCopy(schema, defaultValue);
+            Object value = from.get(source);
+            if (value == null || conversion == null)
+                return value;
+            return toLogical
+                    ? Conversions.convertToLogicalType(value, schema, logicalType, conversion)
+                    : Conversions.convertToRawType(value, schema, logicalType, conversion);
+        }
+    }
+}
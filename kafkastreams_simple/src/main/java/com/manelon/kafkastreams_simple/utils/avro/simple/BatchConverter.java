@@ -0,0 +1,233 @@
+package com.manelon.kafkastreams_simple.utils.avro.simple;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Conversions of whole arrays, useful for backfills and reprocessing
+ * Same conversions than the simple converters (no validation), but the values are read and
+ * written in primitive arrays, so the micros variants don't box into Long and the loops are
+ * simple enough to be unrolled by the JIT. Loops between primitive arrays can be vectorized too.
+ *
+ * Every conversion has a range version, so big arrays can be split between threads with {@link #inParallel(int, RangeConversion)}
+ * <pre>
+ * BatchConverter.inParallel(instants.length, (from, to) -&gt; BatchConverter.toAvroMicros(instants, micros, from, to));
+ * </pre>
+ */
+public class BatchConverter {
+
+    /**
+     * Smaller chunks are not worth the cost of the fork join tasks
+     */
+    public static final int MIN_PARALLEL_CHUNK = 1 << 14;
+
+    /**
+     * Conversion of the positions between from (inclusive) and to (exclusive)
+     */
+    @FunctionalInterface
+    public interface RangeConversion {
+        void convert(int from, int to);
+    }
+
+    /**
+     * Splits the conversion of an array in chunks executed in the common fork join pool
+     * Arrays smaller than two chunks are converted in the calling thread
+     * @param length length of the arrays to convert
+     * @param conversion range conversion, it should write only the positions of its range
+     */
+    public static void inParallel(int length, RangeConversion conversion) {
+        int chunks = Math.min(length / MIN_PARALLEL_CHUNK, Runtime.getRuntime().availableProcessors() * 4);
+        if (chunks < 2) {
+            conversion.convert(0, length);
+            return;
+        }
+        int chunkSize = (length + chunks - 1) / chunks;
+        IntStream.range(0, chunks).parallel()
+                .forEach(chunk -> conversion.convert(chunk * chunkSize, Math.min(length, (chunk + 1) * chunkSize)));
+    }
+
+    // Instant
+
+    public static void toAvroMillis(Instant[] instants, long[] millis) {
+        toAvroMillis(instants, millis, 0, instants.length);
+    }
+
+    public static void toAvroMillis(Instant[] instants, long[] millis, int from, int to) {
+        for (int i = from; i < to; i++) {
+            millis[i] = instants[i].toEpochMilli();
+        }
+    }
+
+    public static void fromAvroMillis(long[] millis, Instant[] instants) {
+        fromAvroMillis(millis, instants, 0, millis.length);
+    }
+
+    public static void fromAvroMillis(long[] millis, Instant[] instants, int from, int to) {
+        for (int i = from; i < to; i++) {
+            instants[i] = Instant.ofEpochMilli(millis[i]);
+        }
+    }
+
+    public static void toAvroMicros(Instant[] instants, long[] micros) {
+        toAvroMicros(instants, micros, 0, instants.length);
+    }
+
+    /**
+     * Same conversion than {@link InstantConverter#toAvroMicros(Instant)} without boxing
+     */
+    public static void toAvroMicros(Instant[] instants, long[] micros, int from, int to) {
+        for (int i = from; i < to; i++) {
+            long seconds = instants[i].getEpochSecond();
+            int nanos = instants[i].getNano();
+            if (seconds < 0 && nanos > 0) {
+                micros[i] = Math.addExact(Math.multiplyExact(seconds + 1, 1_000_000L), (nanos / 1_000L) - 1_000_000);
+            } else {
+                micros[i] = Math.addExact(Math.multiplyExact(seconds, 1_000_000L), nanos / 1_000L);
+            }
+        }
+    }
+
+    public static void fromAvroMicros(long[] micros, Instant[] instants) {
+        fromAvroMicros(micros, instants, 0, micros.length);
+    }
+
+    /**
+     * Same conversion than {@link InstantConverter#fromAvroMicros(Long)} without boxing
+     */
+    public static void fromAvroMicros(long[] micros, Instant[] instants, int from, int to) {
+        for (int i = from; i < to; i++) {
+            instants[i] = Instant.ofEpochSecond(micros[i] / 1_000_000L, (micros[i] % 1_000_000L) * 1_000L);
+        }
+    }
+
+    /**
+     * Changes the precision of timestamps, it truncates to the previous millisecond like Instant.toEpochMilli()
+     * Only primitive arrays are used, this loop can be vectorized
+     */
+    public static void microsToMillis(long[] micros, long[] millis) {
+        for (int i = 0; i < micros.length; i++) {
+            millis[i] = Math.floorDiv(micros[i], 1_000L);
+        }
+    }
+
+    /**
+     * Changes the precision of timestamps
+     * Only primitive arrays are used, this loop can be vectorized
+     */
+    public static void millisToMicros(long[] millis, long[] micros) {
+        for (int i = 0; i < millis.length; i++) {
+            micros[i] = millis[i] * 1_000L;
+        }
+    }
+
+    // LocalDate
+
+    public static void toAvro(LocalDate[] dates, int[] epochDays) {
+        toAvro(dates, epochDays, 0, dates.length);
+    }
+
+    public static void toAvro(LocalDate[] dates, int[] epochDays, int from, int to) {
+        for (int i = from; i < to; i++) {
+            epochDays[i] = (int) dates[i].toEpochDay();
+        }
+    }
+
+    public static void fromAvro(int[] epochDays, LocalDate[] dates) {
+        fromAvro(epochDays, dates, 0, epochDays.length);
+    }
+
+    public static void fromAvro(int[] epochDays, LocalDate[] dates, int from, int to) {
+        for (int i = from; i < to; i++) {
+            dates[i] = LocalDate.ofEpochDay(epochDays[i]);
+        }
+    }
+
+    // LocalTime
+
+    public static void toAvroMillis(LocalTime[] times, int[] millis) {
+        toAvroMillis(times, millis, 0, times.length);
+    }
+
+    public static void toAvroMillis(LocalTime[] times, int[] millis, int from, int to) {
+        for (int i = from; i < to; i++) {
+            millis[i] = (int) TimeUnit.NANOSECONDS.toMillis(times[i].toNanoOfDay());
+        }
+    }
+
+    public static void fromAvroMillis(int[] millis, LocalTime[] times) {
+        fromAvroMillis(millis, times, 0, millis.length);
+    }
+
+    public static void fromAvroMillis(int[] millis, LocalTime[] times, int from, int to) {
+        for (int i = from; i < to; i++) {
+            times[i] = LocalTime.ofNanoOfDay(millis[i] * 1_000_000L);
+        }
+    }
+
+    public static void toAvroMicros(LocalTime[] times, long[] micros) {
+        toAvroMicros(times, micros, 0, times.length);
+    }
+
+    public static void toAvroMicros(LocalTime[] times, long[] micros, int from, int to) {
+        for (int i = from; i < to; i++) {
+            micros[i] = times[i].toNanoOfDay() / 1_000L;
+        }
+    }
+
+    public static void fromAvroMicros(long[] micros, LocalTime[] times) {
+        fromAvroMicros(micros, times, 0, micros.length);
+    }
+
+    public static void fromAvroMicros(long[] micros, LocalTime[] times, int from, int to) {
+        for (int i = from; i < to; i++) {
+            times[i] = LocalTime.ofNanoOfDay(micros[i] * 1_000L);
+        }
+    }
+
+    // Decimal
+
+    /**
+     * Encodes unscaled decimals (see {@link LongDecimalConverter}) in one shared array
+     * Every ByteBuffer is a slice of the same byte array of 8 bytes per value, so the conversion
+     * only allocates the array and the buffers
+     * @param unscaled unscaled values
+     * @return avro decimals
+     */
+    public static ByteBuffer[] toAvroDecimals(long[] unscaled) {
+        ByteBuffer[] decimals = new ByteBuffer[unscaled.length];
+        toAvroDecimals(unscaled, decimals, new byte[unscaled.length * Long.BYTES], 0, unscaled.length);
+        return decimals;
+    }
+
+    /**
+     * Encodes the range of unscaled decimals in the shared array, position i uses the bytes from i * 8
+     * @param unscaled unscaled values
+     * @param decimals avro decimals
+     * @param bytes shared array with 8 bytes per value
+     */
+    public static void toAvroDecimals(long[] unscaled, ByteBuffer[] decimals, byte[] bytes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            long value = unscaled[i];
+            int length = LongDecimalConverter.byteLength(value);
+            int offset = i * Long.BYTES;
+            for (int b = 0; b < length; b++) {
+                bytes[offset + b] = (byte) (value >> ((length - 1 - b) << 3));
+            }
+            decimals[i] = ByteBuffer.wrap(bytes, offset, length).slice();
+        }
+    }
+
+    public static void fromAvroDecimals(ByteBuffer[] decimals, long[] unscaled) {
+        fromAvroDecimals(decimals, unscaled, 0, decimals.length);
+    }
+
+    public static void fromAvroDecimals(ByteBuffer[] decimals, long[] unscaled, int from, int to) {
+        for (int i = from; i < to; i++) {
+            unscaled[i] = LongDecimalConverter.fromAvro(decimals[i]);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.manelon.kafkastreams_simple.utils.avro.simple;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Conversions of the local-timestamp logical types, the LocalDateTime is stored as if it were UTC
+ */
+public class LocalDateTimeConverter {
+    public static long toAvroMillis(LocalDateTime dateTime) {
+        return Math.addExact(Math.multiplyExact(dateTime.toEpochSecond(ZoneOffset.UTC), 1_000L),
+                dateTime.getNano() / 1_000_000);
+    }
+
+    public static LocalDateTime fromAvroMillis(long millisFromEpoch) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millisFromEpoch, 1_000L),
+                (int) Math.floorMod(millisFromEpoch, 1_000L) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    public static long toAvroMicros(LocalDateTime dateTime) {
+        return Math.addExact(Math.multiplyExact(dateTime.toEpochSecond(ZoneOffset.UTC), 1_000_000L),
+                dateTime.getNano() / 1_000);
+    }
+
+    public static LocalDateTime fromAvroMicros(long microsFromEpoch) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(microsFromEpoch, 1_000_000L),
+                (int) Math.floorMod(microsFromEpoch, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,148 @@
+package com.manelon.kafkastreams_simple.utils.avro.simple;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+
+/**
+ * Decimal conversions for decimals that fit in a long (precision up to 18 digits)
+ * The decimal is handled as its unscaled value, 17.01 with scale 2 is 1701
+ * Avro stores the unscaled value as two's-complement big-endian bytes, the same bytes
+ * than BigInteger.toByteArray(), but here they are written and read directly from the long,
+ * so no BigInteger, byte[] or BigDecimal is created.
+ * @see <a href="https://avro.apache.org/docs/1.11.1/specification/#decimal"> avro decimal specification </a>
+ */
+public class LongDecimalConverter {
+
+    /**
+     * Max precision that always fits in a long (Long.MAX_VALUE has 19 digits)
+     */
+    public static final int MAX_PRECISION = 18;
+
+    private static final ThreadLocal<ByteBuffer> BUFFER = ThreadLocal.withInitial(() -> ByteBuffer.allocate(Long.BYTES));
+
+    /**
+     * Number of bytes needed to store the unscaled value, the same length than BigInteger.toByteArray()
+     * @param unscaled unscaled value
+     * @return number of bytes between 1 and 8
+     */
+    public static int byteLength(long unscaled) {
+        // bits without the repeated sign bits, plus the sign bit
+        int bits = Long.SIZE + 1 - Long.numberOfLeadingZeros(unscaled ^ (unscaled >> 63));
+        return (bits + 7) >>> 3;
+    }
+
+    /**
+     * Writes the unscaled value in the buffer
+     * The buffer is cleared and flipped, so it is ready to be read (or set in an avro record)
+     * @param unscaled unscaled value
+     * @param buffer buffer with at least 8 bytes of capacity
+     * @return the same buffer
+     */
+    public static ByteBuffer toAvro(long unscaled, ByteBuffer buffer) {
+        int length = byteLength(unscaled);
+        buffer.clear();
+        for (int shift = (length - 1) << 3; shift >= 0; shift -= 8) {
+            buffer.put((byte) (unscaled >> shift));
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Writes the unscaled value in a buffer owned by the current thread
+     * The buffer is overwritten in the next call from the same thread, it should be serialized
+     * before that, for example it can't be used for two fields of the same record.
+     * Use {@link #toAvro(long, ByteBuffer)} when the buffer has to live longer
+     * @param unscaled unscaled value
+     * @return thread local buffer with the avro decimal
+     */
+    public static ByteBuffer toAvro(long unscaled) {
+        return toAvro(unscaled, BUFFER.get());
+    }
+
+    /**
+     * Reads the unscaled value of an avro decimal, the buffer position is not modified
+     * @param value the avro decimal
+     * @return the unscaled value
+     * @throws ArithmeticException if the value doesn't fit in a long
+     */
+    public static long fromAvro(ByteBuffer value) {
+        int position = value.position();
+        int length = value.remaining();
+        if (length == 0)
+            return 0;
+
+        // the first byte is sign extended
+        long unscaled = value.get(position);
+        int start = 1;
+        if (length > Long.BYTES) {
+            // Bigger encoders can add sign bytes, they are valid only if they don't change the value
+            int signBytes = length - Long.BYTES;
+            if (unscaled != 0 && unscaled != -1)
+                throw new ArithmeticException("Avro decimal of " + length + " bytes doesn't fit in a long");
+            for (int i = 1; i < signBytes; i++) {
+                if (value.get(position + i) != (byte) unscaled)
+                    throw new ArithmeticException("Avro decimal of " + length + " bytes doesn't fit in a long");
+            }
+            if ((value.get(position + signBytes) ^ unscaled) < 0)
+                throw new ArithmeticException("Avro decimal of " + length + " bytes doesn't fit in a long");
+            unscaled = value.get(position + signBytes);
+            start = signBytes + 1;
+        }
+        for (int i = start; i < length; i++) {
+            unscaled = (unscaled << 8) | (value.get(position + i) & 0xFF);
+        }
+        return unscaled;
+    }
+
+    /**
+     * Converts an avro decimal to BigDecimal
+     * When precision is up to 18 the value is read as a long, so no intermediate objects are created.
+     * Only bigger precisions use the BigInteger path of {@link DecimalConverter#fromAvro(ByteBuffer, int)}
+     * @param value the avro decimal
+     * @param precision the precision in the decimal schema
+     * @param scale the scale in the decimal schema
+     * @return BigDecimal
+     */
+    public static BigDecimal fromAvro(ByteBuffer value, int precision, int scale) {
+        if (precision > MAX_PRECISION)
+            return DecimalConverter.fromAvro(value, scale);
+        return BigDecimal.valueOf(fromAvro(value), scale);
+    }
+
+    /**
+     * Converts a BigDecimal to an avro decimal
+     * When precision is up to 18 the bytes are written in the buffer, bigger precisions use {@link DecimalConverter#toAvro(BigDecimal)}
+     * The BigDecimal should have the same scale than the schema
+     * @param value the BigDecimal
+     * @param precision the precision in the decimal schema
+     * @param buffer buffer with at least 8 bytes of capacity, not used when precision is bigger than 18
+     * @return the avro decimal
+     */
+    public static ByteBuffer toAvro(BigDecimal value, int precision, ByteBuffer buffer) {
+        if (precision > MAX_PRECISION)
+            return DecimalConverter.toAvro(value);
+        return toAvro(value.unscaledValue().longValueExact(), buffer);
+    }
+
+    /**
+     * Unscaled value of a BigDecimal in the given scale
+     * @param value the BigDecimal
+     * @param scale the scale in the decimal schema
+     * @return the unscaled value
+     * @throws ArithmeticException if the value needs rounding or doesn't fit in a long
+     */
+    public static long toUnscaled(BigDecimal value, int scale) {
+        return value.setScale(scale).unscaledValue().longValueExact();
+    }
+
+    /**
+     * BigDecimal from an unscaled value
+     * @param unscaled the unscaled value
+     * @param scale the scale in the decimal schema
+     * @return the BigDecimal
+     */
+    public static BigDecimal fromUnscaled(long unscaled, int scale) {
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+}
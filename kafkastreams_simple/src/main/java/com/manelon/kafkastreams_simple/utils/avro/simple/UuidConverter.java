@@ -0,0 +1,202 @@
+package com.manelon.kafkastreams_simple.utils.avro.simple;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericFixed;
+import org.apache.avro.util.Utf8;
+
+/**
+ * Conversions of the uuid logical type.
+ * The string representation is formatted and parsed with lookup tables, a byte at a time when it's formatted
+ * and four digits at a time when it's parsed. Only the canonical form (8-4-4-4-12 hex digits, any case) is
+ * accepted, the one written by {@link UUID#toString()} and by the avro UUIDConversion.
+ * The {@link Utf8} methods work with the bytes read and written by avro, without decoding or encoding a String.
+ *
+ * The uuid can also be stored as a fixed of 16 bytes (big endian, most significant bits first), read and written
+ * as two longs so the processors can compare or hash it without creating an UUID.
+ */
+public class UuidConverter {
+    public static final int FIXED_SIZE = 16;
+    private static final int STRING_LENGTH = 36;
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    // the two hex digits of every byte, the high digit in the high byte
+    private static final short[] HEX_PAIRS = new short[256];
+    // value of every hex digit, -1 for the other chars: a group with an invalid digit is negative
+    private static final int[] HEX_VALUES = new int[256];
+
+    static {
+        for (int i = 0; i < HEX_PAIRS.length; i++) {
+            HEX_PAIRS[i] = (short) (HEX_DIGITS[i >>> 4] << 8 | HEX_DIGITS[i & 0xF]);
+        }
+        Arrays.fill(HEX_VALUES, -1);
+        for (int i = 0; i < 10; i++) {
+            HEX_VALUES['0' + i] = i;
+        }
+        for (int i = 0; i < 6; i++) {
+            HEX_VALUES['a' + i] = 10 + i;
+            HEX_VALUES['A' + i] = 10 + i;
+        }
+    }
+
+    public static String toAvro(UUID uuid) {
+        return toAvro(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * @return canonical lower case form of the uuid
+     */
+    public static String toAvro(long mostSignificantBits, long leastSignificantBits) {
+        // latin1 strings keep the bytes, there is no encoding
+        return new String(format(mostSignificantBits, leastSignificantBits), StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * @return canonical lower case form of the uuid, as the bytes written by avro
+     */
+    public static Utf8 toAvroUtf8(long mostSignificantBits, long leastSignificantBits) {
+        return new Utf8(format(mostSignificantBits, leastSignificantBits));
+    }
+
+    private static byte[] format(long mostSignificantBits, long leastSignificantBits) {
+        byte[] chars = new byte[STRING_LENGTH];
+        formatHex(mostSignificantBits >>> 32, chars, 0, 8);
+        chars[8] = '-';
+        formatHex(mostSignificantBits >>> 16, chars, 9, 4);
+        chars[13] = '-';
+        formatHex(mostSignificantBits, chars, 14, 4);
+        chars[18] = '-';
+        formatHex(leastSignificantBits >>> 48, chars, 19, 4);
+        chars[23] = '-';
+        formatHex(leastSignificantBits, chars, 24, 12);
+        return chars;
+    }
+
+    private static void formatHex(long value, byte[] chars, int offset, int digits) {
+        for (int i = offset + digits - 2; i >= offset; i -= 2) {
+            short pair = HEX_PAIRS[(int) value & 0xFF];
+            chars[i] = (byte) (pair >>> 8);
+            chars[i + 1] = (byte) pair;
+            value >>>= 8;
+        }
+    }
+
+    public static UUID fromAvro(CharSequence value) {
+        if (value instanceof Utf8)
+            return fromAvro((Utf8) value);
+        checkCanonical(value);
+        return new UUID(parseHex(value, 0, 8) << 32 | parseHex(value, 9, 4) << 16 | parseHex(value, 14, 4),
+                parseHex(value, 19, 4) << 48 | parseHex(value, 24, 12));
+    }
+
+    /**
+     * Parses the bytes of the string, it's not decoded
+     */
+    public static UUID fromAvro(Utf8 value) {
+        byte[] bytes = value.getBytes();
+        if (value.getByteLength() != STRING_LENGTH || bytes[8] != '-' || bytes[13] != '-' || bytes[18] != '-' || bytes[23] != '-')
+            throw new IllegalArgumentException("Invalid UUID string: " + value);
+        return new UUID(parseHex(bytes, 0, 8) << 32 | parseHex(bytes, 9, 4) << 16 | parseHex(bytes, 14, 4),
+                parseHex(bytes, 19, 4) << 48 | parseHex(bytes, 24, 12));
+    }
+
+    /**
+     * @param value canonical form of the uuid
+     * @return the first 64 bits of the uuid
+     */
+    public static long mostSignificantBits(CharSequence value) {
+        checkCanonical(value);
+        return parseHex(value, 0, 8) << 32 | parseHex(value, 9, 4) << 16 | parseHex(value, 14, 4);
+    }
+
+    /**
+     * @param value canonical form of the uuid
+     * @return the last 64 bits of the uuid
+     */
+    public static long leastSignificantBits(CharSequence value) {
+        checkCanonical(value);
+        return parseHex(value, 19, 4) << 48 | parseHex(value, 24, 12);
+    }
+
+    private static void checkCanonical(CharSequence value) {
+        if (value.length() != STRING_LENGTH || value.charAt(8) != '-' || value.charAt(13) != '-'
+                || value.charAt(18) != '-' || value.charAt(23) != '-')
+            throw new IllegalArgumentException("Invalid UUID string: " + value);
+    }
+
+    private static long parseHex(CharSequence value, int offset, int digits) {
+        long result = 0;
+        for (int i = offset; i < offset + digits; i += 4) {
+            int group = hexValue(value.charAt(i)) << 12 | hexValue(value.charAt(i + 1)) << 8
+                    | hexValue(value.charAt(i + 2)) << 4 | hexValue(value.charAt(i + 3));
+            if (group < 0)
+                throw new IllegalArgumentException("Invalid UUID string: " + value);
+            result = result << 16 | group;
+        }
+        return result;
+    }
+
+    private static int hexValue(char c) {
+        return c < 256 ? HEX_VALUES[c] : -1;
+    }
+
+    private static long parseHex(byte[] bytes, int offset, int digits) {
+        long result = 0;
+        for (int i = offset; i < offset + digits; i += 4) {
+            int group = HEX_VALUES[bytes[i] & 0xFF] << 12 | HEX_VALUES[bytes[i + 1] & 0xFF] << 8
+                    | HEX_VALUES[bytes[i + 2] & 0xFF] << 4 | HEX_VALUES[bytes[i + 3] & 0xFF];
+            if (group < 0)
+                throw new IllegalArgumentException("Invalid UUID string: " + new String(bytes, 0, STRING_LENGTH, StandardCharsets.UTF_8));
+            result = result << 16 | group;
+        }
+        return result;
+    }
+
+    /**
+     * @param fixedSchema fixed schema of 16 bytes
+     * @return the uuid as a fixed, most significant bits first
+     */
+    public static GenericFixed toAvroFixed(UUID uuid, Schema fixedSchema) {
+        if (fixedSchema.getFixedSize() != FIXED_SIZE)
+            throw new IllegalArgumentException("Fixed " + fixedSchema.getFullName() + " has " + fixedSchema.getFixedSize()
+                    + " bytes, an UUID needs " + FIXED_SIZE);
+        byte[] bytes = new byte[FIXED_SIZE];
+        toAvroFixed(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), bytes);
+        return new GenericData.Fixed(fixedSchema, bytes);
+    }
+
+    /**
+     * Writes the uuid in a buffer, it can be the bytes of a reused fixed
+     * @param bytes buffer of at least 16 bytes
+     */
+    public static void toAvroFixed(long mostSignificantBits, long leastSignificantBits, byte[] bytes) {
+        for (int i = 0, shift = 56; i < Long.BYTES; i++, shift -= 8) {
+            bytes[i] = (byte) (mostSignificantBits >>> shift);
+            bytes[i + Long.BYTES] = (byte) (leastSignificantBits >>> shift);
+        }
+    }
+
+    public static UUID fromAvroFixed(GenericFixed fixed) {
+        byte[] bytes = fixed.bytes();
+        return new UUID(mostSignificantBits(bytes), leastSignificantBits(bytes));
+    }
+
+    public static long mostSignificantBits(byte[] fixed) {
+        return readLong(fixed, 0);
+    }
+
+    public static long leastSignificantBits(byte[] fixed) {
+        return readLong(fixed, Long.BYTES);
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = offset; i < offset + Long.BYTES; i++) {
+            value = value << 8 | (bytes[i] & 0xFF);
+        }
+        return value;
+    }
+}
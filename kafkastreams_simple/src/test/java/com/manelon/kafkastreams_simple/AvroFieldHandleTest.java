@@ -0,0 +1,107 @@
+package com.manelon.kafkastreams_simple;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.generic.GenericRecordBuilder;
+import org.junit.jupiter.api.Test;
+
+import com.manelon.kafkastreams_simple.utils.avro.AvroDateConverter;
+import com.manelon.kafkastreams_simple.utils.avro.AvroDecimalConverter;
+import com.manelon.kafkastreams_simple.utils.avro.AvroFieldHandle;
+import com.manelon.kafkastreams_simple.utils.avro.AvroInstantConverter;
+import com.manelon.kafkastreams_simple.utils.avro.AvroTimeConverter;
+import com.manelon.model.Vulcan;
+
+public class AvroFieldHandleTest {
+
+    @Test
+    void handles_should_read_the_same_values_than_the_converters() {
+        LocalDateTime birthday = LocalDateTime.of(1967, 11, 17, 0, 59);
+        Instant birthdayTS = birthday.toInstant(ZoneId.systemDefault().getRules().getOffset(birthday));
+
+        GenericRecord vulcan = new GenericRecordBuilder(Vulcan.SCHEMA$)
+                .set("Name", "Spock")
+                .set("Inteligence", 100)
+                .set("BankBalance", AvroDecimalConverter.decimalToBytes(BigDecimal.valueOf(17.01), Vulcan.SCHEMA$.getField("BankBalance").schema()))
+                .set("DateOfBirth", AvroDateConverter.toAvro(birthday.toLocalDate()))
+                .set("TimeOfBirthMiliseconds", AvroTimeConverter.LocalTimeToAvro(Vulcan.SCHEMA$, "TimeOfBirthMiliseconds", birthday.toLocalTime()))
+                .set("TimeOfBirthMicroseconds", AvroTimeConverter.LocalTimeToAvro(Vulcan.SCHEMA$, "TimeOfBirthMicroseconds", birthday.toLocalTime()))
+                .set("BirthTimestamMiliseconds", AvroInstantConverter.InstantToAvro(Vulcan.SCHEMA$, "BirthTimestamMiliseconds", birthdayTS))
+                .set("BirthTimestampMicroseconds", AvroInstantConverter.InstantToAvro(Vulcan.SCHEMA$, "BirthTimestampMicroseconds", birthdayTS))
+                .build();
+
+        assertEquals("17.01", AvroFieldHandle.decimal(Vulcan.SCHEMA$, "BankBalance").get(vulcan).toString());
+        assertEquals(birthday.toLocalDate(), AvroFieldHandle.localDate(Vulcan.SCHEMA$, "DateOfBirth").get(vulcan));
+        assertEquals(birthday.toLocalTime(), AvroFieldHandle.localTime(Vulcan.SCHEMA$, "TimeOfBirthMiliseconds").get(vulcan));
+        assertEquals(birthday.toLocalTime(), AvroFieldHandle.localTime(Vulcan.SCHEMA$, "TimeOfBirthMicroseconds").get(vulcan));
+        assertEquals(birthdayTS, AvroFieldHandle.instant(Vulcan.SCHEMA$, "BirthTimestamMiliseconds").get(vulcan));
+        assertEquals(birthdayTS, AvroFieldHandle.instant(Vulcan.SCHEMA$, "BirthTimestampMicroseconds").get(vulcan));
+    }
+
+    @Test
+    void handles_should_write_values_readable_by_the_converters() {
+        LocalDateTime birthday = LocalDateTime.of(1967, 11, 17, 0, 59);
+        Instant birthdayTS = birthday.toInstant(ZoneId.systemDefault().getRules().getOffset(birthday));
+
+        GenericRecord vulcan = new GenericData.Record(Vulcan.SCHEMA$);
+        AvroFieldHandle.decimal(Vulcan.SCHEMA$, "BankBalance").set(vulcan, new BigDecimal("3.14"));
+        AvroFieldHandle.localDate(Vulcan.SCHEMA$, "DateOfBirth").set(vulcan, birthday.toLocalDate());
+        AvroFieldHandle.localTime(Vulcan.SCHEMA$, "TimeOfBirthMiliseconds").set(vulcan, birthday.toLocalTime());
+        AvroFieldHandle.localTime(Vulcan.SCHEMA$, "TimeOfBirthMicroseconds").set(vulcan, null);
+        AvroFieldHandle.instant(Vulcan.SCHEMA$, "BirthTimestamMiliseconds").set(vulcan, birthdayTS);
+        AvroFieldHandle.instant(Vulcan.SCHEMA$, "BirthTimestampMicroseconds").set(vulcan, birthdayTS);
+
+        assertEquals("3.14", AvroDecimalConverter.getDecimal(vulcan, "BankBalance").toString());
+        assertEquals(birthday.toLocalDate(), AvroDateConverter.fromAvro((int) vulcan.get("DateOfBirth")));
+        assertEquals(birthday.toLocalTime(), AvroTimeConverter.getLocalTime(vulcan, "TimeOfBirthMiliseconds"));
+        assertNull(vulcan.get("TimeOfBirthMicroseconds"));
+        assertEquals(birthdayTS, AvroInstantConverter.getInstant(vulcan, "BirthTimestamMiliseconds"));
+        assertEquals(birthdayTS, AvroInstantConverter.getInstant(vulcan, "BirthTimestampMicroseconds"));
+    }
+
+    @Test
+    void handles_should_be_resolved_once_per_schema() {
+        var bankBalance = AvroFieldHandle.decimal(Vulcan.SCHEMA$, "BankBalance");
+        var timeOfBirth = AvroFieldHandle.localTime(Vulcan.SCHEMA$, "TimeOfBirthMiliseconds");
+
+        assertSame(bankBalance, AvroFieldHandle.decimal(Vulcan.SCHEMA$, "BankBalance"));
+        assertEquals(Vulcan.SCHEMA$.getField("BankBalance").pos(), bankBalance.getPosition());
+        assertEquals(8, bankBalance.getPrecision());
+        assertEquals(2, bankBalance.getScale());
+        assertEquals(-1, bankBalance.getUnionBranch());
+        assertEquals(0, timeOfBirth.getUnionBranch());
+    }
+
+    @Test
+    void handles_should_be_shared_by_equal_schemas() {
+        Schema parsed = new Schema.Parser().parse(Vulcan.SCHEMA$.toString());
+
+        assertSame(AvroFieldHandle.decimal(Vulcan.SCHEMA$, "BankBalance"), AvroFieldHandle.decimal(parsed, "BankBalance"));
+    }
+
+    @Test
+    void handles_should_not_be_shared_by_schemas_with_other_logical_types() {
+        Schema otherScale = new Schema.Parser().parse(Vulcan.SCHEMA$.toString().replace("\"scale\":2", "\"scale\":3"));
+
+        assertEquals(3, AvroFieldHandle.decimal(otherScale, "BankBalance").getScale());
+        assertEquals(2, AvroFieldHandle.decimal(Vulcan.SCHEMA$, "BankBalance").getScale());
+    }
+
+    @Test
+    void handles_should_reject_invalid_fields() {
+        assertThrows(IllegalArgumentException.class, () -> AvroFieldHandle.decimal(Vulcan.SCHEMA$, "Unknown"));
+        assertThrows(IllegalArgumentException.class, () -> AvroFieldHandle.decimal(Vulcan.SCHEMA$, "Name"));
+        assertThrows(IllegalArgumentException.class, () -> AvroFieldHandle.instant(Vulcan.SCHEMA$, "DateOfBirth"));
+    }
+}
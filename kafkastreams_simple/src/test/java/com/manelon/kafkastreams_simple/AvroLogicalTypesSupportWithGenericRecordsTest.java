@@ -4,7 +4,10 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
 import java.util.Map;
 import java.util.Properties;
 
@@ -135,13 +138,15 @@ public class AvroLogicalTypesSupportWithGenericRecordsTest {
                                     .set("BirthTimestamMiliseconds", AvroInstantConverter.InstantToAvro(Vulcan.SCHEMA$, "BirthTimestamMiliseconds", birthdayTS))
                                     .set("BirthTimestampMicroseconds", AvroInstantConverter.InstantToAvro(Vulcan.SCHEMA$, "BirthTimestampMicroseconds", birthdayTS))
                                     .build();
-		// vulcan.put("Name", "Spock");
-		// AvroDecimalConerter.setDecimal(vulcan, "BankBalance", BigDecimal.valueOf(17.01));
-        // vulcan.put("DateOfBirth", AvroDateConverter.toAvro(birthday.toLocalDate()));
-		// AvroTimeConverter.setLocalTime(vulcan, "TimeOfBirthMiliseconds", birthday.toLocalTime());
-		// AvroTimeConverter.setLocalTime(vulcan, "TimeOfBirthMicroseconds", birthday.toLocalTime());
-		// AvroInstantConverter.setInstant(vulcan, "BirthTimestamMiliseconds", birthdayTS);
-		// AvroInstantConverter.setInstant(vulcan, "BirthTimestampMicroseconds", birthdayTS);
+		// the setters of the converters, with a time of birth below the millisecond
+		LocalDateTime spockBirthday = LocalDateTime.of(2230, 1, 6, 13, 45, 30, 123_456_000);
+		Instant spockBirthdayTS = spockBirthday.toInstant(ZoneOffset.UTC);
+		AvroDecimalConverter.setDecimal(vulcan, "BankBalance", BigDecimal.valueOf(17.01));
+		vulcan.put("DateOfBirth", AvroDateConverter.toAvro(spockBirthday.toLocalDate()));
+		AvroTimeConverter.setLocalTime(vulcan, "TimeOfBirthMiliseconds", spockBirthday.toLocalTime());
+		AvroTimeConverter.setLocalTime(vulcan, "TimeOfBirthMicroseconds", spockBirthday.toLocalTime());
+		AvroInstantConverter.setInstant(vulcan, "BirthTimestamMiliseconds", spockBirthdayTS);
+		AvroInstantConverter.setInstant(vulcan, "BirthTimestampMicroseconds", spockBirthdayTS);
 
 		inputTopic.pipeInput(2,vulcan);
 
@@ -159,14 +164,13 @@ public class AvroLogicalTypesSupportWithGenericRecordsTest {
 
 		assertEquals("Spock", spock.get("Name"));	
 		assertEquals("17.01", AvroDecimalConverter.getDecimal(spock, "BankBalance").toString());
-		assertEquals(birthday.toLocalDate(), AvroDateConverter.fromAvro((int)spock.get("DateOfBirth")));
-		assertEquals(birthday.toLocalTime(), AvroTimeConverter.getLocalTime(spock,"TimeOfBirthMiliseconds"));
-		assertEquals(birthday.toLocalTime(), AvroTimeConverter.getLocalTime(spock,"TimeOfBirthMicroseconds"));
-		assertEquals(birthdayTS, AvroInstantConverter.getInstant(spock, "BirthTimestamMiliseconds"));
-		assertEquals(birthdayTS, AvroInstantConverter.getInstant(spock,"BirthTimestampMicroseconds"));
-
-
-
+		assertEquals(spockBirthday.toLocalDate(), AvroDateConverter.fromAvro((int)spock.get("DateOfBirth")));
+		assertEquals(LocalTime.of(13, 45, 30, 123_000_000), AvroTimeConverter.getLocalTime(spock,"TimeOfBirthMiliseconds"));
+		assertEquals(LocalTime.of(13, 45, 30, 123_456_000), AvroTimeConverter.getLocalTime(spock,"TimeOfBirthMicroseconds"));
+		assertEquals(spockBirthdayTS.truncatedTo(ChronoUnit.MILLIS), AvroInstantConverter.getInstant(spock, "BirthTimestamMiliseconds"));
+		assertEquals(spockBirthdayTS, AvroInstantConverter.getInstant(spock,"BirthTimestampMicroseconds"));
+		assertEquals(spockBirthdayTS.toEpochMilli(), spock.get("BirthTimestamMiliseconds"));
+		assertEquals(spockBirthdayTS.toEpochMilli() * 1000 + 456, spock.get("BirthTimestampMicroseconds"));
 	}
 
 }
@@ -0,0 +1,100 @@
+package com.manelon.kafkastreams_simple;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import org.junit.jupiter.api.Test;
+
+import com.manelon.kafkastreams_simple.utils.avro.simple.BatchConverter;
+import com.manelon.kafkastreams_simple.utils.avro.simple.InstantConverter;
+import com.manelon.kafkastreams_simple.utils.avro.simple.LocalDateConverter;
+import com.manelon.kafkastreams_simple.utils.avro.simple.LocalTimeConverter;
+import com.manelon.kafkastreams_simple.utils.avro.simple.LongDecimalConverter;
+
+public class BatchConverterTest {
+
+    private static final Instant[] INSTANTS = {
+            Instant.parse("1967-11-17T00:59:00.123456Z"),
+            Instant.parse("1969-12-31T23:59:59.999999Z"),
+            Instant.EPOCH,
+            Instant.parse("2063-04-05T11:00:00.000001Z") };
+
+    @Test
+    void batch_instants_should_be_the_same_than_scalar() {
+        long[] millis = new long[INSTANTS.length];
+        long[] micros = new long[INSTANTS.length];
+        BatchConverter.toAvroMillis(INSTANTS, millis);
+        BatchConverter.toAvroMicros(INSTANTS, micros);
+
+        Instant[] fromMicros = new Instant[INSTANTS.length];
+        BatchConverter.fromAvroMicros(micros, fromMicros);
+
+        long[] truncated = new long[INSTANTS.length];
+        BatchConverter.microsToMillis(micros, truncated);
+
+        for (int i = 0; i < INSTANTS.length; i++) {
+            assertEquals(InstantConverter.toAvroMillis(INSTANTS[i]), millis[i]);
+            assertEquals(InstantConverter.toAvroMicros(INSTANTS[i]), micros[i]);
+            assertEquals(INSTANTS[i], fromMicros[i]);
+            assertEquals(millis[i], truncated[i]);
+        }
+    }
+
+    @Test
+    void batch_dates_and_times_should_be_the_same_than_scalar() {
+        int[] epochDays = { -5, 0, 5, -762, 34_000 };
+        LocalDate[] dates = new LocalDate[epochDays.length];
+        BatchConverter.fromAvro(epochDays, dates);
+
+        int[] back = new int[epochDays.length];
+        BatchConverter.toAvro(dates, back);
+        assertArrayEquals(epochDays, back);
+        for (int i = 0; i < epochDays.length; i++) {
+            assertEquals(LocalDateConverter.fromAvro(epochDays[i]), dates[i]);
+        }
+
+        LocalTime[] times = { LocalTime.MIDNIGHT, LocalTime.of(0, 59), LocalTime.of(23, 59, 59, 999_999_000) };
+        long[] micros = new long[times.length];
+        BatchConverter.toAvroMicros(times, micros);
+        LocalTime[] fromMicros = new LocalTime[times.length];
+        BatchConverter.fromAvroMicros(micros, fromMicros);
+        for (int i = 0; i < times.length; i++) {
+            assertEquals(LocalTimeConverter.toAvroMicros(times[i]), micros[i]);
+        }
+        assertArrayEquals(times, fromMicros);
+    }
+
+    @Test
+    void batch_decimals_should_be_the_same_than_scalar() {
+        long[] unscaled = { 0, 1701, -1701, 128, Long.MIN_VALUE, Long.MAX_VALUE };
+        ByteBuffer[] decimals = BatchConverter.toAvroDecimals(unscaled);
+
+        for (int i = 0; i < unscaled.length; i++) {
+            assertEquals(LongDecimalConverter.toAvro(unscaled[i], ByteBuffer.allocate(Long.BYTES)), decimals[i]);
+        }
+
+        long[] back = new long[unscaled.length];
+        BatchConverter.fromAvroDecimals(decimals, back);
+        assertArrayEquals(unscaled, back);
+    }
+
+    @Test
+    void parallel_conversion_should_convert_every_position() {
+        int size = BatchConverter.MIN_PARALLEL_CHUNK * 5 + 3;
+        int[] epochDays = new int[size];
+        for (int i = 0; i < size; i++) {
+            epochDays[i] = i - size / 2;
+        }
+        LocalDate[] dates = new LocalDate[size];
+        BatchConverter.inParallel(size, (from, to) -> BatchConverter.fromAvro(epochDays, dates, from, to));
+
+        for (int i = 0; i < size; i++) {
+            assertEquals(epochDays[i], dates[i].toEpochDay());
+        }
+    }
+}
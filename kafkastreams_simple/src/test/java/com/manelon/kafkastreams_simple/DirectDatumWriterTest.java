@@ -0,0 +1,86 @@
+package com.manelon.kafkastreams_simple;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.util.Utf8;
+import org.junit.jupiter.api.Test;
+
+import com.manelon.kafkastreams_simple.utils.avro.AvroFieldHandle;
+import com.manelon.kafkastreams_simple.utils.avro.DirectDatumWriter;
+import com.manelon.model.User;
+import com.manelon.model.Vulcan;
+
+public class DirectDatumWriterTest {
+
+    @Test
+    void should_write_the_same_bytes_than_a_generic_record() throws IOException {
+        LocalDateTime birthday = LocalDateTime.of(1967, 11, 17, 0, 59, 30, 123_456_000);
+        Instant birthdayTS = birthday.toInstant(ZoneOffset.UTC);
+
+        GenericRecord vulcan = new GenericData.Record(Vulcan.SCHEMA$);
+        vulcan.put("Name", "Spock");
+        vulcan.put("Inteligence", 10);
+        AvroFieldHandle.decimal(Vulcan.SCHEMA$, "BankBalance").set(vulcan, new BigDecimal("-17.01"));
+        AvroFieldHandle.localDate(Vulcan.SCHEMA$, "DateOfBirth").set(vulcan, birthday.toLocalDate());
+        AvroFieldHandle.localTime(Vulcan.SCHEMA$, "TimeOfBirthMiliseconds").set(vulcan, birthday.toLocalTime());
+        AvroFieldHandle.localTime(Vulcan.SCHEMA$, "TimeOfBirthMicroseconds").set(vulcan, null);
+        AvroFieldHandle.instant(Vulcan.SCHEMA$, "BirthTimestamMiliseconds").set(vulcan, birthdayTS);
+        AvroFieldHandle.instant(Vulcan.SCHEMA$, "BirthTimestampMicroseconds").set(vulcan, birthdayTS);
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(expected, null);
+        new GenericDatumWriter<GenericRecord>(Vulcan.SCHEMA$).write(vulcan, encoder);
+
+        ByteArrayOutputStream direct = new ByteArrayOutputStream();
+        encoder = EncoderFactory.get().directBinaryEncoder(direct, encoder);
+        DirectDatumWriter.of(Vulcan.SCHEMA$).start(encoder)
+                .writeString("Name", new Utf8("Spock"))
+                .writeInt("Inteligence", 10)
+                .writeDecimal("BankBalance", -1701)
+                .writeDate("DateOfBirth", (int) birthday.toLocalDate().toEpochDay())
+                .writeTimeMillis("TimeOfBirthMiliseconds", (int) (birthday.toLocalTime().toNanoOfDay() / 1_000_000))
+                .writeNull("TimeOfBirthMicroseconds")
+                .writeTimestampMillis("BirthTimestamMiliseconds", birthdayTS.toEpochMilli())
+                .writeTimestampMicros("BirthTimestampMicroseconds", ChronoUnit.MICROS.between(Instant.EPOCH, birthdayTS))
+                .end();
+
+        assertArrayEquals(expected.toByteArray(), direct.toByteArray());
+    }
+
+    @Test
+    void should_validate_the_fields() throws IOException {
+        DirectDatumWriter writer = DirectDatumWriter.of(Vulcan.SCHEMA$);
+        BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(new ByteArrayOutputStream(), null);
+
+        assertThrows(IllegalArgumentException.class, () -> writer.start(encoder).writeInt("Inteligence", 10));
+        assertThrows(IllegalArgumentException.class, () -> writer.start(encoder).writeLong("Name", 10));
+        assertThrows(IllegalArgumentException.class, () -> writer.start(encoder).writeNull("Name"));
+        // precision 8
+        assertThrows(IllegalArgumentException.class, () -> writer.start(encoder)
+                .writeString("Name", "Spock").writeNull("Inteligence").writeDecimal("BankBalance", 100_000_000));
+        assertThrows(IllegalStateException.class, () -> writer.start(encoder).writeString("Name", "Spock").end());
+
+        DirectDatumWriter userWriter = DirectDatumWriter.of(User.SCHEMA$);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        userWriter.start(EncoderFactory.get().directBinaryEncoder(out, null))
+                .writeInt("Id", 1).writeString("FirstName", "Nyota").writeString("LastName", "Uhura")
+                .writeString("EMail", "uhura@enterprise.com").writeString("PhoneNumber", null).writeString("Address", "Kenya")
+                .end();
+        assertEquals(1 + 6 + 6 + 21 + 1 + 7, out.size());
+    }
+}
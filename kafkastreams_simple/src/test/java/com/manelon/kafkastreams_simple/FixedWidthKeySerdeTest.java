@@ -0,0 +1,95 @@
+package com.manelon.kafkastreams_simple;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+import org.junit.jupiter.api.Test;
+
+import com.manelon.kafkastreams_simple.serdes.FixedWidthKeySerde;
+import com.manelon.model.User;
+import com.manelon.model.UserId;
+
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import io.confluent.kafka.serializers.KafkaAvroSerializer;
+import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
+
+public class FixedWidthKeySerdeTest {
+    private static final Map<String, String> SERDE_CONFIG = Map.of(
+            AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, "mock://" + FixedWidthKeySerdeTest.class.getName());
+
+    @Test
+    void should_write_keys_with_the_order_of_the_numbers() {
+        FixedWidthKeySerde<Integer> intSerde = FixedWidthKeySerde.forInt();
+        FixedWidthKeySerde<Long> longSerde = FixedWidthKeySerde.forLong();
+        int[] ints = { Integer.MIN_VALUE, -70_000, -1, 0, 1, 255, 256, 70_000, Integer.MAX_VALUE };
+        long[] longs = { Long.MIN_VALUE, -1L << 40, -1, 0, 1, 1L << 40, Long.MAX_VALUE };
+
+        for (int i = 0; i < ints.length; i++) {
+            byte[] bytes = intSerde.serializer().serialize("t", ints[i]);
+            assertEquals(4, bytes.length);
+            assertEquals(ints[i], intSerde.deserializer().deserialize("t", bytes));
+            if (i > 0)
+                assertTrue(Arrays.compareUnsigned(intSerde.serializer().serialize("t", ints[i - 1]), bytes) < 0);
+        }
+        for (int i = 0; i < longs.length; i++) {
+            byte[] bytes = longSerde.serializer().serialize("t", longs[i]);
+            assertEquals(8, bytes.length);
+            assertEquals(longs[i], longSerde.deserializer().deserialize("t", bytes));
+            if (i > 0)
+                assertTrue(Arrays.compareUnsigned(longSerde.serializer().serialize("t", longs[i - 1]), bytes) < 0);
+        }
+    }
+
+    @Test
+    void should_read_records_with_one_field() {
+        Serde<UserId> serde = FixedWidthKeySerde.forRecord(UserId.class);
+
+        assertEquals(new UserId(-42), serde.deserializer().deserialize("users", serde.serializer().serialize("users", new UserId(-42))));
+        assertThrows(IllegalArgumentException.class, () -> FixedWidthKeySerde.forRecord(User.class));
+    }
+
+    @Test
+    @SuppressWarnings("resource")
+    void should_read_the_schema_registry_format_in_compatibility_mode() {
+        SpecificAvroSerde<UserId> registrySerde = new SpecificAvroSerde<>();
+        registrySerde.configure(SERDE_CONFIG, true);
+        Serializer<Object> integerSerializer = new KafkaAvroSerializer();
+        integerSerializer.configure(SERDE_CONFIG, true);
+
+        Serde<UserId> userIdSerde = FixedWidthKeySerde.forRecord(UserId.class).withRegistryCompatibility();
+        Serde<Integer> intSerde = FixedWidthKeySerde.forInt().withRegistryCompatibility();
+
+        for (int id : new int[] { 0, 1, -1, 1_000_000, Integer.MIN_VALUE, Integer.MAX_VALUE }) {
+            assertEquals(new UserId(id), userIdSerde.deserializer().deserialize("users",
+                    registrySerde.serializer().serialize("users", new UserId(id))));
+            assertEquals(id, intSerde.deserializer().deserialize("personnel",
+                    integerSerializer.serialize("personnel", id)));
+        }
+        // the new keys are always written with the fixed width
+        assertEquals(4, userIdSerde.serializer().serialize("users", new UserId(7)).length);
+        assertThrows(SerializationException.class, () -> intSerde.serializer().serialize("personnel", Integer.MIN_VALUE));
+        assertThrows(SerializationException.class, () -> FixedWidthKeySerde.forInt().deserializer().deserialize("personnel",
+                integerSerializer.serialize("personnel", 7)));
+    }
+
+    @Test
+    @SuppressWarnings("resource")
+    void should_reject_longs_read_as_ints_in_compatibility_mode() {
+        Serializer<Object> longSerializer = new KafkaAvroSerializer();
+        longSerializer.configure(SERDE_CONFIG, true);
+        Serde<Integer> intSerde = FixedWidthKeySerde.forInt().withRegistryCompatibility();
+
+        assertEquals(7, intSerde.deserializer().deserialize("personnel", longSerializer.serialize("personnel", 7L)));
+        assertThrows(SerializationException.class, () -> intSerde.deserializer().deserialize("personnel",
+                longSerializer.serialize("personnel", Integer.MAX_VALUE + 1L)));
+        assertThrows(SerializationException.class, () -> intSerde.deserializer().deserialize("personnel",
+                longSerializer.serialize("personnel", Long.MIN_VALUE)));
+    }
+}
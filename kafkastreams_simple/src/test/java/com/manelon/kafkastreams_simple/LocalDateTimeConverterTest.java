@@ -0,0 +1,63 @@
+package com.manelon.kafkastreams_simple;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.avro.data.TimeConversions;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.junit.jupiter.api.Test;
+
+import com.manelon.kafkastreams_simple.utils.avro.AvroFieldHandle;
+import com.manelon.kafkastreams_simple.utils.avro.AvroLocalDateTimeConverter;
+import com.manelon.kafkastreams_simple.utils.avro.simple.LocalDateTimeConverter;
+
+public class LocalDateTimeConverterTest {
+
+    private static final Schema MILLIS = LogicalTypes.localTimestampMillis().addToSchema(Schema.create(Schema.Type.LONG));
+    private static final Schema MICROS = LogicalTypes.localTimestampMicros().addToSchema(Schema.create(Schema.Type.LONG));
+    private static final Schema STARDATE = new Schema.Parser().parse("{\"type\":\"record\",\"name\":\"Stardate\","
+            + "\"namespace\":\"com.manelon.model.starfleet\",\"fields\":["
+            + "{\"name\":\"LogMilliseconds\",\"type\":" + MILLIS + "},"
+            + "{\"name\":\"LogMicroseconds\",\"type\":[\"null\"," + MICROS + "]}]}");
+
+    private static final LocalDateTime[] VALUES = {
+            LocalDateTime.of(2266, 9, 8, 20, 30, 1, 123_456_789),
+            LocalDateTime.of(1970, 1, 1, 0, 0),
+            LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_999_999),
+            LocalDateTime.of(1967, 11, 17, 0, 59, 30, 500),
+            LocalDateTime.of(1, 1, 1, 0, 0, 0, 1_000) };
+
+    private final TimeConversions.LocalTimestampMillisConversion millisConversion = new TimeConversions.LocalTimestampMillisConversion();
+    private final TimeConversions.LocalTimestampMicrosConversion microsConversion = new TimeConversions.LocalTimestampMicrosConversion();
+
+    @Test
+    void should_be_compatible_with_avro_time_conversions() {
+        for (LocalDateTime value : VALUES) {
+            long millis = millisConversion.toLong(value, MILLIS, MILLIS.getLogicalType());
+            long micros = microsConversion.toLong(value, MICROS, MICROS.getLogicalType());
+
+            assertEquals(millis, LocalDateTimeConverter.toAvroMillis(value), value.toString());
+            assertEquals(micros, LocalDateTimeConverter.toAvroMicros(value), value.toString());
+            assertEquals(millisConversion.fromLong(millis, MILLIS, MILLIS.getLogicalType()), LocalDateTimeConverter.fromAvroMillis(millis));
+            assertEquals(microsConversion.fromLong(micros, MICROS, MICROS.getLogicalType()), LocalDateTimeConverter.fromAvroMicros(micros));
+        }
+    }
+
+    @Test
+    void should_read_and_write_local_timestamp_fields() {
+        LocalDateTime stardate = VALUES[0];
+        GenericRecord record = new GenericData.Record(STARDATE);
+
+        AvroLocalDateTimeConverter.setLocalDateTime(record, "LogMilliseconds", stardate);
+        AvroFieldHandle.localDateTime(STARDATE, "LogMicroseconds").set(record, stardate);
+
+        assertEquals(LocalDateTimeConverter.toAvroMillis(stardate), record.get("LogMilliseconds"));
+        assertEquals(LocalDateTimeConverter.toAvroMicros(stardate), record.get("LogMicroseconds"));
+        assertEquals(stardate.withNano(123_000_000), AvroLocalDateTimeConverter.getLocalDateTime(record, "LogMilliseconds"));
+        assertEquals(stardate.withNano(123_456_000), AvroFieldHandle.localDateTime(STARDATE, "LogMicroseconds").get(record));
+    }
+}
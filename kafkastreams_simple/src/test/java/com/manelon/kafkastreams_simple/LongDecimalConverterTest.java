@@ -0,0 +1,78 @@
+package com.manelon.kafkastreams_simple;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+
+import org.apache.avro.Conversion;
+import org.apache.avro.Conversions;
+import org.apache.avro.Schema;
+import org.junit.jupiter.api.Test;
+
+import com.manelon.kafkastreams_simple.utils.avro.AvroDecimalConverter;
+import com.manelon.kafkastreams_simple.utils.avro.simple.LongDecimalConverter;
+import com.manelon.model.Vulcan;
+
+public class LongDecimalConverterTest {
+
+    private Conversion<BigDecimal> conversion = new Conversions.DecimalConversion();
+
+    private static final long[] VALUES = { 0, 1, -1, 127, 128, -128, -129, 255, 256, 32767, -32768, 1701, -1701,
+            999_999_999_999_999_999L, -999_999_999_999_999_999L, Long.MAX_VALUE, Long.MIN_VALUE };
+
+    @Test
+    void should_write_the_same_bytes_than_BigInteger() {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+        for (long value : VALUES) {
+            byte[] expected = BigInteger.valueOf(value).toByteArray();
+            ByteBuffer avro = LongDecimalConverter.toAvro(value, buffer);
+
+            byte[] actual = new byte[avro.remaining()];
+            avro.duplicate().get(actual);
+            assertArrayEquals(expected, actual, "unscaled value " + value);
+            assertEquals(expected.length, LongDecimalConverter.byteLength(value));
+        }
+    }
+
+    @Test
+    void should_read_the_bytes_written_by_BigInteger() {
+        for (long value : VALUES) {
+            ByteBuffer avro = ByteBuffer.wrap(BigInteger.valueOf(value).toByteArray());
+            assertEquals(value, LongDecimalConverter.fromAvro(avro), "unscaled value " + value);
+            assertEquals(0, avro.position());
+        }
+    }
+
+    @Test
+    void should_read_values_with_extra_sign_bytes() {
+        assertEquals(-2, LongDecimalConverter.fromAvro(ByteBuffer.wrap(new byte[] { -1, -1, -1, -1, -1, -1, -1, -1, -1, -2 })));
+        assertEquals(5, LongDecimalConverter.fromAvro(ByteBuffer.wrap(new byte[] { 0, 0, 0, 0, 0, 0, 0, 0, 0, 5 })));
+        assertThrows(ArithmeticException.class,
+                () -> LongDecimalConverter.fromAvro(ByteBuffer.wrap(BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE).toByteArray())));
+    }
+
+    @Test
+    void should_be_compatible_with_avro_decimal_conversion() {
+        Schema decimalSchema = Vulcan.SCHEMA$.getField("BankBalance").schema();
+        BigDecimal bankBalance = new BigDecimal("-17.01");
+
+        ByteBuffer avro = LongDecimalConverter.toAvro(LongDecimalConverter.toUnscaled(bankBalance, 2));
+        assertEquals(bankBalance, conversion.fromBytes(avro, decimalSchema, decimalSchema.getLogicalType()));
+
+        ByteBuffer fromAvro = AvroDecimalConverter.decimalToBytes(bankBalance, decimalSchema);
+        assertEquals(bankBalance, LongDecimalConverter.fromAvro(fromAvro, 8, 2));
+        assertEquals(-1701, LongDecimalConverter.fromAvro(fromAvro));
+    }
+
+    @Test
+    void should_use_BigDecimal_when_precision_is_bigger_than_18() {
+        BigDecimal big = new BigDecimal("12345678901234567890.12");
+
+        ByteBuffer avro = LongDecimalConverter.toAvro(big, 22, ByteBuffer.allocate(Long.BYTES));
+        assertEquals(big, LongDecimalConverter.fromAvro(avro, 22, 2));
+    }
+}
@@ -0,0 +1,161 @@
+package com.manelon.kafkastreams_simple;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.apache.kafka.common.serialization.Serde;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.manelon.kafkastreams_common.serdes.PersistentSchemaCache;
+import com.manelon.kafkastreams_common.serdes.PersistentSchemaRegistryClient;
+import com.manelon.kafkastreams_simple.serdes.PooledAvroSerde;
+import com.manelon.model.User;
+import com.manelon.model.UserEnriched;
+
+import io.confluent.kafka.schemaregistry.ParsedSchema;
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
+
+public class PersistentSchemaCacheTest {
+    private static final String MOCK_SCHEMA_REGISTRY_URL = "mock://" + PersistentSchemaCacheTest.class.getName();
+
+    /**
+     * Mock registry that counts the calls and waits like a remote registry
+     */
+    static class SlowSchemaRegistryClient extends MockSchemaRegistryClient {
+        final AtomicInteger calls = new AtomicInteger();
+        private final long latencyMillis;
+
+        SlowSchemaRegistryClient(long latencyMillis) {
+            this.latencyMillis = latencyMillis;
+        }
+
+        private void call() {
+            calls.incrementAndGet();
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public synchronized int register(String subject, ParsedSchema schema) throws IOException, RestClientException {
+            call();
+            return super.register(subject, schema);
+        }
+
+        @Override
+        public synchronized ParsedSchema getSchemaById(int id) throws IOException, RestClientException {
+            call();
+            return super.getSchemaById(id);
+        }
+    }
+
+    @Test
+    void should_read_the_schemas_after_a_restart(@TempDir Path directory) throws IOException {
+        PersistentSchemaCache cache = PersistentSchemaCache.open(directory, MOCK_SCHEMA_REGISTRY_URL);
+        cache.put(1, null, User.SCHEMA$);
+        cache.put(2, "processed_users-value", UserEnriched.SCHEMA$);
+        cache.close();
+
+        PersistentSchemaCache restarted = PersistentSchemaCache.open(directory, MOCK_SCHEMA_REGISTRY_URL);
+        assertEquals(User.SCHEMA$, restarted.schema(1));
+        assertEquals(2, restarted.id("processed_users-value", UserEnriched.SCHEMA$));
+        assertNull(restarted.id("users-value", UserEnriched.SCHEMA$));
+        assertEquals(UserEnriched.SCHEMA$, restarted.schema(2));
+        assertEquals(2, restarted.size());
+        restarted.close();
+    }
+
+    @Test
+    void should_discard_the_corrupted_entries(@TempDir Path directory) throws IOException {
+        PersistentSchemaCache cache = PersistentSchemaCache.open(directory, MOCK_SCHEMA_REGISTRY_URL);
+        cache.put(1, "users-value", User.SCHEMA$);
+        cache.close();
+        Path file;
+        try (Stream<Path> files = Files.list(directory)) {
+            file = files.findFirst().orElseThrow();
+        }
+
+        for (int length : new int[] { Integer.MAX_VALUE, -1 }) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                // header, entry length and id: the length of the subject
+                channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, length), 4 * Integer.BYTES);
+            }
+            PersistentSchemaCache corrupted = PersistentSchemaCache.open(directory, MOCK_SCHEMA_REGISTRY_URL);
+            assertEquals(0, corrupted.size());
+            corrupted.close();
+        }
+    }
+
+    @Test
+    void should_not_call_the_registry_after_a_warm_restart(@TempDir Path directory) throws IOException {
+        SlowSchemaRegistryClient registry = new SlowSchemaRegistryClient(20);
+        Map<String, Object> config = Map.of(
+                AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, MOCK_SCHEMA_REGISTRY_URL,
+                PersistentSchemaCache.SCHEMA_CACHE_DIR_CONFIG, directory.toString());
+        User user = new User(1, "Benjamin", "Sisko", "sisko@ds9.com", null, "New Orleans");
+
+        SchemaRegistryClient client = PersistentSchemaRegistryClient.wrap(registry, PersistentSchemaCache.fromConfig(config));
+        Serde<User> serde = new PooledAvroSerde<>(client);
+        serde.configure(config, false);
+        byte[] serialized = serde.serializer().serialize("users", user);
+        serde.deserializer().deserialize("users", serialized);
+        // the deserializer finds the schema registered by the serializer
+        assertEquals(1, registry.calls.get());
+        PersistentSchemaRegistryClient.close(client);
+
+        registry.calls.set(0);
+        SchemaRegistryClient restartedClient = PersistentSchemaRegistryClient.wrap(registry,
+                PersistentSchemaCache.fromConfig(config));
+        Serde<User> restarted = new PooledAvroSerde<>(restartedClient);
+        restarted.configure(config, false);
+        assertEquals(user, restarted.deserializer().deserialize("users", serialized));
+        assertEquals(serialized.length, restarted.serializer().serialize("users", user).length);
+        // only the check of the cache against the registry
+        assertEquals(1, registry.calls.get());
+        PersistentSchemaRegistryClient.close(restartedClient);
+    }
+
+    @Test
+    void should_cache_the_schemas_of_the_specific_avro_serde(@TempDir Path directory) throws IOException {
+        SlowSchemaRegistryClient registry = new SlowSchemaRegistryClient(0);
+        Map<String, Object> config = Map.of(
+                AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, MOCK_SCHEMA_REGISTRY_URL,
+                PersistentSchemaCache.SCHEMA_CACHE_DIR_CONFIG, directory.toString());
+        User user = new User(2, "Jadzia", "Dax", "dax@ds9.com", null, "Trill");
+
+        SchemaRegistryClient client = PersistentSchemaRegistryClient.wrap(registry, PersistentSchemaCache.fromConfig(config));
+        Serde<User> serde = new SpecificAvroSerde<>(client);
+        serde.configure(config, false);
+        byte[] serialized = serde.serializer().serialize("users", user);
+        PersistentSchemaRegistryClient.close(client);
+
+        registry.calls.set(0);
+        SchemaRegistryClient restartedClient = PersistentSchemaRegistryClient.wrap(registry,
+                PersistentSchemaCache.fromConfig(config));
+        Serde<User> restarted = new SpecificAvroSerde<>(restartedClient);
+        restarted.configure(config, false);
+        assertEquals(user, restarted.deserializer().deserialize("users", serialized));
+        assertArrayEquals(serialized, restarted.serializer().serialize("users", user));
+        // only the check of the cache against the registry
+        assertEquals(1, registry.calls.get());
+        PersistentSchemaRegistryClient.close(restartedClient);
+    }
+}
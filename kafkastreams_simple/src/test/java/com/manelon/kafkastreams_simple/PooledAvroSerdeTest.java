@@ -0,0 +1,93 @@
+package com.manelon.kafkastreams_simple;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.common.serialization.Serde;
+import org.junit.jupiter.api.Test;
+
+import com.manelon.kafkastreams_simple.serdes.PooledAvroSerde;
+import com.manelon.kafkastreams_simple.utils.avro.AvroDecimalConverter;
+import com.manelon.model.User;
+import com.manelon.model.UserId;
+import com.manelon.model.Vulcan;
+import com.manelon.model.starfleet.Personnel;
+
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
+
+/**
+ * The pooled serde must write the same bytes than the SpecificAvroSerde
+ */
+public class PooledAvroSerdeTest {
+    private static final String MOCK_SCHEMA_REGISTRY_URL = "mock://" + PooledAvroSerdeTest.class.getName();
+    private static final Map<String, String> SERDE_CONFIG = Map.of(
+            AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, MOCK_SCHEMA_REGISTRY_URL);
+
+    private static <T extends SpecificRecord> void assertSameBytes(String topic, T record, boolean isKey) {
+        Serde<T> specificSerde = new SpecificAvroSerde<>();
+        Serde<T> pooledSerde = new PooledAvroSerde<>();
+        specificSerde.configure(SERDE_CONFIG, isKey);
+        pooledSerde.configure(SERDE_CONFIG, isKey);
+
+        byte[] expected = specificSerde.serializer().serialize(topic, record);
+        // twice, the second time with the encoder and buffer reused
+        assertArrayEquals(expected, pooledSerde.serializer().serialize(topic, record));
+        assertArrayEquals(expected, pooledSerde.serializer().serialize(topic, record));
+
+        assertEquals(record, pooledSerde.deserializer().deserialize(topic, expected));
+        assertEquals(record, specificSerde.deserializer().deserialize(topic, pooledSerde.serializer().serialize(topic, record)));
+    }
+
+    @Test
+    void should_write_the_same_bytes_than_the_specific_avro_serde() {
+        assertSameBytes("users", new UserId(1), true);
+        assertSameBytes("users", new User(1, "Kathryn", "Janeway", "janeway@voyager.com", null, "Bloomington"), false);
+        assertSameBytes("personnel", new Personnel("Tuvok", null, "Lieutenant Commander"), false);
+    }
+
+    @Test
+    void should_write_the_same_bytes_with_logical_types() {
+        Vulcan tuvok = new Vulcan("Tuvok", 180,
+                AvroDecimalConverter.decimalToBytes(new BigDecimal("2264.05"), Vulcan.SCHEMA$.getField("BankBalance").schema()),
+                LocalDate.of(2264, 7, 10), LocalTime.of(4, 10, 20, 123_000_000), null,
+                Instant.parse("2264-07-10T04:10:20.123Z"), Instant.parse("2264-07-10T04:10:20.123456Z"));
+
+        assertSameBytes("vulcans", tuvok, false);
+    }
+
+    @Test
+    void should_reuse_the_buffers_with_records_of_different_sizes() {
+        Serde<User> pooledSerde = new PooledAvroSerde<>();
+        pooledSerde.configure(SERDE_CONFIG, false);
+
+        User big = new User(2, "Chakotay".repeat(1000), "", "chakotay@voyager.com", null, null);
+        User small = new User(3, "Neelix", "", "neelix@voyager.com", null, null);
+
+        assertEquals(big, pooledSerde.deserializer().deserialize("users", pooledSerde.serializer().serialize("users", big)));
+        assertEquals(small, pooledSerde.deserializer().deserialize("users", pooledSerde.serializer().serialize("users", small)));
+    }
+
+    @Test
+    void should_register_the_schema_in_the_subject_of_every_topic() throws Exception {
+        MockSchemaRegistryClient registry = new MockSchemaRegistryClient();
+        Serde<User> pooledSerde = new PooledAvroSerde<>(registry);
+        pooledSerde.configure(SERDE_CONFIG, false);
+        User user = new User(4, "Tom", "Paris", "paris@voyager.com", null, null);
+
+        pooledSerde.serializer().serialize("users", user);
+        pooledSerde.serializer().serialize("users-changelog", user);
+
+        assertTrue(registry.getAllSubjects().containsAll(List.of("users-value", "users-changelog-value")));
+    }
+}
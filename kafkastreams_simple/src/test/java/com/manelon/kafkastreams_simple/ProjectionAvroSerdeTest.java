@@ -0,0 +1,97 @@
+package com.manelon.kafkastreams_simple;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.avro.generic.GenericRecord;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.Produced;
+import org.junit.jupiter.api.Test;
+
+import com.manelon.kafkastreams_simple.serdes.ProjectionAvroSerde;
+import com.manelon.model.User;
+import com.manelon.model.UserId;
+
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
+
+public class ProjectionAvroSerdeTest {
+    private static final String MOCK_SCHEMA_REGISTRY_URL = "mock://" + ProjectionAvroSerdeTest.class.getName();
+    private static final Map<String, String> SERDE_CONFIG = Map.of(
+            AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, MOCK_SCHEMA_REGISTRY_URL);
+
+    private static byte[] serialize(User user) {
+        SpecificAvroSerde<User> serde = new SpecificAvroSerde<>();
+        serde.configure(SERDE_CONFIG, false);
+        return serde.serializer().serialize("users", user);
+    }
+
+    @Test
+    void should_deserialize_only_the_projected_fields() {
+        ProjectionAvroSerde serde = new ProjectionAvroSerde("EMail", "Id", "PhoneNumber");
+        serde.configure(SERDE_CONFIG, false);
+
+        GenericRecord user = serde.deserializer().deserialize("users",
+                serialize(new User(4, "Beverly", "Crusher", "crusher@enterprise.com", null, "Copernicus City")));
+
+        assertEquals(List.of("EMail", "Id", "PhoneNumber"),
+                user.getSchema().getFields().stream().map(field -> field.name()).toList());
+        assertEquals("crusher@enterprise.com", user.get("EMail").toString());
+        assertEquals(4, user.get("Id"));
+        assertNull(user.get("PhoneNumber"));
+    }
+
+    @Test
+    void should_fail_when_the_field_is_not_in_the_writer_schema() {
+        ProjectionAvroSerde serde = new ProjectionAvroSerde("Id", "FullName");
+        serde.configure(SERDE_CONFIG, false);
+
+        byte[] user = serialize(new User(5, "Data", "Soong", "data@enterprise.com", null, null));
+        assertThrows(SerializationException.class, () -> serde.deserializer().deserialize("users", user));
+    }
+
+    @Test
+    @SuppressWarnings("resource")
+    void should_read_the_projection_in_a_stream() {
+        ProjectionAvroSerde projectionSerde = new ProjectionAvroSerde("Id", "EMail");
+        projectionSerde.configure(SERDE_CONFIG, false);
+        Serde<UserId> userIdSerde = new SpecificAvroSerde<>();
+        userIdSerde.configure(SERDE_CONFIG, true);
+        Serde<User> userSerde = new SpecificAvroSerde<>();
+        userSerde.configure(SERDE_CONFIG, false);
+
+        StreamsBuilder builder = new StreamsBuilder();
+        builder.stream("users", Consumed.with(userIdSerde, projectionSerde))
+                .mapValues(user -> user.get("EMail").toString())
+                .to("emails", Produced.with(userIdSerde, Serdes.String()));
+
+        Properties props = new Properties();
+        props.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, SpecificAvroSerde.class);
+        props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, SpecificAvroSerde.class);
+        props.put(AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, MOCK_SCHEMA_REGISTRY_URL);
+        try (TopologyTestDriver testDriver = new TopologyTestDriver(builder.build(), props)) {
+            TestInputTopic<UserId, User> inputTopic = testDriver.createInputTopic("users",
+                    userIdSerde.serializer(), userSerde.serializer());
+            TestOutputTopic<UserId, String> outputTopic = testDriver.createOutputTopic("emails",
+                    userIdSerde.deserializer(), Serdes.String().deserializer());
+
+            inputTopic.pipeInput(new UserId(6), new User(6, "Worf", "son of Mogh", "worf@enterprise.com", null, "Qo'noS"));
+
+            assertEquals(KeyValue.pair(new UserId(6), "worf@enterprise.com"), outputTopic.readKeyValue());
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.manelon.kafkastreams_simple;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.generic.GenericRecordBuilder;
+import org.apache.avro.util.Utf8;
+import org.junit.jupiter.api.Test;
+
+import com.manelon.kafkastreams_simple.utils.avro.AvroDateConverter;
+import com.manelon.kafkastreams_simple.utils.avro.AvroDecimalConverter;
+import com.manelon.kafkastreams_simple.utils.avro.AvroInstantConverter;
+import com.manelon.kafkastreams_simple.utils.avro.AvroTimeConverter;
+import com.manelon.kafkastreams_simple.utils.avro.RecordMapper;
+import com.manelon.model.User;
+import com.manelon.model.Vulcan;
+
+public class RecordMapperTest {
+
+    @Test
+    void should_map_generic_vulcan_to_specific_and_back() {
+        LocalDateTime birthday = LocalDateTime.of(1967, 11, 17, 0, 59);
+        Instant birthdayTS = birthday.toInstant(ZoneId.systemDefault().getRules().getOffset(birthday));
+
+        GenericRecord generic = new GenericRecordBuilder(Vulcan.SCHEMA$)
+                .set("Name", new Utf8("Spock"))
+                .set("Inteligence", 100)
+                .set("BankBalance", AvroDecimalConverter.decimalToBytes(BigDecimal.valueOf(17.01), Vulcan.SCHEMA$.getField("BankBalance").schema()))
+                .set("DateOfBirth", AvroDateConverter.toAvro(birthday.toLocalDate()))
+                .set("TimeOfBirthMiliseconds", AvroTimeConverter.LocalTimeToAvro(Vulcan.SCHEMA$, "TimeOfBirthMiliseconds", birthday.toLocalTime()))
+                .set("TimeOfBirthMicroseconds", null)
+                .set("BirthTimestamMiliseconds", AvroInstantConverter.InstantToAvro(Vulcan.SCHEMA$, "BirthTimestamMiliseconds", birthdayTS))
+                .set("BirthTimestampMicroseconds", AvroInstantConverter.InstantToAvro(Vulcan.SCHEMA$, "BirthTimestampMicroseconds", birthdayTS))
+                .build();
+
+        RecordMapper<Vulcan> mapper = RecordMapper.of(Vulcan.SCHEMA$, Vulcan.class);
+        Vulcan spock = mapper.toSpecific(generic);
+
+        assertEquals("Spock", spock.getName());
+        assertEquals(100, spock.getInteligence());
+        assertEquals("17.01", AvroDecimalConverter.getDecimal(spock, "BankBalance").toString());
+        assertEquals(birthday.toLocalDate(), spock.getDateOfBirth());
+        assertEquals(birthday.toLocalTime(), spock.getTimeOfBirthMiliseconds());
+        assertNull(spock.getTimeOfBirthMicroseconds());
+        assertEquals(birthdayTS, spock.getBirthTimestamMiliseconds());
+        assertEquals(birthdayTS, spock.getBirthTimestampMicroseconds());
+
+        GenericRecord back = mapper.toGeneric(spock);
+        assertEquals(GenericData.get().compare(generic, back, Vulcan.SCHEMA$), 0);
+    }
+
+    @Test
+    void should_use_default_values_for_missing_fields() {
+        Schema oldUser = SchemaBuilder.record("User").namespace("com.manelon.model").fields()
+                .requiredInt("Id")
+                .requiredString("FirstName")
+                .requiredString("LastName")
+                .requiredString("EMail")
+                .endRecord();
+        Schema newUser = SchemaBuilder.record("User").namespace("com.manelon.model").fields()
+                .requiredInt("Id")
+                .requiredString("FirstName")
+                .requiredString("LastName")
+                .requiredString("EMail")
+                .name("PhoneNumber").type().unionOf().stringType().and().nullType().endUnion().stringDefault("unknown")
+                .name("Address").type().unionOf().stringType().and().nullType().endUnion().stringDefault("unknown")
+                .name("Rank").type().stringType().stringDefault("Ensign")
+                .endRecord();
+
+        GenericRecord generic = new GenericRecordBuilder(newUser)
+                .set("Id", 1).set("FirstName", "James T.").set("LastName", "Kirk").set("EMail", "kirk@enterprise.com")
+                .build();
+
+        User kirk = RecordMapper.of(newUser, User.class).toSpecific(generic);
+        assertEquals("Kirk", kirk.getLastName());
+        assertEquals("unknown", kirk.getAddress());
+
+        GenericRecord back = RecordMapper.of(oldUser, User.class).toGeneric(kirk);
+        assertEquals("kirk@enterprise.com", back.get("EMail"));
+        assertEquals(oldUser, back.getSchema());
+    }
+
+    @Test
+    void mappers_should_be_shared_by_equal_schemas() {
+        Schema sameSchema = new Schema.Parser().parse(Vulcan.SCHEMA$.toString());
+        assertSame(RecordMapper.of(Vulcan.SCHEMA$, Vulcan.class), RecordMapper.of(sameSchema, Vulcan.class));
+    }
+}
@@ -0,0 +1,92 @@
+package com.manelon.kafkastreams_simple;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.specific.SpecificData;
+import org.apache.kafka.common.serialization.Serde;
+import org.junit.jupiter.api.Test;
+
+import com.manelon.kafkastreams_simple.serdes.PooledAvroDeserializer;
+import com.manelon.kafkastreams_simple.serdes.PooledAvroSerde;
+import com.manelon.kafkastreams_simple.serdes.SchemaResolverCache;
+import com.manelon.model.User;
+import com.manelon.model.Vulcan;
+
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import io.confluent.kafka.streams.serdes.avro.GenericAvroSerde;
+
+public class SchemaResolverCacheTest {
+    private static final String MOCK_SCHEMA_REGISTRY_URL = "mock://" + SchemaResolverCacheTest.class.getName();
+
+    /**
+     * User with a new field, written by the producers that have been upgraded
+     */
+    static Schema userV2() {
+        List<Schema.Field> fields = new ArrayList<>();
+        for (Schema.Field field : User.SCHEMA$.getFields()) {
+            fields.add(new Schema.Field(field, field.schema()));
+        }
+        fields.add(new Schema.Field("Rank", Schema.create(Schema.Type.STRING), null, "Ensign"));
+        return Schema.createRecord(User.SCHEMA$.getName(), null, User.SCHEMA$.getNamespace(), false, fields);
+    }
+
+    @Test
+    void should_deserialize_a_topic_with_two_versions_of_the_schema() {
+        Map<String, Object> config = Map.of(
+                AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, MOCK_SCHEMA_REGISTRY_URL,
+                SchemaResolverCache.SCHEMA_RESOLVER_CACHE_SIZE_CONFIG, 10);
+        User user = new User(1, "Hikaru", "Sulu", "sulu@enterprise.com", null, "San Francisco");
+        GenericRecord upgradedUser = new GenericData.Record(userV2());
+        for (Schema.Field field : User.SCHEMA$.getFields()) {
+            upgradedUser.put(field.name(), user.get(field.pos()));
+        }
+        upgradedUser.put("Rank", "Captain");
+
+        Serde<User> serde = new PooledAvroSerde<>();
+        serde.configure(config, false);
+        GenericAvroSerde genericSerde = new GenericAvroSerde();
+        genericSerde.configure(config, false);
+        byte[] v1 = serde.serializer().serialize("users", user);
+        byte[] v2 = genericSerde.serializer().serialize("users", upgradedUser);
+
+        PooledAvroDeserializer<User> deserializer = (PooledAvroDeserializer<User>) serde.deserializer();
+        for (int i = 0; i < 10; i++) {
+            assertEquals(user, deserializer.deserialize("users", v1));
+            assertEquals(user, deserializer.deserialize("users", v2));
+        }
+        // one reader per writer version
+        assertEquals(2, deserializer.getResolvers().misses());
+        assertEquals(18, deserializer.getResolvers().hits());
+        assertEquals(2, deserializer.getResolvers().size());
+    }
+
+    @Test
+    void should_evict_the_least_recently_used_reader() {
+        SchemaResolverCache cache = new SchemaResolverCache(2);
+        SchemaResolverCache.Key user = SchemaResolverCache.key(User.SCHEMA$, User.SCHEMA$, SpecificData.get());
+        SchemaResolverCache.Key upgradedUser = SchemaResolverCache.key(userV2(), User.SCHEMA$, SpecificData.get());
+        SchemaResolverCache.Key vulcan = SchemaResolverCache.key(Vulcan.SCHEMA$, Vulcan.SCHEMA$, SpecificData.get());
+
+        var userReader = cache.reader(user);
+        cache.reader(upgradedUser);
+        // the same schemas parsed again have the same fingerprints
+        assertSame(userReader, cache.reader(SchemaResolverCache.key(
+                new Schema.Parser().parse(User.SCHEMA$.toString()), User.SCHEMA$, SpecificData.get())));
+        cache.reader(vulcan);
+
+        assertEquals(1, cache.evictions());
+        assertSame(userReader, cache.reader(user));
+        assertEquals(3, cache.misses());
+        cache.reader(upgradedUser);
+        assertEquals(4, cache.misses());
+        assertEquals(2, cache.size());
+    }
+}
@@ -0,0 +1,94 @@
+package com.manelon.kafkastreams_simple;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import org.apache.avro.Conversions;
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericFixed;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.util.Utf8;
+import org.junit.jupiter.api.Test;
+
+import com.manelon.kafkastreams_simple.utils.avro.AvroFieldHandle;
+import com.manelon.kafkastreams_simple.utils.avro.simple.UuidConverter;
+
+public class UuidConverterTest {
+
+    private static final Schema UUID_SCHEMA = LogicalTypes.uuid().addToSchema(Schema.create(Schema.Type.STRING));
+    private static final Schema FIXED_SCHEMA = Schema.createFixed("Uuid", null, "com.manelon.model", UuidConverter.FIXED_SIZE);
+
+    private final Conversions.UUIDConversion conversion = new Conversions.UUIDConversion();
+
+    private static UUID[] values() {
+        Random random = new Random(1701);
+        UUID[] values = new UUID[1000];
+        values[0] = new UUID(0, 0);
+        values[1] = new UUID(-1, -1);
+        values[2] = new UUID(Long.MIN_VALUE, Long.MAX_VALUE);
+        for (int i = 3; i < values.length; i++) {
+            values[i] = i % 2 == 0 ? UUID.randomUUID() : new UUID(random.nextLong(), random.nextLong());
+        }
+        return values;
+    }
+
+    @Test
+    void should_be_compatible_with_avro_uuid_conversion() {
+        for (UUID value : values()) {
+            CharSequence expected = conversion.toCharSequence(value, UUID_SCHEMA, UUID_SCHEMA.getLogicalType());
+
+            assertEquals(expected.toString(), UuidConverter.toAvro(value));
+            assertEquals(conversion.fromCharSequence(expected, UUID_SCHEMA, UUID_SCHEMA.getLogicalType()),
+                    UuidConverter.fromAvro(new Utf8(expected.toString())));
+            assertEquals(value, UuidConverter.fromAvro(expected.toString().toUpperCase()));
+        }
+    }
+
+    @Test
+    void should_reject_non_canonical_strings() {
+        assertThrows(IllegalArgumentException.class, () -> UuidConverter.fromAvro("1-1-1-1-1"));
+        assertThrows(IllegalArgumentException.class, () -> UuidConverter.fromAvro("123e4567e89b12d3a456426614174000"));
+        assertThrows(IllegalArgumentException.class, () -> UuidConverter.fromAvro("123e4567-e89b-12d3-a456-42661417400g"));
+        assertThrows(IllegalArgumentException.class, () -> UuidConverter.fromAvro("123e4567-e89b-12d3-a456-4266141740éé"));
+    }
+
+    @Test
+    void should_write_the_fixed_big_endian() {
+        byte[] bytes = new byte[UuidConverter.FIXED_SIZE];
+        for (UUID value : values()) {
+            byte[] expected = ByteBuffer.allocate(UuidConverter.FIXED_SIZE)
+                    .putLong(value.getMostSignificantBits()).putLong(value.getLeastSignificantBits()).array();
+            UuidConverter.toAvroFixed(value.getMostSignificantBits(), value.getLeastSignificantBits(), bytes);
+            GenericFixed fixed = UuidConverter.toAvroFixed(value, FIXED_SCHEMA);
+
+            assertArrayEquals(expected, bytes);
+            assertArrayEquals(expected, fixed.bytes());
+            assertEquals(value.getMostSignificantBits(), UuidConverter.mostSignificantBits(bytes));
+            assertEquals(value.getLeastSignificantBits(), UuidConverter.leastSignificantBits(bytes));
+            assertEquals(value, UuidConverter.fromAvroFixed(fixed));
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> UuidConverter.toAvroFixed(UUID.randomUUID(), Schema.createFixed("Short", null, null, 8)));
+    }
+
+    @Test
+    void should_read_and_write_uuid_fields() {
+        Schema schema = Schema.createRecord("Starship", null, "com.manelon.model.starfleet", false,
+                List.of(new Schema.Field("Registry", UUID_SCHEMA)));
+        GenericRecord starship = new GenericData.Record(schema);
+        UUID registry = UUID.randomUUID();
+
+        AvroFieldHandle.uuid(schema, "Registry").set(starship, registry);
+
+        assertEquals(registry.toString(), starship.get("Registry").toString());
+        assertEquals(registry, AvroFieldHandle.uuid(schema, "Registry").get(starship));
+    }
+}
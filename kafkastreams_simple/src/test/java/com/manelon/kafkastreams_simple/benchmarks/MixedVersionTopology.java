@@ -0,0 +1,163 @@
+package com.manelon.kafkastreams_simple.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.Named;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.manelon.kafkastreams_simple.serdes.PooledAvroSerde;
+import com.manelon.model.User;
+import com.manelon.model.UserEnriched;
+import com.manelon.model.UserId;
+
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import io.confluent.kafka.streams.serdes.avro.GenericAvroSerde;
+import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
+
+/**
+ * The topology of the SimpleAvroTopologyTest with a topic written by two versions of the User schema,
+ * half of the producers have added a field. The consumer reads both with the old generated class.
+ * A topic with only the current version is the baseline, with the cached resolvers both should be as fast
+ */
+@State(Scope.Thread)
+public class MixedVersionTopology {
+    public static void main(String[] args) throws RunnerException, IOException {
+
+        Options opt = new OptionsBuilder()
+                .include(MixedVersionTopology.class.getSimpleName())
+                .warmupIterations(3)
+                .forks(1)
+                .mode(Mode.AverageTime)
+                .timeUnit(TimeUnit.NANOSECONDS)
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    private static final String INPUT_TOPIC = "users";
+    private static final String OUTPUT_TOPIC = "processed_users";
+    private static final String MOCK_SCHEMA_REGISTRY_URL = "mock://" + MixedVersionTopology.class.getName();
+    private static final int BATCH_SIZE = 1000;
+
+    /**
+     * Number of versions of the User schema in the topic
+     */
+    @Param({ "1", "2" })
+    private int versions;
+
+    /**
+     * Value serde of the topology: SpecificAvroSerde or PooledAvroSerde (with the resolver cache)
+     */
+    @Param({ "specific", "pooled" })
+    private String serde;
+
+    private TopologyTestDriver testDriver;
+    private TestInputTopic<byte[], byte[]> inputTopic;
+    private TestOutputTopic<byte[], byte[]> outputTopic;
+    private final List<KeyValue<byte[], byte[]>> batch = new ArrayList<>(BATCH_SIZE);
+
+    @Setup
+    public void setup() {
+        StreamsBuilder builder = new StreamsBuilder();
+        KStream<UserId, User> inputStream = builder.stream(INPUT_TOPIC);
+        inputStream
+            .filter((id, user) -> (id.getId() > 0), Named.as("Filering_negative_ids"))
+            .mapValues((user) -> (new UserEnriched(
+                user.getId(),
+                user.getFirstName(),
+                user.getLastName(),
+                user.getFirstName() + ' ' + user.getLastName(),
+                user.getEMail(),
+                user.getPhoneNumber(),
+                user.getAddress()
+             )), Named.as("Calculating_FullName"))
+            .to(OUTPUT_TOPIC);
+
+        Properties props = new Properties();
+        props.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, SpecificAvroSerde.class);
+        props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG,
+                "pooled".equals(serde) ? PooledAvroSerde.class : SpecificAvroSerde.class);
+        props.put(AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, MOCK_SCHEMA_REGISTRY_URL);
+        testDriver = new TopologyTestDriver(builder.build(), props);
+        inputTopic = testDriver.createInputTopic(INPUT_TOPIC, new ByteArraySerializer(), new ByteArraySerializer());
+        outputTopic = testDriver.createOutputTopic(OUTPUT_TOPIC, new ByteArrayDeserializer(), new ByteArrayDeserializer());
+
+        Map<String, String> serdeProps = Map.of(
+                AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, MOCK_SCHEMA_REGISTRY_URL);
+        SpecificAvroSerde<UserId> userIdSerde = new SpecificAvroSerde<>();
+        SpecificAvroSerde<User> userSerde = new SpecificAvroSerde<>();
+        GenericAvroSerde upgradedUserSerde = new GenericAvroSerde();
+        userIdSerde.configure(serdeProps, true);
+        userSerde.configure(serdeProps, false);
+        upgradedUserSerde.configure(serdeProps, false);
+
+        Schema userV2 = userV2();
+        for (int i = 1; i <= BATCH_SIZE; i++) {
+            User user = new User(i, "Nyota", "Uhura", "uhura@enterprise.com", "555-1701", "Kenya");
+            byte[] value;
+            if (versions > 1 && i % 2 == 0) {
+                GenericRecord upgradedUser = new GenericData.Record(userV2);
+                for (Schema.Field field : User.SCHEMA$.getFields()) {
+                    upgradedUser.put(field.name(), user.get(field.pos()));
+                }
+                upgradedUser.put("Rank", "Lieutenant");
+                value = upgradedUserSerde.serializer().serialize(INPUT_TOPIC, upgradedUser);
+            } else {
+                value = userSerde.serializer().serialize(INPUT_TOPIC, user);
+            }
+            batch.add(KeyValue.pair(userIdSerde.serializer().serialize(INPUT_TOPIC, new UserId(i)), value));
+        }
+    }
+
+    // User with a new field with default value, a backward compatible change
+    private static Schema userV2() {
+        List<Schema.Field> fields = new ArrayList<>();
+        for (Schema.Field field : User.SCHEMA$.getFields()) {
+            fields.add(new Schema.Field(field, field.schema()));
+        }
+        fields.add(new Schema.Field("Rank", Schema.create(Schema.Type.STRING), null, "Ensign"));
+        return Schema.createRecord(User.SCHEMA$.getName(), null, User.SCHEMA$.getNamespace(), false, fields);
+    }
+
+    @TearDown
+    public void tearDown() {
+        testDriver.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<byte[]> Topology() {
+        inputTopic.pipeKeyValueList(batch);
+        return outputTopic.readValuesToList();
+    }
+}
@@ -0,0 +1,219 @@
+package com.manelon.kafkastreams_simple.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.Topology;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.kstream.GlobalKTable;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.Named;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.manelon.model.User;
+import com.manelon.model.UserEnriched;
+import com.manelon.model.UserId;
+import com.manelon.model.starfleet.Personnel;
+import com.manelon.model.starfleet.PersonnelEnriched;
+import com.manelon.model.starfleet.Starship;
+
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
+
+/**
+ * Records per second and allocation per record of the topologies of the tests, run by the TopologyTestDriver with
+ * a corpus serialized in the setup, so only the topology is measured:
+ * <ul>
+ * <li>UserEnrichment: filter and mapValues of the users, the topology of SimpleAvroTopologyTest</li>
+ * <li>PersonnelStarshipJoin: join of the personnel with the GlobalKTable of the starships, as GlobalKTableJoin</li>
+ * </ul>
+ */
+@State(Scope.Thread)
+public class TopologyThroughput {
+    public static void main(String[] args) throws RunnerException, IOException {
+
+        Options opt = new OptionsBuilder()
+                .include(TopologyThroughput.class.getSimpleName())
+                .warmupIterations(3)
+                .forks(1)
+                .mode(Mode.Throughput)
+                .timeUnit(TimeUnit.SECONDS)
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    private static final int RECORDS = 1024;
+    private static final int STARSHIPS = 64;
+    private static final String USERS_TOPIC = "users";
+    private static final String PROCESSED_USERS_TOPIC = "processed_users";
+    private static final String PERSONNEL_TOPIC = "personnel";
+    private static final String STARSHIP_TOPIC = "starships";
+    private static final String PERSONNEL_SHIPS_TOPIC = "personnel-ships";
+    private static final String MOCK_SCHEMA_REGISTRY_URL = "mock://" + TopologyThroughput.class.getName();
+    private static final Map<String, String> SERDE_CONFIG = Map.of(
+            AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, MOCK_SCHEMA_REGISTRY_URL);
+
+    @Param({ "UserEnrichment", "PersonnelStarshipJoin" })
+    private String topology;
+
+    private TopologyTestDriver testDriver;
+    private TestInputTopic<byte[], byte[]> inputTopic;
+    private TestOutputTopic<byte[], byte[]> outputTopic;
+    private List<KeyValue<byte[], byte[]>> batch;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Properties props = new Properties();
+        props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, SpecificAvroSerde.class);
+        props.put(AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, MOCK_SCHEMA_REGISTRY_URL);
+        switch (topology) {
+            case "UserEnrichment":
+                props.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, SpecificAvroSerde.class);
+                testDriver = new TopologyTestDriver(userEnrichment(), props);
+                inputTopic = inputTopic(USERS_TOPIC);
+                outputTopic = outputTopic(PROCESSED_USERS_TOPIC);
+                batch = users();
+                break;
+            case "PersonnelStarshipJoin":
+                props.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, Serdes.Integer().getClass());
+                testDriver = new TopologyTestDriver(personnelStarshipJoin(), props);
+                // once, the GlobalKTable
+                inputTopic(STARSHIP_TOPIC).pipeKeyValueList(starships());
+                inputTopic = inputTopic(PERSONNEL_TOPIC);
+                outputTopic = outputTopic(PERSONNEL_SHIPS_TOPIC);
+                batch = personnel();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown topology " + topology);
+        }
+    }
+
+    private TestInputTopic<byte[], byte[]> inputTopic(String topic) {
+        return testDriver.createInputTopic(topic, new ByteArraySerializer(), new ByteArraySerializer());
+    }
+
+    private TestOutputTopic<byte[], byte[]> outputTopic(String topic) {
+        return testDriver.createOutputTopic(topic, new ByteArrayDeserializer(), new ByteArrayDeserializer());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        testDriver.close();
+    }
+
+    private static Topology userEnrichment() {
+        StreamsBuilder builder = new StreamsBuilder();
+        KStream<UserId, User> inputStream = builder.stream(USERS_TOPIC);
+        inputStream
+            .filter((id, user) -> (id.getId() > 0), Named.as("Filering_negative_ids"))
+            .mapValues((user) -> (new UserEnriched(
+                user.getId(),
+                user.getFirstName(),
+                user.getLastName(),
+                user.getFirstName() + ' ' + user.getLastName(),
+                user.getEMail(),
+                user.getPhoneNumber(),
+                user.getAddress()
+             )), Named.as("Calculating_FullName"))
+            .to(PROCESSED_USERS_TOPIC);
+        return builder.build();
+    }
+
+    private static Topology personnelStarshipJoin() {
+        StreamsBuilder builder = new StreamsBuilder();
+        KStream<Integer, Personnel> personnel = builder.stream(PERSONNEL_TOPIC);
+        GlobalKTable<Integer, Starship> starship = builder.globalTable(STARSHIP_TOPIC);
+        personnel
+            .join(starship,
+                (leftKey, leftValue) -> leftValue.getStarship(),
+                (leftValue, rightValue) -> new PersonnelEnriched(
+                    leftValue.getName(),
+                    leftValue.getStarship(),
+                    rightValue.getName(),
+                    leftValue.getRank()))
+            .to(PERSONNEL_SHIPS_TOPIC);
+        return builder.build();
+    }
+
+    private static List<KeyValue<byte[], byte[]>> users() {
+        SpecificAvroSerde<UserId> userIdSerde = new SpecificAvroSerde<>();
+        SpecificAvroSerde<User> userSerde = new SpecificAvroSerde<>();
+        userIdSerde.configure(SERDE_CONFIG, true);
+        userSerde.configure(SERDE_CONFIG, false);
+        List<KeyValue<UserId, User>> users = new ArrayList<>(RECORDS);
+        for (int i = 1; i <= RECORDS; i++) {
+            // one of every eight is filtered
+            int id = i % 8 == 0 ? -i : i;
+            users.add(KeyValue.pair(new UserId(id),
+                    new User(id, "Nyota", "Uhura", "uhura@enterprise.com", "555-1701", "Kenya")));
+        }
+        return serialize(USERS_TOPIC, userIdSerde.serializer(), userSerde.serializer(), users);
+    }
+
+    private static List<KeyValue<byte[], byte[]>> starships() {
+        SpecificAvroSerde<Starship> starshipSerde = new SpecificAvroSerde<>();
+        starshipSerde.configure(SERDE_CONFIG, false);
+        List<KeyValue<Integer, Starship>> starships = new ArrayList<>(STARSHIPS);
+        for (int i = 1; i <= STARSHIPS; i++) {
+            starships.add(KeyValue.pair(i, new Starship("Enterprise", "NCC-1701-" + i)));
+        }
+        return serialize(STARSHIP_TOPIC, Serdes.Integer().serializer(), starshipSerde.serializer(),
+                starships);
+    }
+
+    private static List<KeyValue<byte[], byte[]>> personnel() {
+        SpecificAvroSerde<Personnel> personnelSerde = new SpecificAvroSerde<>();
+        personnelSerde.configure(SERDE_CONFIG, false);
+        List<KeyValue<Integer, Personnel>> personnel = new ArrayList<>(RECORDS);
+        for (int i = 1; i <= RECORDS; i++) {
+            personnel.add(KeyValue.pair(i, new Personnel("Montgomery Scott", 1 + i % STARSHIPS, "Lieutenant Commander")));
+        }
+        return serialize(PERSONNEL_TOPIC, Serdes.Integer().serializer(), personnelSerde.serializer(),
+                personnel);
+    }
+
+    private static <K, V> List<KeyValue<byte[], byte[]>> serialize(String topic, Serializer<K> keySerializer,
+            Serializer<V> valueSerializer, List<KeyValue<K, V>> records) {
+        List<KeyValue<byte[], byte[]>> serialized = new ArrayList<>(records.size());
+        for (KeyValue<K, V> record : records) {
+            serialized.add(KeyValue.pair(keySerializer.serialize(topic, record.key),
+                    valueSerializer.serialize(topic, record.value)));
+        }
+        return serialized;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public List<byte[]> Topology() {
+        inputTopic.pipeKeyValueList(batch);
+        return outputTopic.readValuesToList();
+    }
+}
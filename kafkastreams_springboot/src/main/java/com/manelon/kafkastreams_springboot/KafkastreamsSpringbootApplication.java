@@ -1,46 +1,298 @@
 package com.manelon.kafkastreams_springboot;
 
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.util.Utf8;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KeyValue;
 import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.errors.LogAndContinueExceptionHandler;
+import org.apache.kafka.streams.errors.StreamsException;
+import org.apache.kafka.streams.kstream.Consumed;
 import org.apache.kafka.streams.kstream.KStream;
 import org.apache.kafka.streams.kstream.Named;
+import org.apache.kafka.streams.kstream.Produced;
+import org.apache.kafka.streams.processor.api.Record;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.kafka.annotation.EnableKafkaStreams;
+import org.springframework.kafka.config.KafkaStreamsConfiguration;
 
+import com.manelon.kafkastreams_common.processors.DedupWindow;
+import com.manelon.kafkastreams_common.processors.Fingerprints;
+import com.manelon.kafkastreams_common.processors.WindowedDedupProcessorSupplier;
+import com.manelon.kafkastreams_common.serdes.PersistentSchemaRegistryClient;
+import com.manelon.kafkastreams_common.utils.avro.RecordFactory;
 import com.manelon.kafkastreams_springboot.config.Topics;
+import com.manelon.kafkastreams_springboot.processors.BatchingProcessorSupplier;
+import com.manelon.kafkastreams_springboot.processors.EmitOnChangeProcessorSupplier;
+import com.manelon.kafkastreams_springboot.processors.FusingStreamsBuilder;
+import com.manelon.kafkastreams_springboot.scaling.StreamThreadScalingProperties;
+import com.manelon.kafkastreams_springboot.serdes.LazyAvroRecord;
+import com.manelon.kafkastreams_springboot.serdes.LazyAvroRecordBuilder;
+import com.manelon.kafkastreams_springboot.serdes.LazyAvroSerde;
+import com.manelon.kafkastreams_springboot.serdes.LazyValue;
+import com.manelon.kafkastreams_springboot.serdes.LazyValueSerde;
+import com.manelon.kafkastreams_springboot.serdes.Utf8AvroSerde;
+import com.manelon.kafkastreams_springboot.serdes.Utf8Interner;
+import com.manelon.kafkastreams_springboot.serdes.Utf8Strings;
 import com.manelon.model.User;
 import com.manelon.model.UserEnriched;
 import com.manelon.model.UserId;
 
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
+
 @SpringBootApplication
 @EnableKafkaStreams
-@EnableConfigurationProperties(Topics.class)
+@EnableConfigurationProperties({ Topics.class, StreamThreadScalingProperties.class })
 public class KafkastreamsSpringbootApplication {
 
+	private static final Logger log = LoggerFactory.getLogger(KafkastreamsSpringbootApplication.class);
+	private static final int BATCH_SIZE = 256;
+	private static final Duration BATCH_WAIT = Duration.ofMillis(100);
+	private static final int DEDUP_CACHE_SIZE = 10_000;
+	private static final Utf8 SPACE = new Utf8(" ");
+	private static final RecordFactory USER_ENRICHED = RecordFactory.of(UserEnriched.SCHEMA$);
+	private static final int ENRICHED_ID = USER_ENRICHED.position("Id");
+	private static final int ENRICHED_FIRST_NAME = USER_ENRICHED.position("FirstName");
+	private static final int ENRICHED_LAST_NAME = USER_ENRICHED.position("LastName");
+	private static final int ENRICHED_FULL_NAME = USER_ENRICHED.position("FullName");
+	private static final int ENRICHED_EMAIL = USER_ENRICHED.position("EMail");
+	private static final int ENRICHED_PHONE_NUMBER = USER_ENRICHED.position("PhoneNumber");
+	private static final int ENRICHED_ADDRESS = USER_ENRICHED.position("Address");
+
+	private boolean dedup;
+	private DedupWindow replayDedup;
+
 	public static void main(String[] args) {
 		SpringApplication.run(KafkastreamsSpringbootApplication.class, args);
 	}
 
+	/**
+	 * When it's enabled, handleStream doesn't write the enriched users equal to the last one written for their id, see
+	 * {@link EmitOnChangeProcessorSupplier}. The fingerprints are kept in the store Dropping_unchanged_users-fingerprints
+	 * and the ones of the last 10000 ids of every task in memory.
+	 * Enabled with processing.dedup.enabled=true
+	 */
+	@Value("${processing.dedup.enabled:false}")
+	public void setDedup(boolean dedup) {
+		this.dedup = dedup;
+	}
+
+	/**
+	 * When the window isn't 0, handleStream drops the users received again less than the window after or before the
+	 * first delivery, see {@link WindowedDedupProcessorSupplier}. The users have no event id field: the id of an event
+	 * is the user id of the key and the timestamp of the record, a replayed event keeps both and a new event of the
+	 * same user has a new timestamp. The stage runs after Filering_negative_ids, the Bloom filters are sized for
+	 * expectedIds users in a window, and the ids are kept in the store Dropping_replayed_users-ids.
+	 * Enabled with processing.replay-dedup.window (and processing.replay-dedup.expected-ids, 1000000 by default)
+	 */
+	@Autowired
+	public void setReplayDedup(@Value("${processing.replay-dedup.window:0s}") Duration window,
+			@Value("${processing.replay-dedup.expected-ids:1000000}") long expectedIds) {
+		this.replayDedup = window.isZero() ? null : DedupWindow.of(window, expectedIds);
+	}
+
 	@Bean 
+	@ConditionalOnProperty(prefix = "processing", name = "mode", havingValue = "specific", matchIfMissing = true)
 	public KStream<UserId, User> handleStream(StreamsBuilder builder, Topics topicsConfiguration) {
 		//I don't like the way springboot handle the creation of the topology.
 		//I need the StreamsBuilder, but I don't need to return the string builder
 		//The good thing, is with this approach we can registrer serveral streams 
 		KStream<UserId, User> inputStream = builder.stream(topicsConfiguration.getUsers());
-		KStream<UserId, UserEnriched> outptStream = inputStream
-			.filter((id, user) -> (id.getId() > 0), Named.as("Filering_negative_ids"))
-			.mapValues((user) -> (new UserEnriched(
-				user.getId(),
-				user.getFirstName(),
-				user.getLastName(),
-				user.getFirstName() + ' ' + user.getLastName(),
-				user.getEMail(),
-				user.getPhoneNumber(),
-				user.getAddress()
-			 )), Named.as("Calculating_FullName"));
+		KStream<UserId, User> users = inputStream
+			.filter((id, user) -> (id.getId() > 0), Named.as("Filering_negative_ids"));
+		if (replayDedup != null)
+			users = users.process(new WindowedDedupProcessorSupplier<>("Dropping_replayed_users-ids", replayDedup,
+				KafkastreamsSpringbootApplication::eventId, Serdes.ByteArray().serializer()), Named.as("Dropping_replayed_users"));
+		KStream<UserId, UserEnriched> outptStream = users
+			.mapValues(KafkastreamsSpringbootApplication::enrich, Named.as("Calculating_FullName"));
+		if (dedup)
+			outptStream = outptStream.process(new EmitOnChangeProcessorSupplier<>("Dropping_unchanged_users-fingerprints",
+				DEDUP_CACHE_SIZE, Fingerprints.avro()), Named.as("Dropping_unchanged_users"));
 		outptStream.to(topicsConfiguration.getProcessedUsers());
 		return inputStream;
 	}
+
+	/**
+	 * Same topology than handleStream, but the filter and the mapValues are fused in one processor, see
+	 * {@link FusingStreamsBuilder}: a record goes through one node instead of two. The node is named
+	 * Filering_negative_ids.Calculating_FullName, so both steps are still in the /topology description.
+	 * Enabled with processing.mode=fused
+	 */
+	@Bean
+	@ConditionalOnProperty(prefix = "processing", name = "mode", havingValue = "fused")
+	public KStream<UserId, User> handleFusedStream(StreamsBuilder builder, Topics topicsConfiguration) {
+		KStream<UserId, User> inputStream = builder.stream(topicsConfiguration.getUsers());
+		new FusingStreamsBuilder(builder).fuse(inputStream)
+			.filter((id, user) -> (id.getId() > 0), Named.as("Filering_negative_ids"))
+			.mapValues(KafkastreamsSpringbootApplication::enrich, Named.as("Calculating_FullName"))
+			.to(topicsConfiguration.getProcessedUsers());
+		return inputStream;
+	}
+
+	/**
+	 * Same topology than handleStream, but the users are enriched by batches of up to 256 records, or the ones received
+	 * in 100 ms, see {@link BatchingProcessorSupplier}. The buffered users are kept in the store Calculating_FullName-buffer.
+	 * Enabled with processing.mode=batched
+	 */
+	@Bean
+	@ConditionalOnProperty(prefix = "processing", name = "mode", havingValue = "batched")
+	public KStream<UserId, User> handleBatchedStream(StreamsBuilder builder, Topics topicsConfiguration) {
+		KStream<UserId, User> inputStream = builder.stream(topicsConfiguration.getUsers());
+		inputStream
+			.filter((id, user) -> (id.getId() > 0), Named.as("Filering_negative_ids"))
+			.process(new BatchingProcessorSupplier<>("Calculating_FullName-buffer", BATCH_SIZE, BATCH_WAIT,
+				KafkastreamsSpringbootApplication::enrichBatch), Named.as("Calculating_FullName"))
+			.to(topicsConfiguration.getProcessedUsers());
+		return inputStream;
+	}
+
+	/**
+	 * Same topology than handleStream, but the users are deserialized only when they pass the filter: the values
+	 * are read as {@link LazyValue} and the filter only reads the key, so dropped records only cost the key decoding.
+	 * The values are deserialized after the source node, so a corrupted value doesn't reach the configured
+	 * default.deserialization.exception.handler: its semantics are applied when the value is read, the record is logged
+	 * and skipped with LogAndContinueExceptionHandler, and the task fails with any other handler. A custom handler is
+	 * not called. Enabled with processing.mode=key-first
+	 */
+	@Bean
+	@ConditionalOnProperty(prefix = "processing", name = "mode", havingValue = "key-first")
+	public KStream<UserId, LazyValue<User>> handleKeyFirstStream(StreamsBuilder builder, Topics topicsConfiguration,
+			KafkaStreamsConfiguration streamsConfiguration) {
+		Map<String, Object> serdeConfig = serdeConfig(streamsConfiguration);
+		SchemaRegistryClient registry = PersistentSchemaRegistryClient.fromConfig(serdeConfig);
+		LazyValueSerde<User> valueSerde = new LazyValueSerde<>(new SpecificAvroSerde<>(registry), registry);
+		valueSerde.configure(serdeConfig, false);
+		boolean skipCorrupted = isLogAndContinue(serdeConfig.get(StreamsConfig.DEFAULT_DESERIALIZATION_EXCEPTION_HANDLER_CLASS_CONFIG));
+
+		KStream<UserId, LazyValue<User>> inputStream = builder.stream(topicsConfiguration.getUsers(),
+				Consumed.with(null, valueSerde));
+		inputStream
+			.filter((id, user) -> (id.getId() > 0), Named.as("Filering_negative_ids"))
+			.flatMapValues((id, user) -> {
+				try {
+					return List.of(enrich(user.get()));
+				} catch (SerializationException e) {
+					if (!skipCorrupted)
+						throw new StreamsException("The value of the user " + id.getId() + " could not be deserialized", e);
+					log.warn("Skipping the user {}, the value could not be deserialized", id.getId(), e);
+					return List.of();
+				}
+			}, Named.as("Calculating_FullName"))
+			.to(topicsConfiguration.getProcessedUsers());
+		return inputStream;
+	}
+
+	private static boolean isLogAndContinue(Object handler) {
+		return LogAndContinueExceptionHandler.class.equals(handler)
+			|| LogAndContinueExceptionHandler.class.getName().equals(handler);
+	}
+
+	/**
+	 * Same topology than handleStream, but the users are never decoded: the values are read as {@link LazyAvroRecord}
+	 * and only FirstName and LastName are read to calculate the FullName, the rest of the fields are copied byte by byte.
+	 * Enabled with processing.mode=lazy-avro
+	 */
+	@Bean
+	@ConditionalOnProperty(prefix = "processing", name = "mode", havingValue = "lazy-avro")
+	public KStream<UserId, LazyAvroRecord> handleLazyStream(StreamsBuilder builder, Topics topicsConfiguration,
+			KafkaStreamsConfiguration streamsConfiguration) {
+		LazyAvroSerde valueSerde = new LazyAvroSerde();
+		valueSerde.configure(serdeConfig(streamsConfiguration), false);
+
+		KStream<UserId, LazyAvroRecord> inputStream = builder.stream(topicsConfiguration.getUsers(),
+				Consumed.with(null, valueSerde));
+		inputStream
+			.filter((id, user) -> (id.getId() > 0), Named.as("Filering_negative_ids"))
+			.mapValues((user) -> new LazyAvroRecordBuilder(UserEnriched.SCHEMA$, user.length() + 32)
+				.copy(user, "Id", "FirstName", "LastName")
+				.putJoinedStrings("FullName", " ", user, "FirstName", "LastName")
+				.copy(user, "EMail", "PhoneNumber", "Address")
+				.build(), Named.as("Calculating_FullName"))
+			.to(topicsConfiguration.getProcessedUsers(), Produced.with(null, valueSerde));
+		return inputStream;
+	}
+
+	/**
+	 * Same topology than handleStream, but the strings are never decoded to java Strings: the users are read as
+	 * GenericRecords with Utf8 strings, the first and last names are interned and the FullName is joined from the bytes.
+	 * Enabled with processing.mode=utf8
+	 */
+	@Bean
+	@ConditionalOnProperty(prefix = "processing", name = "mode", havingValue = "utf8")
+	public KStream<UserId, GenericRecord> handleUtf8Stream(StreamsBuilder builder, Topics topicsConfiguration,
+			KafkaStreamsConfiguration streamsConfiguration) {
+		Utf8AvroSerde valueSerde = new Utf8AvroSerde(new Utf8Interner(4096, 64), "FirstName", "LastName");
+		valueSerde.configure(serdeConfig(streamsConfiguration), false);
+
+		KStream<UserId, GenericRecord> inputStream = builder.stream(topicsConfiguration.getUsers(),
+				Consumed.with(null, valueSerde));
+		inputStream
+			.filter((id, user) -> (id.getId() > 0), Named.as("Filering_negative_ids"))
+			.mapValues(KafkastreamsSpringbootApplication::enrichUtf8, Named.as("Calculating_FullName"))
+			.to(topicsConfiguration.getProcessedUsers(), Produced.with(null, valueSerde));
+		return inputStream;
+	}
+
+	// the user id and the timestamp of the record, a replayed event keeps the timestamp of its first delivery
+	private static byte[] eventId(Record<UserId, User> user) {
+		return ByteBuffer.allocate(Integer.BYTES + Long.BYTES).putInt(user.key().getId()).putLong(user.timestamp()).array();
+	}
+
+	private static UserEnriched enrich(User user) {
+		return new UserEnriched(
+			user.getId(),
+			user.getFirstName(),
+			user.getLastName(),
+			user.getFirstName() + ' ' + user.getLastName(),
+			user.getEMail(),
+			user.getPhoneNumber(),
+			user.getAddress()
+		);
+	}
+
+	private static List<UserEnriched> enrichBatch(List<KeyValue<UserId, User>> users) {
+		List<UserEnriched> enriched = new ArrayList<>(users.size());
+		for (KeyValue<UserId, User> user : users)
+			enriched.add(enrich(user.value));
+		return enriched;
+	}
+
+	private static GenericRecord enrichUtf8(GenericRecord user) {
+		CharSequence firstName = (CharSequence) user.get("FirstName");
+		CharSequence lastName = (CharSequence) user.get("LastName");
+		return USER_ENRICHED.builder()
+			.set(ENRICHED_ID, user.get("Id"))
+			.set(ENRICHED_FIRST_NAME, firstName)
+			.set(ENRICHED_LAST_NAME, lastName)
+			.set(ENRICHED_FULL_NAME, Utf8Strings.join(SPACE, firstName, lastName))
+			.set(ENRICHED_EMAIL, user.get("EMail"))
+			.set(ENRICHED_PHONE_NUMBER, user.get("PhoneNumber"))
+			.set(ENRICHED_ADDRESS, user.get("Address"))
+			.build();
+	}
+
+	// Serdes passed to Consumed or Produced are not configured by Kafka Streams, they need the streams properties
+	private static Map<String, Object> serdeConfig(KafkaStreamsConfiguration streamsConfiguration) {
+		Map<String, Object> serdeConfig = new HashMap<>();
+		streamsConfiguration.asProperties().forEach((key, value) -> serdeConfig.put(key.toString(), value));
+		return serdeConfig;
+	}
 }
@@ -0,0 +1,203 @@
+package com.manelon.kafkastreams_springboot.processors;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.metrics.Sensor;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.errors.StreamsException;
+import org.apache.kafka.streams.kstream.ValueMapperWithKey;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueStore;
+
+import com.manelon.kafkastreams_common.processors.ProcessorSensors;
+
+/**
+ * Processor of {@link AsyncProcessorSupplier}, there is an instance by task.
+ *
+ * The lookups are queued by key in the order they are dispatched, the executor hands the ended ones back to the stream
+ * thread through a queue: the record of an ended lookup is forwarded, with the ended ones behind it, when it's the
+ * first of its key. Only the stream thread reads and changes the queues by key and the store, and it registers a lookup
+ * only once the executor has accepted it.
+ */
+@SuppressWarnings("unchecked")
+final class AsyncProcessor<K, V, VR> implements Processor<K, V, K, VR> {
+
+    static final String METRICS_GROUP = "stream-async-metrics";
+    // default of the consumer
+    private static final long DEFAULT_MAX_POLL_INTERVAL_MS = 300_000;
+
+    private final String storeName;
+    private final Executor executor;
+    private final int maxInFlight;
+    private final Duration pollInterval;
+    private final ValueMapperWithKey<? super K, ? super V, ? extends VR> lookup;
+    private final Serde<K> keySerde;
+    private final Serde<V> valueSerde;
+
+    private final Map<K, ArrayDeque<Lookup<K, V, VR>>> byKey = new HashMap<>();
+    private final BlockingQueue<Lookup<K, V, VR>> ended = new LinkedBlockingQueue<>();
+    private int inFlight;
+    private long maxWaitNanos;
+
+    private ProcessorContext<K, VR> context;
+    private PendingRecords<K, V> pending;
+    private Sensor inFlightSensor;
+    private Sensor backpressureTime;
+
+    private static final class Lookup<K, V, VR> {
+        final long sequence;
+        final Record<K, V> record;
+        // written by the executor before the lookup is queued as ended, read by the stream thread after it
+        VR value;
+        Throwable failure;
+        // only used by the stream thread
+        boolean done;
+
+        Lookup(long sequence, Record<K, V> record) {
+            this.sequence = sequence;
+            this.record = record;
+        }
+    }
+
+    AsyncProcessor(String storeName, Executor executor, int maxInFlight, Duration pollInterval,
+            ValueMapperWithKey<? super K, ? super V, ? extends VR> lookup, Serde<K> keySerde, Serde<V> valueSerde) {
+        this.storeName = storeName;
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+        this.pollInterval = pollInterval;
+        this.lookup = lookup;
+        this.keySerde = keySerde;
+        this.valueSerde = valueSerde;
+    }
+
+    @Override
+    public void init(ProcessorContext<K, VR> context) {
+        this.context = context;
+        KeyValueStore<Bytes, byte[]> store = context.getStateStore(storeName);
+        this.pending = new PendingRecords<>(context.applicationId(), storeName, store,
+                keySerde == null ? (Serde<K>) context.keySerde() : keySerde,
+                valueSerde == null ? (Serde<V>) context.valueSerde() : valueSerde);
+        inFlightSensor = ProcessorSensors.avgMax(context, METRICS_GROUP, storeName, "in-flight",
+                "number of lookups in flight when a record is dispatched");
+        backpressureTime = ProcessorSensors.avgMax(context, METRICS_GROUP, storeName, "backpressure-time",
+                "time in ns the stream thread waited for room for a lookup");
+        maxWaitNanos = maxWait(context.appConfigs()).toNanos();
+
+        // the lookups are dispatched again, the room is not checked: there was room for them before the failure
+        try {
+            pending.restore(this::dispatch);
+        } catch (RejectedExecutionException e) {
+            // the records stay in the store, they are dispatched again by the next owner of the task
+            throw new StreamsException("The executor of " + storeName + " rejected a pending lookup", e);
+        }
+        context.schedule(pollInterval, PunctuationType.WALL_CLOCK_TIME, timestamp -> forwardEnded());
+    }
+
+    /**
+     * Time the stream thread can wait for room for a lookup: half of max.poll.interval.ms, well below it so the member
+     * isn't removed from the group while it waits
+     */
+    static Duration maxWait(Map<String, Object> configs) {
+        Object maxPollInterval = configs.get(StreamsConfig.mainConsumerPrefix(ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG));
+        if (maxPollInterval == null)
+            maxPollInterval = configs.get(StreamsConfig.consumerPrefix(ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG));
+        if (maxPollInterval == null)
+            maxPollInterval = configs.get(ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG);
+        long maxPollIntervalMs = maxPollInterval == null ? DEFAULT_MAX_POLL_INTERVAL_MS
+                : Long.parseLong(maxPollInterval.toString());
+        return Duration.ofMillis(maxPollIntervalMs / 2);
+    }
+
+    @Override
+    public void process(Record<K, V> record) {
+        if (inFlight >= maxInFlight) {
+            long start = System.nanoTime();
+            do {
+                end(poll(start + maxWaitNanos));
+            } while (inFlight >= maxInFlight);
+            backpressureTime.record(System.nanoTime() - start);
+        }
+        forwardEnded();
+        long sequence = pending.add(record);
+        try {
+            dispatch(sequence, record);
+        } catch (RejectedExecutionException e) {
+            // the offset of the record isn't committed, it's processed again
+            pending.remove(sequence);
+            throw new StreamsException("The executor of " + storeName + " rejected a lookup", e);
+        }
+    }
+
+    private void dispatch(long sequence, Record<K, V> record) {
+        Lookup<K, V, VR> dispatched = new Lookup<>(sequence, record);
+        executor.execute(() -> {
+            try {
+                dispatched.value = lookup.apply(record.key(), record.value());
+            } catch (Throwable e) {
+                dispatched.failure = e;
+            }
+            ended.add(dispatched);
+        });
+        // only the stream thread takes the ended lookups, it's registered before it can be taken
+        byKey.computeIfAbsent(record.key(), key -> new ArrayDeque<>()).add(dispatched);
+        inFlight++;
+        inFlightSensor.record(inFlight);
+    }
+
+    private Lookup<K, V, VR> poll(long deadline) {
+        try {
+            Lookup<K, V, VR> lookup = ended.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (lookup == null)
+                throw new StreamsException("No lookup of " + storeName + " ended in "
+                        + Duration.ofNanos(maxWaitNanos) + ", there are " + inFlight + " in flight");
+            return lookup;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StreamsException("Interrupted while waiting for the lookups of " + storeName, e);
+        }
+    }
+
+    private void forwardEnded() {
+        Lookup<K, V, VR> lookup;
+        while ((lookup = ended.poll()) != null)
+            end(lookup);
+    }
+
+    // forwards the ended lookups at the head of the queue of the key
+    private void end(Lookup<K, V, VR> lookup) {
+        inFlight--;
+        if (lookup.failure != null)
+            throw new StreamsException("The lookup of " + storeName + " failed", lookup.failure);
+        lookup.done = true;
+
+        ArrayDeque<Lookup<K, V, VR>> queue = byKey.get(lookup.record.key());
+        while (!queue.isEmpty() && queue.peek().done) {
+            Lookup<K, V, VR> first = queue.poll();
+            context.forward(first.record.withValue(first.value));
+            pending.remove(first.sequence);
+        }
+        if (queue.isEmpty())
+            byKey.remove(lookup.record.key());
+    }
+
+    @Override
+    public void close() {
+        // the lookups in flight are not forwarded, their records stay in the store for the next owner of the task
+        context.metrics().removeSensor(inFlightSensor);
+        context.metrics().removeSensor(backpressureTime);
+    }
+}
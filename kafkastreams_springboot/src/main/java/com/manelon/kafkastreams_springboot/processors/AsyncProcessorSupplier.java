@@ -0,0 +1,96 @@
+package com.manelon.kafkastreams_springboot.processors;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.streams.kstream.ValueMapperWithKey;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorSupplier;
+import org.apache.kafka.streams.state.StoreBuilder;
+
+/**
+ * A mapValues for slow, blocking, lookups (a profile service, a database): the lookups are run by an executor, the
+ * stream thread only dispatches them and forwards the results, so the records of a task are looked up concurrently.
+ * <pre>
+ * ExecutorService lookups = Executors.newFixedThreadPool(64);
+ * users.process(new AsyncProcessorSupplier&lt;&gt;("profiles-pending", lookups, 16,
+ *     (id, user) -&gt; profiles.get(id)), Named.as("Looking_up_profiles"));
+ * </pre>
+ *
+ * The results of the records with the same key are forwarded in the order the records were received, the results of
+ * different keys in the order the lookups end. There are at most maxInFlight lookups by task: when there are no more
+ * the stream thread waits for the first one to end, so the task (and the rest of the tasks of the thread) is not
+ * polled until there is room. It waits at most half of max.poll.interval.ms, then the task fails with a
+ * StreamsException instead of letting the member be removed from the group. The executor is shared by all the
+ * tasks, it must be bounded by the caller, and it must not run the lookups in the calling thread: a lookup it
+ * rejects fails the task too, and the record is processed again.
+ *
+ * The ended lookups are forwarded when the next record is processed, or by a punctuator every pollInterval of wall
+ * clock time. As in {@link BatchingProcessorSupplier} the records are written to a logged store until their result is
+ * forwarded, so their offsets can be committed: after a failure they are looked up again.
+ *
+ * Sensors of the thread metrics (group stream-async-metrics, tagged with the task and the store name):
+ * in-flight-avg and in-flight-max (lookups when a record is dispatched), backpressure-time-avg and
+ * backpressure-time-max (ns the stream thread waited for room).
+ * @param <K> type of the keys
+ * @param <V> type of the values
+ * @param <VR> type of the new values
+ */
+public class AsyncProcessorSupplier<K, V, VR> implements ProcessorSupplier<K, V, K, VR> {
+
+    public static final Duration DEFAULT_POLL_INTERVAL = Duration.ofMillis(10);
+
+    private final String storeName;
+    private final Executor executor;
+    private final int maxInFlight;
+    private final Duration pollInterval;
+    private final ValueMapperWithKey<? super K, ? super V, ? extends VR> lookup;
+    private final Serde<K> keySerde;
+    private final Serde<V> valueSerde;
+
+    /**
+     * Pending records are written to the store with the default serdes of the application, the ended lookups are
+     * polled every {@link #DEFAULT_POLL_INTERVAL}
+     */
+    public AsyncProcessorSupplier(String storeName, Executor executor, int maxInFlight,
+            ValueMapperWithKey<? super K, ? super V, ? extends VR> lookup) {
+        this(storeName, executor, maxInFlight, DEFAULT_POLL_INTERVAL, lookup, null, null);
+    }
+
+    /**
+     * @param keySerde serde of the keys in the store, null for the default one. It must be configured
+     * @param valueSerde serde of the values in the store, null for the default one. It must be configured
+     */
+    public AsyncProcessorSupplier(String storeName, Executor executor, int maxInFlight, Duration pollInterval,
+            ValueMapperWithKey<? super K, ? super V, ? extends VR> lookup, Serde<K> keySerde, Serde<V> valueSerde) {
+        if (maxInFlight < 1)
+            throw new IllegalArgumentException("The maximum number of lookups in flight must be positive, it is "
+                    + maxInFlight);
+        if (pollInterval.isNegative() || pollInterval.isZero())
+            throw new IllegalArgumentException("The poll interval must be positive, it is " + pollInterval);
+        this.storeName = Objects.requireNonNull(storeName, "storeName can't be null");
+        this.executor = Objects.requireNonNull(executor, "executor can't be null");
+        this.maxInFlight = maxInFlight;
+        this.pollInterval = pollInterval;
+        this.lookup = Objects.requireNonNull(lookup, "lookup can't be null");
+        this.keySerde = keySerde;
+        this.valueSerde = valueSerde;
+    }
+
+    @Override
+    public Processor<K, V, K, VR> get() {
+        return new AsyncProcessor<>(storeName, executor, maxInFlight, pollInterval, lookup, keySerde, valueSerde);
+    }
+
+    @Override
+    public Set<StoreBuilder<?>> stores() {
+        return PendingRecords.stores(storeName);
+    }
+
+    public String storeName() {
+        return storeName;
+    }
+}
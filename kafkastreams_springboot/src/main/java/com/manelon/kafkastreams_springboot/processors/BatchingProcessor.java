@@ -0,0 +1,121 @@
+package com.manelon.kafkastreams_springboot.processors;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.kafka.common.metrics.Sensor;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueStore;
+
+import com.manelon.kafkastreams_common.processors.ProcessorSensors;
+
+/**
+ * Processor of {@link BatchingProcessorSupplier}, there is an instance by task.
+ *
+ * The buffered records are kept twice: as objects, given to the mapper without decoding them again, and in the
+ * {@link PendingRecords} of the store, until they are forwarded.
+ */
+@SuppressWarnings("unchecked")
+final class BatchingProcessor<K, V, VR> implements Processor<K, V, K, VR> {
+
+    static final String METRICS_GROUP = "stream-batching-metrics";
+
+    private final String storeName;
+    private final int maxRecords;
+    private final Duration maxWait;
+    private final ValueBatchMapper<K, V, VR> mapper;
+    private final Serde<K> keySerde;
+    private final Serde<V> valueSerde;
+
+    private final List<Record<K, V>> buffer;
+    private final List<KeyValue<K, V>> batch;
+    // sequences of the buffered records, they follow each other
+    private long firstSequence;
+    private long nextSequence;
+
+    private ProcessorContext<K, VR> context;
+    private PendingRecords<K, V> pending;
+    private Sensor batchSize;
+    private Sensor flushLatency;
+
+    BatchingProcessor(String storeName, int maxRecords, Duration maxWait, ValueBatchMapper<K, V, VR> mapper,
+            Serde<K> keySerde, Serde<V> valueSerde) {
+        this.storeName = storeName;
+        this.maxRecords = maxRecords;
+        this.maxWait = maxWait;
+        this.mapper = mapper;
+        this.keySerde = keySerde;
+        this.valueSerde = valueSerde;
+        this.buffer = new ArrayList<>(maxRecords);
+        this.batch = new ArrayList<>(maxRecords);
+    }
+
+    @Override
+    public void init(ProcessorContext<K, VR> context) {
+        this.context = context;
+        KeyValueStore<Bytes, byte[]> store = context.getStateStore(storeName);
+        this.pending = new PendingRecords<>(context.applicationId(), storeName, store,
+                keySerde == null ? (Serde<K>) context.keySerde() : keySerde,
+                valueSerde == null ? (Serde<V>) context.valueSerde() : valueSerde);
+
+        batchSize = ProcessorSensors.avgMax(context, METRICS_GROUP, storeName, "batch-size",
+                "number of records of the batches");
+        flushLatency = ProcessorSensors.avgMax(context, METRICS_GROUP, storeName, "flush-latency",
+                "time in ns to map and forward a batch");
+
+        pending.restore((sequence, record) -> {
+            if (buffer.isEmpty())
+                firstSequence = sequence;
+            nextSequence = sequence + 1;
+            add(record);
+        });
+        context.schedule(maxWait, PunctuationType.WALL_CLOCK_TIME, timestamp -> flush());
+    }
+
+    @Override
+    public void process(Record<K, V> record) {
+        nextSequence = pending.add(record) + 1;
+        add(record);
+        if (buffer.size() >= maxRecords)
+            flush();
+    }
+
+    private void add(Record<K, V> record) {
+        buffer.add(record);
+        batch.add(KeyValue.pair(record.key(), record.value()));
+    }
+
+    private void flush() {
+        if (buffer.isEmpty())
+            return;
+        long start = System.nanoTime();
+        List<? extends VR> values = mapper.apply(batch);
+        if (values == null || values.size() != buffer.size())
+            throw new IllegalStateException("The batch mapper of " + storeName + " returned "
+                    + (values == null ? "null" : values.size() + " values") + " for " + buffer.size() + " records");
+        for (int i = 0; i < buffer.size(); i++)
+            context.forward(buffer.get(i).withValue(values.get(i)));
+        for (long sequence = firstSequence; sequence < nextSequence; sequence++)
+            pending.remove(sequence);
+        batchSize.record(buffer.size());
+        flushLatency.record(System.nanoTime() - start);
+
+        buffer.clear();
+        batch.clear();
+        firstSequence = nextSequence;
+    }
+
+    @Override
+    public void close() {
+        // the buffered records are not forwarded, they stay in the store for the next owner of the task
+        context.metrics().removeSensor(batchSize);
+        context.metrics().removeSensor(flushLatency);
+    }
+}
@@ -0,0 +1,84 @@
+package com.manelon.kafkastreams_springboot.processors;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Set;
+
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorSupplier;
+import org.apache.kafka.streams.state.StoreBuilder;
+
+/**
+ * A mapValues by batches: the records of a task are buffered until there are maxRecords of them or maxWait has passed
+ * (wall clock time), then all of them are given to a {@link ValueBatchMapper} and the new values are forwarded in the
+ * order the records were received, with their keys, timestamps and headers.
+ * <pre>
+ * users.process(new BatchingProcessorSupplier&lt;&gt;("lookup-buffer", 256, Duration.ofMillis(100),
+ *     batch -&gt; profiles.lookup(batch)), Named.as("Looking_up_profiles"));
+ * </pre>
+ *
+ * The offsets of the buffered records are committed before their new values are forwarded, so the records are also
+ * written to a logged in-memory store, flushed to its changelog in the same commit: after a failure the store is
+ * restored and the records that were not forwarded are forwarded by the next flush (their headers are not kept).
+ * The store is added by the supplier, it only needs a name unique in the topology.
+ *
+ * The keys are not changed, but it's a process and not a processValues: the stores of a processValues are not
+ * registered in the tasks in this version of Kafka Streams. As any process, the stream is marked for repartition.
+ *
+ * Sensors of the thread metrics (group stream-batching-metrics, tagged with the task and the store name):
+ * batch-size-avg, batch-size-max, flush-latency-avg and flush-latency-max (ns).
+ * @param <K> type of the keys
+ * @param <V> type of the values
+ * @param <VR> type of the new values
+ */
+public class BatchingProcessorSupplier<K, V, VR> implements ProcessorSupplier<K, V, K, VR> {
+
+    private final String storeName;
+    private final int maxRecords;
+    private final Duration maxWait;
+    private final ValueBatchMapper<K, V, VR> mapper;
+    private final Serde<K> keySerde;
+    private final Serde<V> valueSerde;
+
+    /**
+     * Buffered records are written to the store with the default serdes of the application
+     */
+    public BatchingProcessorSupplier(String storeName, int maxRecords, Duration maxWait,
+            ValueBatchMapper<K, V, VR> mapper) {
+        this(storeName, maxRecords, maxWait, mapper, null, null);
+    }
+
+    /**
+     * @param keySerde serde of the keys in the store, null for the default one. It must be configured
+     * @param valueSerde serde of the values in the store, null for the default one. It must be configured
+     */
+    public BatchingProcessorSupplier(String storeName, int maxRecords, Duration maxWait,
+            ValueBatchMapper<K, V, VR> mapper, Serde<K> keySerde, Serde<V> valueSerde) {
+        if (maxRecords < 1)
+            throw new IllegalArgumentException("The maximum number of records of a batch must be positive, it is "
+                    + maxRecords);
+        if (maxWait.isNegative() || maxWait.isZero())
+            throw new IllegalArgumentException("The maximum wait of a batch must be positive, it is " + maxWait);
+        this.storeName = Objects.requireNonNull(storeName, "storeName can't be null");
+        this.maxRecords = maxRecords;
+        this.maxWait = maxWait;
+        this.mapper = Objects.requireNonNull(mapper, "mapper can't be null");
+        this.keySerde = keySerde;
+        this.valueSerde = valueSerde;
+    }
+
+    @Override
+    public Processor<K, V, K, VR> get() {
+        return new BatchingProcessor<>(storeName, maxRecords, maxWait, mapper, keySerde, valueSerde);
+    }
+
+    @Override
+    public Set<StoreBuilder<?>> stores() {
+        return PendingRecords.stores(storeName);
+    }
+
+    public String storeName() {
+        return storeName;
+    }
+}
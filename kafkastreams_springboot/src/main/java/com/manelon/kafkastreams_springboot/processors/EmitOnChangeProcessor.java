@@ -0,0 +1,89 @@
+package com.manelon.kafkastreams_springboot.processors;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+import org.apache.kafka.common.metrics.Sensor;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueStore;
+
+import com.manelon.kafkastreams_common.processors.ProcessorSensors;
+
+/**
+ * Processor of {@link EmitOnChangeProcessorSupplier}, there is an instance by task.
+ *
+ * The cache is always the same than the store for the keys it has: it's written with the store, and it's lost with
+ * the task, the new owner reads the restored store.
+ */
+final class EmitOnChangeProcessor<K, V> implements Processor<K, V, K, V> {
+
+    static final String METRICS_GROUP = "stream-dedup-metrics";
+
+    private final String storeName;
+    private final ToLongFunction<? super V> fingerprint;
+    private final Map<K, Long> cache;
+
+    private ProcessorContext<K, V> context;
+    private KeyValueStore<K, Long> store;
+    private Sensor suppression;
+    private Sensor cacheHits;
+
+    EmitOnChangeProcessor(String storeName, int cacheSize, ToLongFunction<? super V> fingerprint) {
+        this.storeName = storeName;
+        this.fingerprint = fingerprint;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Long> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    @Override
+    public void init(ProcessorContext<K, V> context) {
+        this.context = context;
+        this.store = context.getStateStore(storeName);
+        suppression = ProcessorSensors.ratio(context, METRICS_GROUP, storeName, "suppression",
+                "records dropped because their value didn't change");
+        cacheHits = ProcessorSensors.ratio(context, METRICS_GROUP, storeName, "cache-hit",
+                "records with the fingerprint of their key in the cache");
+    }
+
+    @Override
+    public void process(Record<K, V> record) {
+        K key = record.key();
+        if (record.value() == null) {
+            cache.remove(key);
+            store.delete(key);
+            suppression.record(0);
+            context.forward(record);
+            return;
+        }
+        long current = fingerprint.applyAsLong(record.value());
+        Long last = cache.get(key);
+        cacheHits.record(last == null ? 0 : 1);
+        if (last == null) {
+            last = store.get(key);
+            if (last != null)
+                cache.put(key, last);
+        }
+        if (last != null && last == current) {
+            suppression.record(1);
+            return;
+        }
+        suppression.record(0);
+        store.put(key, current);
+        cache.put(key, current);
+        context.forward(record);
+    }
+
+    @Override
+    public void close() {
+        cache.clear();
+        context.metrics().removeSensor(suppression);
+        context.metrics().removeSensor(cacheHits);
+    }
+}
@@ -0,0 +1,90 @@
+package com.manelon.kafkastreams_springboot.processors;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorSupplier;
+import org.apache.kafka.streams.state.KeyValueBytesStoreSupplier;
+import org.apache.kafka.streams.state.StoreBuilder;
+import org.apache.kafka.streams.state.Stores;
+
+import com.manelon.kafkastreams_common.processors.Fingerprints;
+
+/**
+ * Drops the records with the same value than the last one forwarded for their key: only the changes are emitted.
+ * The values are compared by their 64 bits fingerprint, see {@link Fingerprints}, the last fingerprint of every key
+ * is kept in a persistent (RocksDB) logged store, and the ones of the last cacheSize keys used by the task in an LRU
+ * cache in memory, so the hot keys don't read the store.
+ * <pre>
+ * users.process(new EmitOnChangeProcessorSupplier&lt;&gt;("users-fingerprints", 10_000, Fingerprints.avro()),
+ *     Named.as("Dropping_unchanged_users"));
+ * </pre>
+ *
+ * Records with a null value are always forwarded and remove the fingerprint of their key, so the next value is
+ * emitted. The store is added by the supplier, it only needs a name unique in the topology.
+ *
+ * The keys are not changed, but it's a process and not a processValues: the stores of a processValues are not
+ * registered in the tasks in this version of Kafka Streams. As any process, the stream is marked for repartition.
+ *
+ * Sensors of the thread metrics (group stream-dedup-metrics, tagged with the task and the store name):
+ * suppression-ratio (records dropped by records received) and cache-hit-ratio (fingerprints found in the cache by
+ * records received).
+ * @param <K> type of the keys
+ * @param <V> type of the values
+ */
+public class EmitOnChangeProcessorSupplier<K, V> implements ProcessorSupplier<K, V, K, V> {
+
+    private final KeyValueBytesStoreSupplier storeSupplier;
+    private final int cacheSize;
+    private final ToLongFunction<? super V> fingerprint;
+    private final Serde<K> keySerde;
+
+    /**
+     * The keys are written to the store with the default key serde of the application
+     */
+    public EmitOnChangeProcessorSupplier(String storeName, int cacheSize, ToLongFunction<? super V> fingerprint) {
+        this(storeName, cacheSize, fingerprint, null);
+    }
+
+    /**
+     * @param cacheSize keys of the cache of every task, 0 to always read the store
+     * @param fingerprint 64 bits hash of the values, it's called by the stream threads at the same time
+     * @param keySerde serde of the keys in the store, null for the default one
+     */
+    public EmitOnChangeProcessorSupplier(String storeName, int cacheSize, ToLongFunction<? super V> fingerprint,
+            Serde<K> keySerde) {
+        this(Stores.persistentKeyValueStore(Objects.requireNonNull(storeName, "storeName can't be null")), cacheSize,
+                fingerprint, keySerde);
+    }
+
+    /**
+     * @param storeSupplier store of the fingerprints, instead of a persistent one
+     */
+    public EmitOnChangeProcessorSupplier(KeyValueBytesStoreSupplier storeSupplier, int cacheSize,
+            ToLongFunction<? super V> fingerprint, Serde<K> keySerde) {
+        if (cacheSize < 0)
+            throw new IllegalArgumentException("The size of the cache can't be negative, it is " + cacheSize);
+        this.storeSupplier = Objects.requireNonNull(storeSupplier, "storeSupplier can't be null");
+        this.cacheSize = cacheSize;
+        this.fingerprint = Objects.requireNonNull(fingerprint, "fingerprint can't be null");
+        this.keySerde = keySerde;
+    }
+
+    @Override
+    public Processor<K, V, K, V> get() {
+        return new EmitOnChangeProcessor<>(storeSupplier.name(), cacheSize, fingerprint);
+    }
+
+    @Override
+    public Set<StoreBuilder<?>> stores() {
+        return Set.of(Stores.keyValueStoreBuilder(storeSupplier, keySerde, Serdes.Long()));
+    }
+
+    public String storeName() {
+        return storeSupplier.name();
+    }
+}
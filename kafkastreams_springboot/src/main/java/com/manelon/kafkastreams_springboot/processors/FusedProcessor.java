@@ -0,0 +1,75 @@
+package com.manelon.kafkastreams_springboot.processors;
+
+import org.apache.kafka.streams.processor.api.FixedKeyProcessor;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+
+/**
+ * Processor of the stages of a {@link FusedStream}: the record goes through all of them in one node and only the
+ * result is forwarded. {@link Values} is the one used when no stage changes the key, as the DSL mapValues it doesn't
+ * mark the stream for repartition.
+ *
+ * There is an instance by task, the record being processed is kept in a field.
+ */
+@SuppressWarnings("unchecked")
+final class FusedProcessor<KIn, VIn, KOut, VOut> implements Processor<KIn, VIn, KOut, VOut> {
+
+    private final FusedStage[] stages;
+    private final FusedStage.Current current = new FusedStage.Current();
+    private ProcessorContext<KOut, VOut> context;
+
+    FusedProcessor(FusedStage[] stages) {
+        this.stages = stages;
+    }
+
+    @Override
+    public void init(ProcessorContext<KOut, VOut> context) {
+        this.context = context;
+    }
+
+    @Override
+    public void process(Record<KIn, VIn> record) {
+        current.key = record.key();
+        current.value = record.value();
+        try {
+            if (FusedStage.run(stages, current))
+                context.forward(new Record<>((KOut) current.key, (VOut) current.value, record.timestamp(),
+                        record.headers()));
+        } finally {
+            current.key = null;
+            current.value = null;
+        }
+    }
+
+    static final class Values<K, VIn, VOut> implements FixedKeyProcessor<K, VIn, VOut> {
+
+        private final FusedStage[] stages;
+        private final FusedStage.Current current = new FusedStage.Current();
+        private FixedKeyProcessorContext<K, VOut> context;
+
+        Values(FusedStage[] stages) {
+            this.stages = stages;
+        }
+
+        @Override
+        public void init(FixedKeyProcessorContext<K, VOut> context) {
+            this.context = context;
+        }
+
+        @Override
+        public void process(FixedKeyRecord<K, VIn> record) {
+            current.key = record.key();
+            current.value = record.value();
+            try {
+                if (FusedStage.run(stages, current))
+                    context.forward(record.withValue((VOut) current.value));
+            } finally {
+                current.key = null;
+                current.value = null;
+            }
+        }
+    }
+}
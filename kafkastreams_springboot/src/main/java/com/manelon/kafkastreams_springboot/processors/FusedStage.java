@@ -0,0 +1,137 @@
+package com.manelon.kafkastreams_springboot.processors;
+
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.kstream.ForeachAction;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.KeyValueMapper;
+import org.apache.kafka.streams.kstream.Named;
+import org.apache.kafka.streams.kstream.Predicate;
+import org.apache.kafka.streams.kstream.ValueMapperWithKey;
+
+/**
+ * One of the stateless operations of a {@link FusedStream}. In a fused processor it reads and replaces the key and
+ * the value of the record, alone it's added to the topology as the DSL operation, with the same node.
+ * The functions are typed by {@link FusedStream}, here the records are Objects.
+ */
+@SuppressWarnings({ "unchecked", "rawtypes" })
+abstract class FusedStage {
+
+    /**
+     * Key and value of the record in the stages of a fused processor
+     */
+    static final class Current {
+        Object key;
+        Object value;
+    }
+
+    // null when the operation isn't named
+    final String name;
+
+    private FusedStage(Named named) {
+        this.name = named == null ? null : FusedStream.nameOf(named);
+    }
+
+    /**
+     * @return false if the record is dropped
+     */
+    abstract boolean apply(Current record);
+
+    abstract boolean changesKey();
+
+    /**
+     * Adds the operation to the stream as the DSL would do it
+     */
+    abstract KStream applyTo(KStream stream);
+
+    /**
+     * Runs the stages in order until one of them drops the record
+     */
+    static boolean run(FusedStage[] stages, Current record) {
+        for (FusedStage stage : stages) {
+            if (!stage.apply(record))
+                return false;
+        }
+        return true;
+    }
+
+    static FusedStage filter(Predicate predicate, Named named) {
+        return new FusedStage(named) {
+            @Override
+            boolean apply(Current record) {
+                return predicate.test(record.key, record.value);
+            }
+
+            @Override
+            boolean changesKey() {
+                return false;
+            }
+
+            @Override
+            KStream applyTo(KStream stream) {
+                return named == null ? stream.filter(predicate) : stream.filter(predicate, named);
+            }
+        };
+    }
+
+    static FusedStage map(KeyValueMapper mapper, Named named) {
+        return new FusedStage(named) {
+            @Override
+            boolean apply(Current record) {
+                KeyValue<?, ?> keyValue = (KeyValue<?, ?>) mapper.apply(record.key, record.value);
+                record.key = keyValue.key;
+                record.value = keyValue.value;
+                return true;
+            }
+
+            @Override
+            boolean changesKey() {
+                return true;
+            }
+
+            @Override
+            KStream applyTo(KStream stream) {
+                return named == null ? stream.map(mapper) : stream.map(mapper, named);
+            }
+        };
+    }
+
+    static FusedStage mapValues(ValueMapperWithKey mapper, Named named) {
+        return new FusedStage(named) {
+            @Override
+            boolean apply(Current record) {
+                record.value = mapper.apply(record.key, record.value);
+                return true;
+            }
+
+            @Override
+            boolean changesKey() {
+                return false;
+            }
+
+            @Override
+            KStream applyTo(KStream stream) {
+                return named == null ? stream.mapValues(mapper) : stream.mapValues(mapper, named);
+            }
+        };
+    }
+
+    static FusedStage peek(ForeachAction action, Named named) {
+        return new FusedStage(named) {
+            @Override
+            boolean apply(Current record) {
+                action.apply(record.key, record.value);
+                return true;
+            }
+
+            @Override
+            boolean changesKey() {
+                return false;
+            }
+
+            @Override
+            KStream applyTo(KStream stream) {
+                return named == null ? stream.peek(action) : stream.peek(action, named);
+            }
+        };
+    }
+}
@@ -0,0 +1,172 @@
+package com.manelon.kafkastreams_springboot.processors;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.StringJoiner;
+
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.kstream.ForeachAction;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.KeyValueMapper;
+import org.apache.kafka.streams.kstream.Named;
+import org.apache.kafka.streams.kstream.Predicate;
+import org.apache.kafka.streams.kstream.Produced;
+import org.apache.kafka.streams.kstream.ValueMapper;
+import org.apache.kafka.streams.kstream.ValueMapperWithKey;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorSupplier;
+import org.apache.kafka.streams.processor.api.ProcessorSupplier;
+
+/**
+ * A KStream whose filter, map, mapValues and peek operations are not added to the topology one by one: they are
+ * collected and added as a single processor when the stream is used by any other operation ({@link #toStream()}
+ * or {@link #to(String)}). Every record goes through one node, with one forward and one set of sensors, instead of
+ * one by operation. Created by {@link FusingStreamsBuilder}.
+ *
+ * A lone operation is added as the DSL one, with the same node. The processor of two or more operations is named
+ * after all the named ones, in order and separated by dots (Filering_negative_ids.Calculating_FullName), so every
+ * logical step is still in the topology description; it's generated by Kafka Streams if none of them is named.
+ * It marks the stream for repartition only if there is a map.
+ *
+ * The operations are run in the fused processor in the same order and with the same records as the DSL would, but
+ * a stream can have only one downstream operation: for a branch, fuse the stream of {@link #toStream()} again.
+ * @param <K> type of the keys
+ * @param <V> type of the values
+ */
+public class FusedStream<K, V> {
+
+    private final KStream<?, ?> upstream;
+    private final List<FusedStage> stages;
+    private boolean used;
+
+    FusedStream(KStream<K, V> stream) {
+        this(stream, List.of());
+    }
+
+    private FusedStream(KStream<?, ?> upstream, List<FusedStage> stages) {
+        this.upstream = upstream;
+        this.stages = stages;
+    }
+
+    static String nameOf(Named named) {
+        return new NameOf(named).get();
+    }
+
+    // the name of a Named is only visible to its subclasses
+    private static final class NameOf extends Named {
+        private NameOf(Named named) {
+            super(named);
+        }
+
+        private String get() {
+            return name;
+        }
+    }
+
+    private <KR, VR> FusedStream<KR, VR> with(FusedStage stage) {
+        markUsed();
+        List<FusedStage> fused = new ArrayList<>(stages.size() + 1);
+        fused.addAll(stages);
+        fused.add(stage);
+        return new FusedStream<>(upstream, fused);
+    }
+
+    private void markUsed() {
+        if (used)
+            throw new IllegalStateException("The fused stream already has a downstream operation, "
+                    + "call toStream() to use it in more than one");
+        used = true;
+    }
+
+    public FusedStream<K, V> filter(Predicate<? super K, ? super V> predicate) {
+        return with(FusedStage.filter(Objects.requireNonNull(predicate, "predicate can't be null"), null));
+    }
+
+    public FusedStream<K, V> filter(Predicate<? super K, ? super V> predicate, Named named) {
+        return with(FusedStage.filter(Objects.requireNonNull(predicate, "predicate can't be null"),
+                Objects.requireNonNull(named, "named can't be null")));
+    }
+
+    public <KR, VR> FusedStream<KR, VR> map(
+            KeyValueMapper<? super K, ? super V, ? extends KeyValue<? extends KR, ? extends VR>> mapper) {
+        return with(FusedStage.map(Objects.requireNonNull(mapper, "mapper can't be null"), null));
+    }
+
+    public <KR, VR> FusedStream<KR, VR> map(
+            KeyValueMapper<? super K, ? super V, ? extends KeyValue<? extends KR, ? extends VR>> mapper, Named named) {
+        return with(FusedStage.map(Objects.requireNonNull(mapper, "mapper can't be null"),
+                Objects.requireNonNull(named, "named can't be null")));
+    }
+
+    public <VR> FusedStream<K, VR> mapValues(ValueMapper<? super V, ? extends VR> mapper) {
+        Objects.requireNonNull(mapper, "mapper can't be null");
+        return mapValues((ValueMapperWithKey<K, V, VR>) (key, value) -> mapper.apply(value));
+    }
+
+    public <VR> FusedStream<K, VR> mapValues(ValueMapper<? super V, ? extends VR> mapper, Named named) {
+        Objects.requireNonNull(mapper, "mapper can't be null");
+        return mapValues((ValueMapperWithKey<K, V, VR>) (key, value) -> mapper.apply(value), named);
+    }
+
+    public <VR> FusedStream<K, VR> mapValues(ValueMapperWithKey<? super K, ? super V, ? extends VR> mapper) {
+        return with(FusedStage.mapValues(Objects.requireNonNull(mapper, "mapper can't be null"), null));
+    }
+
+    public <VR> FusedStream<K, VR> mapValues(ValueMapperWithKey<? super K, ? super V, ? extends VR> mapper,
+            Named named) {
+        return with(FusedStage.mapValues(Objects.requireNonNull(mapper, "mapper can't be null"),
+                Objects.requireNonNull(named, "named can't be null")));
+    }
+
+    public FusedStream<K, V> peek(ForeachAction<? super K, ? super V> action) {
+        return with(FusedStage.peek(Objects.requireNonNull(action, "action can't be null"), null));
+    }
+
+    public FusedStream<K, V> peek(ForeachAction<? super K, ? super V> action, Named named) {
+        return with(FusedStage.peek(Objects.requireNonNull(action, "action can't be null"),
+                Objects.requireNonNull(named, "named can't be null")));
+    }
+
+    /**
+     * Adds the collected operations to the topology
+     * @return the stream with the result of the operations, for the rest of the DSL
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public KStream<K, V> toStream() {
+        markUsed();
+        if (stages.isEmpty())
+            return (KStream<K, V>) upstream;
+        if (stages.size() == 1)
+            return stages.get(0).applyTo((KStream) upstream);
+
+        FusedStage[] fused = stages.toArray(new FusedStage[0]);
+        Named named = fusedName();
+        if (stages.stream().anyMatch(FusedStage::changesKey)) {
+            ProcessorSupplier supplier = () -> new FusedProcessor<>(fused);
+            return named == null ? ((KStream) upstream).process(supplier) : ((KStream) upstream).process(supplier, named);
+        }
+        FixedKeyProcessorSupplier supplier = () -> new FusedProcessor.Values<>(fused);
+        return named == null ? ((KStream) upstream).processValues(supplier)
+                : ((KStream) upstream).processValues(supplier, named);
+    }
+
+    /**
+     * @return the names of the named operations separated by dots, null if none of them is named
+     */
+    private Named fusedName() {
+        StringJoiner names = new StringJoiner(".");
+        for (FusedStage stage : stages) {
+            if (stage.name != null)
+                names.add(stage.name);
+        }
+        return names.length() == 0 ? null : Named.as(names.toString());
+    }
+
+    public void to(String topic) {
+        toStream().to(topic);
+    }
+
+    public void to(String topic, Produced<K, V> produced) {
+        toStream().to(topic, produced);
+    }
+}
@@ -0,0 +1,43 @@
+package com.manelon.kafkastreams_springboot.processors;
+
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.KStream;
+
+/**
+ * Wraps a StreamsBuilder so the chains of stateless operations (filter, map, mapValues, peek) of its streams are fused
+ * in a single processor, see {@link FusedStream}. It's opt-in: the streams of the wrapped builder are not changed.
+ * <pre>
+ * new FusingStreamsBuilder(builder).&lt;UserId, User&gt;stream("users")
+ *     .filter((id, user) -&gt; id.getId() &gt; 0, Named.as("Filering_negative_ids"))
+ *     .mapValues(user -&gt; enrich(user), Named.as("Calculating_FullName"))
+ *     .to("processed_users");
+ * </pre>
+ */
+public class FusingStreamsBuilder {
+
+    private final StreamsBuilder builder;
+
+    public FusingStreamsBuilder(StreamsBuilder builder) {
+        this.builder = builder;
+    }
+
+    public <K, V> FusedStream<K, V> stream(String topic) {
+        return new FusedStream<>(builder.<K, V>stream(topic));
+    }
+
+    public <K, V> FusedStream<K, V> stream(String topic, Consumed<K, V> consumed) {
+        return new FusedStream<>(builder.stream(topic, consumed));
+    }
+
+    /**
+     * Fuses the operations added to a stream of the topology
+     */
+    public <K, V> FusedStream<K, V> fuse(KStream<K, V> stream) {
+        return new FusedStream<>(stream);
+    }
+
+    public StreamsBuilder builder() {
+        return builder;
+    }
+}
@@ -0,0 +1,128 @@
+package com.manelon.kafkastreams_springboot.processors;
+
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.StoreBuilder;
+import org.apache.kafka.streams.state.Stores;
+
+/**
+ * The records received by a processor but not forwarded yet. Kafka Streams commits the offsets of the records when
+ * they are processed, so a processor that forwards them later writes them to a logged store, flushed to its changelog
+ * in the same commit: after a failure the store is restored and the records are still pending.
+ *
+ * The records are stored by sequence number, the store is in memory and sorted by key and the sequence is written
+ * big-endian, so the order of the bytes is the order of the records. The headers are not kept.
+ * The keys and the values are serialized with the changelog of the store as topic: with the schema registry serdes
+ * they are registered in the subjects of the changelog, the topic where the bytes are written.
+ */
+final class PendingRecords<K, V> {
+
+    private final String topic;
+    private final KeyValueStore<Bytes, byte[]> store;
+    private final Serde<K> keySerde;
+    private final Serde<V> valueSerde;
+    private long nextSequence;
+
+    PendingRecords(String applicationId, String storeName, KeyValueStore<Bytes, byte[]> store, Serde<K> keySerde,
+            Serde<V> valueSerde) {
+        this.topic = changelogTopic(applicationId, storeName);
+        this.store = store;
+        this.keySerde = keySerde;
+        this.valueSerde = valueSerde;
+    }
+
+    /**
+     * Builder of the store of {@link #PendingRecords(String, String, KeyValueStore, Serde, Serde)}, for the stores()
+     * of the processor supplier
+     */
+    static Set<StoreBuilder<?>> stores(String storeName) {
+        StoreBuilder<KeyValueStore<Bytes, byte[]>> pending = Stores.keyValueStoreBuilder(
+                Stores.inMemoryKeyValueStore(storeName), Serdes.Bytes(), Serdes.ByteArray());
+        return Set.of(pending);
+    }
+
+    /**
+     * Name of the changelog topic of the store, given by Kafka Streams
+     */
+    private static String changelogTopic(String applicationId, String storeName) {
+        return applicationId + "-" + storeName + "-changelog";
+    }
+
+    /**
+     * Reads the records pending when the task was closed, or failed, in the order they were added
+     */
+    void restore(BiConsumer<Long, Record<K, V>> pending) {
+        try (KeyValueIterator<Bytes, byte[]> stored = store.all()) {
+            while (stored.hasNext()) {
+                KeyValue<Bytes, byte[]> entry = stored.next();
+                long sequence = ByteBuffer.wrap(entry.key.get()).getLong();
+                nextSequence = sequence + 1;
+                pending.accept(sequence, decode(entry.value));
+            }
+        }
+    }
+
+    /**
+     * @return the sequence of the record, to remove it
+     */
+    long add(Record<K, V> record) {
+        long sequence = nextSequence++;
+        store.put(key(sequence), encode(record));
+        return sequence;
+    }
+
+    void remove(long sequence) {
+        store.delete(key(sequence));
+    }
+
+    private static Bytes key(long sequence) {
+        return Bytes.wrap(ByteBuffer.allocate(Long.BYTES).putLong(sequence).array());
+    }
+
+    // timestamp, key and value, the lengths are -1 for null
+    private byte[] encode(Record<K, V> record) {
+        byte[] key = keySerde.serializer().serialize(topic, record.key());
+        byte[] value = valueSerde.serializer().serialize(topic, record.value());
+        ByteBuffer encoded = ByteBuffer.allocate(Long.BYTES + 2 * Integer.BYTES + length(key) + length(value));
+        encoded.putLong(record.timestamp());
+        put(encoded, key);
+        put(encoded, value);
+        return encoded.array();
+    }
+
+    private Record<K, V> decode(byte[] encoded) {
+        ByteBuffer buffer = ByteBuffer.wrap(encoded);
+        long timestamp = buffer.getLong();
+        K key = keySerde.deserializer().deserialize(topic, get(buffer));
+        V value = valueSerde.deserializer().deserialize(topic, get(buffer));
+        return new Record<>(key, value, timestamp);
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    private static void put(ByteBuffer buffer, byte[] bytes) {
+        buffer.putInt(bytes == null ? -1 : bytes.length);
+        if (bytes != null)
+            buffer.put(bytes);
+    }
+
+    private static byte[] get(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0)
+            return null;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,23 @@
+package com.manelon.kafkastreams_springboot.processors;
+
+import java.util.List;
+
+import org.apache.kafka.streams.KeyValue;
+
+/**
+ * The mapValues of a batch of records, see {@link BatchingProcessorSupplier}: one call for all of them, so the work
+ * that can be shared (lookups, encoding, external calls) is done once by batch instead of once by record.
+ * @param <K> type of the keys
+ * @param <V> type of the values
+ * @param <VR> type of the new values
+ */
+@FunctionalInterface
+public interface ValueBatchMapper<K, V, VR> {
+
+    /**
+     * @param records the records of the batch, in the order they were received. The list is reused for the next
+     *                batch, it must not be kept
+     * @return the new values, one by record and in the same order
+     */
+    List<? extends VR> apply(List<KeyValue<K, V>> records);
+}
@@ -0,0 +1,131 @@
+package com.manelon.kafkastreams_springboot.scaling;
+
+/**
+ * Decides when to add or remove a stream thread from the samples of the load, see
+ * {@link StreamThreadScalingProperties}. It has two kinds of hysteresis, so the threads don't flap: the thresholds
+ * to add and to remove are different, and the load must be above or below them for stableSamples consecutive samples.
+ * After a change there is a cooldown without changes, while the tasks are rebalanced.
+ *
+ * A low lag only means the threads keep up, not that fewer would: a thread is removed only when the rest could absorb
+ * its work, when their utilization after the removal would be below scaleDownMaxUtilization.
+ *
+ * It isn't thread safe, the samples are taken by one thread.
+ */
+public class StreamThreadScaler {
+
+    public enum Direction { UP, DOWN, HOLD }
+
+    /**
+     * @param lag records not read yet of the input partitions of the instance
+     * @param processRate records processed by second by all the threads
+     * @param cpu CPU load of the process from 0 to 1, negative if it isn't known
+     * @param utilization average fraction of the time the threads process, punctuate or commit, from 0 to 1,
+     *        negative if it isn't known
+     * @param threads stream threads alive
+     */
+    public record Sample(long lag, double processRate, double cpu, double utilization, int threads) {
+
+        /**
+         * @return seconds to process the lag at the process rate, infinite if there is lag and nothing is processed
+         */
+        public double drainSeconds() {
+            if (lag <= 0)
+                return 0;
+            return processRate > 0 ? lag / processRate : Double.POSITIVE_INFINITY;
+        }
+
+        /**
+         * @return utilization of the threads if one is removed and the rest take its work, infinite if it isn't known
+         *         or there is only one
+         */
+        public double utilizationWithOneLess() {
+            if (utilization < 0 || threads <= 1)
+                return Double.POSITIVE_INFINITY;
+            return utilization * threads / (threads - 1);
+        }
+    }
+
+    public record Decision(Direction direction, String reason) {
+    }
+
+    private final StreamThreadScalingProperties properties;
+    private int upSamples;
+    private int downSamples;
+    private long lastChangeMs = Long.MIN_VALUE;
+
+    public StreamThreadScaler(StreamThreadScalingProperties properties) {
+        if (properties.getMinThreads() < 1 || properties.getMaxThreads() < properties.getMinThreads())
+            throw new IllegalArgumentException("The stream threads must be between 1 <= min <= max, they are "
+                    + properties.getMinThreads() + " and " + properties.getMaxThreads());
+        if (properties.getScaleDownDrainTime().compareTo(properties.getScaleUpDrainTime()) >= 0)
+            throw new IllegalArgumentException("The scale down drain time must be lower than the scale up one, they are "
+                    + properties.getScaleDownDrainTime() + " and " + properties.getScaleUpDrainTime());
+        if (properties.getScaleDownMaxUtilization() <= 0 || properties.getScaleDownMaxUtilization() > 1)
+            throw new IllegalArgumentException("The scale down maximum utilization must be between 0 and 1, it is "
+                    + properties.getScaleDownMaxUtilization());
+        this.properties = properties;
+    }
+
+    public Decision decide(Sample sample, long nowMs) {
+        if (sample.threads() < properties.getMinThreads())
+            return change(Direction.UP, "below the minimum of " + properties.getMinThreads() + " threads");
+        if (sample.threads() > properties.getMaxThreads())
+            return change(Direction.DOWN, "above the maximum of " + properties.getMaxThreads() + " threads");
+        if (lastChangeMs != Long.MIN_VALUE && nowMs - lastChangeMs < properties.getCooldown().toMillis())
+            return hold("cooldown");
+
+        double drainSeconds = sample.drainSeconds();
+        if (drainSeconds > properties.getScaleUpDrainTime().toMillis() / 1000.0) {
+            downSamples = 0;
+            if (sample.cpu() >= properties.getMaxCpu()) {
+                upSamples = 0;
+                return hold("CPU load " + sample.cpu() + " above " + properties.getMaxCpu());
+            }
+            if (++upSamples < properties.getStableSamples())
+                return hold("lag " + sample.lag() + " for " + upSamples + " samples");
+            if (sample.threads() >= properties.getMaxThreads())
+                return hold("lag " + sample.lag() + " at the maximum of " + properties.getMaxThreads() + " threads");
+            return change(Direction.UP, "lag " + sample.lag() + drained(drainSeconds));
+        }
+        if (drainSeconds < properties.getScaleDownDrainTime().toMillis() / 1000.0) {
+            upSamples = 0;
+            if (sample.threads() > properties.getMinThreads()
+                    && sample.utilizationWithOneLess() > properties.getScaleDownMaxUtilization()) {
+                downSamples = 0;
+                return hold("lag " + sample.lag() + " without room for the work of a thread, utilization "
+                        + sample.utilization());
+            }
+            if (++downSamples < properties.getStableSamples())
+                return hold("lag " + sample.lag() + " for " + downSamples + " samples");
+            if (sample.threads() <= properties.getMinThreads())
+                return hold("lag " + sample.lag() + " at the minimum of " + properties.getMinThreads() + " threads");
+            return change(Direction.DOWN, "lag " + sample.lag() + drained(drainSeconds));
+        }
+        upSamples = 0;
+        downSamples = 0;
+        return hold("lag " + sample.lag() + " between the thresholds");
+    }
+
+    /**
+     * A thread was added or removed, the samples start again after the cooldown
+     */
+    public void changed(long nowMs) {
+        lastChangeMs = nowMs;
+        upSamples = 0;
+        downSamples = 0;
+    }
+
+    private static String drained(double drainSeconds) {
+        if (Double.isInfinite(drainSeconds))
+            return " and nothing processed";
+        return " drained in " + Math.round(drainSeconds) + "s";
+    }
+
+    private static Decision change(Direction direction, String reason) {
+        return new Decision(direction, reason);
+    }
+
+    private static Decision hold(String reason) {
+        return new Decision(Direction.HOLD, reason);
+    }
+}
@@ -0,0 +1,185 @@
+package com.manelon.kafkastreams_springboot.scaling;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.streams.KafkaStreams;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Adds and removes stream threads of the KafkaStreams of the StreamsBuilderFactoryBean with the load, between
+ * streams.scaling.min-threads and streams.scaling.max-threads. Every interval it samples the lag of the input
+ * partitions, the process rate and the utilization of the threads and the CPU load of the process, and the
+ * {@link StreamThreadScaler} decides. The utilization is the process-ratio, punctuate-ratio and commit-ratio of the
+ * thread metrics, the part of the time the thread isn't waiting in poll. Samples are only taken while KafkaStreams is RUNNING, not while it's rebalancing.
+ * Enabled with streams.scaling.enabled=true
+ *
+ * Every change is published as a {@link StreamThreadScalingEvent} and counted in kafka.streams.scaling.changes
+ * (tagged with the direction). The gauges kafka.streams.scaling.threads, kafka.streams.scaling.lag,
+ * kafka.streams.scaling.drain.seconds and kafka.streams.scaling.utilization are the last sample.
+ */
+@Component
+@ConditionalOnProperty(prefix = "streams.scaling", name = "enabled", havingValue = "true")
+public class StreamThreadScalingController implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(StreamThreadScalingController.class);
+    // time of a thread that isn't waiting for records in poll
+    private static final Set<String> BUSY_RATIOS = Set.of("process-ratio", "punctuate-ratio", "commit-ratio");
+
+    private final StreamsBuilderFactoryBean streamsFactory;
+    private final StreamThreadScalingProperties properties;
+    private final ApplicationEventPublisher events;
+    private final StreamThreadScaler scaler;
+    private final Counter scaledUp;
+    private final Counter scaledDown;
+    private final AtomicReference<StreamThreadScaler.Sample> lastSample = new AtomicReference<>();
+    private ScheduledExecutorService scheduler;
+
+    public StreamThreadScalingController(StreamsBuilderFactoryBean streamsFactory,
+            StreamThreadScalingProperties properties, ApplicationEventPublisher events, MeterRegistry meters) {
+        this.streamsFactory = streamsFactory;
+        this.properties = properties;
+        this.events = events;
+        this.scaler = new StreamThreadScaler(properties);
+        this.scaledUp = meters.counter("kafka.streams.scaling.changes", "direction", "up");
+        this.scaledDown = meters.counter("kafka.streams.scaling.changes", "direction", "down");
+        Gauge.builder("kafka.streams.scaling.threads", lastSample, last -> last.get() == null ? Double.NaN : last.get().threads())
+                .register(meters);
+        Gauge.builder("kafka.streams.scaling.lag", lastSample, last -> last.get() == null ? Double.NaN : last.get().lag())
+                .register(meters);
+        Gauge.builder("kafka.streams.scaling.drain.seconds", lastSample,
+                last -> last.get() == null ? Double.NaN : last.get().drainSeconds())
+                .register(meters);
+        Gauge.builder("kafka.streams.scaling.utilization", lastSample,
+                last -> last.get() == null ? Double.NaN : last.get().utilization())
+                .register(meters);
+    }
+
+    @Override
+    public synchronized void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stream-thread-scaling");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::scale, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        scheduler.shutdownNow();
+        scheduler = null;
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+
+    // an exception would cancel the next samples
+    private void scale() {
+        try {
+            KafkaStreams streams = streamsFactory.getKafkaStreams();
+            if (streams != null && streams.state() == KafkaStreams.State.RUNNING)
+                scale(streams);
+        } catch (RuntimeException e) {
+            log.warn("The stream threads could not be scaled", e);
+        }
+    }
+
+    private void scale(KafkaStreams streams) {
+        StreamThreadScaler.Sample sample = sample(streams);
+        lastSample.set(sample);
+        StreamThreadScaler.Decision decision = scaler.decide(sample, System.currentTimeMillis());
+        switch (decision.direction()) {
+            case UP:
+                changed(streams.addStreamThread(), sample, +1, decision.reason(), scaledUp);
+                break;
+            case DOWN:
+                changed(streams.removeStreamThread(properties.getRemoveTimeout()), sample, -1, decision.reason(), scaledDown);
+                break;
+            default:
+                log.debug("Stream threads {}: {}", sample.threads(), decision.reason());
+        }
+    }
+
+    // the thread is empty when it could not be added or removed (KafkaStreams is not running, or the timeout)
+    private void changed(Optional<String> thread, StreamThreadScaler.Sample sample, int change, String reason,
+            Counter counter) {
+        if (thread.isEmpty()) {
+            log.warn("Stream threads {}: no thread was {}, {}", sample.threads(), change > 0 ? "added" : "removed", reason);
+            return;
+        }
+        scaler.changed(System.currentTimeMillis());
+        counter.increment();
+        StreamThreadScalingEvent event = new StreamThreadScalingEvent(this, sample.threads(), sample.threads() + change,
+                thread.get(), reason, sample);
+        log.info("{}", event);
+        events.publishEvent(event);
+    }
+
+    static StreamThreadScaler.Sample sample(KafkaStreams streams) {
+        long lag = 0;
+        double processRate = 0;
+        double busy = 0;
+        Set<String> timedThreads = new HashSet<>();
+        for (Map.Entry<MetricName, ? extends Metric> metric : streams.metrics().entrySet()) {
+            MetricName name = metric.getKey();
+            if (isInputLag(name)) {
+                lag += (long) finite(metric.getValue().metricValue());
+            } else if (name.group().equals("stream-thread-metrics")) {
+                if (name.name().equals("process-rate")) {
+                    processRate += finite(metric.getValue().metricValue());
+                } else if (BUSY_RATIOS.contains(name.name())) {
+                    busy += finite(metric.getValue().metricValue());
+                    timedThreads.add(name.tags().getOrDefault("thread-id", ""));
+                }
+            }
+        }
+        double utilization = timedThreads.isEmpty() ? -1 : Math.min(1, busy / timedThreads.size());
+        return new StreamThreadScaler.Sample(lag, processRate, cpu(), utilization,
+                streams.metadataForLocalThreads().size());
+    }
+
+    // lag by partition of the main consumers of the threads, not of the restore consumers
+    private static boolean isInputLag(MetricName name) {
+        String clientId = name.tags().getOrDefault("client-id", "");
+        return name.group().equals("consumer-fetch-manager-metrics") && name.name().equals("records-lag")
+                && name.tags().containsKey("partition") && clientId.endsWith("-consumer")
+                && !clientId.endsWith("-restore-consumer");
+    }
+
+    private static double finite(Object value) {
+        if (value instanceof Number) {
+            double number = ((Number) value).doubleValue();
+            return Double.isFinite(number) ? number : 0;
+        }
+        return 0;
+    }
+
+    private static double cpu() {
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean os)
+            return os.getProcessCpuLoad();
+        return -1;
+    }
+}
@@ -0,0 +1,53 @@
+package com.manelon.kafkastreams_springboot.scaling;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published by the {@link StreamThreadScalingController} every time a stream thread is added or removed
+ */
+public class StreamThreadScalingEvent extends ApplicationEvent {
+
+    private final int previousThreads;
+    private final int threads;
+    private final String thread;
+    private final String reason;
+    private final StreamThreadScaler.Sample sample;
+
+    public StreamThreadScalingEvent(Object source, int previousThreads, int threads, String thread, String reason,
+            StreamThreadScaler.Sample sample) {
+        super(source);
+        this.previousThreads = previousThreads;
+        this.threads = threads;
+        this.thread = thread;
+        this.reason = reason;
+        this.sample = sample;
+    }
+
+    public int getPreviousThreads() {
+        return previousThreads;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * @return name of the added or removed thread
+     */
+    public String getThread() {
+        return thread;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public StreamThreadScaler.Sample getSample() {
+        return sample;
+    }
+
+    @Override
+    public String toString() {
+        return "Stream threads " + previousThreads + " -> " + threads + " (" + thread + "): " + reason;
+    }
+}
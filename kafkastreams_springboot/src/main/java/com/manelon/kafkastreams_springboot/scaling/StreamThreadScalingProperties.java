@@ -0,0 +1,100 @@
+package com.manelon.kafkastreams_springboot.scaling;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration of the {@link StreamThreadScalingController}. The load is measured as the time to drain the lag of the
+ * input topics at the current process rate: above scaleUpDrainTime a thread is added (unless the CPU is above maxCpu,
+ * more threads would not process more), below scaleDownDrainTime a thread is removed if the rest would be busy less
+ * than scaleDownMaxUtilization of the time. Between both nothing is done.
+ */
+@ConfigurationProperties(prefix = "streams.scaling")
+public class StreamThreadScalingProperties {
+    private boolean enabled = false;
+    private int minThreads = 1;
+    private int maxThreads = 4;
+    // time between samples
+    private Duration interval = Duration.ofSeconds(10);
+    private Duration scaleUpDrainTime = Duration.ofSeconds(60);
+    private Duration scaleDownDrainTime = Duration.ofSeconds(5);
+    // process CPU load, from 0 to 1
+    private double maxCpu = 0.8;
+    // utilization of the threads left after removing one, from 0 to 1
+    private double scaleDownMaxUtilization = 0.7;
+    // consecutive samples above or below the thresholds before adding or removing a thread
+    private int stableSamples = 3;
+    // time without changes after adding or removing a thread, the rebalance must end before the next sample counts
+    private Duration cooldown = Duration.ofSeconds(60);
+    private Duration removeTimeout = Duration.ofSeconds(30);
+
+    public StreamThreadScalingProperties() {
+    }
+    public boolean isEnabled() {
+        return enabled;
+    }
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    public int getMinThreads() {
+        return minThreads;
+    }
+    public void setMinThreads(int minThreads) {
+        this.minThreads = minThreads;
+    }
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+    public void setMaxThreads(int maxThreads) {
+        this.maxThreads = maxThreads;
+    }
+    public Duration getInterval() {
+        return interval;
+    }
+    public void setInterval(Duration interval) {
+        this.interval = interval;
+    }
+    public Duration getScaleUpDrainTime() {
+        return scaleUpDrainTime;
+    }
+    public void setScaleUpDrainTime(Duration scaleUpDrainTime) {
+        this.scaleUpDrainTime = scaleUpDrainTime;
+    }
+    public Duration getScaleDownDrainTime() {
+        return scaleDownDrainTime;
+    }
+    public void setScaleDownDrainTime(Duration scaleDownDrainTime) {
+        this.scaleDownDrainTime = scaleDownDrainTime;
+    }
+    public double getMaxCpu() {
+        return maxCpu;
+    }
+    public void setMaxCpu(double maxCpu) {
+        this.maxCpu = maxCpu;
+    }
+    public double getScaleDownMaxUtilization() {
+        return scaleDownMaxUtilization;
+    }
+    public void setScaleDownMaxUtilization(double scaleDownMaxUtilization) {
+        this.scaleDownMaxUtilization = scaleDownMaxUtilization;
+    }
+    public int getStableSamples() {
+        return stableSamples;
+    }
+    public void setStableSamples(int stableSamples) {
+        this.stableSamples = stableSamples;
+    }
+    public Duration getCooldown() {
+        return cooldown;
+    }
+    public void setCooldown(Duration cooldown) {
+        this.cooldown = cooldown;
+    }
+    public Duration getRemoveTimeout() {
+        return removeTimeout;
+    }
+    public void setRemoveTimeout(Duration removeTimeout) {
+        this.removeTimeout = removeTimeout;
+    }
+}
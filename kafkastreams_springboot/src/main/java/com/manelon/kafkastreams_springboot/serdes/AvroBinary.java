@@ -0,0 +1,165 @@
+package com.manelon.kafkastreams_springboot.serdes;
+
+import java.util.List;
+
+import org.apache.avro.Schema;
+import org.apache.kafka.common.errors.SerializationException;
+
+/**
+ * Minimal reader of the avro binary encoding over a byte array.
+ * It only knows how to read varints and how to skip values, enough to find where every field starts
+ * without decoding strings or creating objects.
+ * Nothing is read after the limit: a truncated or corrupted value throws a SerializationException, not an
+ * ArrayIndexOutOfBoundsException.
+ * @see <a href="https://avro.apache.org/docs/1.11.1/specification/#binary-encoding">avro binary encoding</a>
+ */
+final class AvroBinary {
+
+    private final byte[] buffer;
+    private final int limit;
+    private int position;
+
+    /**
+     * @param limit end of the value in the buffer (exclusive)
+     */
+    AvroBinary(byte[] buffer, int position, int limit) {
+        this.buffer = buffer;
+        this.position = position;
+        this.limit = limit;
+    }
+
+    int position() {
+        return position;
+    }
+
+    long readLong() {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (shift > 63)
+                throw new SerializationException("Invalid avro varint at position " + position);
+            if (position >= limit)
+                throw new SerializationException("Truncated avro varint at position " + position);
+            b = buffer[position++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        // zig-zag
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    int readInt() {
+        return (int) readLong();
+    }
+
+    /**
+     * Moves the position after the value
+     * @param schema schema of the value
+     */
+    void skip(Schema schema) {
+        switch (schema.getType()) {
+            case NULL:
+                return;
+            case BOOLEAN:
+                skipBytes(1);
+                return;
+            case INT:
+            case LONG:
+            case ENUM:
+                readLong();
+                return;
+            case FLOAT:
+                skipBytes(4);
+                return;
+            case DOUBLE:
+                skipBytes(8);
+                return;
+            case STRING:
+            case BYTES:
+                skipBytes(readInt());
+                return;
+            case FIXED:
+                skipBytes(schema.getFixedSize());
+                return;
+            case UNION:
+                skip(unionType(schema));
+                return;
+            case RECORD:
+                for (Schema.Field field : schema.getFields()) {
+                    skip(field.schema());
+                }
+                return;
+            case ARRAY:
+                skipBlocks(schema.getElementType(), false);
+                return;
+            case MAP:
+                skipBlocks(schema.getValueType(), true);
+                return;
+            default:
+                throw new IllegalArgumentException("Unknown avro type " + schema.getType());
+        }
+    }
+
+    // arrays and maps are written in blocks, a negative count is followed by the size in bytes of the block
+    private void skipBlocks(Schema itemSchema, boolean isMap) {
+        for (long count = readLong(); count != 0; count = readLong()) {
+            if (count < 0) {
+                skipBytes(readLong());
+                continue;
+            }
+            for (long i = 0; i < count; i++) {
+                if (isMap)
+                    skipBytes(readInt());
+                skip(itemSchema);
+            }
+        }
+    }
+
+    /**
+     * Reads the index of the branch of the union
+     * @return schema of the value
+     */
+    Schema unionType(Schema union) {
+        List<Schema> types = union.getTypes();
+        int index = readInt();
+        if (index < 0 || index >= types.size())
+            throw new SerializationException("Invalid avro union index " + index + " at position " + position);
+        return types.get(index);
+    }
+
+    // the size must be read before adding it, position += readInt() would add it to the old position
+    private void skipBytes(long size) {
+        if (size < 0 || size > limit - position)
+            throw new SerializationException("Invalid avro length " + size + " at position " + position
+                    + ", the value ends at " + limit);
+        position += (int) size;
+    }
+
+    /**
+     * Bytes needed to write the value as a zig-zag varint
+     */
+    static int varLongSize(long value) {
+        long zigZag = (value << 1) ^ (value >> 63);
+        int size = 1;
+        while ((zigZag & ~0x7FL) != 0) {
+            zigZag >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * Writes the value as a zig-zag varint
+     * @return the position after the value
+     */
+    static int writeLong(long value, byte[] target, int position) {
+        long zigZag = (value << 1) ^ (value >> 63);
+        while ((zigZag & ~0x7FL) != 0) {
+            target[position++] = (byte) ((zigZag & 0x7F) | 0x80);
+            zigZag >>>= 7;
+        }
+        target[position++] = (byte) zigZag;
+        return position;
+    }
+}
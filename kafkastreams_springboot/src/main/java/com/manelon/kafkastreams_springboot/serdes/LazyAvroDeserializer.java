@@ -0,0 +1,80 @@
+package com.manelon.kafkastreams_springboot.serdes;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.avro.Schema;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import com.manelon.kafkastreams_common.serdes.PersistentSchemaCache;
+import com.manelon.kafkastreams_common.serdes.PersistentSchemaRegistryClient;
+
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.avro.AvroSchemaProvider;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDe;
+import io.confluent.kafka.serializers.KafkaAvroDeserializerConfig;
+
+/**
+ * Reads the schema registry wire format (magic byte, schema id, avro payload) as a {@link LazyAvroRecord}.
+ * The bytes are not copied nor decoded, the record is a view over the array received from the consumer.
+ * The writer schemas are cached by id, with a {@link PersistentSchemaCache} directory they survive restarts
+ */
+public class LazyAvroDeserializer extends AbstractKafkaSchemaSerDe implements Deserializer<LazyAvroRecord> {
+
+    private static final int HEADER_SIZE = 1 + idSize;
+
+    private final Map<Integer, Schema> schemas = new ConcurrentHashMap<>();
+    private boolean ownsRegistry;
+
+    public LazyAvroDeserializer() {
+    }
+
+    public LazyAvroDeserializer(SchemaRegistryClient client) {
+        this.schemaRegistry = client;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        this.isKey = isKey;
+        if (schemaRegistry == null) {
+            schemaRegistry = PersistentSchemaRegistryClient.fromConfig(configs);
+            ownsRegistry = true;
+        }
+        configureClientProperties(new KafkaAvroDeserializerConfig(configs), new AvroSchemaProvider());
+    }
+
+    @Override
+    public LazyAvroRecord deserialize(String topic, byte[] data) {
+        if (data == null)
+            return null;
+        if (data.length < HEADER_SIZE || data[0] != MAGIC_BYTE)
+            throw new SerializationException("Unknown magic byte!");
+        int id = ByteBuffer.wrap(data, 1, idSize).getInt();
+        return new LazyAvroRecord(schema(id), data, HEADER_SIZE, data.length - HEADER_SIZE);
+    }
+
+    private Schema schema(int id) {
+        Schema schema = schemas.get(id);
+        if (schema == null) {
+            try {
+                schema = ((AvroSchema) schemaRegistry.getSchemaById(id)).rawSchema();
+            } catch (IOException | RestClientException e) {
+                throw new SerializationException("Error retrieving Avro schema for id " + id, e);
+            }
+            schemas.put(id, schema);
+        }
+        return schema;
+    }
+
+    @Override
+    public void close() {
+        // the client of the constructor can be shared with other serdes, only the one of the configuration is closed
+        if (ownsRegistry)
+            PersistentSchemaRegistryClient.close(schemaRegistry);
+    }
+}
@@ -0,0 +1,206 @@
+package com.manelon.kafkastreams_springboot.serdes;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Type;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.kafka.common.errors.SerializationException;
+
+/**
+ * Read only view of an avro record that is still serialized.
+ * Nothing is decoded when the view is created, the first field access scans the bytes once to build
+ * the field-offset table (varints are read, strings are skipped) and then every field is decoded
+ * only when it is read.
+ * Fields that are not modified can be copied byte by byte to a new record with {@link LazyAvroRecordBuilder},
+ * so a projection like FirstName + LastName -&gt; FullName doesn't decode nor encode the rest of the record.
+ *
+ * The view doesn't copy the bytes, they must not be modified while the view is used.
+ */
+public final class LazyAvroRecord {
+
+    private final Schema schema;
+    private final byte[] buffer;
+    private final int offset;
+    private final int length;
+    // start of every field, plus the end of the record
+    private int[] fieldOffsets;
+
+    /**
+     * @param schema writer schema of the record
+     * @param buffer the serialized record
+     * @param offset start of the avro payload in the buffer
+     * @param length length of the avro payload
+     */
+    public LazyAvroRecord(Schema schema, byte[] buffer, int offset, int length) {
+        if (!Type.RECORD.equals(schema.getType()))
+            throw new IllegalArgumentException("Schema " + schema.getFullName() + " is not a record");
+        if (offset < 0 || length < 0 || offset > buffer.length - length)
+            throw new IllegalArgumentException("The payload of " + length + " bytes at " + offset
+                    + " is out of the buffer of " + buffer.length + " bytes");
+        this.schema = schema;
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * @return position of the field in the writer schema
+     */
+    public int position(String fieldName) {
+        Schema.Field field = schema.getField(fieldName);
+        if (field == null)
+            throw new IllegalArgumentException(
+                    "Field name " + fieldName + " in " + schema.getFullName() + " doesn't exists");
+        return field.pos();
+    }
+
+    public int getInt(int position) {
+        return (int) getLong(position);
+    }
+
+    public int getInt(String fieldName) {
+        return getInt(position(fieldName));
+    }
+
+    public long getLong(int position) {
+        AvroBinary reader = valueReader(position);
+        if (reader == null)
+            throw new NullPointerException("Field " + schema.getFields().get(position).name() + " is null");
+        return reader.readLong();
+    }
+
+    /**
+     * @return the string, null if the field is null
+     */
+    public String getString(int position) {
+        AvroBinary reader = valueReader(position);
+        if (reader == null)
+            return null;
+        int size = reader.readInt();
+        return new String(buffer, reader.position(), size, StandardCharsets.UTF_8);
+    }
+
+    public String getString(String fieldName) {
+        return getString(position(fieldName));
+    }
+
+    public boolean isNull(int position) {
+        return valueReader(position) == null;
+    }
+
+    /**
+     * Decodes any field with a GenericDatumReader, the typed getters are faster
+     * @return the value with the generic representation (Utf8 strings, GenericRecords...)
+     */
+    public Object get(int position) {
+        Schema.Field field = schema.getFields().get(position);
+        try {
+            int start = fieldOffset(position);
+            return new GenericDatumReader<>(field.schema()).read(null,
+                    DecoderFactory.get().binaryDecoder(buffer, start, fieldOffset(position + 1) - start, null));
+        } catch (IOException e) {
+            throw new SerializationException("Error decoding field " + field.name() + " of " + schema.getFullName(), e);
+        }
+    }
+
+    public Object get(String fieldName) {
+        return get(position(fieldName));
+    }
+
+    /**
+     * UTF-8 length of a string field, the string is not decoded
+     * @return the length in bytes, -1 if the field is null
+     */
+    public int stringLength(int position) {
+        AvroBinary reader = valueReader(position);
+        return reader == null ? -1 : reader.readInt();
+    }
+
+    /**
+     * Copies the UTF-8 bytes of a string field, the string is not decoded
+     * @return the position in target after the copied bytes
+     */
+    int copyStringBytes(int position, byte[] target, int targetPosition) {
+        AvroBinary reader = valueReader(position);
+        if (reader == null)
+            throw new NullPointerException("Field " + schema.getFields().get(position).name() + " is null");
+        int size = reader.readInt();
+        System.arraycopy(buffer, reader.position(), target, targetPosition, size);
+        return targetPosition + size;
+    }
+
+    /**
+     * Copies the serialized bytes of the fields between from (inclusive) and to (exclusive)
+     * @return the position in target after the copied bytes
+     */
+    int copyFields(int from, int to, byte[] target, int targetPosition) {
+        int start = fieldOffset(from);
+        int size = fieldOffset(to) - start;
+        System.arraycopy(buffer, start, target, targetPosition, size);
+        return targetPosition + size;
+    }
+
+    int fieldsSize(int from, int to) {
+        return fieldOffset(to) - fieldOffset(from);
+    }
+
+    /**
+     * Copies the serialized record
+     * @return the position in target after the copied bytes
+     */
+    int copyTo(byte[] target, int targetPosition) {
+        System.arraycopy(buffer, offset, target, targetPosition, length);
+        return targetPosition + length;
+    }
+
+    /**
+     * @return a copy of the serialized record, without the schema registry header
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOfRange(buffer, offset, offset + length);
+    }
+
+    /**
+     * @return length of the serialized record
+     */
+    public int length() {
+        return length;
+    }
+
+    private int fieldOffset(int position) {
+        if (fieldOffsets == null)
+            fieldOffsets = scan();
+        return fieldOffsets[position];
+    }
+
+    private int[] scan() {
+        var fields = schema.getFields();
+        int[] offsets = new int[fields.size() + 1];
+        AvroBinary reader = new AvroBinary(buffer, offset, offset + length);
+        for (int i = 0; i < fields.size(); i++) {
+            offsets[i] = reader.position();
+            reader.skip(fields.get(i).schema());
+        }
+        offsets[fields.size()] = reader.position();
+        if (reader.position() != offset + length)
+            throw new SerializationException("The bytes of " + schema.getFullName() + " don't match the schema");
+        return offsets;
+    }
+
+    // reader positioned at the value of the field, after the union index. null if the value is null
+    private AvroBinary valueReader(int position) {
+        Schema fieldSchema = schema.getFields().get(position).schema();
+        AvroBinary reader = new AvroBinary(buffer, fieldOffset(position), fieldOffset(position + 1));
+        if (Type.UNION.equals(fieldSchema.getType()))
+            fieldSchema = reader.unionType(fieldSchema);
+        return Type.NULL.equals(fieldSchema.getType()) ? null : reader;
+    }
+}
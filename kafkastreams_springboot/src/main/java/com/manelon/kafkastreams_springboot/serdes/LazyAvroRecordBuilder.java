@@ -0,0 +1,198 @@
+package com.manelon.kafkastreams_springboot.serdes;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Type;
+import org.apache.avro.SchemaNormalization;
+
+/**
+ * Writes a new serialized record field by field, in the order of the target schema.
+ * Fields with the same schema in the source record are copied byte by byte with {@link #copy(LazyAvroRecord, String...)},
+ * the rest are written with the typed setters.
+ *
+ * <pre>
+ * LazyAvroRecord enriched = new LazyAvroRecordBuilder(UserEnriched.SCHEMA$)
+ *     .copy(user, "Id", "FirstName", "LastName")
+ *     .putJoinedStrings("FullName", " ", user, "FirstName", "LastName")
+ *     .copy(user, "EMail", "PhoneNumber", "Address")
+ *     .build();
+ * </pre>
+ *
+ * The builder is not thread safe and it can't be reused after build()
+ */
+public final class LazyAvroRecordBuilder {
+
+    private final Schema schema;
+    private final Schema.Field[] fields;
+    private byte[] buffer;
+    private int position;
+    private int nextField;
+
+    public LazyAvroRecordBuilder(Schema schema) {
+        this(schema, 64);
+    }
+
+    /**
+     * @param schema schema of the new record
+     * @param expectedSize initial size of the buffer, it grows if it's needed
+     */
+    public LazyAvroRecordBuilder(Schema schema, int expectedSize) {
+        if (!Type.RECORD.equals(schema.getType()))
+            throw new IllegalArgumentException("Schema " + schema.getFullName() + " is not a record");
+        this.schema = schema;
+        this.fields = schema.getFields().toArray(new Schema.Field[0]);
+        this.buffer = new byte[Math.max(expectedSize, 16)];
+    }
+
+    /**
+     * Copies the serialized value of the fields, the fields must be the next ones of the target schema
+     * and have the same schema in both records. Consecutive fields are copied with one arraycopy
+     */
+    public LazyAvroRecordBuilder copy(LazyAvroRecord source, String... fieldNames) {
+        int i = 0;
+        while (i < fieldNames.length) {
+            nextField(fieldNames[i], source.getSchema());
+            int from = source.position(fieldNames[i]);
+            int to = from + 1;
+            i++;
+            while (i < fieldNames.length && source.position(fieldNames[i]) == to) {
+                nextField(fieldNames[i], source.getSchema());
+                to++;
+                i++;
+            }
+            ensureCapacity(source.fieldsSize(from, to));
+            position = source.copyFields(from, to, buffer, position);
+        }
+        return this;
+    }
+
+    public LazyAvroRecordBuilder putInt(String fieldName, int value) {
+        return putLong(fieldName, value, Type.INT);
+    }
+
+    public LazyAvroRecordBuilder putLong(String fieldName, long value) {
+        return putLong(fieldName, value, Type.LONG);
+    }
+
+    public LazyAvroRecordBuilder putString(String fieldName, String value) {
+        Schema.Field field = nextField(fieldName, null);
+        if (value == null)
+            return writeNull(field);
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        writeBranch(field, Type.STRING);
+        ensureCapacity(10 + utf8.length);
+        position = AvroBinary.writeLong(utf8.length, buffer, position);
+        System.arraycopy(utf8, 0, buffer, position, utf8.length);
+        position += utf8.length;
+        return this;
+    }
+
+    public LazyAvroRecordBuilder putNull(String fieldName) {
+        return writeNull(nextField(fieldName, null));
+    }
+
+    /**
+     * Writes the next string field as the concatenation of string fields of the source with a separator.
+     * The UTF-8 bytes are copied, no strings are decoded nor encoded.
+     * If any source field is null the result is null (the field must accept nulls)
+     */
+    public LazyAvroRecordBuilder putJoinedStrings(String fieldName, String separator, LazyAvroRecord source, String... sourceFields) {
+        Schema.Field field = nextField(fieldName, null);
+        byte[] separatorBytes = separator.getBytes(StandardCharsets.UTF_8);
+        int[] positions = new int[sourceFields.length];
+        int size = separatorBytes.length * Math.max(0, sourceFields.length - 1);
+        for (int i = 0; i < sourceFields.length; i++) {
+            positions[i] = source.position(sourceFields[i]);
+            int length = source.stringLength(positions[i]);
+            if (length < 0)
+                return writeNull(field);
+            size += length;
+        }
+        writeBranch(field, Type.STRING);
+        ensureCapacity(10 + size);
+        position = AvroBinary.writeLong(size, buffer, position);
+        for (int i = 0; i < positions.length; i++) {
+            if (i > 0) {
+                System.arraycopy(separatorBytes, 0, buffer, position, separatorBytes.length);
+                position += separatorBytes.length;
+            }
+            position = source.copyStringBytes(positions[i], buffer, position);
+        }
+        return this;
+    }
+
+    /**
+     * @return the new record, all the fields of the schema must be written
+     */
+    public LazyAvroRecord build() {
+        if (nextField != fields.length)
+            throw new IllegalStateException("Field name " + fields[nextField].name() + " in " + schema.getFullName()
+                    + " has not been written");
+        nextField = -1;
+        return new LazyAvroRecord(schema, buffer, 0, position);
+    }
+
+    private LazyAvroRecordBuilder putLong(String fieldName, long value, Type type) {
+        Schema.Field field = nextField(fieldName, null);
+        writeBranch(field, type);
+        ensureCapacity(10);
+        position = AvroBinary.writeLong(value, buffer, position);
+        return this;
+    }
+
+    private LazyAvroRecordBuilder writeNull(Schema.Field field) {
+        writeBranch(field, Type.NULL);
+        return this;
+    }
+
+    // writes the union index if the field is an union
+    private void writeBranch(Schema.Field field, Type type) {
+        Schema fieldSchema = field.schema();
+        if (!Type.UNION.equals(fieldSchema.getType())) {
+            if (!type.equals(fieldSchema.getType()))
+                throw new IllegalArgumentException("Field name " + field.name() + " in " + schema.getFullName()
+                        + " is not of type " + type);
+            return;
+        }
+        var types = fieldSchema.getTypes();
+        for (int i = 0; i < types.size(); i++) {
+            if (type.equals(types.get(i).getType())) {
+                ensureCapacity(10);
+                position = AvroBinary.writeLong(i, buffer, position);
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Field name " + field.name() + " in " + schema.getFullName()
+                + " doesn't accept " + type);
+    }
+
+    // fields must be written in order. If sourceSchema is not null the field must have the same schema in the source
+    private Schema.Field nextField(String fieldName, Schema sourceSchema) {
+        if (nextField < 0)
+            throw new IllegalStateException("The record has been built");
+        if (nextField >= fields.length || !fields[nextField].name().equals(fieldName))
+            throw new IllegalArgumentException("Field name " + fieldName + " in " + schema.getFullName()
+                    + " is not the next field, expected " + (nextField < fields.length ? fields[nextField].name() : "none"));
+        Schema.Field field = fields[nextField++];
+        if (sourceSchema != null) {
+            Schema.Field sourceField = sourceSchema.getField(fieldName);
+            if (sourceField == null || !sameEncoding(sourceField.schema(), field.schema()))
+                throw new IllegalArgumentException("Field name " + fieldName + " in " + schema.getFullName()
+                        + " has a different schema in " + sourceSchema.getFullName());
+        }
+        return field;
+    }
+
+    // the parsing canonical form keeps only what changes the binary encoding (no docs, props or logical types)
+    private static boolean sameEncoding(Schema source, Schema target) {
+        return source.equals(target)
+                || SchemaNormalization.toParsingForm(source).equals(SchemaNormalization.toParsingForm(target));
+    }
+
+    private void ensureCapacity(int size) {
+        if (position + size > buffer.length)
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + size));
+    }
+}
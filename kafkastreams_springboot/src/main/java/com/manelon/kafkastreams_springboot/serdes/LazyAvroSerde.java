@@ -0,0 +1,53 @@
+package com.manelon.kafkastreams_springboot.serdes;
+
+import java.util.Map;
+
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+
+/**
+ * Serde of {@link LazyAvroRecord}, compatible with the SpecificAvroSerde and GenericAvroSerde wire format.
+ *
+ * Kafka Streams doesn't configure the serdes passed to Consumed or Produced, call
+ * {@link #configure(Map, boolean)} with the streams properties before using it.
+ */
+public class LazyAvroSerde implements Serde<LazyAvroRecord> {
+
+    private final LazyAvroSerializer serializer;
+    private final LazyAvroDeserializer deserializer;
+
+    public LazyAvroSerde() {
+        this.serializer = new LazyAvroSerializer();
+        this.deserializer = new LazyAvroDeserializer();
+    }
+
+    public LazyAvroSerde(SchemaRegistryClient client) {
+        this.serializer = new LazyAvroSerializer(client);
+        this.deserializer = new LazyAvroDeserializer(client);
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        serializer.configure(configs, isKey);
+        deserializer.configure(configs, isKey);
+    }
+
+    @Override
+    public Serializer<LazyAvroRecord> serializer() {
+        return serializer;
+    }
+
+    @Override
+    public Deserializer<LazyAvroRecord> deserializer() {
+        return deserializer;
+    }
+
+    @Override
+    public void close() {
+        serializer.close();
+        deserializer.close();
+    }
+}
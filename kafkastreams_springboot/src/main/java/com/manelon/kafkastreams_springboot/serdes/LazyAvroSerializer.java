@@ -0,0 +1,95 @@
+package com.manelon.kafkastreams_springboot.serdes;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.avro.Schema;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import com.manelon.kafkastreams_common.serdes.PersistentSchemaCache;
+import com.manelon.kafkastreams_common.serdes.PersistentSchemaRegistryClient;
+
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.avro.AvroSchemaProvider;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDe;
+import io.confluent.kafka.serializers.KafkaAvroSerializerConfig;
+
+/**
+ * Writes a {@link LazyAvroRecord} with the schema registry wire format (magic byte, schema id, avro payload).
+ * The avro payload is copied as it is, the record is never encoded.
+ * The ids are cached by topic and schema, the registry is called once per schema and subject: as default serde a
+ * serializer writes to every sink, changelog and repartition topic of a task, every one with its subject.
+ * With a {@link PersistentSchemaCache} directory the ids survive restarts
+ */
+public class LazyAvroSerializer extends AbstractKafkaSchemaSerDe implements Serializer<LazyAvroRecord> {
+
+    private static final int HEADER_SIZE = 1 + idSize;
+
+    // by topic and schema, the subject is given by both
+    private final Map<String, Map<Schema, Integer>> ids = new ConcurrentHashMap<>();
+    private boolean autoRegisterSchema = true;
+    private boolean ownsRegistry;
+
+    public LazyAvroSerializer() {
+    }
+
+    public LazyAvroSerializer(SchemaRegistryClient client) {
+        this.schemaRegistry = client;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        this.isKey = isKey;
+        if (schemaRegistry == null) {
+            schemaRegistry = PersistentSchemaRegistryClient.fromConfig(configs);
+            ownsRegistry = true;
+        }
+        KafkaAvroSerializerConfig config = new KafkaAvroSerializerConfig(configs);
+        configureClientProperties(config, new AvroSchemaProvider());
+        this.autoRegisterSchema = config.autoRegisterSchema();
+    }
+
+    @Override
+    public byte[] serialize(String topic, LazyAvroRecord data) {
+        if (data == null)
+            return null;
+        int id = id(topic, data);
+        byte[] bytes = new byte[HEADER_SIZE + data.length()];
+        bytes[0] = MAGIC_BYTE;
+        bytes[1] = (byte) (id >>> 24);
+        bytes[2] = (byte) (id >>> 16);
+        bytes[3] = (byte) (id >>> 8);
+        bytes[4] = (byte) id;
+        data.copyTo(bytes, HEADER_SIZE);
+        return bytes;
+    }
+
+    private int id(String topic, LazyAvroRecord data) {
+        Map<Schema, Integer> topicIds = ids.computeIfAbsent(topic, t -> new ConcurrentHashMap<>());
+        Integer id = topicIds.get(data.getSchema());
+        if (id == null) {
+            AvroSchema schema = new AvroSchema(data.getSchema());
+            String subject = getSubjectName(topic, isKey, data, schema);
+            try {
+                id = autoRegisterSchema
+                        ? schemaRegistry.register(subject, schema)
+                        : schemaRegistry.getId(subject, schema);
+            } catch (IOException | RestClientException e) {
+                throw new SerializationException("Error registering Avro schema " + schema, e);
+            }
+            topicIds.put(data.getSchema(), id);
+        }
+        return id;
+    }
+
+    @Override
+    public void close() {
+        // the client of the constructor can be shared with other serdes, only the one of the configuration is closed
+        if (ownsRegistry)
+            PersistentSchemaRegistryClient.close(schemaRegistry);
+    }
+}
@@ -0,0 +1,58 @@
+package com.manelon.kafkastreams_springboot.serdes;
+
+import org.apache.kafka.common.serialization.Deserializer;
+
+/**
+ * Value that is still serialized, it's deserialized the first time {@link #get()} is called.
+ * Records dropped by predicates that only read the key are never deserialized, and records that are
+ * forwarded without reading the value are written with the same bytes.
+ *
+ * The value is deserialized in the stream thread that reads it, the class is not thread safe.
+ * @param <T> type of the deserialized value
+ */
+public final class LazyValue<T> {
+
+    private final String topic;
+    private final byte[] bytes;
+    private final Deserializer<T> deserializer;
+    private T value;
+    private boolean deserialized;
+
+    LazyValue(String topic, byte[] bytes, Deserializer<T> deserializer) {
+        this.topic = topic;
+        this.bytes = bytes;
+        this.deserializer = deserializer;
+    }
+
+    /**
+     * Value already deserialized, for values created in the topology
+     */
+    public static <T> LazyValue<T> of(T value) {
+        LazyValue<T> lazyValue = new LazyValue<>(null, null, null);
+        lazyValue.value = value;
+        lazyValue.deserialized = true;
+        return lazyValue;
+    }
+
+    /**
+     * @return the value, deserialized only the first time
+     */
+    public T get() {
+        if (!deserialized) {
+            value = deserializer.deserialize(topic, bytes);
+            deserialized = true;
+        }
+        return value;
+    }
+
+    public boolean isDeserialized() {
+        return deserialized;
+    }
+
+    /**
+     * @return the serialized value, null if the value was created in the topology
+     */
+    byte[] bytes() {
+        return bytes;
+    }
+}
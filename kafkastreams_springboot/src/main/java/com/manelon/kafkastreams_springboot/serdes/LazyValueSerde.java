@@ -0,0 +1,68 @@
+package com.manelon.kafkastreams_springboot.serdes;
+
+import java.util.Map;
+
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+
+/**
+ * Wraps a serde so the values are deserialized only when they are read, see {@link LazyValue}.
+ * Values that have not been read are serialized with their original bytes when their schema id is registered in the
+ * subject of the destination topic, the rest with the wrapped serde, see {@link LazyValueSerializer}.
+ *
+ * Kafka Streams doesn't configure the serdes passed to Consumed or Produced, call
+ * {@link #configure(Map, boolean)} with the streams properties before using it.
+ * @param <T> type of the values
+ */
+public class LazyValueSerde<T> implements Serde<LazyValue<T>> {
+
+    private final Serde<T> inner;
+    private final LazyValueSerializer<T> serializer;
+    private final Deserializer<LazyValue<T>> deserializer;
+
+    /**
+     * The client of the schema registry is created from the configuration
+     */
+    public LazyValueSerde(Serde<T> inner) {
+        this(inner, new LazyValueSerializer<>(inner.serializer()));
+    }
+
+    /**
+     * @param registry client used to check the schema ids of the values that are not read, it's not closed
+     */
+    public LazyValueSerde(Serde<T> inner, SchemaRegistryClient registry) {
+        this(inner, new LazyValueSerializer<>(inner.serializer(), registry));
+    }
+
+    private LazyValueSerde(Serde<T> inner, LazyValueSerializer<T> serializer) {
+        this.inner = inner;
+        this.serializer = serializer;
+        Deserializer<T> innerDeserializer = inner.deserializer();
+        this.deserializer = (topic, bytes) -> bytes == null ? null : new LazyValue<>(topic, bytes, innerDeserializer);
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        inner.configure(configs, isKey);
+        serializer.configure(configs, isKey);
+    }
+
+    @Override
+    public Serializer<LazyValue<T>> serializer() {
+        return serializer;
+    }
+
+    @Override
+    public Deserializer<LazyValue<T>> deserializer() {
+        return deserializer;
+    }
+
+    @Override
+    public void close() {
+        serializer.close();
+        inner.close();
+    }
+}
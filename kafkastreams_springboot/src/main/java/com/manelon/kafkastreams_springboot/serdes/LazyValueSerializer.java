@@ -0,0 +1,106 @@
+package com.manelon.kafkastreams_springboot.serdes;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import com.manelon.kafkastreams_common.serdes.PersistentSchemaRegistryClient;
+
+import io.confluent.kafka.schemaregistry.ParsedSchema;
+import io.confluent.kafka.schemaregistry.avro.AvroSchemaProvider;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDe;
+import io.confluent.kafka.serializers.KafkaAvroSerializerConfig;
+
+/**
+ * Serializes a {@link LazyValue}. A value that has not been read is written with its original bytes only when their
+ * schema id is registered in the subject of the destination topic, otherwise it's read and serialized again with the
+ * wrapped serializer, which registers or checks the schema as configured.
+ * The ids are checked once per topic, the registry is called once per schema id and subject.
+ * The wrapped serializer is configured and closed by its owner, usually a {@link LazyValueSerde}
+ * @param <T> type of the values
+ */
+public class LazyValueSerializer<T> extends AbstractKafkaSchemaSerDe implements Serializer<LazyValue<T>> {
+
+    private static final int HEADER_SIZE = 1 + idSize;
+
+    private final Serializer<T> inner;
+    // by topic and schema id, whether the id is registered in the subject of the topic
+    private final Map<String, Map<Integer, Boolean>> passThrough = new ConcurrentHashMap<>();
+    private boolean ownsRegistry;
+
+    public LazyValueSerializer(Serializer<T> inner) {
+        this.inner = inner;
+    }
+
+    public LazyValueSerializer(Serializer<T> inner, SchemaRegistryClient client) {
+        this.inner = inner;
+        this.schemaRegistry = client;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        this.isKey = isKey;
+        if (schemaRegistry == null) {
+            schemaRegistry = PersistentSchemaRegistryClient.fromConfig(configs);
+            ownsRegistry = true;
+        }
+        configureClientProperties(new KafkaAvroSerializerConfig(configs), new AvroSchemaProvider());
+    }
+
+    @Override
+    public byte[] serialize(String topic, LazyValue<T> lazyValue) {
+        if (lazyValue == null)
+            return null;
+        if (lazyValue.isDeserialized())
+            return inner.serialize(topic, lazyValue.get());
+        byte[] bytes = lazyValue.bytes();
+        int id = id(bytes);
+        Map<Integer, Boolean> topicIds = passThrough.computeIfAbsent(topic, t -> new ConcurrentHashMap<>());
+        if (id >= 0 && topicIds.computeIfAbsent(id, i -> isRegistered(topic, i)))
+            return bytes;
+        byte[] serialized = inner.serialize(topic, lazyValue.get());
+        // the wrapped serializer registered the same schema in the subject, the next values can be passed through
+        if (id >= 0 && id(serialized) == id)
+            topicIds.put(id, true);
+        return serialized;
+    }
+
+    /**
+     * @return schema id of the serialized value, -1 without the wire format of the schema registry
+     */
+    private static int id(byte[] bytes) {
+        if (bytes == null || bytes.length < HEADER_SIZE || bytes[0] != MAGIC_BYTE)
+            return -1;
+        return ByteBuffer.wrap(bytes, 1, idSize).getInt();
+    }
+
+    private boolean isRegistered(String topic, int id) {
+        ParsedSchema schema;
+        try {
+            schema = schemaRegistry.getSchemaById(id);
+        } catch (IOException | RestClientException e) {
+            throw new SerializationException("Error retrieving Avro schema for id " + id, e);
+        }
+        try {
+            return schemaRegistry.getId(getSubjectName(topic, isKey, null, schema), schema) == id;
+        } catch (RestClientException e) {
+            // the subject or the schema are not registered
+            return false;
+        } catch (IOException e) {
+            throw new SerializationException("Error retrieving the id of Avro schema " + schema, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        // the client of the constructor can be shared with other serdes, only the one of the configuration is closed
+        if (ownsRegistry)
+            PersistentSchemaRegistryClient.close(schemaRegistry);
+    }
+}
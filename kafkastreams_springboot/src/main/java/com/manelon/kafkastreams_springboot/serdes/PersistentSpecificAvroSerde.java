@@ -0,0 +1,58 @@
+package com.manelon.kafkastreams_springboot.serdes;
+
+import java.util.Map;
+
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+import com.manelon.kafkastreams_common.serdes.PersistentSchemaCache;
+import com.manelon.kafkastreams_common.serdes.PersistentSchemaRegistryClient;
+
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
+
+/**
+ * SpecificAvroSerde with a {@link PersistentSchemaRegistryClient}, created with the configuration, so the default
+ * serdes configured by class name read the schemas from the {@link PersistentSchemaCache} too:
+ * <pre>
+ * spring.kafka.streams.properties.default.value.serde: com.manelon.kafkastreams_springboot.serdes.PersistentSpecificAvroSerde
+ * </pre>
+ * @param <T> generated class
+ */
+public class PersistentSpecificAvroSerde<T extends SpecificRecord> implements Serde<T> {
+
+    private SpecificAvroSerde<T> inner;
+    private SchemaRegistryClient registry;
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        registry = PersistentSchemaRegistryClient.fromConfig(configs);
+        inner = new SpecificAvroSerde<>(registry);
+        inner.configure(configs, isKey);
+    }
+
+    @Override
+    public Serializer<T> serializer() {
+        return configured().serializer();
+    }
+
+    @Override
+    public Deserializer<T> deserializer() {
+        return configured().deserializer();
+    }
+
+    private SpecificAvroSerde<T> configured() {
+        if (inner == null)
+            throw new IllegalStateException("The serde must be configured before it's used");
+        return inner;
+    }
+
+    @Override
+    public void close() {
+        if (inner != null)
+            inner.close();
+        PersistentSchemaRegistryClient.close(registry);
+    }
+}
@@ -0,0 +1,107 @@
+package com.manelon.kafkastreams_springboot.serdes;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import com.manelon.kafkastreams_common.serdes.PersistentSchemaRegistryClient;
+
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.avro.AvroSchemaProvider;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDe;
+import io.confluent.kafka.serializers.KafkaAvroDeserializerConfig;
+
+/**
+ * Reads the schema registry wire format as GenericRecords with {@link org.apache.avro.util.Utf8} strings.
+ * The generated classes decode every string to a java String (stringType String in the avro plugin),
+ * here the strings keep their UTF-8 bytes and they are decoded only if toString() is called.
+ * The strings of the interned fields are shared between records, see {@link Utf8Interner}.
+ *
+ * <pre>
+ * new Utf8AvroDeserializer(new Utf8Interner(4096, 64), "FirstName", "LastName");
+ * </pre>
+ */
+public class Utf8AvroDeserializer extends AbstractKafkaSchemaSerDe implements Deserializer<GenericRecord> {
+
+    private static final int HEADER_SIZE = 1 + idSize;
+
+    private final Utf8Interner interner;
+    private final Set<String> internedFields;
+    private final Map<Integer, Utf8DatumReader> readers = new ConcurrentHashMap<>();
+    private boolean ownsRegistry;
+
+    /**
+     * @param interner cache of the interned fields, it can be shared between deserializers
+     * @param internedFields fields with few distinct values, string or union of null and string
+     */
+    public Utf8AvroDeserializer(Utf8Interner interner, String... internedFields) {
+        this.interner = interner;
+        this.internedFields = Set.of(internedFields);
+    }
+
+    public Utf8AvroDeserializer(SchemaRegistryClient client, Utf8Interner interner, String... internedFields) {
+        this(interner, internedFields);
+        this.schemaRegistry = client;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        this.isKey = isKey;
+        if (schemaRegistry == null) {
+            schemaRegistry = PersistentSchemaRegistryClient.fromConfig(configs);
+            ownsRegistry = true;
+        }
+        configureClientProperties(new KafkaAvroDeserializerConfig(configs), new AvroSchemaProvider());
+    }
+
+    @Override
+    public GenericRecord deserialize(String topic, byte[] data) {
+        if (data == null)
+            return null;
+        if (data.length < HEADER_SIZE || data[0] != MAGIC_BYTE)
+            throw new SerializationException("Unknown magic byte!");
+        int id = ByteBuffer.wrap(data, 1, idSize).getInt();
+        try {
+            return reader(id).read(null,
+                    DecoderFactory.get().binaryDecoder(data, HEADER_SIZE, data.length - HEADER_SIZE, null));
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Error deserializing Avro message for id " + id, e);
+        }
+    }
+
+    private Utf8DatumReader reader(int id) {
+        Utf8DatumReader reader = readers.get(id);
+        if (reader == null) {
+            Schema writerSchema;
+            try {
+                writerSchema = ((AvroSchema) schemaRegistry.getSchemaById(id)).rawSchema();
+            } catch (IOException | RestClientException e) {
+                throw new SerializationException("Error retrieving Avro schema for id " + id, e);
+            }
+            reader = new Utf8DatumReader(writerSchema, interner, internedFields);
+            readers.put(id, reader);
+        }
+        return reader;
+    }
+
+    public Utf8Interner getInterner() {
+        return interner;
+    }
+
+    @Override
+    public void close() {
+        // the client of the constructor can be shared with other serdes, only the one of the configuration is closed
+        if (ownsRegistry)
+            PersistentSchemaRegistryClient.close(schemaRegistry);
+    }
+}
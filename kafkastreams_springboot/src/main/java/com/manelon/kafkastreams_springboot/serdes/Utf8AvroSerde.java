@@ -0,0 +1,65 @@
+package com.manelon.kafkastreams_springboot.serdes;
+
+import java.util.Map;
+
+import org.apache.avro.generic.GenericRecord;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+import com.manelon.kafkastreams_common.serdes.PersistentSchemaRegistryClient;
+
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.streams.serdes.avro.GenericAvroSerde;
+
+/**
+ * Serde of GenericRecords with {@link org.apache.avro.util.Utf8} strings, see {@link Utf8AvroDeserializer}.
+ * The records are serialized like any other GenericRecord, the Utf8 bytes are written without encoding them again.
+ *
+ * Kafka Streams doesn't configure the serdes passed to Consumed or Produced, call
+ * {@link #configure(Map, boolean)} with the streams properties before using it.
+ */
+public class Utf8AvroSerde implements Serde<GenericRecord> {
+
+    // without client it's created with the configuration, with a PersistentSchemaRegistryClient
+    private GenericAvroSerde inner;
+    private SchemaRegistryClient registry;
+    private final Utf8AvroDeserializer deserializer;
+
+    public Utf8AvroSerde(Utf8Interner interner, String... internedFields) {
+        this.deserializer = new Utf8AvroDeserializer(interner, internedFields);
+    }
+
+    public Utf8AvroSerde(SchemaRegistryClient client, Utf8Interner interner, String... internedFields) {
+        this.inner = new GenericAvroSerde(client);
+        this.deserializer = new Utf8AvroDeserializer(client, interner, internedFields);
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        if (inner == null) {
+            registry = PersistentSchemaRegistryClient.fromConfig(configs);
+            inner = new GenericAvroSerde(registry);
+        }
+        inner.configure(configs, isKey);
+        deserializer.configure(configs, isKey);
+    }
+
+    @Override
+    public Serializer<GenericRecord> serializer() {
+        return inner.serializer();
+    }
+
+    @Override
+    public Deserializer<GenericRecord> deserializer() {
+        return deserializer;
+    }
+
+    @Override
+    public void close() {
+        if (inner != null)
+            inner.close();
+        deserializer.close();
+        PersistentSchemaRegistryClient.close(registry);
+    }
+}
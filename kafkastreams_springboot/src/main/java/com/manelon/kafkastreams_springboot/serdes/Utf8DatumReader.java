@@ -0,0 +1,74 @@
+package com.manelon.kafkastreams_springboot.serdes;
+
+import java.io.IOException;
+import java.util.Set;
+
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Type;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.ResolvingDecoder;
+import org.apache.avro.util.Utf8;
+
+/**
+ * GenericDatumReader that reads every string as {@link Utf8}, even when the schema asks for java Strings
+ * (avro.java.string, added by the code generation with stringType String).
+ * The strings of the interned fields are read in a buffer of the thread and replaced by the cached instance.
+ */
+final class Utf8DatumReader extends GenericDatumReader<GenericRecord> {
+
+    private final Utf8Interner interner;
+    // union index of the string of every interned field, -1 if the field is a string, -2 if it's not interned
+    private final int[] stringBranches;
+    private final ThreadLocal<Utf8> buffers = ThreadLocal.withInitial(Utf8::new);
+
+    Utf8DatumReader(Schema schema, Utf8Interner interner, Set<String> internedFields) {
+        super(schema);
+        this.interner = interner;
+        this.stringBranches = new int[schema.getFields().size()];
+        for (Schema.Field field : schema.getFields()) {
+            stringBranches[field.pos()] = internedFields.contains(field.name()) ? stringBranch(schema, field) : -2;
+        }
+        for (String fieldName : internedFields) {
+            if (schema.getField(fieldName) == null)
+                throw new IllegalArgumentException(
+                        "Field name " + fieldName + " in " + schema.getFullName() + " doesn't exists");
+        }
+    }
+
+    private static int stringBranch(Schema schema, Schema.Field field) {
+        Schema fieldSchema = field.schema();
+        if (Type.STRING.equals(fieldSchema.getType()))
+            return -1;
+        if (Type.UNION.equals(fieldSchema.getType()) && fieldSchema.getTypes().size() == 2) {
+            var types = fieldSchema.getTypes();
+            for (int i = 0; i < 2; i++) {
+                if (Type.STRING.equals(types.get(i).getType()) && Type.NULL.equals(types.get(1 - i).getType()))
+                    return i;
+            }
+        }
+        throw new IllegalArgumentException("Field name " + field.name() + " in " + schema.getFullName()
+                + " is not a string or an union of null and string, it can't be interned");
+    }
+
+    @Override
+    protected Class<?> findStringClass(Schema schema) {
+        return CharSequence.class;
+    }
+
+    @Override
+    protected void readField(Object record, Schema.Field field, Object oldDatum, ResolvingDecoder in, Object state)
+            throws IOException {
+        int branch = stringBranches[field.pos()];
+        if (branch == -2) {
+            super.readField(record, field, oldDatum, in, state);
+            return;
+        }
+        Utf8 value = null;
+        if (branch >= 0 && in.readIndex() != branch)
+            in.readNull();
+        else
+            value = interner.intern(in.readString(buffers.get()));
+        getData().setField(record, field.name(), field.pos(), value);
+    }
+}
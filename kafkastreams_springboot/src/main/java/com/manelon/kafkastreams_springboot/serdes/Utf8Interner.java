@@ -0,0 +1,71 @@
+package com.manelon.kafkastreams_springboot.serdes;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.avro.util.Utf8;
+
+/**
+ * Bounded intern cache of {@link Utf8} strings, for fields with few distinct values (first names, ranks, starship names).
+ * Every record with the same value gets the same instance, so the value costs one object instead of one per record.
+ *
+ * The cache is a direct-mapped table: the hash of the bytes selects one slot, a different value in the slot is replaced.
+ * There is no eviction bookkeeping and the memory is bounded by the number of slots and the maximum length,
+ * a high cardinality field only lowers the hit rate.
+ *
+ * The interned values are shared between records and threads, they must not be modified.
+ */
+public final class Utf8Interner {
+
+    private final AtomicReferenceArray<Utf8> slots;
+    private final int mask;
+    private final int maxLength;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param capacity number of slots, rounded up to a power of two
+     * @param maxLength longer values (in bytes) are not interned
+     */
+    public Utf8Interner(int capacity, int maxLength) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("The capacity of the intern cache must be positive, it is " + capacity);
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(Math.max(size, 1));
+        this.mask = slots.length() - 1;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * @param value the string, it can be a buffer reused by the caller: it's copied before it's cached
+     * @return the cached instance with the same bytes, or a copy of the value
+     */
+    public Utf8 intern(Utf8 value) {
+        if (value.getByteLength() > maxLength)
+            return new Utf8(value);
+        int slot = value.hashCode() & mask;
+        Utf8 cached = slots.get(slot);
+        if (cached != null && cached.equals(value)) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        Utf8 copy = new Utf8(value);
+        slots.set(slot, copy);
+        return copy;
+    }
+
+    /**
+     * @return number of values found in the cache
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of values copied, not found or too long
+     */
+    public long misses() {
+        return misses.sum();
+    }
+}
@@ -0,0 +1,50 @@
+package com.manelon.kafkastreams_springboot.serdes;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.avro.util.Utf8;
+
+/**
+ * Operations on {@link Utf8} strings that work with the UTF-8 bytes, the strings are not decoded to java Strings
+ */
+public final class Utf8Strings {
+
+    private Utf8Strings() {
+    }
+
+    /**
+     * Concatenates the values with a separator, the bytes of the Utf8 values are copied as they are
+     * (other CharSequences are encoded).
+     * @param separator separator between the values
+     * @param values the values to join
+     * @return the new Utf8, null if any value is null
+     */
+    public static Utf8 join(Utf8 separator, CharSequence... values) {
+        byte[][] parts = new byte[values.length][];
+        int[] lengths = new int[values.length];
+        int size = separator.getByteLength() * Math.max(0, values.length - 1);
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null)
+                return null;
+            if (values[i] instanceof Utf8) {
+                parts[i] = ((Utf8) values[i]).getBytes();
+                lengths[i] = ((Utf8) values[i]).getByteLength();
+            } else {
+                parts[i] = values[i].toString().getBytes(StandardCharsets.UTF_8);
+                lengths[i] = parts[i].length;
+            }
+            size += lengths[i];
+        }
+        byte[] bytes = new byte[size];
+        int position = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                System.arraycopy(separator.getBytes(), 0, bytes, position, separator.getByteLength());
+                position += separator.getByteLength();
+            }
+            System.arraycopy(parts[i], 0, bytes, position, lengths[i]);
+            position += lengths[i];
+        }
+        return new Utf8(bytes);
+    }
+}
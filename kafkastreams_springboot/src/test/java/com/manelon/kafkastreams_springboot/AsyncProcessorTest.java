@@ -0,0 +1,201 @@
+package com.manelon.kafkastreams_springboot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.errors.StreamsException;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.Produced;
+import org.apache.kafka.streams.kstream.ValueMapperWithKey;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.manelon.kafkastreams_springboot.processors.AsyncProcessorSupplier;
+
+/**
+ * Unit test of {@link AsyncProcessorSupplier}, the lookups wait for a latch to end when the test needs it
+ */
+public class AsyncProcessorTest {
+    private static final String INPUT_TOPIC = "users";
+    private static final String OUTPUT_TOPIC = "processed_users";
+    private static final String PENDING = "ranks-pending";
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(10);
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private TopologyTestDriver ranks(int maxInFlight, ValueMapperWithKey<String, String, String> lookup) {
+        return ranks(executor, maxInFlight, lookup, new Properties());
+    }
+
+    private static TopologyTestDriver ranks(Executor executor, int maxInFlight,
+            ValueMapperWithKey<String, String, String> lookup, Properties props) {
+        StreamsBuilder builder = new StreamsBuilder();
+        builder.stream(INPUT_TOPIC, Consumed.with(Serdes.String(), Serdes.String()))
+                .process(new AsyncProcessorSupplier<>(PENDING, executor, maxInFlight, POLL_INTERVAL, lookup,
+                        Serdes.String(), Serdes.String()))
+                .to(OUTPUT_TOPIC, Produced.with(Serdes.String(), Serdes.String()));
+        return new TopologyTestDriver(builder.build(), props);
+    }
+
+    private static TestInputTopic<String, String> inputTopic(TopologyTestDriver testDriver) {
+        return testDriver.createInputTopic(INPUT_TOPIC, Serdes.String().serializer(), Serdes.String().serializer());
+    }
+
+    /**
+     * Polls the ended lookups until there are count records in the output topic
+     */
+    private static List<KeyValue<String, String>> read(TopologyTestDriver testDriver, int count) throws InterruptedException {
+        TestOutputTopic<String, String> outputTopic = testDriver.createOutputTopic(OUTPUT_TOPIC,
+                Serdes.String().deserializer(), Serdes.String().deserializer());
+        List<KeyValue<String, String>> output = new ArrayList<>();
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (output.size() < count && System.nanoTime() < end) {
+            Thread.sleep(POLL_INTERVAL.toMillis());
+            testDriver.advanceWallClockTime(POLL_INTERVAL);
+            output.addAll(outputTopic.readKeyValuesToList());
+        }
+        return output;
+    }
+
+    @Test
+    void should_keep_the_order_of_every_key() throws InterruptedException {
+        CountDownLatch picard = new CountDownLatch(1);
+        try (TopologyTestDriver testDriver = ranks(4, (name, rank) -> {
+            if (rank.equals("Captain"))
+                await(picard);
+            return rank + " " + name;
+        })) {
+            TestInputTopic<String, String> inputTopic = inputTopic(testDriver);
+            inputTopic.pipeInput("Picard", "Captain");
+            inputTopic.pipeInput("Riker", "Commander");
+            inputTopic.pipeInput("Picard", "Locutus");
+
+            assertEquals(List.of(KeyValue.pair("Riker", "Commander Riker")), read(testDriver, 1));
+
+            picard.countDown();
+            assertEquals(List.of(KeyValue.pair("Picard", "Captain Picard"), KeyValue.pair("Picard", "Locutus Picard")),
+                    read(testDriver, 2));
+        }
+    }
+
+    @Test
+    void should_wait_for_room_when_there_are_too_many_lookups_in_flight() throws Exception {
+        CountDownLatch lookups = new CountDownLatch(1);
+        try (TopologyTestDriver testDriver = ranks(2, (name, rank) -> {
+            await(lookups);
+            return rank + " " + name;
+        })) {
+            TestInputTopic<String, String> inputTopic = inputTopic(testDriver);
+            inputTopic.pipeInput("Data", "Lieutenant Commander");
+            inputTopic.pipeInput("Worf", "Lieutenant");
+            CompletableFuture<Void> third = CompletableFuture.runAsync(() -> inputTopic.pipeInput("Troi", "Counselor"));
+
+            Thread.sleep(200);
+            assertFalse(third.isDone());
+
+            lookups.countDown();
+            third.get(10, TimeUnit.SECONDS);
+            assertEquals(3, read(testDriver, 3).size());
+        }
+    }
+
+    @Test
+    void should_keep_the_records_in_the_store_until_they_are_forwarded() throws InterruptedException {
+        CountDownLatch lookups = new CountDownLatch(1);
+        try (TopologyTestDriver testDriver = ranks(4, (name, rank) -> {
+            await(lookups);
+            return rank + " " + name;
+        })) {
+            KeyValueStore<Bytes, byte[]> pending = testDriver.getKeyValueStore(PENDING);
+            inputTopic(testDriver).pipeInput("Crusher", "Doctor");
+            assertEquals(1, pending.approximateNumEntries());
+
+            lookups.countDown();
+            assertEquals(1, read(testDriver, 1).size());
+            assertEquals(0, pending.approximateNumEntries());
+        }
+    }
+
+    @Test
+    void should_fail_when_no_lookup_ends_in_half_of_the_max_poll_interval() {
+        CountDownLatch lookups = new CountDownLatch(1);
+        Properties props = new Properties();
+        props.put(ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG, 400);
+        try (TopologyTestDriver testDriver = ranks(executor, 1, (name, rank) -> {
+            await(lookups);
+            return rank + " " + name;
+        }, props)) {
+            TestInputTopic<String, String> inputTopic = inputTopic(testDriver);
+            inputTopic.pipeInput("Barclay", "Lieutenant");
+
+            long start = System.nanoTime();
+            assertThrows(StreamsException.class, () -> inputTopic.pipeInput("Ro", "Ensign"));
+            long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertTrue(waited >= 200 && waited < 5000, "waited " + waited + " ms");
+        } finally {
+            lookups.countDown();
+        }
+    }
+
+    @Test
+    void should_not_keep_the_lookups_rejected_by_the_executor() throws InterruptedException {
+        AtomicBoolean reject = new AtomicBoolean(true);
+        Executor rejectingOnce = command -> {
+            if (reject.getAndSet(false))
+                throw new RejectedExecutionException("The lookup pool is full");
+            executor.execute(command);
+        };
+        Properties props = new Properties();
+        props.put(ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG, 400);
+        try (TopologyTestDriver testDriver = ranks(rejectingOnce, 1, (name, rank) -> rank + " " + name, props)) {
+            KeyValueStore<Bytes, byte[]> pending = testDriver.getKeyValueStore(PENDING);
+            TestInputTopic<String, String> inputTopic = inputTopic(testDriver);
+
+            assertThrows(StreamsException.class, () -> inputTopic.pipeInput("Guinan", "Bartender"));
+            assertEquals(0, pending.approximateNumEntries());
+
+            // there is room for it, the rejected lookup isn't in flight
+            inputTopic.pipeInput("Guinan", "Bartender");
+            assertEquals(List.of(KeyValue.pair("Guinan", "Bartender Guinan")), read(testDriver, 1));
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
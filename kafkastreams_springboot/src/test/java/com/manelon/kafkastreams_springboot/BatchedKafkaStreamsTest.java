@@ -0,0 +1,143 @@
+package com.manelon.kafkastreams_springboot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.Produced;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.junit.jupiter.api.Test;
+
+import com.manelon.kafkastreams_springboot.config.Topics;
+import com.manelon.kafkastreams_springboot.processors.BatchingProcessorSupplier;
+import com.manelon.kafkastreams_springboot.utils.TestTopologies;
+import com.manelon.model.User;
+import com.manelon.model.UserEnriched;
+import com.manelon.model.UserId;
+
+import io.confluent.kafka.schemaregistry.testutil.MockSchemaRegistry;
+
+/**
+ * Unit test of the batched topology and of {@link BatchingProcessorSupplier}
+ */
+public class BatchedKafkaStreamsTest {
+    private static final String SCHEMA_REGISTRY_SCOPE = BatchedKafkaStreamsTest.class.getName();
+    private static final String MOCK_SCHEMA_REGISTRY_URL = "mock://" + SCHEMA_REGISTRY_SCOPE;
+
+    private static final String INPUT_TOPIC = "users";
+    private static final String OUTPUT_TOPIC = "processed_users";
+    private static final String BUFFER = "ranks-buffer";
+
+    /**
+     * Topology that prefixes the names with their ranks, by batches of up to 2 records, the sizes of the batches are
+     * added to batchSizes
+     */
+    private static StreamsBuilder ranks(List<Integer> batchSizes) {
+        BatchingProcessorSupplier<String, String, String> rank = new BatchingProcessorSupplier<>(BUFFER, 2,
+                Duration.ofSeconds(1), batch -> {
+                    batchSizes.add(batch.size());
+                    List<String> ranked = new ArrayList<>();
+                    batch.forEach(record -> ranked.add(record.value + " " + record.key));
+                    return ranked;
+                }, Serdes.String(), Serdes.String());
+        StreamsBuilder builder = new StreamsBuilder();
+        builder.stream(INPUT_TOPIC, Consumed.with(Serdes.String(), Serdes.String()))
+                .process(rank)
+                .to(OUTPUT_TOPIC, Produced.with(Serdes.String(), Serdes.String()));
+        return builder;
+    }
+
+    @Test
+    void should_write_the_same_users_than_the_specific_topology() {
+        List<KeyValue<UserId, User>> users = List.of(
+                KeyValue.pair(new UserId(1), new User(1, "James T.", "Kirk", "kirk@enterprise.com", "999-999-999", "Iowa")),
+                KeyValue.pair(new UserId(0), new User(0, "Ignore", "Me", "dummy.com", null, null)),
+                KeyValue.pair(new UserId(-1), new User(-1, "Ignore", "Again", "dummy.com", null, null)),
+                KeyValue.pair(new UserId(2), new User(2, "Montgomery", "Scott", "miracleworker@enterprise,com", null, "Scotland")));
+        Topics topics = new Topics(INPUT_TOPIC, OUTPUT_TOPIC);
+
+        StreamsBuilder specific = new StreamsBuilder();
+        new KafkastreamsSpringbootApplication().handleStream(specific, topics);
+        StreamsBuilder batched = new StreamsBuilder();
+        new KafkastreamsSpringbootApplication().handleBatchedStream(batched, topics);
+
+        List<KeyValue<UserId, UserEnriched>> output = TestTopologies.process(batched, topics, MOCK_SCHEMA_REGISTRY_URL, users);
+        assertEquals(TestTopologies.process(specific, topics, MOCK_SCHEMA_REGISTRY_URL, users), output);
+        assertEquals(2, output.size());
+    }
+
+    @Test
+    void should_register_the_buffered_users_in_the_subjects_of_the_changelog() throws Exception {
+        String schemaRegistryUrl = MOCK_SCHEMA_REGISTRY_URL + "-subjects";
+        List<KeyValue<UserId, User>> users = List.of(
+                KeyValue.pair(new UserId(1), new User(1, "James T.", "Kirk", "kirk@enterprise.com", "999-999-999", "Iowa")));
+        Topics topics = new Topics(INPUT_TOPIC, OUTPUT_TOPIC);
+        StreamsBuilder batched = new StreamsBuilder();
+        new KafkastreamsSpringbootApplication().handleBatchedStream(batched, topics);
+
+        TestTopologies.process(batched, topics, schemaRegistryUrl, users);
+        Collection<String> subjects = MockSchemaRegistry.getClientForScope(schemaRegistryUrl.substring("mock://".length()))
+                .getAllSubjects();
+        assertFalse(subjects.contains("Calculating_FullName-buffer-value"), subjects.toString());
+        assertTrue(subjects.stream().anyMatch(subject -> subject.endsWith("-Calculating_FullName-buffer-changelog-value")),
+                subjects.toString());
+    }
+
+    @Test
+    void should_forward_full_batches_in_order_and_the_rest_after_the_wait() {
+        List<Integer> batchSizes = new ArrayList<>();
+        try (TopologyTestDriver testDriver = new TopologyTestDriver(ranks(batchSizes).build(), new Properties())) {
+            TestInputTopic<String, String> inputTopic = testDriver.createInputTopic(INPUT_TOPIC,
+                    Serdes.String().serializer(), Serdes.String().serializer());
+            TestOutputTopic<String, String> outputTopic = testDriver.createOutputTopic(OUTPUT_TOPIC,
+                    Serdes.String().deserializer(), Serdes.String().deserializer());
+            inputTopic.pipeInput("Picard", "Captain");
+            inputTopic.pipeInput("Riker", "Commander");
+            inputTopic.pipeInput("Data", "Lieutenant Commander");
+
+            assertEquals(List.of(KeyValue.pair("Picard", "Captain Picard"), KeyValue.pair("Riker", "Commander Riker")),
+                    outputTopic.readKeyValuesToList());
+
+            testDriver.advanceWallClockTime(Duration.ofSeconds(1));
+            assertEquals(List.of(KeyValue.pair("Data", "Lieutenant Commander Data")), outputTopic.readKeyValuesToList());
+            assertEquals(List.of(2, 1), batchSizes);
+
+            Metric batchSize = testDriver.metrics().entrySet().stream()
+                    .filter(metric -> metric.getKey().name().equals("batch-size-avg"))
+                    .map(Map.Entry::getValue)
+                    .findFirst().orElseThrow();
+            assertEquals(1.5, (double) batchSize.metricValue());
+        }
+    }
+
+    @Test
+    void should_keep_the_buffered_records_in_the_store_until_they_are_forwarded() {
+        try (TopologyTestDriver testDriver = new TopologyTestDriver(ranks(new ArrayList<>()).build(), new Properties())) {
+            TestInputTopic<String, String> inputTopic = testDriver.createInputTopic(INPUT_TOPIC,
+                    Serdes.String().serializer(), Serdes.String().serializer());
+            KeyValueStore<Bytes, byte[]> buffer = testDriver.getKeyValueStore(BUFFER);
+            inputTopic.pipeInput("Worf", "Lieutenant");
+
+            assertEquals(1, buffer.approximateNumEntries());
+
+            testDriver.advanceWallClockTime(Duration.ofSeconds(1));
+            assertEquals(0, buffer.approximateNumEntries());
+        }
+    }
+}
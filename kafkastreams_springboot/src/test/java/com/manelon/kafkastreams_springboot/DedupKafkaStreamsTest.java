@@ -0,0 +1,119 @@
+package com.manelon.kafkastreams_springboot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.Produced;
+import org.junit.jupiter.api.Test;
+
+import com.manelon.kafkastreams_common.processors.Fingerprints;
+import com.manelon.kafkastreams_springboot.config.Topics;
+import com.manelon.kafkastreams_springboot.processors.EmitOnChangeProcessorSupplier;
+import com.manelon.kafkastreams_springboot.utils.TestTopologies;
+import com.manelon.model.User;
+import com.manelon.model.UserEnriched;
+import com.manelon.model.UserId;
+
+/**
+ * Unit test of handleStream with processing.dedup.enabled and of {@link EmitOnChangeProcessorSupplier}
+ */
+public class DedupKafkaStreamsTest {
+    private static final String SCHEMA_REGISTRY_SCOPE = DedupKafkaStreamsTest.class.getName();
+    private static final String MOCK_SCHEMA_REGISTRY_URL = "mock://" + SCHEMA_REGISTRY_SCOPE;
+
+    private static final String INPUT_TOPIC = "users";
+    private static final String OUTPUT_TOPIC = "processed_users";
+    private static final String FINGERPRINTS = "ranks-fingerprints";
+
+    private static final User KIRK = new User(1, "James T.", "Kirk", "kirk@enterprise.com", "999-999-999", "Iowa");
+    private static final User SCOTT = new User(2, "Montgomery", "Scott", "miracleworker@enterprise,com", null, "Scotland");
+
+    /**
+     * Topology that drops the repeated ranks of the names, with a cache of cacheSize names
+     */
+    private static StreamsBuilder ranks(int cacheSize) {
+        StreamsBuilder builder = new StreamsBuilder();
+        builder.stream(INPUT_TOPIC, Consumed.with(Serdes.String(), Serdes.String()))
+                .process(new EmitOnChangeProcessorSupplier<String, String>(FINGERPRINTS, cacheSize,
+                        Fingerprints.of(Serdes.String().serializer(), INPUT_TOPIC), Serdes.String()))
+                .to(OUTPUT_TOPIC, Produced.with(Serdes.String(), Serdes.String()));
+        return builder;
+    }
+
+    @Test
+    void should_not_write_the_users_that_did_not_change() {
+        User promoted = new User(1, "James T.", "Kirk", "kirk@enterprise.com", "999-999-999", "Starfleet Command");
+        List<KeyValue<UserId, User>> users = List.of(
+                KeyValue.pair(new UserId(1), KIRK),
+                KeyValue.pair(new UserId(2), SCOTT),
+                KeyValue.pair(new UserId(1), KIRK),
+                KeyValue.pair(new UserId(2), SCOTT),
+                KeyValue.pair(new UserId(1), promoted),
+                KeyValue.pair(new UserId(1), KIRK));
+        Topics topics = new Topics(INPUT_TOPIC, OUTPUT_TOPIC);
+
+        StreamsBuilder builder = new StreamsBuilder();
+        KafkastreamsSpringbootApplication application = new KafkastreamsSpringbootApplication();
+        application.setDedup(true);
+        application.handleStream(builder, topics);
+
+        List<KeyValue<UserId, UserEnriched>> output = TestTopologies.process(builder, topics, MOCK_SCHEMA_REGISTRY_URL, users);
+        assertEquals(List.of(1, 2, 1, 1), output.stream().map(user -> user.key.getId()).toList());
+        assertEquals("Starfleet Command", output.get(2).value.getAddress());
+        assertEquals("Iowa", output.get(3).value.getAddress());
+    }
+
+    @Test
+    void should_read_the_store_when_the_key_is_not_in_the_cache() {
+        try (TopologyTestDriver testDriver = new TopologyTestDriver(ranks(1).build(), new Properties())) {
+            TestInputTopic<String, String> inputTopic = testDriver.createInputTopic(INPUT_TOPIC,
+                    Serdes.String().serializer(), Serdes.String().serializer());
+            TestOutputTopic<String, String> outputTopic = testDriver.createOutputTopic(OUTPUT_TOPIC,
+                    Serdes.String().deserializer(), Serdes.String().deserializer());
+            inputTopic.pipeInput("Picard", "Captain");
+            inputTopic.pipeInput("Riker", "Commander");
+            inputTopic.pipeInput("Picard", "Captain");
+            inputTopic.pipeInput("Picard", "Captain");
+
+            assertEquals(List.of(KeyValue.pair("Picard", "Captain"), KeyValue.pair("Riker", "Commander")),
+                    outputTopic.readKeyValuesToList());
+            assertEquals(0.5, TestTopologies.metric(testDriver, "suppression-ratio"));
+            assertEquals(0.25, TestTopologies.metric(testDriver, "cache-hit-ratio"));
+        }
+    }
+
+    @Test
+    void should_forward_the_tombstones_and_the_next_value() {
+        try (TopologyTestDriver testDriver = new TopologyTestDriver(ranks(10).build(), new Properties())) {
+            TestInputTopic<String, String> inputTopic = testDriver.createInputTopic(INPUT_TOPIC,
+                    Serdes.String().serializer(), Serdes.String().serializer());
+            TestOutputTopic<String, String> outputTopic = testDriver.createOutputTopic(OUTPUT_TOPIC,
+                    Serdes.String().deserializer(), Serdes.String().deserializer());
+            inputTopic.pipeInput("Data", "Lieutenant Commander");
+            inputTopic.pipeInput("Data", (String) null);
+            inputTopic.pipeInput("Data", "Lieutenant Commander");
+
+            assertEquals(List.of(KeyValue.pair("Data", "Lieutenant Commander"), KeyValue.pair("Data", null),
+                    KeyValue.pair("Data", "Lieutenant Commander")), outputTopic.readKeyValuesToList());
+            assertEquals(1, testDriver.getKeyValueStore(FINGERPRINTS).approximateNumEntries());
+        }
+    }
+
+    @Test
+    void should_hash_the_equal_users_to_the_same_fingerprint() {
+        User copy = User.newBuilder(KIRK).build();
+
+        assertEquals(Fingerprints.avro().applyAsLong(KIRK), Fingerprints.avro().applyAsLong(copy));
+        assertNotEquals(Fingerprints.avro().applyAsLong(KIRK), Fingerprints.avro().applyAsLong(SCOTT));
+    }
+}
@@ -0,0 +1,119 @@
+package com.manelon.kafkastreams_springboot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.Named;
+import org.apache.kafka.streams.kstream.Produced;
+import org.junit.jupiter.api.Test;
+
+import com.manelon.kafkastreams_springboot.config.Topics;
+import com.manelon.kafkastreams_springboot.processors.FusedStream;
+import com.manelon.kafkastreams_springboot.processors.FusingStreamsBuilder;
+import com.manelon.kafkastreams_springboot.utils.TestTopologies;
+import com.manelon.model.User;
+import com.manelon.model.UserEnriched;
+import com.manelon.model.UserId;
+
+/**
+ * Unit test of the fused topology, the input and output are the same than the topology of handleStream
+ */
+public class FusedKafkaStreamsTest {
+    private static final String SCHEMA_REGISTRY_SCOPE = FusedKafkaStreamsTest.class.getName();
+    private static final String MOCK_SCHEMA_REGISTRY_URL = "mock://" + SCHEMA_REGISTRY_SCOPE;
+
+    private static final String INPUT_TOPIC = "users";
+    private static final String OUTPUT_TOPIC = "processed_users";
+
+    @Test
+    void should_write_the_same_users_than_the_specific_topology() {
+        List<KeyValue<UserId, User>> users = List.of(
+                KeyValue.pair(new UserId(1), new User(1, "James T.", "Kirk", "kirk@enterprise.com", "999-999-999", "Iowa")),
+                KeyValue.pair(new UserId(0), new User(0, "Ignore", "Me", "dummy.com", null, null)),
+                KeyValue.pair(new UserId(-1), new User(-1, "Ignore", "Again", "dummy.com", null, null)),
+                KeyValue.pair(new UserId(2), new User(2, "Montgomery", "Scott", "miracleworker@enterprise,com", null, "Scotland")));
+        Topics topics = new Topics(INPUT_TOPIC, OUTPUT_TOPIC);
+
+        StreamsBuilder specific = new StreamsBuilder();
+        new KafkastreamsSpringbootApplication().handleStream(specific, topics);
+        StreamsBuilder fused = new StreamsBuilder();
+        new KafkastreamsSpringbootApplication().handleFusedStream(fused, topics);
+
+        List<KeyValue<UserId, UserEnriched>> output = TestTopologies.process(fused, topics, MOCK_SCHEMA_REGISTRY_URL, users);
+        assertEquals(TestTopologies.process(specific, topics, MOCK_SCHEMA_REGISTRY_URL, users), output);
+        assertEquals(2, output.size());
+    }
+
+    @Test
+    void should_process_the_records_in_one_node_named_after_the_fused_operations() {
+        StreamsBuilder builder = new StreamsBuilder();
+        new KafkastreamsSpringbootApplication().handleFusedStream(builder, new Topics(INPUT_TOPIC, OUTPUT_TOPIC));
+
+        String topology = builder.build().describe().toString();
+        assertTrue(topology.contains("Processor: Filering_negative_ids.Calculating_FullName (stores: [])"), topology);
+        assertEquals(1, topology.split("Processor:").length - 1, topology);
+    }
+
+    @Test
+    void should_keep_the_dsl_node_of_a_single_operation() {
+        StreamsBuilder dsl = new StreamsBuilder();
+        dsl.<UserId, User>stream(INPUT_TOPIC)
+                .filter((id, user) -> id.getId() > 0, Named.as("Filering_negative_ids"))
+                .to(OUTPUT_TOPIC);
+        StreamsBuilder fused = new StreamsBuilder();
+        new FusingStreamsBuilder(fused).<UserId, User>stream(INPUT_TOPIC)
+                .filter((id, user) -> id.getId() > 0, Named.as("Filering_negative_ids"))
+                .to(OUTPUT_TOPIC);
+
+        assertEquals(dsl.build().describe(), fused.build().describe());
+    }
+
+    @Test
+    void should_run_the_operations_in_order_and_change_the_keys() {
+        List<String> peeked = new ArrayList<>();
+        StreamsBuilder builder = new StreamsBuilder();
+        KStream<String, String> ranks = new FusingStreamsBuilder(builder)
+                .stream(INPUT_TOPIC, Consumed.with(Serdes.String(), Serdes.String()))
+                .peek((name, rank) -> peeked.add(name))
+                .filter((name, rank) -> !rank.isEmpty())
+                .map((name, rank) -> KeyValue.pair(rank, name))
+                .mapValues((rank, name) -> rank + " " + name)
+                .toStream();
+        ranks.to(OUTPUT_TOPIC, Produced.with(Serdes.String(), Serdes.String()));
+
+        try (TopologyTestDriver testDriver = new TopologyTestDriver(builder.build(), new Properties())) {
+            TestInputTopic<String, String> inputTopic = testDriver.createInputTopic(INPUT_TOPIC,
+                    Serdes.String().serializer(), Serdes.String().serializer());
+            TestOutputTopic<String, String> outputTopic = testDriver.createOutputTopic(OUTPUT_TOPIC,
+                    Serdes.String().deserializer(), Serdes.String().deserializer());
+            inputTopic.pipeInput("Data", "Lieutenant Commander");
+            inputTopic.pipeInput("Wesley", "");
+            inputTopic.pipeInput("Worf", "Lieutenant");
+
+            assertEquals(List.of(KeyValue.pair("Lieutenant Commander", "Lieutenant Commander Data"),
+                    KeyValue.pair("Lieutenant", "Lieutenant Worf")), outputTopic.readKeyValuesToList());
+            assertEquals(List.of("Data", "Wesley", "Worf"), peeked);
+        }
+    }
+
+    @Test
+    void should_not_branch_a_fused_stream() {
+        FusedStream<UserId, User> users = new FusingStreamsBuilder(new StreamsBuilder()).stream(INPUT_TOPIC);
+        users.filter((id, user) -> id.getId() > 0);
+
+        assertThrows(IllegalStateException.class, () -> users.filter((id, user) -> id.getId() < 0));
+    }
+}
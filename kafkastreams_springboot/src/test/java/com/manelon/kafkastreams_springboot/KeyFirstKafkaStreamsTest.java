@@ -0,0 +1,135 @@
+package com.manelon.kafkastreams_springboot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.errors.LogAndContinueExceptionHandler;
+import org.apache.kafka.streams.errors.LogAndFailExceptionHandler;
+import org.apache.kafka.streams.errors.StreamsException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.config.KafkaStreamsConfiguration;
+
+import com.manelon.kafkastreams_springboot.config.Topics;
+import com.manelon.model.User;
+import com.manelon.model.UserEnriched;
+import com.manelon.model.UserId;
+
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
+
+/**
+ * Unit test of the key first topology, the values of the dropped records must not be deserialized
+ */
+public class KeyFirstKafkaStreamsTest {
+    private static final String SCHEMA_REGISTRY_SCOPE = KeyFirstKafkaStreamsTest.class.getName();
+    private static final String MOCK_SCHEMA_REGISTRY_URL = "mock://" + SCHEMA_REGISTRY_SCOPE;
+
+    private static final String INPUT_TOPIC = "users";
+    private static final String OUTPUT_TOPIC = "processed_users";
+
+    private static TopologyTestDriver testDriver;
+
+    private static Serde<UserId> userIdSerde;
+    private static Serde<User> userSerde;
+    private static Serde<UserEnriched> userEnrichedSerde;
+    private static TestInputTopic<UserId, User> inputTopic;
+    private static TestOutputTopic<UserId, UserEnriched> outputTopic;
+
+    @BeforeAll
+    public static void init() {
+        testDriver = createDriver(LogAndFailExceptionHandler.class);
+
+        Map<String, String> serdeProps = Map.of(
+                AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, MOCK_SCHEMA_REGISTRY_URL);
+        userIdSerde = new SpecificAvroSerde<>();
+        userSerde = new SpecificAvroSerde<>();
+        userEnrichedSerde = new SpecificAvroSerde<>();
+        userIdSerde.configure(serdeProps, true);
+        userSerde.configure(serdeProps, false);
+        userEnrichedSerde.configure(serdeProps, false);
+
+        inputTopic = testDriver.createInputTopic(INPUT_TOPIC, userIdSerde.serializer(), userSerde.serializer());
+        outputTopic = testDriver.createOutputTopic(OUTPUT_TOPIC, userIdSerde.deserializer(),
+                userEnrichedSerde.deserializer());
+    }
+
+    @SuppressWarnings("resource")
+    private static TopologyTestDriver createDriver(Class<?> deserializationExceptionHandler) {
+        Map<String, Object> streamsConfig = Map.of(
+                StreamsConfig.APPLICATION_ID_CONFIG, "key-first",
+                StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:1234",
+                StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, SpecificAvroSerde.class,
+                StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, SpecificAvroSerde.class,
+                StreamsConfig.DEFAULT_DESERIALIZATION_EXCEPTION_HANDLER_CLASS_CONFIG, deserializationExceptionHandler,
+                AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, MOCK_SCHEMA_REGISTRY_URL);
+
+        StreamsBuilder builder = new StreamsBuilder();
+        new KafkastreamsSpringbootApplication().handleKeyFirstStream(builder, new Topics(INPUT_TOPIC, OUTPUT_TOPIC),
+                new KafkaStreamsConfiguration(streamsConfig));
+
+        Properties props = new Properties();
+        props.putAll(streamsConfig);
+        return new TopologyTestDriver(builder.build(), props);
+    }
+
+    @Test
+    void should_calculate_the_full_name_of_the_users_that_pass_the_filter() {
+        inputTopic.pipeInput(new UserId(3), new User(3, "Deanna", "Troi", "troi@enterprise.com", null, "Betazed"));
+
+        assertEquals(new UserEnriched(3, "Deanna", "Troi", "Deanna Troi", "troi@enterprise.com", null, "Betazed"),
+                outputTopic.readValue());
+    }
+
+    @Test
+    void should_not_deserialize_the_value_when_the_key_is_filtered() {
+        TestInputTopic<UserId, byte[]> rawInputTopic = testDriver.createInputTopic(INPUT_TOPIC,
+                userIdSerde.serializer(), new ByteArraySerializer());
+
+        // not an avro record, it would fail if it's deserialized
+        rawInputTopic.pipeInput(new UserId(-1), new byte[] { 42 });
+
+        assertTrue(outputTopic.isEmpty());
+    }
+
+    @Test
+    void should_fail_when_the_value_is_corrupted_and_the_handler_fails() {
+        try (TopologyTestDriver failDriver = createDriver(LogAndFailExceptionHandler.class)) {
+            TestInputTopic<UserId, byte[]> rawInputTopic = failDriver.createInputTopic(INPUT_TOPIC,
+                    userIdSerde.serializer(), new ByteArraySerializer());
+
+            assertThrows(StreamsException.class, () -> rawInputTopic.pipeInput(new UserId(4), new byte[] { 42 }));
+        }
+    }
+
+    @Test
+    void should_skip_the_corrupted_values_when_the_handler_continues() {
+        try (TopologyTestDriver continueDriver = createDriver(LogAndContinueExceptionHandler.class)) {
+            TestInputTopic<UserId, byte[]> rawInputTopic = continueDriver.createInputTopic(INPUT_TOPIC,
+                    userIdSerde.serializer(), new ByteArraySerializer());
+            TestInputTopic<UserId, User> continueInputTopic = continueDriver.createInputTopic(INPUT_TOPIC,
+                    userIdSerde.serializer(), userSerde.serializer());
+            TestOutputTopic<UserId, UserEnriched> continueOutputTopic = continueDriver.createOutputTopic(OUTPUT_TOPIC,
+                    userIdSerde.deserializer(), userEnrichedSerde.deserializer());
+
+            rawInputTopic.pipeInput(new UserId(5), new byte[] { 42 });
+            continueInputTopic.pipeInput(new UserId(6),
+                    new User(6, "Worf", "Rozhenko", "worf@enterprise.com", null, "Qo'noS"));
+
+            assertEquals(new UserEnriched(6, "Worf", "Rozhenko", "Worf Rozhenko", "worf@enterprise.com", null, "Qo'noS"),
+                    continueOutputTopic.readValue());
+            assertTrue(continueOutputTopic.isEmpty());
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.manelon.kafkastreams_springboot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import com.manelon.kafkastreams_springboot.serdes.LazyAvroRecord;
+import com.manelon.kafkastreams_springboot.serdes.LazyAvroRecordBuilder;
+import com.manelon.kafkastreams_springboot.serdes.LazyAvroSerializer;
+import com.manelon.model.User;
+import com.manelon.model.UserEnriched;
+
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+
+/**
+ * The lazy records must read and write the same bytes than the avro datum readers and writers
+ */
+public class LazyAvroRecordTest {
+
+    private static LazyAvroRecord lazy(User user) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        // some bytes before the payload, like the schema registry header
+        out.write(new byte[] { 0, 0, 0, 0, 1 });
+        BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+        new SpecificDatumWriter<>(User.class).write(user, encoder);
+        encoder.flush();
+        byte[] bytes = out.toByteArray();
+        return new LazyAvroRecord(User.SCHEMA$, bytes, 5, bytes.length - 5);
+    }
+
+    private static UserEnriched decode(LazyAvroRecord record) throws IOException {
+        return new SpecificDatumReader<>(UserEnriched.class).read(null,
+                DecoderFactory.get().binaryDecoder(record.toByteArray(), null));
+    }
+
+    private static LazyAvroRecord enrich(LazyAvroRecord user) {
+        return new LazyAvroRecordBuilder(UserEnriched.SCHEMA$)
+                .copy(user, "Id", "FirstName", "LastName")
+                .putJoinedStrings("FullName", " ", user, "FirstName", "LastName")
+                .copy(user, "EMail", "PhoneNumber", "Address")
+                .build();
+    }
+
+    @Test
+    void should_read_the_fields_without_decoding_the_record() throws IOException {
+        LazyAvroRecord user = lazy(new User(-42, "Nyota", "Uhura", "uhura@enterprise.com", null, "Africa"));
+
+        assertEquals(-42, user.getInt("Id"));
+        assertEquals("Nyota", user.getString("FirstName"));
+        assertEquals("uhura@enterprise.com", user.getString("EMail"));
+        assertNull(user.getString("PhoneNumber"));
+        assertTrue(user.isNull(user.position("PhoneNumber")));
+        assertEquals("Africa", user.get("Address").toString());
+    }
+
+    @Test
+    void should_build_the_same_bytes_than_the_specific_writer() throws IOException {
+        LazyAvroRecord user = lazy(new User(7, "Pavel", "Chékov", "chekov@enterprise.com", "555-555", null));
+
+        UserEnriched enriched = decode(enrich(user));
+
+        assertEquals(new UserEnriched(7, "Pavel", "Chékov", "Pavel Chékov", "chekov@enterprise.com", "555-555", null),
+                enriched);
+    }
+
+    @Test
+    void should_write_the_fields_in_order() throws IOException {
+        LazyAvroRecord user = lazy(new User(1, "Hikaru", "Sulu", "sulu@enterprise.com", null, null));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new LazyAvroRecordBuilder(UserEnriched.SCHEMA$).copy(user, "FirstName"));
+        assertThrows(IllegalStateException.class,
+                () -> new LazyAvroRecordBuilder(UserEnriched.SCHEMA$).copy(user, "Id").build());
+
+        UserEnriched enriched = decode(new LazyAvroRecordBuilder(UserEnriched.SCHEMA$)
+                .putInt("Id", 1)
+                .putString("FirstName", "Hikaru")
+                .putString("LastName", "Sulu")
+                .putString("FullName", "Hikaru Sulu")
+                .putString("EMail", "sulu@enterprise.com")
+                .putNull("PhoneNumber")
+                .putString("Address", "San Francisco")
+                .build());
+        assertEquals("San Francisco", enriched.getAddress());
+        assertNull(enriched.getPhoneNumber());
+    }
+
+    @Test
+    void should_throw_a_serialization_exception_for_a_truncated_or_corrupted_payload() throws IOException {
+        byte[] bytes = lazy(new User(4, "Christine", "Chapel", "chapel@enterprise.com", null, null)).toByteArray();
+
+        for (int length = 0; length < bytes.length; length++) {
+            byte[] payload = Arrays.copyOf(bytes, length);
+            LazyAvroRecord truncated = new LazyAvroRecord(User.SCHEMA$, payload, 0, length);
+            assertThrows(SerializationException.class, () -> truncated.getString("LastName"), length + " bytes");
+        }
+        // the length of FirstName, after the Id, is bigger than the payload
+        byte[] corrupted = bytes.clone();
+        corrupted[1] = 0x7E;
+        assertThrows(SerializationException.class,
+                () -> new LazyAvroRecord(User.SCHEMA$, corrupted, 0, corrupted.length).getInt("Id"));
+        assertThrows(IllegalArgumentException.class, () -> new LazyAvroRecord(User.SCHEMA$, bytes, 1, bytes.length));
+    }
+
+    @Test
+    void should_register_the_schema_in_the_subject_of_every_topic() throws Exception {
+        MockSchemaRegistryClient registry = new MockSchemaRegistryClient();
+        LazyAvroSerializer serializer = new LazyAvroSerializer(registry);
+        serializer.configure(Map.of(AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, "mock://lazy"), false);
+        LazyAvroRecord user = lazy(new User(3, "Leonard", "McCoy", "bones@enterprise.com", null, "Georgia"));
+
+        serializer.serialize("users", user);
+        serializer.serialize("users-changelog", user);
+
+        assertTrue(registry.getAllSubjects().containsAll(List.of("users-value", "users-changelog-value")));
+    }
+}
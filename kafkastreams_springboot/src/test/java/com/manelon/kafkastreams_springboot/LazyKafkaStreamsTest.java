@@ -0,0 +1,95 @@
+package com.manelon.kafkastreams_springboot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.Topology;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.config.KafkaStreamsConfiguration;
+
+import com.manelon.kafkastreams_springboot.config.Topics;
+import com.manelon.model.User;
+import com.manelon.model.UserEnriched;
+import com.manelon.model.UserId;
+
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
+
+/**
+ * Unit test of the lazy topology, the input and output are the same than the SpecificAvroSerde topology
+ */
+public class LazyKafkaStreamsTest {
+    private static final String SCHEMA_REGISTRY_SCOPE = LazyKafkaStreamsTest.class.getName();
+    private static final String MOCK_SCHEMA_REGISTRY_URL = "mock://" + SCHEMA_REGISTRY_SCOPE;
+
+    private static final String INPUT_TOPIC = "users";
+    private static final String OUTPUT_TOPIC = "processed_users";
+
+    private static TopologyTestDriver testDriver;
+
+    private static TestInputTopic<UserId, User> inputTopic;
+    private static TestOutputTopic<UserId, UserEnriched> outputTopic;
+
+    @BeforeAll
+    @SuppressWarnings("resource")
+    public static void init() {
+        Map<String, Object> streamsConfig = Map.of(
+                StreamsConfig.APPLICATION_ID_CONFIG, "lazy",
+                StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:1234",
+                StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, SpecificAvroSerde.class,
+                StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, SpecificAvroSerde.class,
+                AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, MOCK_SCHEMA_REGISTRY_URL);
+
+        StreamsBuilder builder = new StreamsBuilder();
+        new KafkastreamsSpringbootApplication().handleLazyStream(builder, new Topics(INPUT_TOPIC, OUTPUT_TOPIC),
+                new KafkaStreamsConfiguration(streamsConfig));
+        Topology topology = builder.build();
+
+        Properties props = new Properties();
+        props.putAll(streamsConfig);
+        testDriver = new TopologyTestDriver(topology, props);
+
+        Map<String, String> serdeProps = Map.of(
+                AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, MOCK_SCHEMA_REGISTRY_URL);
+        Serde<UserId> userIdSerde = new SpecificAvroSerde<>();
+        Serde<User> userSerde = new SpecificAvroSerde<>();
+        Serde<UserEnriched> userEnrichedSerde = new SpecificAvroSerde<>();
+        userIdSerde.configure(serdeProps, true);
+        userSerde.configure(serdeProps, false);
+        userEnrichedSerde.configure(serdeProps, false);
+
+        inputTopic = testDriver.createInputTopic(INPUT_TOPIC, userIdSerde.serializer(), userSerde.serializer());
+        outputTopic = testDriver.createOutputTopic(OUTPUT_TOPIC, userIdSerde.deserializer(),
+                userEnrichedSerde.deserializer());
+    }
+
+    @Test
+    void should_filter_user_when_id_is_negative() {
+        inputTopic.pipeInput(new UserId(1),
+                new User(1, "James T.", "Kirk", "kirk@enterprise.com", "999-999-999", "Iowa"));
+        inputTopic.pipeInput(new UserId(0), new User(0, "Ignore", "Me", "dummy.com", null, null));
+        inputTopic.pipeInput(new UserId(-1), new User(-1, "Ignore", "Again", "dummy.com", null, null));
+
+        assertEquals(1, outputTopic.readKeyValuesToList().size());
+    }
+
+    @Test
+    void should_write_the_same_user_enriched_than_the_specific_topology() {
+        inputTopic.pipeInput(new UserId(2),
+                new User(2, "Montgomery", "Scott", "miracleworker@enterprise,com", null, "Scotland"));
+
+        assertEquals(new UserEnriched(2, "Montgomery", "Scott", "Montgomery Scott", "miracleworker@enterprise,com",
+                null, "Scotland"), outputTopic.readValue());
+        assertTrue(outputTopic.isEmpty());
+    }
+}
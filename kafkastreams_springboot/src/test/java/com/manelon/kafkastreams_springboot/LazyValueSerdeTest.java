@@ -0,0 +1,80 @@
+package com.manelon.kafkastreams_springboot;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serde;
+import org.junit.jupiter.api.Test;
+
+import com.manelon.kafkastreams_springboot.serdes.LazyValue;
+import com.manelon.kafkastreams_springboot.serdes.LazyValueSerde;
+import com.manelon.model.User;
+
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
+
+public class LazyValueSerdeTest {
+    private static final User USER = new User(1, "Miles", "O'Brien", "obrien@ds9.com", null, "Killarney");
+
+    private final MockSchemaRegistryClient registry = new MockSchemaRegistryClient();
+
+    private LazyValueSerde<User> serde(boolean autoRegister) {
+        LazyValueSerde<User> serde = new LazyValueSerde<>(new SpecificAvroSerde<>(registry), registry);
+        serde.configure(Map.of(
+                AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, "mock://" + LazyValueSerdeTest.class.getName(),
+                AbstractKafkaSchemaSerDeConfig.AUTO_REGISTER_SCHEMAS, autoRegister), false);
+        return serde;
+    }
+
+    private byte[] source(String topic) {
+        Serde<User> specific = new SpecificAvroSerde<>(registry);
+        specific.configure(Map.of(
+                AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, "mock://" + LazyValueSerdeTest.class.getName()),
+                false);
+        return specific.serializer().serialize(topic, USER);
+    }
+
+    @Test
+    void unread_values_should_keep_their_bytes_in_a_subject_with_their_schema() {
+        LazyValueSerde<User> serde = serde(true);
+        byte[] bytes = source("users");
+        LazyValue<User> user = serde.deserializer().deserialize("users", bytes);
+
+        assertSame(bytes, serde.serializer().serialize("users", user));
+        assertFalse(user.isDeserialized());
+    }
+
+    @Test
+    void unread_values_should_be_serialized_again_for_a_subject_without_their_schema() throws Exception {
+        LazyValueSerde<User> serde = serde(true);
+        byte[] bytes = source("users");
+        LazyValue<User> user = serde.deserializer().deserialize("users", bytes);
+
+        byte[] serialized = serde.serializer().serialize("processed_users", user);
+        assertNotSame(bytes, serialized);
+        assertArrayEquals(bytes, serialized);
+        assertTrue(registry.getAllSubjects().contains("processed_users-value"));
+        // the schema is registered now, the next values are passed through
+        LazyValue<User> next = serde.deserializer().deserialize("users", bytes);
+        assertSame(bytes, serde.serializer().serialize("processed_users", next));
+        assertFalse(next.isDeserialized());
+    }
+
+    @Test
+    void unread_values_should_not_be_written_to_a_subject_without_their_schema() {
+        LazyValueSerde<User> serde = serde(false);
+        LazyValue<User> user = serde.deserializer().deserialize("users", source("users"));
+
+        assertThrows(SerializationException.class, () -> serde.serializer().serialize("processed_users", user));
+        assertEquals(USER, user.get());
+    }
+}
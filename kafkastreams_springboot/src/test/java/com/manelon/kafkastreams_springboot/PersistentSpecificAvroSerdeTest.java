@@ -0,0 +1,94 @@
+package com.manelon.kafkastreams_springboot;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.manelon.kafkastreams_springboot.config.Topics;
+import com.manelon.kafkastreams_springboot.serdes.PersistentSpecificAvroSerde;
+import com.manelon.kafkastreams_springboot.utils.TestTopologies;
+import com.manelon.model.User;
+import com.manelon.model.UserEnriched;
+import com.manelon.model.UserId;
+
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
+
+/**
+ * The {@link PersistentSpecificAvroSerde} as default serde, the rest of the tests use the SpecificAvroSerde like the
+ * application
+ */
+public class PersistentSpecificAvroSerdeTest {
+    private static final String MOCK_SCHEMA_REGISTRY_URL = "mock://" + PersistentSpecificAvroSerdeTest.class.getName();
+
+    @Test
+    void should_write_the_same_bytes_than_the_specific_avro_serde(@TempDir Path stateDir) throws IOException {
+        Map<String, String> config = Map.of(
+                AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, MOCK_SCHEMA_REGISTRY_URL,
+                StreamsConfig.STATE_DIR_CONFIG, stateDir.toString());
+        Serde<User> persistent = new PersistentSpecificAvroSerde<>();
+        persistent.configure(config, false);
+        Serde<User> specific = new SpecificAvroSerde<>();
+        specific.configure(config, false);
+        User user = new User(1, "Miles", "O'Brien", "obrien@ds9.com", null, "Killarney");
+
+        byte[] serialized = persistent.serializer().serialize("users", user);
+        assertArrayEquals(specific.serializer().serialize("users", user), serialized);
+        assertEquals(user, specific.deserializer().deserialize("users", serialized));
+        assertEquals(user, persistent.deserializer().deserialize("users", serialized));
+        // the schema is saved in the state directory
+        try (Stream<Path> files = Files.list(stateDir.resolve("schema-cache"))) {
+            assertEquals(1, files.count());
+        }
+        persistent.close();
+    }
+
+    @Test
+    void should_process_the_users_with_the_persistent_serde_as_default(@TempDir Path stateDir) {
+        StreamsBuilder builder = new StreamsBuilder();
+        Topics topics = new Topics("users", "processed_users");
+        new KafkastreamsSpringbootApplication().handleStream(builder, topics);
+        Properties props = TestTopologies.streamsProperties(MOCK_SCHEMA_REGISTRY_URL);
+        props.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, PersistentSpecificAvroSerde.class);
+        props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, PersistentSpecificAvroSerde.class);
+        props.put(StreamsConfig.STATE_DIR_CONFIG, stateDir.toString());
+        Map<String, String> serdeConfig = Map.of(
+                AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, MOCK_SCHEMA_REGISTRY_URL);
+        Serde<UserId> userIdSerde = new SpecificAvroSerde<>();
+        Serde<User> userSerde = new SpecificAvroSerde<>();
+        Serde<UserEnriched> userEnrichedSerde = new SpecificAvroSerde<>();
+        userIdSerde.configure(serdeConfig, true);
+        userSerde.configure(serdeConfig, false);
+        userEnrichedSerde.configure(serdeConfig, false);
+
+        try (TopologyTestDriver testDriver = new TopologyTestDriver(builder.build(), props)) {
+            TestInputTopic<UserId, User> inputTopic = testDriver.createInputTopic(topics.getUsers(),
+                    userIdSerde.serializer(), userSerde.serializer());
+            TestOutputTopic<UserId, UserEnriched> outputTopic = testDriver.createOutputTopic(
+                    topics.getProcessedUsers(), userIdSerde.deserializer(), userEnrichedSerde.deserializer());
+            inputTopic.pipeInput(new UserId(2), new User(2, "Julian", "Bashir", "bashir@ds9.com", null, "London"));
+            inputTopic.pipeInput(new UserId(-1), new User(-1, "Elim", "Garak", "garak@ds9.com", null, "Cardassia"));
+
+            List<KeyValue<UserId, UserEnriched>> processed = outputTopic.readKeyValuesToList();
+            assertEquals(1, processed.size());
+            assertEquals("Julian Bashir", processed.get(0).value.getFullName());
+        }
+    }
+}
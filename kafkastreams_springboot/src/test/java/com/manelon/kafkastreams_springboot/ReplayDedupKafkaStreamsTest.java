@@ -0,0 +1,77 @@
+package com.manelon.kafkastreams_springboot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.junit.jupiter.api.Test;
+
+import com.manelon.kafkastreams_common.processors.WindowedDedupProcessorSupplier;
+import com.manelon.kafkastreams_springboot.config.Topics;
+import com.manelon.kafkastreams_springboot.utils.TestTopologies;
+import com.manelon.model.User;
+import com.manelon.model.UserEnriched;
+import com.manelon.model.UserId;
+
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
+
+/**
+ * handleStream with processing.replay-dedup.window, see {@link WindowedDedupProcessorSupplier}
+ */
+public class ReplayDedupKafkaStreamsTest {
+    private static final String MOCK_SCHEMA_REGISTRY_URL = "mock://" + ReplayDedupKafkaStreamsTest.class.getName();
+
+    private static final String INPUT_TOPIC = "users";
+    private static final String OUTPUT_TOPIC = "processed_users";
+    private static final Instant START = Instant.parse("2023-01-01T00:00:00Z");
+
+    @Test
+    void should_drop_the_replayed_users_and_keep_the_new_events_with_the_same_content() {
+        Map<String, String> serdeProps = Map.of(
+                AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, MOCK_SCHEMA_REGISTRY_URL);
+        Serde<UserId> userIdSerde = new SpecificAvroSerde<>();
+        Serde<User> userSerde = new SpecificAvroSerde<>();
+        Serde<UserEnriched> userEnrichedSerde = new SpecificAvroSerde<>();
+        userIdSerde.configure(serdeProps, true);
+        userSerde.configure(serdeProps, false);
+        userEnrichedSerde.configure(serdeProps, false);
+
+        StreamsBuilder builder = new StreamsBuilder();
+        KafkastreamsSpringbootApplication application = new KafkastreamsSpringbootApplication();
+        application.setReplayDedup(Duration.ofMinutes(5), 1000);
+        application.handleStream(builder, new Topics(INPUT_TOPIC, OUTPUT_TOPIC));
+
+        User kirk = new User(1, "James T.", "Kirk", "kirk@enterprise.com", "999-999-999", "Iowa");
+        User promoted = new User(1, "James T.", "Kirk", "kirk@enterprise.com", "999-999-999", "Starfleet Command");
+        User ignored = new User(-1, "Ignore", "Me", "dummy.com", null, null);
+        try (TopologyTestDriver testDriver = new TopologyTestDriver(builder.build(),
+                TestTopologies.streamsProperties(MOCK_SCHEMA_REGISTRY_URL))) {
+            TestInputTopic<UserId, User> inputTopic = testDriver.createInputTopic(INPUT_TOPIC,
+                    userIdSerde.serializer(), userSerde.serializer());
+            TestOutputTopic<UserId, UserEnriched> outputTopic = testDriver.createOutputTopic(OUTPUT_TOPIC,
+                    userIdSerde.deserializer(), userEnrichedSerde.deserializer());
+            inputTopic.pipeInput(new UserId(1), kirk, START);
+            // replayed, same key and timestamp
+            inputTopic.pipeInput(new UserId(1), kirk, START);
+            inputTopic.pipeInput(new UserId(1), promoted, START.plusSeconds(60));
+            // a new event with the content of the first one
+            inputTopic.pipeInput(new UserId(1), kirk, START.plusSeconds(120));
+            inputTopic.pipeInput(new UserId(-1), ignored, START);
+            inputTopic.pipeInput(new UserId(-1), ignored, START);
+
+            assertEquals(List.of("Iowa", "Starfleet Command", "Iowa"),
+                    outputTopic.readValuesToList().stream().map(user -> user.getAddress()).toList());
+            // the negative ids are filtered before the dedup
+            assertEquals(0.25, TestTopologies.metric(testDriver, "duplicate-ratio"));
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.manelon.kafkastreams_springboot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import com.manelon.kafkastreams_springboot.scaling.StreamThreadScaler;
+import com.manelon.kafkastreams_springboot.scaling.StreamThreadScaler.Direction;
+import com.manelon.kafkastreams_springboot.scaling.StreamThreadScaler.Sample;
+import com.manelon.kafkastreams_springboot.scaling.StreamThreadScalingProperties;
+
+/**
+ * Unit test of the decisions of {@link StreamThreadScaler}: up above 60s of lag, down below 5s if the threads left
+ * would be busy less than 70% of the time, after 3 samples and with a cooldown of 60s
+ */
+public class StreamThreadScalerTest {
+
+    private static StreamThreadScaler scaler() {
+        StreamThreadScalingProperties properties = new StreamThreadScalingProperties();
+        properties.setMinThreads(1);
+        properties.setMaxThreads(3);
+        properties.setScaleUpDrainTime(Duration.ofSeconds(60));
+        properties.setScaleDownDrainTime(Duration.ofSeconds(5));
+        properties.setMaxCpu(0.8);
+        properties.setScaleDownMaxUtilization(0.7);
+        properties.setStableSamples(3);
+        properties.setCooldown(Duration.ofSeconds(60));
+        return new StreamThreadScaler(properties);
+    }
+
+    // 1000 records by second, the lag is drained in lagSeconds, the threads are busy 30% of the time
+    private static Sample sample(long lagSeconds, int threads) {
+        return new Sample(lagSeconds * 1000, 1000, 0.5, 0.3, threads);
+    }
+
+    @Test
+    void should_add_a_thread_after_the_stable_samples_above_the_threshold() {
+        StreamThreadScaler scaler = scaler();
+
+        assertEquals(Direction.HOLD, scaler.decide(sample(120, 1), 0).direction());
+        assertEquals(Direction.HOLD, scaler.decide(sample(120, 1), 10_000).direction());
+        assertEquals(Direction.UP, scaler.decide(sample(120, 1), 20_000).direction());
+    }
+
+    @Test
+    void should_not_flap_between_the_thresholds() {
+        StreamThreadScaler scaler = scaler();
+
+        assertEquals(Direction.HOLD, scaler.decide(sample(120, 2), 0).direction());
+        assertEquals(Direction.HOLD, scaler.decide(sample(120, 2), 10_000).direction());
+        assertEquals(Direction.HOLD, scaler.decide(sample(30, 2), 20_000).direction());
+        assertEquals(Direction.HOLD, scaler.decide(sample(120, 2), 30_000).direction());
+        assertEquals(Direction.HOLD, scaler.decide(sample(2, 2), 40_000).direction());
+        assertEquals(Direction.HOLD, scaler.decide(sample(2, 2), 50_000).direction());
+        assertEquals(Direction.DOWN, scaler.decide(sample(2, 2), 60_000).direction());
+    }
+
+    @Test
+    void should_wait_the_cooldown_after_a_change() {
+        StreamThreadScaler scaler = scaler();
+        scaler.changed(0);
+
+        for (long now = 0; now < 60_000; now += 10_000)
+            assertEquals("cooldown", scaler.decide(sample(120, 2), now).reason());
+        assertEquals(Direction.HOLD, scaler.decide(sample(120, 2), 60_000).direction());
+    }
+
+    @Test
+    void should_stay_between_the_minimum_and_the_maximum() {
+        StreamThreadScaler scaler = scaler();
+
+        assertEquals(Direction.UP, scaler.decide(sample(0, 0), 0).direction());
+        assertEquals(Direction.DOWN, scaler.decide(sample(120, 4), 0).direction());
+        for (long now = 0; now < 100_000; now += 10_000) {
+            assertEquals(Direction.HOLD, scaler.decide(sample(120, 3), now).direction());
+        }
+    }
+
+    @Test
+    void should_not_add_threads_when_the_cpu_is_saturated() {
+        StreamThreadScaler scaler = scaler();
+
+        for (long now = 0; now < 100_000; now += 10_000)
+            assertEquals(Direction.HOLD, scaler.decide(new Sample(120_000, 1000, 0.95, 1, 1), now).direction());
+    }
+
+    @Test
+    void should_add_a_thread_when_nothing_is_processed() {
+        StreamThreadScaler scaler = scaler();
+
+        scaler.decide(new Sample(10, 0, 0.1, 0, 1), 0);
+        scaler.decide(new Sample(10, 0, 0.1, 0, 1), 10_000);
+        assertEquals(Direction.UP, scaler.decide(new Sample(10, 0, 0.1, 0, 1), 20_000).direction());
+    }
+
+    @Test
+    void should_not_remove_threads_at_a_steady_load_that_needs_them() {
+        StreamThreadScaler scaler = scaler();
+
+        // no lag, but 3 threads busy 60% of the time: 2 would be busy 90%
+        for (long now = 0; now < 300_000; now += 10_000)
+            assertEquals(Direction.HOLD, scaler.decide(new Sample(0, 3000, 0.5, 0.6, 3), now).direction());
+
+        // the load goes down, 2 threads would be busy 60%
+        scaler.decide(new Sample(0, 2000, 0.3, 0.4, 3), 300_000);
+        scaler.decide(new Sample(0, 2000, 0.3, 0.4, 3), 310_000);
+        assertEquals(Direction.DOWN, scaler.decide(new Sample(0, 2000, 0.3, 0.4, 3), 320_000).direction());
+    }
+
+    @Test
+    void should_not_remove_threads_when_the_utilization_is_not_known() {
+        StreamThreadScaler scaler = scaler();
+
+        for (long now = 0; now < 100_000; now += 10_000)
+            assertEquals(Direction.HOLD, scaler.decide(new Sample(0, 1000, 0.5, -1, 2), now).direction());
+    }
+
+    @Test
+    void should_not_accept_overlapped_thresholds() {
+        StreamThreadScalingProperties properties = new StreamThreadScalingProperties();
+        properties.setScaleDownDrainTime(Duration.ofSeconds(60));
+
+        assertThrows(IllegalArgumentException.class, () -> new StreamThreadScaler(properties));
+    }
+}
@@ -0,0 +1,66 @@
+package com.manelon.kafkastreams_springboot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.kstream.Named;
+import org.junit.jupiter.api.Test;
+
+import com.manelon.kafkastreams_springboot.benchmarks.TopologyHarness;
+
+public class TopologyHarnessTest {
+
+    private static final String INPUT_TOPIC = "stardates";
+    private static final String OUTPUT_TOPIC = "captains_log";
+
+    private static TopologyHarness harness() {
+        StreamsBuilder builder = new StreamsBuilder();
+        builder.<String, String>stream(INPUT_TOPIC)
+                .filter((stardate, entry) -> !entry.isEmpty(), Named.as("Skipping_empty_entries"))
+                .mapValues(entry -> "Captain's log: " + entry, Named.as("Adding_header"))
+                .to(OUTPUT_TOPIC);
+
+        Properties props = new Properties();
+        props.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, Serdes.String().getClass());
+        props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, Serdes.String().getClass());
+
+        List<KeyValue<String, String>> entries = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            entries.add(KeyValue.pair("41153." + i, i % 2 == 0 ? "" : "The Enterprise is en route to Farpoint"));
+        }
+        return new TopologyHarness(builder.build(), props)
+                .input(INPUT_TOPIC, TopologyHarness.serialize(INPUT_TOPIC, Serdes.String().serializer(),
+                        Serdes.String().serializer(), entries))
+                .output(OUTPUT_TOPIC);
+    }
+
+    @Test
+    void should_pump_the_corpus_through_the_topology() {
+        try (TopologyHarness harness = harness()) {
+            assertEquals(10, harness.recordsPerPump());
+            assertEquals(5, harness.pump());
+            assertEquals(5, harness.pump());
+        }
+    }
+
+    @Test
+    void should_measure_the_records_of_every_pump() {
+        try (TopologyHarness harness = harness()) {
+            TopologyHarness.Report report = harness.measure(Duration.ofMillis(50));
+
+            assertTrue(report.records() >= 10);
+            assertEquals(0, report.records() % 10);
+            assertTrue(report.recordsPerSecond() > 0);
+            assertTrue(report.allocatedBytes() > 0);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.manelon.kafkastreams_springboot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Map;
+
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.util.Utf8;
+import org.apache.kafka.common.serialization.Serde;
+import org.junit.jupiter.api.Test;
+
+import com.manelon.kafkastreams_springboot.serdes.Utf8AvroSerde;
+import com.manelon.kafkastreams_springboot.serdes.Utf8Interner;
+import com.manelon.kafkastreams_springboot.serdes.Utf8Strings;
+import com.manelon.model.User;
+
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
+
+public class Utf8AvroSerdeTest {
+    private static final Map<String, String> SERDE_CONFIG = Map.of(
+            AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, "mock://" + Utf8AvroSerdeTest.class.getName());
+
+    @Test
+    void should_share_the_strings_of_the_interned_fields() {
+        Serde<User> userSerde = new SpecificAvroSerde<>();
+        userSerde.configure(SERDE_CONFIG, false);
+        Utf8Interner interner = new Utf8Interner(16, 64);
+        Utf8AvroSerde utf8Serde = new Utf8AvroSerde(interner, "FirstName", "PhoneNumber");
+        utf8Serde.configure(SERDE_CONFIG, false);
+
+        GenericRecord worf = utf8Serde.deserializer().deserialize("users",
+                userSerde.serializer().serialize("users", new User(1, "Worf", "Rozhenko", "worf@enterprise.com", null, "Qo'noS")));
+        GenericRecord alexander = utf8Serde.deserializer().deserialize("users",
+                userSerde.serializer().serialize("users", new User(2, "Worf", "Rozhenko", "alexander@enterprise.com", "555", "Qo'noS")));
+
+        assertInstanceOf(Utf8.class, worf.get("FirstName"));
+        assertInstanceOf(Utf8.class, worf.get("LastName"));
+        assertSame(worf.get("FirstName"), alexander.get("FirstName"));
+        assertNotSame(worf.get("LastName"), alexander.get("LastName"));
+        assertNull(worf.get("PhoneNumber"));
+        assertEquals(new Utf8("555"), alexander.get("PhoneNumber"));
+        assertEquals(1, interner.hits());
+
+        // the Utf8 records are written with the same bytes
+        assertEquals(new User(1, "Worf", "Rozhenko", "worf@enterprise.com", null, "Qo'noS"),
+                userSerde.deserializer().deserialize("users", utf8Serde.serializer().serialize("users", worf)));
+    }
+
+    @Test
+    void should_join_the_utf8_bytes() {
+        assertEquals(new Utf8("Jadzia Dax"), Utf8Strings.join(new Utf8(" "), new Utf8("Jadzia"), "Dax"));
+        assertEquals(new Utf8("Kira-Nerys-Ω"), Utf8Strings.join(new Utf8("-"), new Utf8("Kira"), new Utf8("Nerys"), "Ω"));
+        assertNull(Utf8Strings.join(new Utf8(" "), new Utf8("Odo"), null));
+    }
+}
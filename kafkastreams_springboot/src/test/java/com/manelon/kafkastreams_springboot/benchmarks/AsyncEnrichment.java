@@ -0,0 +1,158 @@
+package com.manelon.kafkastreams_springboot.benchmarks;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.kstream.Named;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.manelon.kafkastreams_springboot.processors.AsyncProcessorSupplier;
+import com.manelon.model.User;
+import com.manelon.model.UserEnriched;
+import com.manelon.model.UserId;
+
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
+
+/**
+ * Records per second of the enrichment of the users when every lookup takes latencyMicros (a stub of a slow service
+ * that parks the thread), looked up by {@link AsyncProcessorSupplier} with up to concurrency lookups in flight.
+ * concurrency 0 is the lookup in the stream thread, as a mapValues. The throughput should grow with the concurrency
+ * up to concurrency / latency.
+ */
+@State(Scope.Thread)
+public class AsyncEnrichment {
+    public static void main(String[] args) throws RunnerException, IOException {
+
+        Options opt = new OptionsBuilder()
+                .include(AsyncEnrichment.class.getSimpleName())
+                .warmupIterations(3)
+                .forks(1)
+                .mode(Mode.Throughput)
+                .timeUnit(TimeUnit.SECONDS)
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    private static final int RECORDS = 256;
+    private static final String INPUT_TOPIC = "users";
+    private static final String OUTPUT_TOPIC = "processed_users";
+    private static final String MOCK_SCHEMA_REGISTRY_URL = "mock://" + AsyncEnrichment.class.getName();
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(1);
+
+    @Param({ "0", "1", "4", "16", "64" })
+    private int concurrency;
+
+    @Param({ "1000" })
+    private long latencyMicros;
+
+    private ExecutorService executor;
+    private TopologyTestDriver testDriver;
+    private TestInputTopic<byte[], byte[]> inputTopic;
+    private TestOutputTopic<byte[], byte[]> outputTopic;
+    private List<KeyValue<byte[], byte[]>> users;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        StreamsBuilder builder = new StreamsBuilder();
+        if (concurrency == 0) {
+            builder.<UserId, User>stream(INPUT_TOPIC)
+                    .mapValues(this::lookup, Named.as("Calculating_FullName"))
+                    .to(OUTPUT_TOPIC);
+        } else {
+            executor = Executors.newFixedThreadPool(concurrency);
+            builder.<UserId, User>stream(INPUT_TOPIC)
+                    .process(new AsyncProcessorSupplier<UserId, User, UserEnriched>("Calculating_FullName-pending",
+                            executor, concurrency, POLL_INTERVAL, (id, user) -> lookup(user), null, null),
+                            Named.as("Calculating_FullName"))
+                    .to(OUTPUT_TOPIC);
+        }
+
+        Properties props = new Properties();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, "async-enrichment-benchmark");
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:1234");
+        props.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, SpecificAvroSerde.class);
+        props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, SpecificAvroSerde.class);
+        props.put(AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, MOCK_SCHEMA_REGISTRY_URL);
+        testDriver = new TopologyTestDriver(builder.build(), props);
+        inputTopic = testDriver.createInputTopic(INPUT_TOPIC, new ByteArraySerializer(), new ByteArraySerializer());
+        outputTopic = testDriver.createOutputTopic(OUTPUT_TOPIC, new ByteArrayDeserializer(), new ByteArrayDeserializer());
+        users = users();
+    }
+
+    private static List<KeyValue<byte[], byte[]>> users() {
+        SpecificAvroSerde<UserId> userIdSerde = new SpecificAvroSerde<>();
+        SpecificAvroSerde<User> userSerde = new SpecificAvroSerde<>();
+        Map<String, String> serdeConfig = Map.of(AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG,
+                MOCK_SCHEMA_REGISTRY_URL);
+        userIdSerde.configure(serdeConfig, true);
+        userSerde.configure(serdeConfig, false);
+
+        List<KeyValue<UserId, User>> users = new ArrayList<>(RECORDS);
+        for (int i = 1; i <= RECORDS; i++) {
+            users.add(KeyValue.pair(new UserId(i), new User(i, "Geordi", "La Forge",
+                    "laforge@enterprise.com", "555-0000", "Mogadishu, Somalia")));
+        }
+        return TopologyHarness.serialize(INPUT_TOPIC, userIdSerde.serializer(), userSerde.serializer(), users);
+    }
+
+    // the stub of the profile service
+    private UserEnriched lookup(User user) {
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(latencyMicros));
+        return new UserEnriched(user.getId(), user.getFirstName(), user.getLastName(),
+                user.getFirstName() + " " + user.getLastName(), user.getEMail(), user.getPhoneNumber(),
+                user.getAddress());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        testDriver.close();
+        if (executor != null)
+            executor.shutdownNow();
+    }
+
+    /**
+     * Pipes the users and polls the ended lookups until all of them are written
+     */
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public int Enrichment() {
+        inputTopic.pipeKeyValueList(users);
+        int output = outputTopic.readValuesToList().size();
+        while (output < RECORDS) {
+            LockSupport.parkNanos(POLL_INTERVAL.toNanos() / 10);
+            testDriver.advanceWallClockTime(POLL_INTERVAL);
+            output += outputTopic.readValuesToList().size();
+        }
+        return output;
+    }
+}
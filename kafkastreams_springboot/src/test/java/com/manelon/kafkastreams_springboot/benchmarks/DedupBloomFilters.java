@@ -0,0 +1,110 @@
+package com.manelon.kafkastreams_springboot.benchmarks;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.manelon.kafkastreams_common.processors.DedupWindow;
+import com.manelon.kafkastreams_common.processors.Fingerprints;
+import com.manelon.kafkastreams_common.processors.SegmentedBloomFilter;
+
+/**
+ * Time per record of the {@link SegmentedBloomFilter} of the WindowedDedupProcessor with a window of 10 minutes
+ * (4 segments, 1% of false positives) filled with distinctIds ids: a new id is only checked in the filters, a
+ * replayed one is also read from the store (not measured here). The hash of the serialized id is included.
+ * The size of the filters, the probes and the measured false positive rate are printed in the setup.
+ */
+@State(Scope.Benchmark)
+public class DedupBloomFilters {
+    public static void main(String[] args) throws RunnerException, IOException {
+
+        Options opt = new OptionsBuilder()
+                .include(DedupBloomFilters.class.getSimpleName())
+                .warmupIterations(3)
+                .forks(1)
+                .mode(Mode.AverageTime)
+                .timeUnit(TimeUnit.NANOSECONDS)
+                .jvmArgs("-Xmx4g")
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    private static final int PROBES = 1024;
+    private static final Duration WINDOW = Duration.ofMinutes(10);
+
+    @Param({ "1000000", "10000000", "100000000" })
+    private long distinctIds;
+
+    private SegmentedBloomFilter filter;
+    private final byte[] id = new byte[8];
+    private long[] newIds;
+    private long[] replayedIds;
+    private long now;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        filter = new SegmentedBloomFilter(DedupWindow.of(WINDOW, distinctIds));
+        now = WINDOW.toMillis();
+        for (long i = 0; i < distinctIds; i++)
+            filter.put(hash(i), i * now / distinctIds);
+
+        newIds = new long[PROBES];
+        replayedIds = new long[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            newIds[i] = distinctIds + i;
+            replayedIds[i] = (distinctIds / PROBES) * i;
+        }
+
+        int falsePositives = 0;
+        for (long i = distinctIds; i < distinctIds + 1_000_000; i++) {
+            if (filter.mightContain(hash(i), now))
+                falsePositives++;
+        }
+        System.out.printf("%n%d ids: %d MB, %d probes by segment, %.4f false positives%n", distinctIds,
+                filter.sizeInBytes() >> 20, filter.probes(), falsePositives / 1_000_000.0);
+    }
+
+    private long hash(long value) {
+        for (int i = 7; i >= 0; i--) {
+            id[i] = (byte) value;
+            value >>>= 8;
+        }
+        return Fingerprints.hash64(id);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROBES)
+    public int newId() {
+        int hits = 0;
+        for (long value : newIds) {
+            if (filter.mightContain(hash(value), now))
+                hits++;
+        }
+        return hits;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROBES)
+    public int replayedId() {
+        int hits = 0;
+        for (long value : replayedIds) {
+            if (filter.mightContain(hash(value), now))
+                hits++;
+        }
+        return hits;
+    }
+}
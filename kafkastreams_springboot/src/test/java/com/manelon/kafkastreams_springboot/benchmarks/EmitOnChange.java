@@ -0,0 +1,120 @@
+package com.manelon.kafkastreams_springboot.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.state.Stores;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.manelon.kafkastreams_common.processors.Fingerprints;
+import com.manelon.kafkastreams_springboot.processors.EmitOnChangeProcessorSupplier;
+import com.manelon.model.User;
+import com.manelon.model.UserId;
+
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
+
+/**
+ * Time per record of the {@link EmitOnChangeProcessorSupplier} with the same users piped again and again, so all of
+ * them are dropped after the first pump: none is the topology without the processor, cache finds the fingerprints
+ * in the LRU cache and store (a cache of 0 keys) reads them from the store.
+ * The store is in memory: the TopologyTestDriver commits after every record, with a persistent store the fsync of
+ * its checkpoint would be measured instead of the processor.
+ */
+@State(Scope.Thread)
+public class EmitOnChange {
+    public static void main(String[] args) throws RunnerException, IOException {
+
+        Options opt = new OptionsBuilder()
+                .include(EmitOnChange.class.getSimpleName())
+                .warmupIterations(3)
+                .forks(1)
+                .mode(Mode.AverageTime)
+                .timeUnit(TimeUnit.NANOSECONDS)
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    private static final int RECORDS = 1024;
+    private static final String INPUT_TOPIC = "users";
+    private static final String OUTPUT_TOPIC = "processed_users";
+    private static final String MOCK_SCHEMA_REGISTRY_URL = "mock://" + EmitOnChange.class.getName();
+
+    @Param({ "none", "cache", "store" })
+    private String dedup;
+
+    private TopologyHarness harness;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Map<String, Object> streamsConfig = Map.of(
+                StreamsConfig.APPLICATION_ID_CONFIG, "emit-on-change-benchmark",
+                StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:1234",
+                StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, SpecificAvroSerde.class,
+                StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, SpecificAvroSerde.class,
+                AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, MOCK_SCHEMA_REGISTRY_URL);
+        StreamsBuilder builder = new StreamsBuilder();
+        KStream<UserId, User> users = builder.stream(INPUT_TOPIC);
+        if (!"none".equals(dedup))
+            users = users.process(new EmitOnChangeProcessorSupplier<UserId, User>(
+                    Stores.inMemoryKeyValueStore("users-fingerprints"), "cache".equals(dedup) ? RECORDS : 0,
+                    Fingerprints.avro(), null));
+        users.to(OUTPUT_TOPIC);
+
+        Properties props = new Properties();
+        props.putAll(streamsConfig);
+        harness = new TopologyHarness(builder.build(), props)
+                .input(INPUT_TOPIC, users())
+                .output(OUTPUT_TOPIC);
+    }
+
+    private static List<KeyValue<byte[], byte[]>> users() {
+        SpecificAvroSerde<UserId> userIdSerde = new SpecificAvroSerde<>();
+        SpecificAvroSerde<User> userSerde = new SpecificAvroSerde<>();
+        Map<String, String> serdeConfig = Map.of(AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG,
+                MOCK_SCHEMA_REGISTRY_URL);
+        userIdSerde.configure(serdeConfig, true);
+        userSerde.configure(serdeConfig, false);
+
+        List<KeyValue<UserId, User>> users = new ArrayList<>(RECORDS);
+        for (int i = 1; i <= RECORDS; i++) {
+            users.add(KeyValue.pair(new UserId(i), new User(i, "Geordi", "La Forge",
+                    "laforge@enterprise.com", "555-0000", "Mogadishu, Somalia")));
+        }
+        return TopologyHarness.serialize(INPUT_TOPIC, userIdSerde.serializer(), userSerde.serializer(), users);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        harness.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public int Topology() {
+        return harness.pump();
+    }
+}
@@ -0,0 +1,134 @@
+package com.manelon.kafkastreams_springboot.benchmarks;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.kafka.config.KafkaStreamsConfiguration;
+
+import com.manelon.kafkastreams_springboot.KafkastreamsSpringbootApplication;
+import com.manelon.kafkastreams_springboot.config.Topics;
+import com.manelon.model.User;
+import com.manelon.model.UserId;
+
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
+
+/**
+ * Time per input record of handleStream (keys and values deserialized) vs handleKeyFirstStream
+ * (values deserialized after the key filter), with different ratios of records dropped by the filter.
+ * The records are piped already serialized, so only the topology is measured
+ */
+@State(Scope.Thread)
+public class KeyFirstFilter {
+    public static void main(String[] args) throws RunnerException, IOException {
+
+        Options opt = new OptionsBuilder()
+                .include(KeyFirstFilter.class.getSimpleName())
+                .warmupIterations(3)
+                .forks(1)
+                .mode(Mode.AverageTime)
+                .timeUnit(TimeUnit.NANOSECONDS)
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    private static final int RECORDS = 1024;
+    private static final String INPUT_TOPIC = "users";
+    private static final String OUTPUT_TOPIC = "processed_users";
+    private static final String MOCK_SCHEMA_REGISTRY_URL = "mock://" + KeyFirstFilter.class.getName();
+
+    /**
+     * Ratio of records with a negative id
+     */
+    @Param({ "0", "0.5", "0.9", "0.99" })
+    private double dropRatio;
+
+    @Param({ "specific", "key-first" })
+    private String mode;
+
+    private byte[][] keys;
+    private byte[][] values;
+    private TopologyTestDriver testDriver;
+    private TestInputTopic<byte[], byte[]> inputTopic;
+    private TestOutputTopic<byte[], byte[]> outputTopic;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Map<String, Object> streamsConfig = Map.of(
+                StreamsConfig.APPLICATION_ID_CONFIG, "key-first-benchmark",
+                StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:1234",
+                StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, SpecificAvroSerde.class,
+                StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, SpecificAvroSerde.class,
+                AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, MOCK_SCHEMA_REGISTRY_URL);
+        Topics topics = new Topics(INPUT_TOPIC, OUTPUT_TOPIC);
+        StreamsBuilder builder = new StreamsBuilder();
+        if ("key-first".equals(mode))
+            new KafkastreamsSpringbootApplication().handleKeyFirstStream(builder, topics,
+                    new KafkaStreamsConfiguration(streamsConfig));
+        else
+            new KafkastreamsSpringbootApplication().handleStream(builder, topics);
+
+        Properties props = new Properties();
+        props.putAll(streamsConfig);
+        testDriver = new TopologyTestDriver(builder.build(), props);
+        inputTopic = testDriver.createInputTopic(INPUT_TOPIC, new ByteArraySerializer(), new ByteArraySerializer());
+        outputTopic = testDriver.createOutputTopic(OUTPUT_TOPIC, new ByteArrayDeserializer(), new ByteArrayDeserializer());
+
+        SpecificAvroSerde<UserId> userIdSerde = new SpecificAvroSerde<>();
+        SpecificAvroSerde<User> userSerde = new SpecificAvroSerde<>();
+        Map<String, String> serdeConfig = Map.of(AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG,
+                MOCK_SCHEMA_REGISTRY_URL);
+        userIdSerde.configure(serdeConfig, true);
+        userSerde.configure(serdeConfig, false);
+
+        Random random = new Random(17);
+        keys = new byte[RECORDS][];
+        values = new byte[RECORDS][];
+        for (int i = 0; i < RECORDS; i++) {
+            int id = random.nextDouble() < dropRatio ? -(i + 1) : i + 1;
+            keys[i] = userIdSerde.serializer().serialize(INPUT_TOPIC, new UserId(id));
+            values[i] = userSerde.serializer().serialize(INPUT_TOPIC, new User(id, "Geordi", "La Forge",
+                    "laforge@enterprise.com", "555-0000", "Mogadishu, Somalia"));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        testDriver.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public int Topology() {
+        for (int i = 0; i < RECORDS; i++) {
+            inputTopic.pipeInput(keys[i], values[i]);
+        }
+        return outputTopic.readValuesToList().size();
+    }
+}
@@ -0,0 +1,139 @@
+package com.manelon.kafkastreams_springboot.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.kafka.config.KafkaStreamsConfiguration;
+
+import com.manelon.kafkastreams_springboot.KafkastreamsSpringbootApplication;
+import com.manelon.kafkastreams_springboot.config.Topics;
+import com.manelon.model.User;
+import com.manelon.model.UserId;
+
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
+
+/**
+ * Records per second and allocation per record of the topology of every processing.mode, run by the
+ * {@link TopologyHarness} with the same corpus of users (one of every eight is dropped by the filter).
+ */
+@State(Scope.Thread)
+public class ProcessingModes {
+    public static void main(String[] args) throws RunnerException, IOException {
+
+        Options opt = new OptionsBuilder()
+                .include(ProcessingModes.class.getSimpleName())
+                .warmupIterations(3)
+                .forks(1)
+                .mode(Mode.Throughput)
+                .timeUnit(TimeUnit.SECONDS)
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    private static final int RECORDS = 1024;
+    private static final String INPUT_TOPIC = "users";
+    private static final String OUTPUT_TOPIC = "processed_users";
+    private static final String MOCK_SCHEMA_REGISTRY_URL = "mock://" + ProcessingModes.class.getName();
+
+    /**
+     * processing.mode of the application
+     */
+    @Param({ "specific", "fused", "batched", "key-first", "lazy-avro", "utf8" })
+    private String mode;
+
+    private TopologyHarness harness;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Map<String, Object> streamsConfig = Map.of(
+                StreamsConfig.APPLICATION_ID_CONFIG, "processing-modes-benchmark",
+                StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:1234",
+                StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, SpecificAvroSerde.class,
+                StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, SpecificAvroSerde.class,
+                AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, MOCK_SCHEMA_REGISTRY_URL);
+        KafkaStreamsConfiguration streamsConfiguration = new KafkaStreamsConfiguration(streamsConfig);
+        Topics topics = new Topics(INPUT_TOPIC, OUTPUT_TOPIC);
+        StreamsBuilder builder = new StreamsBuilder();
+        KafkastreamsSpringbootApplication application = new KafkastreamsSpringbootApplication();
+        switch (mode) {
+            case "specific":
+                application.handleStream(builder, topics);
+                break;
+            case "fused":
+                application.handleFusedStream(builder, topics);
+                break;
+            case "batched":
+                application.handleBatchedStream(builder, topics);
+                break;
+            case "key-first":
+                application.handleKeyFirstStream(builder, topics, streamsConfiguration);
+                break;
+            case "lazy-avro":
+                application.handleLazyStream(builder, topics, streamsConfiguration);
+                break;
+            case "utf8":
+                application.handleUtf8Stream(builder, topics, streamsConfiguration);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown processing mode " + mode);
+        }
+
+        Properties props = new Properties();
+        props.putAll(streamsConfig);
+        harness = new TopologyHarness(builder.build(), props)
+                .input(INPUT_TOPIC, users())
+                .output(OUTPUT_TOPIC);
+    }
+
+    private static List<KeyValue<byte[], byte[]>> users() {
+        SpecificAvroSerde<UserId> userIdSerde = new SpecificAvroSerde<>();
+        SpecificAvroSerde<User> userSerde = new SpecificAvroSerde<>();
+        Map<String, String> serdeConfig = Map.of(AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG,
+                MOCK_SCHEMA_REGISTRY_URL);
+        userIdSerde.configure(serdeConfig, true);
+        userSerde.configure(serdeConfig, false);
+
+        List<KeyValue<UserId, User>> users = new ArrayList<>(RECORDS);
+        for (int i = 1; i <= RECORDS; i++) {
+            int id = i % 8 == 0 ? -i : i;
+            users.add(KeyValue.pair(new UserId(id), new User(id, "Geordi", "La Forge",
+                    "laforge@enterprise.com", "555-0000", "Mogadishu, Somalia")));
+        }
+        return TopologyHarness.serialize(INPUT_TOPIC, userIdSerde.serializer(), userSerde.serializer(), users);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        harness.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public int Topology() {
+        return harness.pump();
+    }
+}
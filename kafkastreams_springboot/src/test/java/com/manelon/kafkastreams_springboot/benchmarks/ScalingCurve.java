@@ -0,0 +1,57 @@
+package com.manelon.kafkastreams_springboot.benchmarks;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+
+import com.manelon.kafkastreams_springboot.benchmarks.ScalingHarness.Configuration;
+import com.manelon.kafkastreams_springboot.benchmarks.ScalingHarness.Result;
+
+/**
+ * Scaling curve of handleStream, every combination of instances, stream threads and partitions is run by the
+ * {@link ScalingHarness} against the EmbeddedKafka broker. It isn't run with the tests (the name doesn't end in
+ * Test), only on demand:
+ * <pre>
+ * mvn test -Dtest=ScalingCurve -Dscaling.instances=1,2,4 -Dscaling.threads=1,2 -Dscaling.partitions=4,12
+ * </pre>
+ * The results are printed and written as CSV to target/scaling/handleStream.csv, or to the file of the system
+ * property scaling.result, to compare the curves of different changes.
+ */
+@EmbeddedKafka(partitions = 1)
+class ScalingCurve {
+
+    private static final String MOCK_SCHEMA_REGISTRY_URL = "mock://" + ScalingCurve.class.getName();
+
+    private static int[] values(String property, String defaultValues) {
+        return Arrays.stream(System.getProperty(property, defaultValues).split(","))
+                .mapToInt(value -> Integer.parseInt(value.trim()))
+                .toArray();
+    }
+
+    @Test
+    void should_process_every_record_in_every_configuration(EmbeddedKafkaBroker broker) throws Exception {
+        ScalingHarness harness = new ScalingHarness(broker.getBrokersAsString(), MOCK_SCHEMA_REGISTRY_URL,
+                Integer.getInteger("scaling.records", 20_000),
+                Duration.ofSeconds(Integer.getInteger("scaling.timeout.seconds", 120)));
+
+        List<Result> results = new ArrayList<>();
+        System.out.println(Result.CSV_HEADER);
+        for (int partitions : values("scaling.partitions", "4")) {
+            for (int instances : values("scaling.instances", "1,2")) {
+                for (int threads : values("scaling.threads", "1,2")) {
+                    Result result = harness.run(new Configuration(instances, threads, partitions));
+                    System.out.println(result.toCsv());
+                    results.add(result);
+                }
+            }
+        }
+        // a configuration that doesn't process every record fails with a TimeoutException
+        ScalingHarness.write(Path.of(System.getProperty("scaling.result", "target/scaling/handleStream.csv")), results);
+    }
+}
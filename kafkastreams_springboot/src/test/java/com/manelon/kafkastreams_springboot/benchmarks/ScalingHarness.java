@@ -0,0 +1,272 @@
+package com.manelon.kafkastreams_springboot.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.utils.Utils;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.ThreadMetadata;
+
+import com.manelon.kafkastreams_springboot.KafkastreamsSpringbootApplication;
+import com.manelon.kafkastreams_springboot.config.Topics;
+import com.manelon.model.User;
+import com.manelon.model.UserId;
+
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
+
+/**
+ * Runs handleStream in several KafkaStreams instances of this JVM against a broker, the one of the EmbeddedKafka in
+ * {@link ScalingCurve}, to see how it scales with the partitions, the stream threads and the instances.
+ *
+ * Every configuration gets new topics and a new application id, so nothing is shared with the previous runs:
+ * <ol>
+ * <li>the instances are started and the rebalance is the time until all of them are RUNNING with every partition
+ * assigned</li>
+ * <li>the generator sends the users, serialized before, as fast as the producer can</li>
+ * <li>a consumer of the output topic measures the end-to-end latency of every record, from the timestamp given by
+ * the producer (the topology keeps it) to its poll</li>
+ * </ol>
+ * The throughput is the number of records divided by the time from the first send to the last record read.
+ */
+public class ScalingHarness {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(100);
+    private static final AtomicInteger RUNS = new AtomicInteger();
+
+    private final String bootstrapServers;
+    private final String schemaRegistryUrl;
+    private final int records;
+    private final Duration timeout;
+
+    /**
+     * @param records number of users sent in every configuration
+     * @param timeout of every step of a configuration: the rebalance and the processing of the records
+     */
+    public ScalingHarness(String bootstrapServers, String schemaRegistryUrl, int records, Duration timeout) {
+        this.bootstrapServers = bootstrapServers;
+        this.schemaRegistryUrl = schemaRegistryUrl;
+        this.records = records;
+        this.timeout = timeout;
+    }
+
+    /**
+     * N instances with M stream threads each, reading a topic of P partitions
+     */
+    public record Configuration(int instances, int threads, int partitions) {
+        @Override
+        public String toString() {
+            return instances + "x" + threads + "x" + partitions;
+        }
+    }
+
+    /**
+     * @param rebalancesUnderLoad times an instance went back to REBALANCING while the records were processed
+     */
+    public record Result(Configuration configuration, int records, Duration rebalance, double recordsPerSecond,
+            long p50LatencyMs, long p99LatencyMs, long maxLatencyMs, int rebalancesUnderLoad) {
+
+        public static final String CSV_HEADER = "instances,threads,partitions,records,rebalance_ms,records_per_second,"
+                + "p50_latency_ms,p99_latency_ms,max_latency_ms,rebalances_under_load";
+
+        public String toCsv() {
+            return String.format("%d,%d,%d,%d,%d,%.0f,%d,%d,%d,%d", configuration.instances(), configuration.threads(),
+                    configuration.partitions(), records, rebalance.toMillis(), recordsPerSecond, p50LatencyMs,
+                    p99LatencyMs, maxLatencyMs, rebalancesUnderLoad);
+        }
+    }
+
+    public Result run(Configuration configuration) throws Exception {
+        String name = "scaling-" + configuration + "-" + RUNS.incrementAndGet();
+        Topics topics = new Topics(name + "-users", name + "-processed_users");
+        createTopics(configuration.partitions(), topics);
+
+        List<ProducerRecord<byte[], byte[]>> corpus = corpus(topics.getUsers());
+        List<KafkaStreams> instances = new ArrayList<>();
+        List<Path> stateDirs = new ArrayList<>();
+        AtomicBoolean underLoad = new AtomicBoolean();
+        AtomicInteger rebalances = new AtomicInteger();
+        try (KafkaConsumer<byte[], byte[]> consumer = outputConsumer(topics.getProcessedUsers(), configuration.partitions());
+                KafkaProducer<byte[], byte[]> producer = producer()) {
+            long start = System.nanoTime();
+            for (int i = 0; i < configuration.instances(); i++) {
+                Path stateDir = Files.createTempDirectory(name);
+                stateDirs.add(stateDir);
+                KafkaStreams instance = instance(name, configuration.threads(), stateDir, topics);
+                // the listener can't be set once started
+                instance.setStateListener((newState, oldState) -> {
+                    if (newState == KafkaStreams.State.REBALANCING && underLoad.get())
+                        rebalances.incrementAndGet();
+                });
+                instance.start();
+                instances.add(instance);
+            }
+            awaitAssignment(instances, configuration.partitions());
+            Duration rebalance = Duration.ofNanos(System.nanoTime() - start);
+            underLoad.set(true);
+
+            long sendStart = System.nanoTime();
+            corpus.forEach(producer::send);
+            producer.flush();
+            long[] latencies = consume(consumer);
+            double recordsPerSecond = records * 1_000_000_000d / (System.nanoTime() - sendStart);
+
+            Arrays.sort(latencies);
+            return new Result(configuration, records, rebalance, recordsPerSecond, percentile(latencies, 0.5),
+                    percentile(latencies, 0.99), latencies[latencies.length - 1], rebalances.get());
+        } finally {
+            instances.forEach(instance -> instance.close(timeout));
+            for (Path stateDir : stateDirs) {
+                Utils.delete(stateDir.toFile());
+            }
+            deleteTopics(topics);
+        }
+    }
+
+    private Map<String, Object> adminConfig() {
+        return Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+    }
+
+    private void createTopics(int partitions, Topics topics) throws Exception {
+        try (Admin admin = Admin.create(adminConfig())) {
+            admin.createTopics(List.of(new NewTopic(topics.getUsers(), partitions, (short) 1),
+                    new NewTopic(topics.getProcessedUsers(), partitions, (short) 1))).all().get();
+        }
+    }
+
+    private void deleteTopics(Topics topics) throws Exception {
+        try (Admin admin = Admin.create(adminConfig())) {
+            admin.deleteTopics(List.of(topics.getUsers(), topics.getProcessedUsers())).all().get();
+        }
+    }
+
+    // the users are serialized before the measure, the generator only sends bytes
+    private List<ProducerRecord<byte[], byte[]>> corpus(String topic) {
+        Map<String, String> serdeConfig = Map.of(AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG,
+                schemaRegistryUrl);
+        SpecificAvroSerde<UserId> userIdSerde = new SpecificAvroSerde<>();
+        SpecificAvroSerde<User> userSerde = new SpecificAvroSerde<>();
+        userIdSerde.configure(serdeConfig, true);
+        userSerde.configure(serdeConfig, false);
+        return IntStream.rangeClosed(1, records)
+                .mapToObj(id -> new ProducerRecord<>(topic,
+                        userIdSerde.serializer().serialize(topic, new UserId(id)),
+                        userSerde.serializer().serialize(topic, new User(id, "Hikaru", "Sulu",
+                                "sulu@enterprise.com", "555-1701", "San Francisco, Earth"))))
+                .collect(Collectors.toList());
+    }
+
+    private KafkaProducer<byte[], byte[]> producer() {
+        Properties props = new Properties();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        return new KafkaProducer<>(props, new ByteArraySerializer(), new ByteArraySerializer());
+    }
+
+    private KafkaConsumer<byte[], byte[]> outputConsumer(String topic, int partitions) {
+        Properties props = new Properties();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        KafkaConsumer<byte[], byte[]> consumer = new KafkaConsumer<>(props, new ByteArrayDeserializer(),
+                new ByteArrayDeserializer());
+        consumer.assign(IntStream.range(0, partitions).mapToObj(partition -> new TopicPartition(topic, partition))
+                .collect(Collectors.toList()));
+        return consumer;
+    }
+
+    private KafkaStreams instance(String applicationId, int threads, Path stateDir, Topics topics) {
+        Properties props = new Properties();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, applicationId);
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(StreamsConfig.NUM_STREAM_THREADS_CONFIG, threads);
+        props.put(StreamsConfig.STATE_DIR_CONFIG, stateDir.toString());
+        props.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, SpecificAvroSerde.class);
+        props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, SpecificAvroSerde.class);
+        props.put(AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, schemaRegistryUrl);
+        props.put(StreamsConfig.consumerPrefix(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG), "earliest");
+
+        StreamsBuilder builder = new StreamsBuilder();
+        new KafkastreamsSpringbootApplication().handleStream(builder, topics);
+        return new KafkaStreams(builder.build(), props);
+    }
+
+    private void awaitAssignment(List<KafkaStreams> instances, int partitions)
+            throws InterruptedException, TimeoutException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!assigned(instances, partitions)) {
+            if (System.nanoTime() > deadline)
+                throw new TimeoutException("The partitions weren't assigned in " + timeout);
+            Thread.sleep(10);
+        }
+    }
+
+    private static boolean assigned(List<KafkaStreams> instances, int partitions) {
+        int tasks = 0;
+        for (KafkaStreams instance : instances) {
+            if (instance.state() != KafkaStreams.State.RUNNING)
+                return false;
+            for (ThreadMetadata thread : instance.metadataForLocalThreads()) {
+                tasks += thread.activeTasks().size();
+            }
+        }
+        // handleStream has one sub-topology, a task by partition
+        return tasks == partitions;
+    }
+
+    private long[] consume(KafkaConsumer<byte[], byte[]> consumer) throws TimeoutException {
+        long[] latencies = new long[records];
+        int received = 0;
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (received < records) {
+            if (System.nanoTime() > deadline)
+                throw new TimeoutException("Only " + received + " of " + records + " records processed in " + timeout);
+            for (ConsumerRecord<byte[], byte[]> record : consumer.poll(POLL_TIMEOUT)) {
+                if (received < records)
+                    latencies[received++] = System.currentTimeMillis() - record.timestamp();
+            }
+        }
+        return latencies;
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        return sorted[(int) Math.ceil(percentile * sorted.length) - 1];
+    }
+
+    /**
+     * Writes the results as CSV, one line by configuration
+     */
+    public static void write(Path file, List<Result> results) throws IOException {
+        if (file.getParent() != null)
+            Files.createDirectories(file.getParent());
+        List<String> lines = new ArrayList<>();
+        lines.add(Result.CSV_HEADER);
+        results.forEach(result -> lines.add(result.toCsv()));
+        Files.write(file, lines);
+    }
+}
@@ -0,0 +1,137 @@
+package com.manelon.kafkastreams_springboot.benchmarks;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.util.Utf8;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.manelon.kafkastreams_springboot.serdes.LazyAvroRecord;
+import com.manelon.kafkastreams_springboot.serdes.LazyAvroRecordBuilder;
+import com.manelon.kafkastreams_springboot.serdes.LazyAvroSerde;
+import com.manelon.kafkastreams_springboot.serdes.Utf8AvroSerde;
+import com.manelon.kafkastreams_springboot.serdes.Utf8Interner;
+import com.manelon.kafkastreams_springboot.serdes.Utf8Strings;
+import com.manelon.model.User;
+import com.manelon.model.UserEnriched;
+
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
+
+/**
+ * Time and allocation per record of the FullName enrichment (deserialize, join the names, serialize) with java Strings
+ * (SpecificAvroSerde), Utf8 strings with interned names (Utf8AvroSerde) and without decoding (LazyAvroSerde).
+ * The names have few distinct values, like the real first names.
+ * The gc.alloc.rate.norm of the GCProfiler is the heap churn per record
+ */
+@State(Scope.Thread)
+public class StringModes {
+    public static void main(String[] args) throws RunnerException, IOException {
+
+        Options opt = new OptionsBuilder()
+                .include(StringModes.class.getSimpleName())
+                .warmupIterations(3)
+                .forks(1)
+                .mode(Mode.AverageTime)
+                .timeUnit(TimeUnit.NANOSECONDS)
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    private static final int RECORDS = 1024;
+    private static final String INPUT_TOPIC = "users";
+    private static final String OUTPUT_TOPIC = "processed_users";
+    private static final Utf8 SPACE = new Utf8(" ");
+    private static final String[] FIRST_NAMES = { "Jean-Luc", "William", "Deanna", "Beverly", "Geordi", "Worf", "Data", "Wesley" };
+    private static final String[] LAST_NAMES = { "Picard", "Riker", "Troi", "Crusher", "La Forge", "Rozhenko", "Soong" };
+
+    private byte[][] values;
+    private SpecificAvroSerde<User> userSerde;
+    private SpecificAvroSerde<UserEnriched> userEnrichedSerde;
+    private Utf8AvroSerde utf8Serde;
+    private LazyAvroSerde lazySerde;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Map<String, String> serdeConfig = Map.of(AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG,
+                "mock://" + StringModes.class.getName());
+        userSerde = new SpecificAvroSerde<>();
+        userSerde.configure(serdeConfig, false);
+        userEnrichedSerde = new SpecificAvroSerde<>();
+        userEnrichedSerde.configure(serdeConfig, false);
+        utf8Serde = new Utf8AvroSerde(new Utf8Interner(4096, 64), "FirstName", "LastName");
+        utf8Serde.configure(serdeConfig, false);
+        lazySerde = new LazyAvroSerde();
+        lazySerde.configure(serdeConfig, false);
+
+        values = new byte[RECORDS][];
+        for (int i = 0; i < RECORDS; i++) {
+            values[i] = userSerde.serializer().serialize(INPUT_TOPIC, new User(i + 1, FIRST_NAMES[i % FIRST_NAMES.length],
+                    LAST_NAMES[i % LAST_NAMES.length], "crew" + i + "@enterprise.com", "555-" + i, "USS Enterprise"));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public int JavaStrings() {
+        int size = 0;
+        for (byte[] value : values) {
+            User user = userSerde.deserializer().deserialize(INPUT_TOPIC, value);
+            UserEnriched enriched = new UserEnriched(user.getId(), user.getFirstName(), user.getLastName(),
+                    user.getFirstName() + ' ' + user.getLastName(), user.getEMail(), user.getPhoneNumber(), user.getAddress());
+            size += userEnrichedSerde.serializer().serialize(OUTPUT_TOPIC, enriched).length;
+        }
+        return size;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public int Utf8Strings() {
+        int size = 0;
+        for (byte[] value : values) {
+            GenericRecord user = utf8Serde.deserializer().deserialize(INPUT_TOPIC, value);
+            GenericRecord enriched = new GenericData.Record(UserEnriched.SCHEMA$);
+            enriched.put("Id", user.get("Id"));
+            enriched.put("FirstName", user.get("FirstName"));
+            enriched.put("LastName", user.get("LastName"));
+            enriched.put("FullName", Utf8Strings.join(SPACE, (CharSequence) user.get("FirstName"), (CharSequence) user.get("LastName")));
+            enriched.put("EMail", user.get("EMail"));
+            enriched.put("PhoneNumber", user.get("PhoneNumber"));
+            enriched.put("Address", user.get("Address"));
+            size += utf8Serde.serializer().serialize(OUTPUT_TOPIC, enriched).length;
+        }
+        return size;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public int LazyAvro() {
+        int size = 0;
+        for (byte[] value : values) {
+            LazyAvroRecord user = lazySerde.deserializer().deserialize(INPUT_TOPIC, value);
+            LazyAvroRecord enriched = new LazyAvroRecordBuilder(UserEnriched.SCHEMA$, user.length() + 32)
+                    .copy(user, "Id", "FirstName", "LastName")
+                    .putJoinedStrings("FullName", " ", user, "FirstName", "LastName")
+                    .copy(user, "EMail", "PhoneNumber", "Address")
+                    .build();
+            size += lazySerde.serializer().serialize(OUTPUT_TOPIC, enriched).length;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,159 @@
+package com.manelon.kafkastreams_springboot.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.Topology;
+import org.apache.kafka.streams.TopologyTestDriver;
+
+/**
+ * Pumps a corpus of records, serialized before the measurement, through any Topology with the TopologyTestDriver.
+ * Nothing reaches a broker, only the topology is measured: the deserialization in the sources, the processors,
+ * the stores and the serialization in the sinks.
+ * <pre>
+ * try (TopologyHarness harness = new TopologyHarness(builder.build(), props)) {
+ *     harness.input("users", users)              // every pump
+ *            .output("processed_users");
+ *     System.out.println(harness.measure(Duration.ofSeconds(10)));
+ * }
+ * </pre>
+ * The JMH benchmarks call {@link #pump()} and get the records/s and the allocation per record from JMH and its
+ * GC profiler, {@link #measure(Duration)} gives the same numbers without JMH, to check a change from a test.
+ *
+ * Only the public API of the driver is used, the time of every operator is left to a profiler
+ * (e.g. the JMH stack or async-profiler) on the same benchmark.
+ */
+public class TopologyHarness implements AutoCloseable {
+
+    private final TopologyTestDriver testDriver;
+    private final Map<String, List<KeyValue<byte[], byte[]>>> corpus = new LinkedHashMap<>();
+    private final Map<String, TestInputTopic<byte[], byte[]>> inputTopics = new LinkedHashMap<>();
+    private final List<TestOutputTopic<byte[], byte[]>> outputTopics = new ArrayList<>();
+    private int recordsPerPump;
+
+    public TopologyHarness(Topology topology, Properties props) {
+        this.testDriver = new TopologyTestDriver(topology, props);
+    }
+
+    /**
+     * Serializes the records of a topic
+     */
+    public static <K, V> List<KeyValue<byte[], byte[]>> serialize(String topic, Serializer<K> keySerializer,
+            Serializer<V> valueSerializer, Iterable<KeyValue<K, V>> records) {
+        List<KeyValue<byte[], byte[]>> serialized = new ArrayList<>();
+        for (KeyValue<K, V> record : records) {
+            serialized.add(KeyValue.pair(keySerializer.serialize(topic, record.key),
+                    valueSerializer.serialize(topic, record.value)));
+        }
+        return serialized;
+    }
+
+    /**
+     * Pipes the records once, for the tables and the global tables read by the measured records
+     */
+    public TopologyHarness load(String topic, List<KeyValue<byte[], byte[]>> records) {
+        inputTopic(topic).pipeKeyValueList(records);
+        return this;
+    }
+
+    /**
+     * Adds records to the corpus, they are piped in every pump
+     */
+    public TopologyHarness input(String topic, List<KeyValue<byte[], byte[]>> records) {
+        inputTopic(topic);
+        corpus.computeIfAbsent(topic, t -> new ArrayList<>()).addAll(records);
+        recordsPerPump += records.size();
+        return this;
+    }
+
+    /**
+     * Output topic of the topology, it's emptied after every pump
+     */
+    public TopologyHarness output(String topic) {
+        outputTopics.add(testDriver.createOutputTopic(topic, new ByteArrayDeserializer(), new ByteArrayDeserializer()));
+        return this;
+    }
+
+    private TestInputTopic<byte[], byte[]> inputTopic(String topic) {
+        return inputTopics.computeIfAbsent(topic,
+                t -> testDriver.createInputTopic(t, new ByteArraySerializer(), new ByteArraySerializer()));
+    }
+
+    public int recordsPerPump() {
+        return recordsPerPump;
+    }
+
+    /**
+     * Pipes the whole corpus and empties the output topics
+     * @return number of output records
+     */
+    public int pump() {
+        for (Map.Entry<String, List<KeyValue<byte[], byte[]>>> topic : corpus.entrySet()) {
+            inputTopics.get(topic.getKey()).pipeKeyValueList(topic.getValue());
+        }
+        int output = 0;
+        for (TestOutputTopic<byte[], byte[]> outputTopic : outputTopics) {
+            output += outputTopic.readValuesToList().size();
+        }
+        return output;
+    }
+
+    /**
+     * Pumps the corpus for a while, after a warm up of the same duration
+     */
+    public Report measure(Duration duration) {
+        pumpFor(duration);
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBytes = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        long records = pumpFor(duration);
+        long nanos = System.nanoTime() - start;
+        return new Report(records, nanos, threads.getCurrentThreadAllocatedBytes() - allocatedBytes);
+    }
+
+    private long pumpFor(Duration duration) {
+        long records = 0;
+        long end = System.nanoTime() + duration.toNanos();
+        do {
+            pump();
+            records += recordsPerPump;
+        } while (System.nanoTime() < end);
+        return records;
+    }
+
+    @Override
+    public void close() {
+        testDriver.close();
+    }
+
+    /**
+     * Result of {@link TopologyHarness#measure(Duration)}
+     */
+    public record Report(long records, long nanos, long allocatedBytes) {
+
+        public double recordsPerSecond() {
+            return records * 1_000_000_000d / nanos;
+        }
+
+        public double bytesPerRecord() {
+            return (double) allocatedBytes / records;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.0f records/s, %.0f bytes/record", recordsPerSecond(), bytesPerRecord());
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.manelon.kafkastreams_springboot.utils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+
+import com.manelon.kafkastreams_springboot.config.Topics;
+import com.manelon.model.User;
+import com.manelon.model.UserEnriched;
+import com.manelon.model.UserId;
+
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
+
+/**
+ * Fixtures to run the topologies of the application with the TopologyTestDriver
+ */
+public class TestTopologies {
+
+    /**
+     * Properties of the driver, with SpecificAvroSerde as default serdes
+     * @param schemaRegistryUrl mock:// url of the schema registry of the test
+     */
+    public static Properties streamsProperties(String schemaRegistryUrl) {
+        Properties props = new Properties();
+        props.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, SpecificAvroSerde.class);
+        props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, SpecificAvroSerde.class);
+        props.put(AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, schemaRegistryUrl);
+        return props;
+    }
+
+    /**
+     * Pipes the users through a topology of the application, the wall clock is advanced 100 ms after them to flush
+     * the records buffered by the punctuators
+     * @return the enriched users written to the processed users topic
+     */
+    public static List<KeyValue<UserId, UserEnriched>> process(StreamsBuilder builder, Topics topics,
+            String schemaRegistryUrl, List<KeyValue<UserId, User>> users) {
+        Map<String, String> serdeProps = Map.of(
+                AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, schemaRegistryUrl);
+        Serde<UserId> userIdSerde = new SpecificAvroSerde<>();
+        Serde<User> userSerde = new SpecificAvroSerde<>();
+        Serde<UserEnriched> userEnrichedSerde = new SpecificAvroSerde<>();
+        userIdSerde.configure(serdeProps, true);
+        userSerde.configure(serdeProps, false);
+        userEnrichedSerde.configure(serdeProps, false);
+
+        try (TopologyTestDriver testDriver = new TopologyTestDriver(builder.build(),
+                streamsProperties(schemaRegistryUrl))) {
+            TestInputTopic<UserId, User> inputTopic = testDriver.createInputTopic(topics.getUsers(),
+                    userIdSerde.serializer(), userSerde.serializer());
+            TestOutputTopic<UserId, UserEnriched> outputTopic = testDriver.createOutputTopic(
+                    topics.getProcessedUsers(), userIdSerde.deserializer(), userEnrichedSerde.deserializer());
+            inputTopic.pipeKeyValueList(users);
+            testDriver.advanceWallClockTime(Duration.ofMillis(100));
+            return outputTopic.readKeyValuesToList();
+        }
+    }
+
+    /**
+     * @return value of the first metric of the driver with the name
+     */
+    public static double metric(TopologyTestDriver testDriver, String name) {
+        return testDriver.metrics().entrySet().stream()
+                .filter(metric -> metric.getKey().name().equals(name))
+                .map(metric -> (double) metric.getValue().metricValue())
+                .findFirst().orElseThrow();
+    }
+}